@@ -2,6 +2,7 @@ package com.mpp.rental.config;
 
 import com.mpp.rental.service.CustomUserDetailsService;
 import com.mpp.rental.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -81,14 +82,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         try {
-            // 4. Extract username from token
-            final String userEmail = jwtUtil.extractUsername(jwt);
+            // 4. Verify the token once (signature + expiry) — a cache hit for a token seen before
+            final Claims claims = jwtUtil.verify(jwt);
+            final String userEmail = claims.getSubject();
 
             // 5. Validate token and set authentication if not already set
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                 UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
 
-                if (jwtUtil.validateToken(jwt, userDetails)) {
+                if (jwtUtil.validateToken(claims, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken =
                             new UsernamePasswordAuthenticationToken(
                                     userDetails,
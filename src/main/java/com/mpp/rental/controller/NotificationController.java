@@ -4,6 +4,8 @@ import com.mpp.rental.dto.AnnouncementRequestDTO;
 import com.mpp.rental.dto.ApiResponse;
 import com.mpp.rental.dto.FcmTokenRequest;
 import com.mpp.rental.dto.NotificationDTO;
+import com.mpp.rental.dto.NotificationPageResponse;
+import com.mpp.rental.exception.BadRequestException;
 import com.mpp.rental.model.User;
 import com.mpp.rental.repository.UserRepository;
 import com.mpp.rental.service.FcmService;
@@ -57,7 +59,9 @@ public class NotificationController {
      * that is released immediately after the query completes.
      */
     @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter stream() {
+    public SseEmitter stream(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam) {
         String email = SecurityContextHolder.getContext().getAuthentication().getName();
 
         // Use a non-transactional lookup — returns immediately and releases DB connection
@@ -65,8 +69,11 @@ public class NotificationController {
         Long userId = userRepository.findUserIdByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found: " + email));
 
-        log.info("SSE stream opened for userId={} ({})", userId, email);
-        return sseEmitterService.createEmitter(userId);
+        // EventSource sends Last-Event-ID on its own reconnects; a tab that opens a new
+        // EventSource passes it as ?lastEventId= instead
+        String resumeFrom = lastEventId != null ? lastEventId : lastEventIdParam;
+        log.info("SSE stream opened for userId={} ({}), resume from {}", userId, email, resumeFrom);
+        return sseEmitterService.createEmitter(userId, resumeFrom);
     }
 
     // ==================== GET NOTIFICATIONS ====================
@@ -87,6 +94,28 @@ public class NotificationController {
         }
     }
 
+    /**
+     * GET /api/notifications/feed?size=20&before={nextBefore}
+     * One page of notifications for the bell panel, newest first.
+     * Omit before for the first page; nextBefore is null on the last page.
+     */
+    @GetMapping("/feed")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<NotificationPageResponse>> getMyNotificationPage(
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Integer size) {
+        try {
+            NotificationPageResponse page = notificationService.getMyNotificationPage(before, size);
+            return ResponseEntity.ok(ApiResponse.success("Notifications retrieved successfully", page));
+        } catch (BadRequestException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     /**
      * GET /api/notifications/unread-count
      * Get unread notification count for the bell badge
@@ -106,14 +135,16 @@ public class NotificationController {
     // ==================== MARK AS READ ====================
 
     /**
-     * PUT /api/notifications/mark-all-read
-     * Mark all notifications as read — called when user opens the notification panel
+     * PUT /api/notifications/mark-all-read?upTo={id}
+     * Mark all notifications as read — called when user opens the notification panel.
+     * upTo is the newest notification id the panel shows (first feed item or a newer SSE
+     * event, 0 when empty); newer notifications stay unread.
      */
     @PutMapping("/mark-all-read")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<ApiResponse<Void>> markAllAsRead() {
+    public ResponseEntity<ApiResponse<Void>> markAllAsRead(@RequestParam long upTo) {
         try {
-            notificationService.markAllAsRead();
+            notificationService.markAllAsRead(upTo);
             return ResponseEntity.ok(ApiResponse.success("All notifications marked as read", null));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -1,14 +1,21 @@
 package com.mpp.rental.controller;
 
 import com.mpp.rental.dto.*;
+import com.mpp.rental.exception.BadRequestException;
+import com.mpp.rental.service.ReportExportService;
 import com.mpp.rental.service.ReportService;
+import com.mpp.rental.service.ReportTrendService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -19,6 +26,10 @@ import java.util.List;
 public class ReportController {
 
     private final ReportService reportService;
+    private final ReportExportService reportExportService;
+    private final ReportTrendService reportTrendService;
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
 
     // ==================== DROPDOWN DATA (shared across all report types) ====================
 
@@ -44,6 +55,13 @@ public class ReportController {
 
     // ==================== REPORT 1: FACILITY RENTAL ====================
 
+    /*
+     * Every report endpoint also takes optional paging params (see ReportPageRequest):
+     *   ?size=25&sort=businessName,asc     → first page + summary + nextCursor
+     *   ?size=25&sort=businessName,asc&cursor=<nextCursor>  → next page, rows only
+     * Without size / cursor the whole report is returned as before.
+     */
+
     /**
      * GET /api/mpp/reports/facility-rental
      * One row per application. Filters: event, facility, ownerCategory, applicationStatus, paymentStatus, dateRange.
@@ -57,13 +75,16 @@ public class ReportController {
             @RequestParam(required = false) String applicationStatus,
             @RequestParam(required = false) String paymentStatus,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            ReportPageRequest page
     ) {
         try {
             ReportResponse<FacilityRentalSummary, FacilityRentalRow> data =
                     reportService.getFacilityRentalReport(eventId, facilityId, ownerCategory,
-                            applicationStatus, paymentStatus, startDate, endDate);
+                            applicationStatus, paymentStatus, startDate, endDate, page);
             return ResponseEntity.ok(ApiResponse.success("Report generated successfully", data));
+        } catch (BadRequestException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiResponse.error(e.getMessage()));
         }
@@ -83,12 +104,41 @@ public class ReportController {
             @RequestParam(required = false) String ownerCategory,
             @RequestParam(required = false) String paymentStatus,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            ReportPageRequest page
     ) {
         try {
             ReportResponse<RevenueSummary, RevenueRow> data =
-                    reportService.getRevenueReport(eventId, ownerCategory, paymentStatus, startDate, endDate);
+                    reportService.getRevenueReport(eventId, ownerCategory, paymentStatus, startDate, endDate, page);
             return ResponseEntity.ok(ApiResponse.success("Report generated successfully", data));
+        } catch (BadRequestException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/mpp/reports/revenue-trend
+     * Billed / collected / outstanding and application counts per period, oldest first, for charts.
+     * granularity: daily (default), weekly or monthly. Filters: event, ownerCategory, dateRange
+     * (default: last 30 days / 12 weeks / 12 months).
+     */
+    @GetMapping("/revenue-trend")
+    @PreAuthorize("hasRole('MPP') or hasRole('SUPER_ADMIN')")
+    public ResponseEntity<ApiResponse<List<RevenueTrendPoint>>> getRevenueTrend(
+            @RequestParam(required = false) String granularity,
+            @RequestParam(required = false) Integer eventId,
+            @RequestParam(required = false) String ownerCategory,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) {
+        try {
+            List<RevenueTrendPoint> data =
+                    reportTrendService.getRevenueTrend(granularity, eventId, ownerCategory, startDate, endDate);
+            return ResponseEntity.ok(ApiResponse.success("Trend generated successfully", data));
+        } catch (BadRequestException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiResponse.error(e.getMessage()));
         }
@@ -106,12 +156,15 @@ public class ReportController {
             @RequestParam(required = false) String ownerCategory,
             @RequestParam(required = false) Integer eventId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            ReportPageRequest page
     ) {
         try {
             ReportResponse<BusinessActivitySummary, BusinessActivityRow> data =
-                    reportService.getBusinessActivityReport(ownerCategory, eventId, startDate, endDate);
+                    reportService.getBusinessActivityReport(ownerCategory, eventId, startDate, endDate, page);
             return ResponseEntity.ok(ApiResponse.success("Report generated successfully", data));
+        } catch (BadRequestException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiResponse.error(e.getMessage()));
         }
@@ -128,12 +181,15 @@ public class ReportController {
     public ResponseEntity<ApiResponse<ReportResponse<EventPerformanceSummary, EventPerformanceRow>>> getEventPerformanceReport(
             @RequestParam(required = false) String eventStatus,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            ReportPageRequest page
     ) {
         try {
             ReportResponse<EventPerformanceSummary, EventPerformanceRow> data =
-                    reportService.getEventPerformanceReport(eventStatus, startDate, endDate);
+                    reportService.getEventPerformanceReport(eventStatus, startDate, endDate, page);
             return ResponseEntity.ok(ApiResponse.success("Report generated successfully", data));
+        } catch (BadRequestException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiResponse.error(e.getMessage()));
         }
@@ -152,14 +208,62 @@ public class ReportController {
             @RequestParam(required = false) String facilityType,
             @RequestParam(required = false) Integer eventId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            ReportPageRequest page
     ) {
         try {
             ReportResponse<FacilityUtilisationSummary, FacilityUtilisationRow> data =
-                    reportService.getFacilityUtilisationReport(facilityType, eventId, startDate, endDate);
+                    reportService.getFacilityUtilisationReport(facilityType, eventId, startDate, endDate, page);
             return ResponseEntity.ok(ApiResponse.success("Report generated successfully", data));
+        } catch (BadRequestException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiResponse.error(e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    // ==================== CSV EXPORT (streamed) ====================
+
+    /**
+     * GET /api/mpp/reports/{report}/export
+     * Same filters as the matching JSON endpoint. Rows are written to the response as the
+     * database cursor yields them, so large (e.g. whole-year) exports never sit in memory.
+     */
+    @GetMapping("/facility-rental/export")
+    @PreAuthorize("hasRole('MPP') or hasRole('SUPER_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportFacilityRentalReport(ReportFilterRequest filter) {
+        return csv("facility-rental", out -> reportExportService.exportFacilityRental(filter, out));
+    }
+
+    @GetMapping("/revenue/export")
+    @PreAuthorize("hasRole('MPP') or hasRole('SUPER_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportRevenueReport(ReportFilterRequest filter) {
+        return csv("revenue", out -> reportExportService.exportRevenue(filter, out));
+    }
+
+    @GetMapping("/business-activity/export")
+    @PreAuthorize("hasRole('MPP') or hasRole('SUPER_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportBusinessActivityReport(ReportFilterRequest filter) {
+        return csv("business-activity", out -> reportExportService.exportBusinessActivity(filter, out));
+    }
+
+    @GetMapping("/event-performance/export")
+    @PreAuthorize("hasRole('MPP') or hasRole('SUPER_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportEventPerformanceReport(ReportFilterRequest filter) {
+        return csv("event-performance", out -> reportExportService.exportEventPerformance(filter, out));
+    }
+
+    @GetMapping("/facility-utilisation/export")
+    @PreAuthorize("hasRole('MPP') or hasRole('SUPER_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportFacilityUtilisationReport(ReportFilterRequest filter) {
+        return csv("facility-utilisation", out -> reportExportService.exportFacilityUtilisation(filter, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> csv(String report, StreamingResponseBody body) {
+        String filename = report + "-report-" + LocalDate.now() + ".csv";
+        return ResponseEntity.ok()
+                .contentType(TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+}
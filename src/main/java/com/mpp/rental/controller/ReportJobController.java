@@ -0,0 +1,156 @@
+package com.mpp.rental.controller;
+
+import com.mpp.rental.dto.ApiResponse;
+import com.mpp.rental.dto.ReportJobRequest;
+import com.mpp.rental.dto.ReportJobResponse;
+import com.mpp.rental.exception.BadRequestException;
+import com.mpp.rental.exception.ResourceNotFoundException;
+import com.mpp.rental.service.ReportJobService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Background report jobs — for date ranges too large to wait on the synchronous
+ * /api/mpp/reports endpoints. Submit, then poll GET /{jobId} or listen on GET /{jobId}/events,
+ * then download GET /{jobId}/result. Jobs are only visible to the user who submitted them.
+ */
+@RestController
+@RequestMapping("/api/mpp/reports/jobs")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ReportJobController {
+
+    private final ReportJobService reportJobService;
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    /**
+     * POST /api/mpp/reports/jobs
+     * Body: { "report": "revenue", "format": "json" | "csv", "filter": { ...same filters as the report... } }
+     */
+    @PostMapping
+    @PreAuthorize("hasRole('MPP') or hasRole('SUPER_ADMIN')")
+    public ResponseEntity<ApiResponse<ReportJobResponse>> submitJob(@Valid @RequestBody ReportJobRequest request) {
+        try {
+            ReportJobResponse job = reportJobService.submit(currentUser(), request);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success("Report job queued", job));
+        } catch (BadRequestException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ApiResponse.error(e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(ApiResponse.error("Too many report jobs queued — try again shortly"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/mpp/reports/jobs
+     * The current user's jobs, newest first
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('MPP') or hasRole('SUPER_ADMIN')")
+    public ResponseEntity<ApiResponse<List<ReportJobResponse>>> getMyJobs() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Report jobs retrieved", reportJobService.getJobs(currentUser())));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/mpp/reports/jobs/{jobId}
+     * Status and progress
+     */
+    @GetMapping("/{jobId}")
+    @PreAuthorize("hasRole('MPP') or hasRole('SUPER_ADMIN')")
+    public ResponseEntity<ApiResponse<ReportJobResponse>> getJob(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Report job retrieved", reportJobService.getJob(currentUser(), jobId)));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/mpp/reports/jobs/{jobId}/events
+     * SSE: "progress" events, then one of "completed" / "failed" / "cancelled".
+     * EventSource cannot send headers — pass the JWT as ?token=.
+     */
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('MPP') or hasRole('SUPER_ADMIN')")
+    public SseEmitter streamJobEvents(@PathVariable String jobId) {
+        return reportJobService.subscribe(currentUser(), jobId);
+    }
+
+    /**
+     * GET /api/mpp/reports/jobs/{jobId}/result
+     * JSON jobs: the same body the synchronous report endpoint returns.
+     * CSV jobs: the file, as an attachment.
+     */
+    @GetMapping("/{jobId}/result")
+    @PreAuthorize("hasRole('MPP') or hasRole('SUPER_ADMIN')")
+    public ResponseEntity<?> getJobResult(@PathVariable String jobId) {
+        String user = currentUser();
+        try {
+            ReportJobResponse job = reportJobService.getJob(user, jobId);
+            if (!"csv".equals(job.getFormat())) {
+                return ResponseEntity.ok(ApiResponse.success("Report generated successfully",
+                        reportJobService.getJsonResult(user, jobId)));
+            }
+
+            Path file = reportJobService.getCsvResult(user, jobId);
+            Resource body = new FileSystemResource(file);
+            String filename = job.getReport() + "-report-" + LocalDate.now() + ".csv";
+            return ResponseEntity.ok()
+                    .contentType(TEXT_CSV)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                    .body(body);
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(e.getMessage()));
+        } catch (BadRequestException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * DELETE /api/mpp/reports/jobs/{jobId}
+     * Cancels a queued / running job, or discards a finished one
+     */
+    @DeleteMapping("/{jobId}")
+    @PreAuthorize("hasRole('MPP') or hasRole('SUPER_ADMIN')")
+    public ResponseEntity<ApiResponse<Void>> cancelJob(@PathVariable String jobId) {
+        try {
+            reportJobService.cancel(currentUser(), jobId);
+            return ResponseEntity.ok(ApiResponse.success("Report job removed", null));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    private String currentUser() {
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+}
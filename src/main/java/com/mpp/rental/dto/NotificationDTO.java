@@ -1,5 +1,6 @@
 package com.mpp.rental.dto;
 
+import com.mpp.rental.model.Notification;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -22,4 +23,10 @@ public class NotificationDTO {
     private String referenceType;  // e.g. "APPLICATION"
     private boolean read;          // true if current user has read it
     private LocalDateTime createdAt;
-}
\ No newline at end of file
+
+    /** Projection constructor — see NotificationRepository.findFeed */
+    public NotificationDTO(Long notificationId, Notification.NotificationType type, String title, String message,
+                           Long referenceId, String referenceType, boolean read, LocalDateTime createdAt) {
+        this(notificationId, type.name(), title, message, referenceId, referenceType, read, createdAt);
+    }
+}
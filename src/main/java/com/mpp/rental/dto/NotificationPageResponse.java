@@ -0,0 +1,19 @@
+package com.mpp.rental.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of the notification feed, newest first.
+ * Pass nextBefore as ?before= to get the next (older) page; null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationPageResponse {
+    private List<NotificationDTO> notifications;
+    private Long nextBefore;
+}
@@ -3,6 +3,7 @@ package com.mpp.rental.dto;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDate;
 
@@ -23,6 +24,15 @@ public class ReportFilterRequest {
     /** PAID, UNPAID, FAILED — null means all */
     private String    paymentStatus;
 
+    /** upcoming, active, completed, cancelled — event performance report only */
+    private String    eventStatus;
+
+    /** Facility template type — facility utilisation report only */
+    private String    facilityType;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
     private LocalDate startDate;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
     private LocalDate endDate;
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.mpp.rental.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobRequest {
+
+    /** facility-rental | revenue | business-activity | event-performance | facility-utilisation */
+    @NotBlank(message = "Report type is required")
+    private String report;
+
+    /** json (same body as the report endpoint) or csv (same file as the export endpoint) */
+    @Pattern(regexp = "(?i)json|csv", message = "Format must be json or csv")
+    private String format = "json";
+
+    /** Same filters as the matching report endpoint — null means no filters */
+    private ReportFilterRequest filter;
+}
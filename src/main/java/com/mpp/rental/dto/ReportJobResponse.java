@@ -0,0 +1,24 @@
+package com.mpp.rental.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobResponse {
+    private String        jobId;
+    private String        report;
+    private String        format;              // json | csv
+    private String        status;              // QUEUED | RUNNING | COMPLETED | FAILED | CANCELLED
+    private int           progress;            // 0-100
+    private long          bytesWritten;        // csv jobs: size of the file so far
+    private String        error;               // FAILED only
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String        resultUrl;           // set once COMPLETED
+}
@@ -0,0 +1,28 @@
+package com.mpp.rental.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Optional paging for the report row tables — bound from ?size=&sort=&cursor=.
+ * Without size (and cursor) the report returns every row, as before.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportPageRequest {
+
+    /** Rows per page (default 25 when only a cursor is sent, max 500) */
+    private Integer size;
+
+    /** Row field to sort by, optionally followed by ",asc" / ",desc" — e.g. businessName,asc */
+    private String  sort;
+
+    /** nextCursor of the previous page — null for the first page */
+    private String  cursor;
+
+    public boolean isPaged() {
+        return size != null || (cursor != null && !cursor.isBlank());
+    }
+}
@@ -1,15 +1,25 @@
 package com.mpp.rental.dto;
 
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * Generic report wrapper — summary type S, row type R.
  * Replaces the old ReportResponse so all 5 reports share one wrapper class.
  *
+ * Paged requests (see ReportPageRequest) get the summary on the first page only and a
+ * nextCursor while more rows follow; unpaged responses leave nextCursor null.
+ *
  * Examples:
  *   ReportResponse<FacilityRentalSummary, FacilityRentalRow>
  *   ReportResponse<RevenueSummary, RevenueRow>
@@ -20,4 +30,20 @@ import java.util.List;
 public class ReportResponse<S, R> {
     private S       summary;
     private List<R> rows;
+    private String  nextCursor;
+
+    /** Rows re-sorted for paging, per sort — computed once per (cached) response, never serialized */
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final transient Map<String, List<R>> sortedRows = new ConcurrentHashMap<>();
+
+    public ReportResponse(S summary, List<R> rows) {
+        this(summary, rows, null);
+    }
+
+    /** Rows in the given order, sorting them the first time that order is asked for */
+    public List<R> sortedRows(String order, Supplier<List<R>> sort) {
+        return sortedRows.computeIfAbsent(order, o -> sort.get());
+    }
 }
\ No newline at end of file
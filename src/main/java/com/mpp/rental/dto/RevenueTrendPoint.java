@@ -0,0 +1,25 @@
+package com.mpp.rental.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One period of the revenue trend. Payment figures are bucketed by payment created date,
+ * application counts by application created date. periodStart / periodEnd are clipped to
+ * the requested date range.
+ */
+@Data @NoArgsConstructor @AllArgsConstructor
+public class RevenueTrendPoint {
+    private LocalDate  periodStart;
+    private LocalDate  periodEnd;            // inclusive
+    private BigDecimal billed;               // all payment records (PAID + UNPAID + FAILED)
+    private BigDecimal collected;            // PAID only
+    private BigDecimal outstanding;          // UNPAID only
+    private int        paymentRecords;
+    private int        applications;         // submitted in the period, any status
+    private int        approvedApplications;
+}
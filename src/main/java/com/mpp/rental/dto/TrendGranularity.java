@@ -0,0 +1,39 @@
+package com.mpp.rental.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Period length of a trend series — weeks start on Monday.
+ */
+public enum TrendGranularity {
+    DAILY, WEEKLY, MONTHLY;
+
+    /** First day of the period containing day */
+    public LocalDate periodStart(LocalDate day) {
+        return switch (this) {
+            case DAILY -> day;
+            case WEEKLY -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTHLY -> day.withDayOfMonth(1);
+        };
+    }
+
+    /** Last day (inclusive) of the period starting on periodStart */
+    public LocalDate periodEnd(LocalDate periodStart) {
+        return switch (this) {
+            case DAILY -> periodStart;
+            case WEEKLY -> periodStart.plusDays(6);
+            case MONTHLY -> periodStart.plusMonths(1).minusDays(1);
+        };
+    }
+
+    /** Range start when the request gives none: the last 30 days / 12 weeks / 12 months up to end */
+    public LocalDate defaultStart(LocalDate end) {
+        return switch (this) {
+            case DAILY -> end.minusDays(29);
+            case WEEKLY -> periodStart(end).minusWeeks(11);
+            case MONTHLY -> periodStart(end).minusMonths(11);
+        };
+    }
+}
@@ -1,5 +1,7 @@
 package com.mpp.rental.model;
 
+import com.mpp.rental.service.ReportCacheListener;
+import com.mpp.rental.service.ReportSnapshotListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
@@ -15,6 +17,7 @@ import java.time.LocalTime;
 
 @Entity
 @Table(name = "EVENT")
+@EntityListeners({ReportCacheListener.class, ReportSnapshotListener.class})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -1,5 +1,7 @@
 package com.mpp.rental.model;
 
+import com.mpp.rental.service.ReportCacheListener;
+import com.mpp.rental.service.ReportSnapshotListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -9,6 +11,7 @@ import java.math.BigDecimal;
 
 @Entity
 @Table(name = "EVENT_FACILITY")
+@EntityListeners({ReportCacheListener.class, ReportSnapshotListener.class})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
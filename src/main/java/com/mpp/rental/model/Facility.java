@@ -1,5 +1,7 @@
 package com.mpp.rental.model;
 
+import com.mpp.rental.service.ReportCacheListener;
+import com.mpp.rental.service.ReportSnapshotListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
@@ -14,6 +16,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "FACILITY")
+@EntityListeners({ReportCacheListener.class, ReportSnapshotListener.class})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
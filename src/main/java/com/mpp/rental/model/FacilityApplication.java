@@ -1,5 +1,8 @@
 package com.mpp.rental.model;
 
+import com.mpp.rental.service.ReportCacheListener;
+import com.mpp.rental.service.ReportRollupListener;
+import com.mpp.rental.service.ReportSnapshotListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -10,6 +13,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "FACILITY_APPLICATION")
+@EntityListeners({ReportRollupListener.class, ReportCacheListener.class, ReportSnapshotListener.class})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
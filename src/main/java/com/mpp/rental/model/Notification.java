@@ -10,7 +10,8 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "notification")
+@Table(name = "notification",
+        indexes = @Index(name = "idx_notification_audience", columnList = "audience, notification_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -47,6 +48,15 @@ public class Notification {
     @Column(name = "reference_type", length = 50)
     private String referenceType;
 
+    /**
+     * Set for broadcasts (EVENT_CREATED, ANNOUNCEMENT): every business owner in the audience
+     * receives it, and per-user read state lives in NotificationWatermark instead of one
+     * notification_read row per recipient. Null for targeted notifications.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "audience", length = 20)
+    private Audience audience;
+
     /**
      * User who triggered this notification (null for system-generated)
      */
@@ -61,6 +71,7 @@ public class Notification {
     /**
      * Which users should receive this notification
      * Shared model: one notification, many readers tracked in notification_read
+     * (broadcasts: only users who read this one notification ahead of their watermark)
      */
     @OneToMany(mappedBy = "notification", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<NotificationRead> readRecords;
@@ -83,4 +94,33 @@ public class Notification {
         EVENT_CREATED,
         ANNOUNCEMENT
     }
+
+    /**
+     * Broadcast audience — who receives a notification without a notification_read row
+     */
+    public enum Audience {
+        BUSINESS_OWNERS("ALL_BO"),
+        STUDENT("STUDENT"),
+        NON_STUDENT("NON_STUDENT");
+
+        /** FCM topic the audience's devices are subscribed to (see PushTopicService) */
+        private final String topic;
+
+        Audience(String topic) {
+            this.topic = topic;
+        }
+
+        public String getTopic() {
+            return topic;
+        }
+
+        /** Audiences a user of this category belongs to (none for MPP / SUPER_ADMIN) */
+        public static List<Audience> of(User.UserCategory category) {
+            return switch (category) {
+                case STUDENT -> List.of(BUSINESS_OWNERS, STUDENT);
+                case NON_STUDENT -> List.of(BUSINESS_OWNERS, NON_STUDENT);
+                default -> List.of();
+            };
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.mpp.rental.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A period in which a user belonged to a broadcast audience.
+ *
+ * Only written once the user's category changes: until then their audiences are the ones of
+ * their current category since they registered. From the first change on, these rows alone
+ * decide which audiences' broadcasts are in the user's feed and unread count, so moving
+ * between STUDENT and NON_STUDENT keeps the announcements they already had.
+ *
+ * Example: STUDENT registered on the 1st, NON_STUDENT from the 5th →
+ *          BUSINESS_OWNERS [1st, -), STUDENT [1st, 5th), NON_STUDENT [5th, -)
+ */
+@Entity
+@Table(name = "notification_audience_period",
+        indexes = @Index(name = "idx_notification_audience_period_user", columnList = "user_id, audience, member_from"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationAudiencePeriod {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "audience", nullable = false, length = 20)
+    private Notification.Audience audience;
+
+    @Column(name = "member_from", nullable = false)
+    private LocalDateTime memberFrom;
+
+    /**
+     * Null while the user is still in the audience
+     */
+    @Column(name = "member_until")
+    private LocalDateTime memberUntil;
+}
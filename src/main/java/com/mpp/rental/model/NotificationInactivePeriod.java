@@ -0,0 +1,44 @@
+package com.mpp.rental.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A period in which a user was not ACTIVE (e.g. blocked by MPP).
+ *
+ * Broadcasts are stored once per audience, so a user sees every broadcast of their audience
+ * since they registered — except the ones created in one of their inactive periods, which
+ * they would never have received as a per-recipient notification either.
+ *
+ * Example: BO blocked on the 1st, reactivated on the 5th → one row [1st, 5th)
+ *          → announcements of the 2nd–4th never show up in their feed or unread count
+ */
+@Entity
+@Table(name = "notification_inactive_period",
+        indexes = @Index(name = "idx_notification_inactive_period_user", columnList = "user_id, inactive_from"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationInactivePeriod {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "inactive_from", nullable = false)
+    private LocalDateTime inactiveFrom;
+
+    /**
+     * Null while the user is still inactive
+     */
+    @Column(name = "inactive_until")
+    private LocalDateTime inactiveUntil;
+}
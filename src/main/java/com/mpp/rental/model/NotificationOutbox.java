@@ -0,0 +1,60 @@
+package com.mpp.rental.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An SSE event published by one node for the others — see OutboxNotificationBus.
+ * Rows are short-lived: every node polls new ones and they are purged after a few minutes.
+ */
+@Entity
+@Table(name = "notification_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "outbox_id")
+    private Long outboxId;
+
+    /**
+     * Publishing node — it skips its own rows
+     */
+    @Column(name = "node_id", nullable = false, length = 40)
+    private String nodeId;
+
+    @Column(name = "event", nullable = false, length = 30)
+    private String event;
+
+    /**
+     * Recipients, comma-separated; null for an audience broadcast
+     */
+    @Lob
+    @Column(name = "user_ids")
+    private String userIds;
+
+    /**
+     * Audience broadcast — each receiving node resolves the audience's members itself
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "audience", length = 20)
+    private Notification.Audience audience;
+
+    /**
+     * SSE data; null = state change only, no event to show. Capped by
+     * notification.bus.outbox.max-data-length on publish.
+     */
+    @Lob
+    @Column(name = "data")
+    private String data;
+
+    /**
+     * Publishing node's System.currentTimeMillis()
+     */
+    @Column(name = "published_at", nullable = false)
+    private long publishedAt;
+}
@@ -14,12 +14,16 @@ import java.time.LocalDateTime;
  * Example: MPP creates event → one Notification row created
  *          → one NotificationRead row per Business Owner (all unread initially)
  *          → when BO opens panel → their NotificationRead.readAt is set
+ *
+ * Broadcasts (Notification.audience set) get no row up front — a row with readAt set is only
+ * written when a user reads one broadcast ahead of their NotificationWatermark.
  */
 @Entity
 @Table(name = "notification_read",
         uniqueConstraints = @UniqueConstraint(
                 columnNames = {"notification_id", "user_id"}
-        ))
+        ),
+        indexes = @Index(name = "idx_notification_read_user", columnList = "user_id, notification_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,40 @@
+package com.mpp.rental.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-user read state for broadcast notifications (Notification.audience set).
+ *
+ * A broadcast is read when its id is <= readUpTo, or when the user has a notification_read
+ * row for it (read individually). It is hidden when its id is <= clearedUpTo.
+ * Users without a row have read and cleared nothing.
+ *
+ * Example: MPP creates event → one Notification row, no per-user rows
+ *          → BO opens panel → their readUpTo moves to the newest broadcast id
+ */
+@Entity
+@Table(name = "notification_watermark")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationWatermark {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    /**
+     * Broadcasts up to this notification id are read
+     */
+    @Column(name = "read_up_to", nullable = false)
+    private long readUpTo;
+
+    /**
+     * Broadcasts up to this notification id were cleared (clear all)
+     */
+    @Column(name = "cleared_up_to", nullable = false)
+    private long clearedUpTo;
+}
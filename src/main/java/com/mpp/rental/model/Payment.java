@@ -1,5 +1,8 @@
 package com.mpp.rental.model;
 
+import com.mpp.rental.service.ReportCacheListener;
+import com.mpp.rental.service.ReportRollupListener;
+import com.mpp.rental.service.ReportSnapshotListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -11,6 +14,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "PAYMENT")
+@EntityListeners({ReportRollupListener.class, ReportCacheListener.class, ReportSnapshotListener.class})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
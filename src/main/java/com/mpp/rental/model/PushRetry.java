@@ -0,0 +1,80 @@
+package com.mpp.rental.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A push (FCM) that failed for a transient reason and waits for another attempt — one row per
+ * device (userId + fcmToken) or topic. See PushRetryService.
+ *
+ * PENDING rows are retried at nextAttemptAt; after the last allowed attempt the row turns DEAD
+ * (dead letter) and stays for inspection until it is purged.
+ */
+@Entity
+@Table(name = "push_retry",
+        indexes = @Index(name = "idx_push_retry_due", columnList = "status, next_attempt_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PushRetry {
+
+    public enum Status {
+        PENDING,
+        DEAD
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "retry_id")
+    private Long retryId;
+
+    /**
+     * Device target — null for a topic
+     */
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "fcm_token", length = 500)
+    private String fcmToken;
+
+    /**
+     * Topic target — null for a device
+     */
+    @Column(name = "topic", length = 50)
+    private String topic;
+
+    // ── The message, as it was first sent ──────────
+    @Column(name = "title", nullable = false, length = 255)
+    private String title;
+
+    @Column(name = "body", nullable = false, length = 500)
+    private String body;
+
+    @Column(name = "reference_type", length = 50)
+    private String referenceType;
+
+    @Column(name = "reference_id")
+    private Long referenceId;
+
+    /**
+     * Failed attempts so far (the first send included)
+     */
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 10)
+    private Status status = Status.PENDING;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
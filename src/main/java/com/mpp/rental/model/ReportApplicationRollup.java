@@ -0,0 +1,84 @@
+package com.mpp.rental.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated application counts for the MPP report summaries.
+ *
+ * One row per (application day, event, facility, owner category). Counts split by
+ * application status; payment figures belong to the application's bucket, the same
+ * way reports 1, 4 and 5 attribute them.
+ *
+ * Maintained by ReportRollupService — a bucket is recomputed from FACILITY_APPLICATION
+ * whenever an application or its payment in that bucket changes.
+ */
+@Entity
+@Table(name = "report_application_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_report_application_rollup_bucket",
+                columnNames = {"bucket_date", "event_id", "facility_id", "owner_category"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportApplicationRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "rollup_id")
+    private Long rollupId;
+
+    /**
+     * DATE(applicationCreatedAt)
+     */
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    @Column(name = "event_id", nullable = false)
+    private Integer eventId;
+
+    @Column(name = "facility_id", nullable = false)
+    private Integer facilityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "owner_category", nullable = false, length = 20)
+    private User.UserCategory ownerCategory;
+
+    @Column(name = "total_count", nullable = false)
+    private int totalCount;
+
+    @Column(name = "approved_count", nullable = false)
+    private int approvedCount;
+
+    @Column(name = "rejected_count", nullable = false)
+    private int rejectedCount;
+
+    @Column(name = "pending_count", nullable = false)
+    private int pendingCount;
+
+    @Column(name = "cancelled_count", nullable = false)
+    private int cancelledCount;
+
+    @Column(name = "paid_count", nullable = false)
+    private int paidCount;
+
+    @Column(name = "paid_amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal paidAmount = BigDecimal.ZERO;
+
+    @Column(name = "unpaid_amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal unpaidAmount = BigDecimal.ZERO;
+
+    /**
+     * Bucket key — one row per distinct value
+     */
+    public record Bucket(LocalDate day, Integer eventId, Integer facilityId, User.UserCategory ownerCategory) {
+    }
+
+    public Bucket bucket() {
+        return new Bucket(bucketDate, eventId, facilityId, ownerCategory);
+    }
+}
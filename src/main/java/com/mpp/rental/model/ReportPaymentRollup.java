@@ -0,0 +1,79 @@
+package com.mpp.rental.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated payment figures for the revenue report summary.
+ *
+ * One row per (payment day, event, owner category), APPROVED applications only —
+ * the same population report 2 reads. Counts and amounts split by payment status.
+ *
+ * Maintained by ReportRollupService alongside ReportApplicationRollup.
+ */
+@Entity
+@Table(name = "report_payment_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_report_payment_rollup_bucket",
+                columnNames = {"bucket_date", "event_id", "owner_category"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportPaymentRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "rollup_id")
+    private Long rollupId;
+
+    /**
+     * DATE(paymentCreatedAt)
+     */
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    @Column(name = "event_id", nullable = false)
+    private Integer eventId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "owner_category", nullable = false, length = 20)
+    private User.UserCategory ownerCategory;
+
+    @Column(name = "total_count", nullable = false)
+    private int totalCount;
+
+    @Column(name = "billed_amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal billedAmount = BigDecimal.ZERO;
+
+    @Column(name = "paid_count", nullable = false)
+    private int paidCount;
+
+    @Column(name = "paid_amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal paidAmount = BigDecimal.ZERO;
+
+    @Column(name = "unpaid_count", nullable = false)
+    private int unpaidCount;
+
+    @Column(name = "unpaid_amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal unpaidAmount = BigDecimal.ZERO;
+
+    @Column(name = "failed_count", nullable = false)
+    private int failedCount;
+
+    @Column(name = "failed_amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal failedAmount = BigDecimal.ZERO;
+
+    /**
+     * Bucket key — one row per distinct value
+     */
+    public record Bucket(LocalDate day, Integer eventId, User.UserCategory ownerCategory) {
+    }
+
+    public Bucket bucket() {
+        return new Bucket(bucketDate, eventId, ownerCategory);
+    }
+}
@@ -14,6 +14,15 @@ import java.util.Optional;
 @Repository
 public interface EventRepository extends JpaRepository<Event, Integer>, JpaSpecificationExecutor<Event> {
 
+    /**
+     * Report filter dropdown entry — only the columns the dropdown shows
+     */
+    interface FilterOption {
+        Integer getEventId();
+        String getEventName();
+        String getEventStatus();
+    }
+
     /**
      * Find event by ID excluding soft-deleted
      */
@@ -56,4 +65,11 @@ public interface EventRepository extends JpaRepository<Event, Integer>, JpaSpeci
         @Param("cutoffDate") LocalDate cutoffDate,
         @Param("cutoffDateTime") java.time.LocalDateTime cutoffDateTime
     );
+
+    /**
+     * Events for the report filter dropdown, by name (soft-deleted excluded by @SQLRestriction)
+     */
+    @Query("SELECT e.eventId AS eventId, e.eventName AS eventName, e.eventStatus AS eventStatus " +
+           "FROM Event e ORDER BY e.eventName")
+    List<FilterOption> findFilterOptions();
 }
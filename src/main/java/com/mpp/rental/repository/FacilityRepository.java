@@ -13,6 +13,15 @@ import java.util.Optional;
 @Repository
 public interface FacilityRepository extends JpaRepository<Facility, Integer>, JpaSpecificationExecutor<Facility> {
 
+    /**
+     * Report filter dropdown entry — only the columns the dropdown shows
+     */
+    interface FilterOption {
+        Integer getFacilityId();
+        String getFacilityName();
+        String getFacilityType();
+    }
+
     /**
      * Check if facility name exists (case-insensitive, excluding deleted)
      */
@@ -46,4 +55,11 @@ public interface FacilityRepository extends JpaRepository<Facility, Integer>, Jp
             "AND f.deletedAt IS NULL " +
             "ORDER BY f.facilityCreateAt DESC")
     List<Facility> searchByName(@Param("searchQuery") String searchQuery);
-}
\ No newline at end of file
+
+    /**
+     * Facilities for the report filter dropdown, by name (soft-deleted excluded by @SQLRestriction)
+     */
+    @Query("SELECT f.facilityId AS facilityId, f.facilityName AS facilityName, f.facilityType AS facilityType " +
+            "FROM Facility f ORDER BY f.facilityName")
+    List<FilterOption> findFilterOptions();
+}
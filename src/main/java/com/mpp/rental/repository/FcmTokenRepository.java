@@ -1,18 +1,36 @@
 package com.mpp.rental.repository;
 
 import com.mpp.rental.model.FcmToken;
+import com.mpp.rental.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface FcmTokenRepository extends JpaRepository<FcmToken, Long> {
 
+    /**
+     * Push target — one active device of a user
+     */
+    interface PushTarget {
+        Long getUserId();
+        String getFcmToken();
+    }
+
+    /**
+     * Active device of an active business owner, with the owner's category (topic subscriptions)
+     */
+    interface TopicMember {
+        String getFcmToken();
+        User.UserCategory getUserCategory();
+    }
+
     /**
      * Get all active FCM tokens for a user (may have multiple devices/browsers)
      */
@@ -35,4 +53,26 @@ public interface FcmTokenRepository extends JpaRepository<FcmToken, Long> {
      */
     @Query("SELECT f FROM FcmToken f WHERE f.user.userId IN :userIds AND f.isActive = true")
     List<FcmToken> findActiveTokensByUserIds(@Param("userIds") List<Long> userIds);
-}
\ No newline at end of file
+
+    /**
+     * Active devices of many users in one query (see FirebasePushGateway)
+     */
+    @Query("SELECT f.user.userId AS userId, f.fcmToken AS fcmToken FROM FcmToken f " +
+           "WHERE f.user.userId IN :userIds AND f.isActive = true")
+    List<PushTarget> findPushTargets(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Deactivate tokens FCM reported as unregistered / invalid, in one statement
+     */
+    @Modifying
+    @Query("UPDATE FcmToken f SET f.isActive = false WHERE f.fcmToken IN :tokens")
+    int deactivateTokens(@Param("tokens") Collection<String> tokens);
+
+    /**
+     * Every device that belongs in an audience topic (see PushTopicService.resubscribeAll)
+     */
+    @Query("SELECT f.fcmToken AS fcmToken, f.user.userCategory AS userCategory FROM FcmToken f " +
+           "WHERE f.isActive = true AND f.user.userStatus = 'ACTIVE' " +
+           "AND f.user.userCategory IN ('STUDENT', 'NON_STUDENT')")
+    List<TopicMember> findTopicMembers();
+}
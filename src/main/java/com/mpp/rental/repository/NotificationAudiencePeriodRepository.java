@@ -0,0 +1,40 @@
+package com.mpp.rental.repository;
+
+import com.mpp.rental.model.Notification;
+import com.mpp.rental.model.NotificationAudiencePeriod;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface NotificationAudiencePeriodRepository extends JpaRepository<NotificationAudiencePeriod, Long> {
+
+    /**
+     * The user's periods that have not ended yet
+     */
+    List<NotificationAudiencePeriod> findByUserIdAndMemberUntilIsNull(Long userId);
+
+    /**
+     * Every audience the user has a period in — empty until their category first changes
+     */
+    @Query("SELECT DISTINCT p.audience FROM NotificationAudiencePeriod p WHERE p.userId = :userId")
+    List<Notification.Audience> findAudiencesByUserId(@Param("userId") Long userId);
+
+    /**
+     * Whether the given moment falls in one of the user's periods in the audience
+     */
+    @Query("""
+            SELECT COUNT(p) > 0 FROM NotificationAudiencePeriod p
+            WHERE p.userId = :userId
+            AND p.audience = :audience
+            AND p.memberFrom <= :at
+            AND (p.memberUntil IS NULL OR p.memberUntil > :at)
+            """)
+    boolean isMemberAt(@Param("userId") Long userId,
+                       @Param("audience") Notification.Audience audience,
+                       @Param("at") LocalDateTime at);
+}
@@ -0,0 +1,30 @@
+package com.mpp.rental.repository;
+
+import com.mpp.rental.model.NotificationInactivePeriod;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface NotificationInactivePeriodRepository extends JpaRepository<NotificationInactivePeriod, Long> {
+
+    /**
+     * The user's period that has not ended yet, if they are inactive
+     */
+    Optional<NotificationInactivePeriod> findFirstByUserIdAndInactiveUntilIsNull(Long userId);
+
+    /**
+     * Whether the given moment falls in one of the user's inactive periods
+     */
+    @Query("""
+            SELECT COUNT(p) > 0 FROM NotificationInactivePeriod p
+            WHERE p.userId = :userId
+            AND p.inactiveFrom <= :at
+            AND (p.inactiveUntil IS NULL OR p.inactiveUntil > :at)
+            """)
+    boolean isInactiveAt(@Param("userId") Long userId, @Param("at") LocalDateTime at);
+}
@@ -0,0 +1,33 @@
+package com.mpp.rental.repository;
+
+import com.mpp.rental.model.NotificationOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    @Query("SELECT COALESCE(MAX(o.outboxId), 0) FROM NotificationOutbox o")
+    long findMaxId();
+
+    /**
+     * Ids of other nodes' rows after the given id, oldest first — ids only, the poll re-reads
+     * recent rows and fetches just the ones it has not delivered yet
+     */
+    @Query("SELECT o.outboxId FROM NotificationOutbox o WHERE o.outboxId > :after " +
+           "AND o.nodeId <> :nodeId ORDER BY o.outboxId")
+    List<Long> findIdsAfter(@Param("after") long after, @Param("nodeId") String nodeId, Pageable pageable);
+
+    List<NotificationOutbox> findByOutboxIdInOrderByOutboxId(Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM NotificationOutbox o WHERE o.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") long before);
+}
@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,13 +21,27 @@ public interface NotificationReadRepository extends JpaRepository<NotificationRe
     Optional<NotificationRead> findByNotification_NotificationIdAndUser_UserId(
             Long notificationId, Long userId);
 
+    /**
+     * Fan-out: one unread record per recipient, written by a single INSERT ... SELECT
+     * (no User entities loaded, no per-row IDENTITY round trip). Ids that are not users
+     * are skipped, like findAllById did. Returns the number of records created.
+     */
+    @Modifying
+    @Query("""
+            INSERT INTO NotificationRead (notification, user)
+            SELECT n, u FROM Notification n, User u
+            WHERE n.notificationId = :notificationId
+            AND u.userId IN :userIds
+            """)
+    int insertUnread(@Param("notificationId") Long notificationId, @Param("userIds") Collection<Long> userIds);
+
     /**
      * Get all unread notification records for a user
      */
     List<NotificationRead> findByUser_UserIdAndReadAtIsNull(Long userId);
 
     /**
-     * Mark ALL unread notifications as read for a user (when panel opens)
+     * Mark all unread notifications up to upTo as read for a user (when panel opens)
      */
     @Modifying
     @Query("""
@@ -34,13 +49,32 @@ public interface NotificationReadRepository extends JpaRepository<NotificationRe
             SET nr.readAt = :readAt
             WHERE nr.user.userId = :userId
             AND nr.readAt IS NULL
+            AND nr.notification.notificationId <= :upTo
+            """)
+    void markAllAsRead(@Param("userId") Long userId, @Param("upTo") long upTo, @Param("readAt") LocalDateTime readAt);
+
+    /**
+     * Permanently delete a user's notification_read records up to upTo (clear all)
+     */
+    @Modifying
+    @Query("""
+            DELETE FROM NotificationRead nr
+            WHERE nr.user.userId = :userId
+            AND nr.notification.notificationId <= :upTo
             """)
-    void markAllAsRead(@Param("userId") Long userId, @Param("readAt") LocalDateTime readAt);
+    void deleteAllByUserIdUpTo(@Param("userId") Long userId, @Param("upTo") long upTo);
 
     /**
-     * Permanently delete all notification_read records for a user (clear all)
+     * Drop a user's individual read records for broadcasts now covered by their watermark
      */
     @Modifying
-    @Query("DELETE FROM NotificationRead nr WHERE nr.user.userId = :userId")
-    void deleteAllByUserId(@Param("userId") Long userId);
-}
\ No newline at end of file
+    @Query("""
+            DELETE FROM NotificationRead nr
+            WHERE nr.user.userId = :userId
+            AND nr.notification.notificationId IN (
+                SELECT n.notificationId FROM Notification n
+                WHERE n.audience IS NOT NULL AND n.notificationId <= :upTo
+            )
+            """)
+    void deleteBroadcastReadsUpTo(@Param("userId") Long userId, @Param("upTo") long upTo);
+}
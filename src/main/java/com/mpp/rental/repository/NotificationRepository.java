@@ -1,30 +1,92 @@
 package com.mpp.rental.repository;
 
+import com.mpp.rental.dto.NotificationDTO;
 import com.mpp.rental.model.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
 
     /**
-     * Get all notifications for a specific user (via notification_read join)
-     * Ordered newest first
+     * Feed for a user, newest first: targeted notifications through the user's notification_read
+     * row, plus broadcasts to one of the user's audiences sent while they were in it — since they
+     * registered, or in one of their NotificationAudiencePeriods (since = null) — outside their
+     * inactive periods (NotificationInactivePeriod) and not cleared. Read flag: the row's readAt (targeted, or a broadcast read individually) or the
+     * broadcast being at or below the user's read watermark.
      */
     @Query("""
-            SELECT n FROM Notification n
-            JOIN n.readRecords nr
-            WHERE nr.user.userId = :userId
-            ORDER BY n.createdAt DESC
+            SELECT new com.mpp.rental.dto.NotificationDTO(
+                n.notificationId, n.type, n.title, n.message, n.referenceId, n.referenceType,
+                CASE WHEN nr.readAt IS NOT NULL
+                       OR (n.audience IS NOT NULL AND n.notificationId <= :readUpTo)
+                     THEN true ELSE false END,
+                n.createdAt)
+            FROM Notification n
+            LEFT JOIN NotificationRead nr ON nr.notification = n AND nr.user.userId = :userId
+            WHERE (n.audience IS NULL AND nr.id IS NOT NULL)
+            OR (n.audience IN :audiences AND n.notificationId > :clearedUpTo
+                AND (n.createdAt >= :since OR EXISTS (
+                    SELECT ap.id FROM NotificationAudiencePeriod ap
+                    WHERE ap.userId = :userId AND ap.audience = n.audience AND ap.memberFrom <= n.createdAt
+                    AND (ap.memberUntil IS NULL OR ap.memberUntil > n.createdAt)))
+                AND NOT EXISTS (
+                    SELECT ip.id FROM NotificationInactivePeriod ip
+                    WHERE ip.userId = :userId AND ip.inactiveFrom <= n.createdAt
+                    AND (ip.inactiveUntil IS NULL OR ip.inactiveUntil > n.createdAt)))
+            ORDER BY n.createdAt DESC, n.notificationId DESC
             """)
-    List<Notification> findAllByUserId(@Param("userId") Long userId);
+    List<NotificationDTO> findFeed(@Param("userId") Long userId,
+                                   @Param("audiences") Collection<Notification.Audience> audiences,
+                                   @Param("readUpTo") long readUpTo,
+                                   @Param("clearedUpTo") long clearedUpTo,
+                                   @Param("since") LocalDateTime since);
 
     /**
-     * Count unread notifications for a user
+     * One page of findFeed, newest first by id: at most page.getPageSize() notifications with
+     * an id below beforeId (Long.MAX_VALUE for the first page). The keyset keeps every page
+     * as cheap as the first; List return type, so no count query is issued.
+     */
+    @Query("""
+            SELECT new com.mpp.rental.dto.NotificationDTO(
+                n.notificationId, n.type, n.title, n.message, n.referenceId, n.referenceType,
+                CASE WHEN nr.readAt IS NOT NULL
+                       OR (n.audience IS NOT NULL AND n.notificationId <= :readUpTo)
+                     THEN true ELSE false END,
+                n.createdAt)
+            FROM Notification n
+            LEFT JOIN NotificationRead nr ON nr.notification = n AND nr.user.userId = :userId
+            WHERE n.notificationId < :beforeId
+            AND ((n.audience IS NULL AND nr.id IS NOT NULL)
+                 OR (n.audience IN :audiences AND n.notificationId > :clearedUpTo
+                     AND (n.createdAt >= :since OR EXISTS (
+                         SELECT ap.id FROM NotificationAudiencePeriod ap
+                         WHERE ap.userId = :userId AND ap.audience = n.audience AND ap.memberFrom <= n.createdAt
+                         AND (ap.memberUntil IS NULL OR ap.memberUntil > n.createdAt)))
+                     AND NOT EXISTS (
+                        SELECT ip.id FROM NotificationInactivePeriod ip
+                        WHERE ip.userId = :userId AND ip.inactiveFrom <= n.createdAt
+                        AND (ip.inactiveUntil IS NULL OR ip.inactiveUntil > n.createdAt))))
+            ORDER BY n.notificationId DESC
+            """)
+    List<NotificationDTO> findFeedPage(@Param("userId") Long userId,
+                                       @Param("audiences") Collection<Notification.Audience> audiences,
+                                       @Param("readUpTo") long readUpTo,
+                                       @Param("clearedUpTo") long clearedUpTo,
+                                       @Param("since") LocalDateTime since,
+                                       @Param("beforeId") long beforeId,
+                                       Pageable page);
+
+    /**
+     * Count unread targeted notifications for a user
+     * (broadcast rows are only written once read, so they never match)
      */
     @Query("""
             SELECT COUNT(nr) FROM NotificationRead nr
@@ -32,4 +94,39 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
             AND nr.readAt IS NULL
             """)
     long countUnreadByUserId(@Param("userId") Long userId);
-}
\ No newline at end of file
+
+    /**
+     * Count unread broadcasts for a user: in one of the user's audiences, sent while they were
+     * in it (as in findFeed) and outside their inactive periods, above both watermarks (readFrom = max(readUpTo, clearedUpTo)) and not read
+     * individually
+     */
+    @Query("""
+            SELECT COUNT(n) FROM Notification n
+            WHERE n.audience IN :audiences
+            AND n.notificationId > :readFrom
+            AND (n.createdAt >= :since OR EXISTS (
+                SELECT ap.id FROM NotificationAudiencePeriod ap
+                WHERE ap.userId = :userId AND ap.audience = n.audience AND ap.memberFrom <= n.createdAt
+                AND (ap.memberUntil IS NULL OR ap.memberUntil > n.createdAt)))
+            AND NOT EXISTS (
+                SELECT nr.id FROM NotificationRead nr
+                WHERE nr.notification = n AND nr.user.userId = :userId
+            )
+            AND NOT EXISTS (
+                SELECT ip.id FROM NotificationInactivePeriod ip
+                WHERE ip.userId = :userId AND ip.inactiveFrom <= n.createdAt
+                AND (ip.inactiveUntil IS NULL OR ip.inactiveUntil > n.createdAt)
+            )
+            """)
+    long countUnreadBroadcasts(@Param("userId") Long userId,
+                               @Param("audiences") Collection<Notification.Audience> audiences,
+                               @Param("readFrom") long readFrom,
+                               @Param("since") LocalDateTime since);
+
+    /**
+     * Newest notification id (0 when there is none) — caps the id a client passes to
+     * "mark all read" / "clear all"
+     */
+    @Query("SELECT COALESCE(MAX(n.notificationId), 0) FROM Notification n")
+    long findLatestNotificationId();
+}
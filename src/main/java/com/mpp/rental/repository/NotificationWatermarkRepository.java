@@ -0,0 +1,9 @@
+package com.mpp.rental.repository;
+
+import com.mpp.rental.model.NotificationWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NotificationWatermarkRepository extends JpaRepository<NotificationWatermark, Long> {
+}
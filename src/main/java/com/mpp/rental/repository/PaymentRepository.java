@@ -2,15 +2,52 @@ package com.mpp.rental.repository;
 
 import com.mpp.rental.model.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.util.*;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Integer> {
 
+    /**
+     * Max ids per IN (...) list — keeps statements and MySQL packet size bounded
+     */
+    int LOOKUP_BATCH_SIZE = 1000;
+
     /**
      * Find payment by application ID
      */
     Optional<Payment> findByApplication_ApplicationId(Integer applicationId);
-}
\ No newline at end of file
+
+    /**
+     * Payments for a batch of application IDs, each paired with its applicationId
+     * so callers never have to initialise the lazy application proxy.
+     * Row shape: [Integer applicationId, Payment payment]
+     */
+    @Query("SELECT p.application.applicationId, p FROM Payment p " +
+            "WHERE p.application.applicationId IN :applicationIds")
+    List<Object[]> findWithApplicationIdByApplicationIds(@Param("applicationIds") Collection<Integer> applicationIds);
+
+    /**
+     * Keyed payment lookup for a set of applications — replaces per-application
+     * findByApplication_ApplicationId() calls and whole-table findAll() scans.
+     * IDs are sent in chunks of LOOKUP_BATCH_SIZE, so cost grows with the id set, not the table.
+     */
+    default PaymentsByApplication findMapByApplicationIds(Collection<Integer> applicationIds) {
+        if (applicationIds == null || applicationIds.isEmpty()) {
+            return PaymentsByApplication.empty();
+        }
+
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(applicationIds));
+        PaymentsByApplication result = new PaymentsByApplication(ids.size());
+        for (int from = 0; from < ids.size(); from += LOOKUP_BATCH_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + LOOKUP_BATCH_SIZE, ids.size()));
+            for (Object[] row : findWithApplicationIdByApplicationIds(chunk)) {
+                result.putIfAbsent((Integer) row[0], (Payment) row[1]);
+            }
+        }
+        return result;
+    }
+}
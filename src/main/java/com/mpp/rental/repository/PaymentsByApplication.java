@@ -0,0 +1,66 @@
+package com.mpp.rental.repository;
+
+import com.mpp.rental.model.Payment;
+
+/**
+ * PaymentsByApplication - payments keyed by applicationId in an int-keyed open-addressing table.
+ *
+ * Built by PaymentRepository.findMapByApplicationIds. Keys stay primitive: no Integer key or
+ * HashMap node per payment, and get(int) never boxes. Read-only once returned.
+ */
+public final class PaymentsByApplication {
+
+    private static final PaymentsByApplication EMPTY = new PaymentsByApplication(0);
+
+    private final int[] keys;
+    private final Payment[] values;   // null = free slot
+    private final int mask;
+    private int size;
+
+    PaymentsByApplication(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(2, expected) * 2 - 1) << 1;
+        keys = new int[capacity];
+        values = new Payment[capacity];
+        mask = capacity - 1;
+    }
+
+    static PaymentsByApplication empty() {
+        return EMPTY;
+    }
+
+    /** Payment of the application, or null when it has none */
+    public Payment get(int applicationId) {
+        for (int slot = slot(applicationId); values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == applicationId) {
+                return values[slot];
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Keeps the first payment seen for an application, like Map.putIfAbsent */
+    void putIfAbsent(int applicationId, Payment payment) {
+        int slot = slot(applicationId);
+        for (; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == applicationId) {
+                return;
+            }
+        }
+        keys[slot] = applicationId;
+        values[slot] = payment;
+        size++;
+    }
+
+    private int slot(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
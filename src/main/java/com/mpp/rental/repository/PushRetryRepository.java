@@ -0,0 +1,34 @@
+package com.mpp.rental.repository;
+
+import com.mpp.rental.model.PushRetry;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PushRetryRepository extends JpaRepository<PushRetry, Long> {
+
+    /**
+     * Due retries, oldest first, locked for the caller's transaction.
+     * Rows another node has locked are skipped (lock timeout -2 = SKIP LOCKED).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT r FROM PushRetry r WHERE r.status = 'PENDING' " +
+           "AND r.nextAttemptAt <= :now ORDER BY r.nextAttemptAt")
+    List<PushRetry> findDueForUpdate(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Purge dead letters older than the retention window
+     */
+    @Modifying
+    @Query("DELETE FROM PushRetry r WHERE r.status = 'DEAD' " +
+           "AND r.createdAt < :before")
+    int deleteDeadBefore(@Param("before") LocalDateTime before);
+}
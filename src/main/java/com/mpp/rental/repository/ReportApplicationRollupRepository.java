@@ -0,0 +1,16 @@
+package com.mpp.rental.repository;
+
+import com.mpp.rental.model.ReportApplicationRollup;
+import com.mpp.rental.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface ReportApplicationRollupRepository extends JpaRepository<ReportApplicationRollup, Long> {
+
+    Optional<ReportApplicationRollup> findByBucketDateAndEventIdAndFacilityIdAndOwnerCategory(
+            LocalDate bucketDate, Integer eventId, Integer facilityId, User.UserCategory ownerCategory);
+}
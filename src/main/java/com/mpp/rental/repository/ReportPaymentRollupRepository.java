@@ -0,0 +1,16 @@
+package com.mpp.rental.repository;
+
+import com.mpp.rental.model.ReportPaymentRollup;
+import com.mpp.rental.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface ReportPaymentRollupRepository extends JpaRepository<ReportPaymentRollup, Long> {
+
+    Optional<ReportPaymentRollup> findByBucketDateAndEventIdAndOwnerCategory(
+            LocalDate bucketDate, Integer eventId, User.UserCategory ownerCategory);
+}
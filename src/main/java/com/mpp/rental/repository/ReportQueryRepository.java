@@ -0,0 +1,955 @@
+package com.mpp.rental.repository;
+
+import com.mpp.rental.dto.*;
+import com.mpp.rental.model.FacilityApplication;
+import com.mpp.rental.model.Payment;
+import com.mpp.rental.model.ReportApplicationRollup;
+import com.mpp.rental.model.ReportPaymentRollup;
+import com.mpp.rental.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * ReportQueryRepository - SQL side of the MPP reports.
+ *
+ * Turns a ReportFilterRequest into JPQL WHERE clauses so MySQL does the filtering,
+ * joining and GROUP BY work. Rows come back as scalar projections (Tuple → DTO),
+ * never as managed entities, so report cost follows the filtered result size
+ * instead of the size of FACILITY_APPLICATION / PAYMENT.
+ *
+ * Derived figures (rates, fill %, "best" picks) stay in ReportService.
+ */
+@Repository
+public class ReportQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Application-centric join shared by reports 1, 3 and the per-event / per-facility
+     * application aggregates. Payment is LEFT joined — only APPROVED applications have one.
+     */
+    private static final String APPLICATION_FROM =
+            " FROM FacilityApplication fa" +
+            " JOIN fa.business b" +
+            " JOIN b.user u" +
+            " JOIN fa.eventFacility ef" +
+            " JOIN ef.event e" +
+            " JOIN ef.facility f" +
+            " LEFT JOIN Payment p ON p.application = fa";
+
+    /** Payment-centric join for report 2 — only applications that have a payment record */
+    private static final String PAYMENT_FROM =
+            " FROM Payment p" +
+            " JOIN p.application fa" +
+            " JOIN fa.business b" +
+            " JOIN b.user u" +
+            " JOIN fa.eventFacility ef" +
+            " JOIN ef.event e";
+
+    private static final String APPLICATION_STATUS_COUNTS =
+            "SUM(CASE WHEN fa.applicationStatus = 'APPROVED' THEN 1 ELSE 0 END) AS approved, " +
+            "SUM(CASE WHEN fa.applicationStatus = 'REJECTED' THEN 1 ELSE 0 END) AS rejected, " +
+            "SUM(CASE WHEN fa.applicationStatus = 'PENDING' THEN 1 ELSE 0 END) AS pending, " +
+            "SUM(CASE WHEN fa.applicationStatus = 'CANCELLED' THEN 1 ELSE 0 END) AS cancelled";
+
+    private static final String PAID_AMOUNT =
+            "COALESCE(SUM(CASE WHEN p.paymentStatus = 'PAID' THEN p.paymentAmount END), 0)";
+
+    /** originalQuantityTotal is set on @PrePersist — fall back to current quantity for legacy rows */
+    private static final String SLOTS_OFFERED =
+            "COALESCE(SUM(COALESCE(ef.originalQuantityTotal, ef.quantityFacilityAvailable, 0)), 0)";
+
+    private static final String SLOTS_REMAINING =
+            "COALESCE(SUM(COALESCE(ef.quantityFacilityAvailable, 0)), 0)";
+
+    /**
+     * Rollup rows joined back to their (non-deleted) event and facility, so the same
+     * e.* / f.* filters apply as on the raw joins.
+     */
+    private static final String ROLLUP_APPLICATION_FROM =
+            " FROM ReportApplicationRollup r" +
+            " JOIN Event e ON e.eventId = r.eventId" +
+            " JOIN Facility f ON f.facilityId = r.facilityId";
+
+    private static final String ROLLUP_PAYMENT_FROM =
+            " FROM ReportPaymentRollup r" +
+            " JOIN Event e ON e.eventId = r.eventId";
+
+    /** Same aliases as COUNT(fa) + APPLICATION_STATUS_COUNTS + paidCount/paidAmount/unpaidAmount */
+    private static final String ROLLUP_APPLICATION_TOTALS =
+            "SUM(r.totalCount) AS total, SUM(r.approvedCount) AS approved, " +
+            "SUM(r.rejectedCount) AS rejected, SUM(r.pendingCount) AS pending, " +
+            "SUM(r.cancelledCount) AS cancelled, SUM(r.paidCount) AS paidCount, " +
+            "SUM(r.paidAmount) AS paidAmount, SUM(r.unpaidAmount) AS unpaidAmount";
+
+    /** Sortable row fields of report 1 (see ReportService) → column; ties broken by application id */
+    private static final Map<String, String> FACILITY_RENTAL_SORT_COLUMNS = Map.of(
+            "applicationCreatedAt", "fa.applicationCreatedAt",
+            "businessName", "b.businessName",
+            "eventName", "e.eventName");
+
+    /** Sortable row fields of report 2 → column */
+    private static final Map<String, String> REVENUE_SORT_COLUMNS = Map.of(
+            "paymentCreatedAt", "p.paymentCreatedAt",
+            "amountBilled", "p.paymentAmount",
+            "businessName", "b.businessName",
+            "eventName", "e.eventName");
+
+    /**
+     * One page of a row table: rows ordered by sort (then row id) that come after
+     * (afterValue, afterId) — afterId null for the first page, afterValue null also for a row
+     * whose sort value is NULL — at most limit of them.
+     * NULLs sort first ascending and last descending (MySQL's own order, as in ReportPaging).
+     */
+    public record Keyset(String sort, boolean descending, Object afterValue, Long afterId, int limit) {
+
+        String orderBy(String column, String idColumn) {
+            String direction = descending ? " DESC NULLS LAST" : " ASC NULLS FIRST";
+            return " ORDER BY " + column + direction + ", " + idColumn + (descending ? " DESC" : " ASC");
+        }
+    }
+
+    // ==================== REPORT 1: FACILITY RENTAL ====================
+
+    public List<FacilityRentalRow> findFacilityRentalRows(ReportFilterRequest filter) {
+        return facilityRentalQuery(filter, null).getResultList().stream()
+                .map(this::toFacilityRentalRow)
+                .collect(Collectors.toList());
+    }
+
+    /** One page of findFacilityRentalRows in the keyset's order */
+    public List<FacilityRentalRow> findFacilityRentalRows(ReportFilterRequest filter, Keyset keyset) {
+        return facilityRentalQuery(filter, keyset).getResultList().stream()
+                .map(this::toFacilityRentalRow)
+                .collect(Collectors.toList());
+    }
+
+    /** Same rows as findFacilityRentalRows, read through a forward-only cursor — see forExport() */
+    public Stream<FacilityRentalRow> streamFacilityRentalRows(ReportFilterRequest filter, int fetchSize) {
+        return forExport(facilityRentalQuery(filter, null), fetchSize).getResultStream()
+                .map(this::toFacilityRentalRow);
+    }
+
+    private TypedQuery<Tuple> facilityRentalQuery(ReportFilterRequest filter, Keyset keyset) {
+        Where where = applicationWhere(filter);
+        String orderBy = " ORDER BY fa.applicationCreatedAt DESC, fa.applicationId DESC";
+        if (keyset != null) {
+            String column = sortColumn(FACILITY_RENTAL_SORT_COLUMNS, keyset);
+            where.andAfter(column, "fa.applicationId", keyset);
+            orderBy = keyset.orderBy(column, "fa.applicationId");
+        }
+        String jpql = "SELECT fa.applicationId AS applicationId, e.eventName AS eventName, " +
+                "e.eventVenue AS eventVenue, e.eventStatus AS eventStatus, " +
+                "f.facilityName AS facilityName, f.facilityType AS facilityType, " +
+                "b.businessId AS businessId, b.businessName AS businessName, " +
+                "u.userId AS ownerId, u.userName AS ownerName, u.userCategory AS ownerCategory, " +
+                "fa.applicationStatus AS applicationStatus, fa.applicationCreatedAt AS applicationCreatedAt, " +
+                "p.paymentStatus AS paymentStatus, p.paymentAmount AS paymentAmount" +
+                APPLICATION_FROM + where.sql() + orderBy;
+
+        return limit(where.bind(entityManager.createQuery(jpql, Tuple.class)), keyset);
+    }
+
+    /** Number of rows findFacilityRentalRows returns */
+    public long countFacilityRentalRows(ReportFilterRequest filter) {
+        Where where = applicationWhere(filter);
+        String jpql = "SELECT COUNT(fa)" + APPLICATION_FROM + where.sql();
+        return where.bind(entityManager.createQuery(jpql, Long.class)).getSingleResult();
+    }
+
+    /**
+     * Single-row aggregate over the same filter as findFacilityRentalRows.
+     * Aliases: total, approved, rejected, pending, cancelled, businesses, paidCount, paidAmount, unpaidAmount
+     */
+    public Tuple summarizeFacilityRental(ReportFilterRequest filter) {
+        Where where = applicationWhere(filter);
+        String jpql = "SELECT COUNT(fa) AS total, " + APPLICATION_STATUS_COUNTS + ", " +
+                "COUNT(DISTINCT b.businessId) AS businesses, " +
+                "SUM(CASE WHEN p.paymentStatus = 'PAID' THEN 1 ELSE 0 END) AS paidCount, " +
+                PAID_AMOUNT + " AS paidAmount, " +
+                "COALESCE(SUM(CASE WHEN p.paymentStatus = 'UNPAID' THEN p.paymentAmount END), 0) AS unpaidAmount" +
+                APPLICATION_FROM + where.sql();
+
+        return where.bind(entityManager.createQuery(jpql, Tuple.class)).getSingleResult();
+    }
+
+    // ==================== REPORT 2: REVENUE & PAYMENT ====================
+
+    public List<RevenueRow> findRevenueRows(ReportFilterRequest filter) {
+        return revenueQuery(filter, null).getResultList().stream()
+                .map(this::toRevenueRow)
+                .collect(Collectors.toList());
+    }
+
+    /** One page of findRevenueRows in the keyset's order */
+    public List<RevenueRow> findRevenueRows(ReportFilterRequest filter, Keyset keyset) {
+        return revenueQuery(filter, keyset).getResultList().stream()
+                .map(this::toRevenueRow)
+                .collect(Collectors.toList());
+    }
+
+    /** Same rows as findRevenueRows, read through a forward-only cursor — see forExport() */
+    public Stream<RevenueRow> streamRevenueRows(ReportFilterRequest filter, int fetchSize) {
+        return forExport(revenueQuery(filter, null), fetchSize).getResultStream()
+                .map(this::toRevenueRow);
+    }
+
+    private TypedQuery<Tuple> revenueQuery(ReportFilterRequest filter, Keyset keyset) {
+        Where where = paymentWhere(filter);
+        String orderBy = " ORDER BY fa.applicationCreatedAt DESC, fa.applicationId DESC";
+        if (keyset != null) {
+            String column = sortColumn(REVENUE_SORT_COLUMNS, keyset);
+            where.andAfter(column, "fa.applicationId", keyset);
+            orderBy = keyset.orderBy(column, "fa.applicationId");
+        }
+        String jpql = "SELECT fa.applicationId AS applicationId, e.eventName AS eventName, " +
+                "b.businessName AS businessName, u.userName AS ownerName, u.userCategory AS ownerCategory, " +
+                "p.paymentAmount AS amountBilled, p.paymentStatus AS paymentStatus, " +
+                "p.paymentCreatedAt AS paymentCreatedAt" +
+                PAYMENT_FROM + where.sql() + orderBy;
+
+        return limit(where.bind(entityManager.createQuery(jpql, Tuple.class)), keyset);
+    }
+
+    /** Number of rows findRevenueRows returns */
+    public long countRevenueRows(ReportFilterRequest filter) {
+        Where where = paymentWhere(filter);
+        String jpql = "SELECT COUNT(p)" + PAYMENT_FROM + where.sql();
+        return where.bind(entityManager.createQuery(jpql, Long.class)).getSingleResult();
+    }
+
+    /**
+     * Single-row aggregate over the same filter as findRevenueRows.
+     * Aliases: total, billed, collected, outstanding, failed, paidCount, unpaidCount, failedCount, paidBusinesses
+     */
+    public Tuple summarizeRevenue(ReportFilterRequest filter) {
+        Where where = paymentWhere(filter);
+        String jpql = "SELECT COUNT(p) AS total, " +
+                "COALESCE(SUM(p.paymentAmount), 0) AS billed, " +
+                PAID_AMOUNT + " AS collected, " +
+                "COALESCE(SUM(CASE WHEN p.paymentStatus = 'UNPAID' THEN p.paymentAmount END), 0) AS outstanding, " +
+                "COALESCE(SUM(CASE WHEN p.paymentStatus = 'FAILED' THEN p.paymentAmount END), 0) AS failed, " +
+                "SUM(CASE WHEN p.paymentStatus = 'PAID' THEN 1 ELSE 0 END) AS paidCount, " +
+                "SUM(CASE WHEN p.paymentStatus = 'UNPAID' THEN 1 ELSE 0 END) AS unpaidCount, " +
+                "SUM(CASE WHEN p.paymentStatus = 'FAILED' THEN 1 ELSE 0 END) AS failedCount, " +
+                "COUNT(DISTINCT CASE WHEN p.paymentStatus = 'PAID' THEN b.businessId END) AS paidBusinesses" +
+                PAYMENT_FROM + where.sql();
+
+        return where.bind(entityManager.createQuery(jpql, Tuple.class)).getSingleResult();
+    }
+
+    // ==================== REPORT 3: BUSINESS OWNER ACTIVITY ====================
+
+    /**
+     * One row per business, most applications first. Rates are left at 0 for the service to derive.
+     */
+    public List<BusinessActivityRow> findBusinessActivityRows(ReportFilterRequest filter) {
+        return businessActivityQuery(filter).getResultList().stream()
+                .map(this::toBusinessActivityRow)
+                .collect(Collectors.toList());
+    }
+
+    /** Same rows as findBusinessActivityRows, read through a forward-only cursor — see forExport() */
+    public Stream<BusinessActivityRow> streamBusinessActivityRows(ReportFilterRequest filter, int fetchSize) {
+        return forExport(businessActivityQuery(filter), fetchSize).getResultStream()
+                .map(this::toBusinessActivityRow);
+    }
+
+    private TypedQuery<Tuple> businessActivityQuery(ReportFilterRequest filter) {
+        Where where = applicationWhere(filter);
+        String jpql = "SELECT b.businessId AS businessId, b.businessName AS businessName, " +
+                "u.userName AS ownerName, u.userCategory AS ownerCategory, " +
+                "COUNT(fa) AS total, " + APPLICATION_STATUS_COUNTS + ", " +
+                "SUM(CASE WHEN p.paymentStatus = 'PAID' THEN 1 ELSE 0 END) AS paidCount, " +
+                PAID_AMOUNT + " AS paidAmount" +
+                APPLICATION_FROM + where.sql() +
+                " GROUP BY b.businessId, b.businessName, u.userName, u.userCategory" +
+                " ORDER BY COUNT(fa) DESC, b.businessId ASC";
+
+        return where.bind(entityManager.createQuery(jpql, Tuple.class));
+    }
+
+    // ==================== REPORT 4: EVENT PERFORMANCE ====================
+
+    /**
+     * One row per event matching eventStatus + event start date range, latest event first.
+     * Slot totals come from EVENT_FACILITY, application counts/revenue from a second grouped query —
+     * over REPORT_APPLICATION_ROLLUP when fromRollups, else over the raw applications.
+     * fillRate is left for the service to derive.
+     */
+    public List<EventPerformanceRow> findEventPerformanceRows(ReportFilterRequest filter, boolean fromRollups) {
+        Where where = eventWhere(filter);
+        String slotsJpql = "SELECT e.eventId AS eventId, e.eventName AS eventName, e.eventVenue AS eventVenue, " +
+                "e.eventStatus AS eventStatus, e.eventStartDate AS eventStartDate, e.eventEndDate AS eventEndDate, " +
+                "COUNT(ef) AS facilities, " + SLOTS_OFFERED + " AS slotsOffered, " +
+                SLOTS_REMAINING + " AS slotsRemaining" +
+                " FROM Event e LEFT JOIN EventFacility ef ON ef.event = e" + where.sql() +
+                " GROUP BY e.eventId, e.eventName, e.eventVenue, e.eventStatus, e.eventStartDate, e.eventEndDate" +
+                " ORDER BY e.eventStartDate DESC";
+
+        String appsJpql = fromRollups
+                ? "SELECT e.eventId AS eventId, " + ROLLUP_APPLICATION_TOTALS +
+                        ROLLUP_APPLICATION_FROM + where.sql() +
+                        " GROUP BY e.eventId"
+                : "SELECT e.eventId AS eventId, COUNT(fa) AS total, " + APPLICATION_STATUS_COUNTS + ", " +
+                        PAID_AMOUNT + " AS paidAmount" +
+                        APPLICATION_FROM + where.sql() +
+                        " GROUP BY e.eventId";
+
+        Map<Integer, Tuple> appsByEvent = where.bind(entityManager.createQuery(appsJpql, Tuple.class))
+                .getResultList().stream()
+                .collect(Collectors.toMap(t -> t.get("eventId", Integer.class), t -> t));
+
+        return where.bind(entityManager.createQuery(slotsJpql, Tuple.class)).getResultList().stream()
+                .map(t -> {
+                    Integer eventId = t.get("eventId", Integer.class);
+                    Tuple apps = appsByEvent.get(eventId);
+                    EventPerformanceRow row = new EventPerformanceRow();
+                    row.setEventId(eventId);
+                    row.setEventName(t.get("eventName", String.class));
+                    row.setEventVenue(t.get("eventVenue", String.class));
+                    row.setEventStatus(t.get("eventStatus", String.class));
+                    row.setEventStartDate(t.get("eventStartDate", LocalDate.class));
+                    row.setEventEndDate(t.get("eventEndDate", LocalDate.class));
+                    row.setTotalFacilitiesOffered(toInt(t.get("facilities")));
+                    row.setTotalSlotsAvailable(toInt(t.get("slotsOffered")));
+                    row.setTotalSlotsFilled(slotsFilled(t));
+                    row.setTotalApplications(apps != null ? toInt(apps.get("total")) : 0);
+                    row.setTotalApproved(apps != null ? toInt(apps.get("approved")) : 0);
+                    row.setTotalRejected(apps != null ? toInt(apps.get("rejected")) : 0);
+                    row.setTotalRevenue(apps != null ? toMoney(apps.get("paidAmount")) : BigDecimal.ZERO);
+                    return row;
+                })
+                .collect(Collectors.toList());
+    }
+
+    // ==================== REPORT 5: FACILITY UTILISATION ====================
+
+    /**
+     * One row per facility template across all matching event assignments.
+     * Filters: facilityType, eventId, event start date range.
+     * Application figures come from REPORT_APPLICATION_ROLLUP when fromRollups.
+     * fillRate is left for the service to derive.
+     */
+    public List<FacilityUtilisationRow> findFacilityUtilisationRows(ReportFilterRequest filter, boolean fromRollups) {
+        Where where = eventFacilityWhere(filter);
+        String slotsJpql = "SELECT f.facilityId AS facilityId, f.facilityName AS facilityName, " +
+                "f.facilityType AS facilityType, f.facilitySize AS facilitySize, " +
+                "COUNT(ef) AS timesOffered, " + SLOTS_OFFERED + " AS slotsOffered, " +
+                SLOTS_REMAINING + " AS slotsRemaining" +
+                " FROM EventFacility ef JOIN ef.facility f JOIN ef.event e" + where.sql() +
+                " GROUP BY f.facilityId, f.facilityName, f.facilityType, f.facilitySize";
+
+        String appsJpql = fromRollups
+                ? "SELECT f.facilityId AS facilityId, " + ROLLUP_APPLICATION_TOTALS +
+                        ROLLUP_APPLICATION_FROM + where.sql() +
+                        " GROUP BY f.facilityId"
+                : "SELECT f.facilityId AS facilityId, COUNT(fa) AS total, " +
+                        APPLICATION_STATUS_COUNTS + ", " + PAID_AMOUNT + " AS paidAmount" +
+                        APPLICATION_FROM + where.sql() +
+                        " GROUP BY f.facilityId";
+
+        Map<Integer, Tuple> appsByFacility = where.bind(entityManager.createQuery(appsJpql, Tuple.class))
+                .getResultList().stream()
+                .collect(Collectors.toMap(t -> t.get("facilityId", Integer.class), t -> t));
+
+        return where.bind(entityManager.createQuery(slotsJpql, Tuple.class)).getResultList().stream()
+                .map(t -> {
+                    Integer facilityId = t.get("facilityId", Integer.class);
+                    Tuple apps = appsByFacility.get(facilityId);
+                    FacilityUtilisationRow row = new FacilityUtilisationRow();
+                    row.setFacilityId(facilityId);
+                    row.setFacilityName(t.get("facilityName", String.class));
+                    row.setFacilityType(t.get("facilityType", String.class));
+                    row.setFacilitySize(t.get("facilitySize", String.class));
+                    row.setTimesOffered(toInt(t.get("timesOffered")));
+                    row.setTotalSlotsOffered(toInt(t.get("slotsOffered")));
+                    row.setTotalSlotsFilled(slotsFilled(t));
+                    row.setTotalApplications(apps != null ? toInt(apps.get("total")) : 0);
+                    row.setTotalApproved(apps != null ? toInt(apps.get("approved")) : 0);
+                    row.setTotalRevenueGenerated(apps != null ? toMoney(apps.get("paidAmount")) : BigDecimal.ZERO);
+                    return row;
+                })
+                .collect(Collectors.toList());
+    }
+
+    // ==================== ROLLUPS: SUMMARY READS ====================
+
+    /**
+     * summarizeFacilityRental from REPORT_APPLICATION_ROLLUP — valid when no application / payment
+     * status filter is set. Same aliases except businesses (see countBusinesses).
+     */
+    public Tuple summarizeFacilityRentalFromRollups(ReportFilterRequest filter) {
+        Where where = applicationRollupWhere(filter);
+        String jpql = "SELECT " + ROLLUP_APPLICATION_TOTALS + ROLLUP_APPLICATION_FROM + where.sql();
+        return where.bind(entityManager.createQuery(jpql, Tuple.class)).getSingleResult();
+    }
+
+    /**
+     * Distinct businesses is not additive across buckets, so it is counted from the application
+     * rows. Only the rollup filters apply (no status filters), which lets the count skip the
+     * payment join; cost still follows the number of matching applications.
+     */
+    public int countBusinesses(ReportFilterRequest filter) {
+        Where where = new Where();
+        if (filter.getEventId() != null) {
+            where.and("e.eventId = :eventId", "eventId", filter.getEventId());
+        }
+        if (filter.getFacilityId() != null) {
+            where.and("f.facilityId = :facilityId", "facilityId", filter.getFacilityId());
+        }
+        where.andEnum("u.userCategory = :ownerCategory", "ownerCategory",
+                User.UserCategory.class, filter.getOwnerCategory());
+        where.andDateRange("fa.applicationCreatedAt", filter.getStartDate(), filter.getEndDate());
+        String jpql = "SELECT COUNT(DISTINCT b.businessId)" +
+                " FROM FacilityApplication fa" +
+                " JOIN fa.business b" +
+                " JOIN b.user u" +
+                " JOIN fa.eventFacility ef" +
+                " JOIN ef.event e" +
+                " JOIN ef.facility f" +
+                where.sql();
+        return toInt(where.bind(entityManager.createQuery(jpql, Long.class)).getSingleResult());
+    }
+
+    /**
+     * summarizeRevenue from REPORT_PAYMENT_ROLLUP — valid when no payment status filter is set.
+     * Same aliases except paidBusinesses (see countPaidBusinesses).
+     */
+    public Tuple summarizeRevenueFromRollups(ReportFilterRequest filter) {
+        Where where = paymentRollupWhere(filter);
+        String jpql = "SELECT SUM(r.totalCount) AS total, SUM(r.billedAmount) AS billed, " +
+                "SUM(r.paidAmount) AS collected, SUM(r.unpaidAmount) AS outstanding, " +
+                "SUM(r.failedAmount) AS failed, SUM(r.paidCount) AS paidCount, " +
+                "SUM(r.unpaidCount) AS unpaidCount, SUM(r.failedCount) AS failedCount" +
+                ROLLUP_PAYMENT_FROM + where.sql();
+        return where.bind(entityManager.createQuery(jpql, Tuple.class)).getSingleResult();
+    }
+
+    /** Same limitation as countBusinesses — counted from the payment rows */
+    public int countPaidBusinesses(ReportFilterRequest filter) {
+        Where where = paymentWhere(filter);
+        where.and("p.paymentStatus = 'PAID'");
+        String jpql = "SELECT COUNT(DISTINCT b.businessId)" + PAYMENT_FROM + where.sql();
+        return toInt(where.bind(entityManager.createQuery(jpql, Long.class)).getSingleResult());
+    }
+
+    // ==================== REVENUE TREND ====================
+
+    /**
+     * Payment figures per payment day, same population and filters as report 2 (event,
+     * owner category, date range) — from REPORT_PAYMENT_ROLLUP when fromRollups, else
+     * grouped from the raw payments. Days without payments are absent.
+     * Aliases: bucketDate, payments, billed, collected, outstanding
+     */
+    public List<Tuple> findDailyPaymentTotals(ReportFilterRequest filter, boolean fromRollups) {
+        Where where;
+        String jpql;
+        if (fromRollups) {
+            where = paymentRollupWhere(filter);
+            jpql = "SELECT r.bucketDate AS bucketDate, SUM(r.totalCount) AS payments, " +
+                    "SUM(r.billedAmount) AS billed, SUM(r.paidAmount) AS collected, " +
+                    "SUM(r.unpaidAmount) AS outstanding" +
+                    ROLLUP_PAYMENT_FROM + where.sql() +
+                    " GROUP BY r.bucketDate";
+        } else {
+            where = paymentWhere(filter);
+            jpql = "SELECT CAST(p.paymentCreatedAt AS LocalDate) AS bucketDate, COUNT(p) AS payments, " +
+                    "COALESCE(SUM(p.paymentAmount), 0) AS billed, " +
+                    PAID_AMOUNT + " AS collected, " +
+                    "COALESCE(SUM(CASE WHEN p.paymentStatus = 'UNPAID' THEN p.paymentAmount END), 0) AS outstanding" +
+                    PAYMENT_FROM + where.sql() +
+                    " GROUP BY CAST(p.paymentCreatedAt AS LocalDate)";
+        }
+        return where.bind(entityManager.createQuery(jpql, Tuple.class)).getResultList();
+    }
+
+    /**
+     * Application counts per application day over the report 1 filters (only event, owner
+     * category and date range are used) — from REPORT_APPLICATION_ROLLUP when fromRollups.
+     * Aliases: bucketDate, total, approved
+     */
+    public List<Tuple> findDailyApplicationTotals(ReportFilterRequest filter, boolean fromRollups) {
+        Where where;
+        String jpql;
+        if (fromRollups) {
+            where = applicationRollupWhere(filter);
+            jpql = "SELECT r.bucketDate AS bucketDate, SUM(r.totalCount) AS total, SUM(r.approvedCount) AS approved" +
+                    ROLLUP_APPLICATION_FROM + where.sql() +
+                    " GROUP BY r.bucketDate";
+        } else {
+            where = applicationWhere(filter);
+            jpql = "SELECT CAST(fa.applicationCreatedAt AS LocalDate) AS bucketDate, COUNT(fa) AS total, " +
+                    "SUM(CASE WHEN fa.applicationStatus = 'APPROVED' THEN 1 ELSE 0 END) AS approved" +
+                    APPLICATION_FROM + where.sql() +
+                    " GROUP BY CAST(fa.applicationCreatedAt AS LocalDate)";
+        }
+        return where.bind(entityManager.createQuery(jpql, Tuple.class)).getResultList();
+    }
+
+    // ==================== ROLLUPS: MAINTENANCE ====================
+
+    /**
+     * Application rollup rows aggregated from the raw tables — every bucket when bucket is null,
+     * otherwise only that bucket (an empty list means it no longer holds any application).
+     * Returned entities are new (unsaved).
+     */
+    public List<ReportApplicationRollup> aggregateApplicationRollups(ReportApplicationRollup.Bucket bucket) {
+        Where where = new Where();
+        if (bucket != null) {
+            where.and("e.eventId = :eventId", "eventId", bucket.eventId());
+            where.and("f.facilityId = :facilityId", "facilityId", bucket.facilityId());
+            where.and("u.userCategory = :ownerCategory", "ownerCategory", bucket.ownerCategory());
+            where.andDateRange("fa.applicationCreatedAt", bucket.day(), bucket.day());
+        }
+        String jpql = "SELECT CAST(fa.applicationCreatedAt AS LocalDate) AS bucketDate, " +
+                "e.eventId AS eventId, f.facilityId AS facilityId, u.userCategory AS ownerCategory, " +
+                "COUNT(fa) AS total, " + APPLICATION_STATUS_COUNTS + ", " +
+                "SUM(CASE WHEN p.paymentStatus = 'PAID' THEN 1 ELSE 0 END) AS paidCount, " +
+                PAID_AMOUNT + " AS paidAmount, " +
+                "COALESCE(SUM(CASE WHEN p.paymentStatus = 'UNPAID' THEN p.paymentAmount END), 0) AS unpaidAmount" +
+                APPLICATION_FROM + where.sql() +
+                " GROUP BY CAST(fa.applicationCreatedAt AS LocalDate), e.eventId, f.facilityId, u.userCategory";
+
+        return where.bind(entityManager.createQuery(jpql, Tuple.class)).getResultList().stream()
+                .map(t -> {
+                    ReportApplicationRollup r = new ReportApplicationRollup();
+                    r.setBucketDate(t.get("bucketDate", LocalDate.class));
+                    r.setEventId(t.get("eventId", Integer.class));
+                    r.setFacilityId(t.get("facilityId", Integer.class));
+                    r.setOwnerCategory(t.get("ownerCategory", User.UserCategory.class));
+                    r.setTotalCount(toInt(t.get("total")));
+                    r.setApprovedCount(toInt(t.get("approved")));
+                    r.setRejectedCount(toInt(t.get("rejected")));
+                    r.setPendingCount(toInt(t.get("pending")));
+                    r.setCancelledCount(toInt(t.get("cancelled")));
+                    r.setPaidCount(toInt(t.get("paidCount")));
+                    r.setPaidAmount(toMoney(t.get("paidAmount")));
+                    r.setUnpaidAmount(toMoney(t.get("unpaidAmount")));
+                    return r;
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Payment rollup rows (APPROVED applications only) — every bucket when bucket is null,
+     * otherwise only that bucket. Returned entities are new (unsaved).
+     */
+    public List<ReportPaymentRollup> aggregatePaymentRollups(ReportPaymentRollup.Bucket bucket) {
+        Where where = new Where();
+        where.and("fa.applicationStatus = 'APPROVED'");
+        if (bucket != null) {
+            where.and("e.eventId = :eventId", "eventId", bucket.eventId());
+            where.and("u.userCategory = :ownerCategory", "ownerCategory", bucket.ownerCategory());
+            where.andDateRange("p.paymentCreatedAt", bucket.day(), bucket.day());
+        }
+        String jpql = "SELECT CAST(p.paymentCreatedAt AS LocalDate) AS bucketDate, " +
+                "e.eventId AS eventId, u.userCategory AS ownerCategory, " +
+                "COUNT(p) AS total, COALESCE(SUM(p.paymentAmount), 0) AS billed, " +
+                "SUM(CASE WHEN p.paymentStatus = 'PAID' THEN 1 ELSE 0 END) AS paidCount, " +
+                PAID_AMOUNT + " AS paidAmount, " +
+                "SUM(CASE WHEN p.paymentStatus = 'UNPAID' THEN 1 ELSE 0 END) AS unpaidCount, " +
+                "COALESCE(SUM(CASE WHEN p.paymentStatus = 'UNPAID' THEN p.paymentAmount END), 0) AS unpaidAmount, " +
+                "SUM(CASE WHEN p.paymentStatus = 'FAILED' THEN 1 ELSE 0 END) AS failedCount, " +
+                "COALESCE(SUM(CASE WHEN p.paymentStatus = 'FAILED' THEN p.paymentAmount END), 0) AS failedAmount" +
+                PAYMENT_FROM + where.sql() +
+                " GROUP BY CAST(p.paymentCreatedAt AS LocalDate), e.eventId, u.userCategory";
+
+        return where.bind(entityManager.createQuery(jpql, Tuple.class)).getResultList().stream()
+                .map(t -> {
+                    ReportPaymentRollup r = new ReportPaymentRollup();
+                    r.setBucketDate(t.get("bucketDate", LocalDate.class));
+                    r.setEventId(t.get("eventId", Integer.class));
+                    r.setOwnerCategory(t.get("ownerCategory", User.UserCategory.class));
+                    r.setTotalCount(toInt(t.get("total")));
+                    r.setBilledAmount(toMoney(t.get("billed")));
+                    r.setPaidCount(toInt(t.get("paidCount")));
+                    r.setPaidAmount(toMoney(t.get("paidAmount")));
+                    r.setUnpaidCount(toInt(t.get("unpaidCount")));
+                    r.setUnpaidAmount(toMoney(t.get("unpaidAmount")));
+                    r.setFailedCount(toInt(t.get("failedCount")));
+                    r.setFailedAmount(toMoney(t.get("failedAmount")));
+                    return r;
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Current rollup buckets of the given applications.
+     * Aliases: applicationId, applicationCreatedAt, eventId, facilityId, ownerCategory,
+     *          paymentCreatedAt (null = no payment)
+     */
+    public List<Tuple> findRollupBuckets(Collection<Integer> applicationIds) {
+        String jpql = "SELECT fa.applicationId AS applicationId, " +
+                "fa.applicationCreatedAt AS applicationCreatedAt, e.eventId AS eventId, " +
+                "f.facilityId AS facilityId, u.userCategory AS ownerCategory, " +
+                "p.paymentCreatedAt AS paymentCreatedAt" +
+                APPLICATION_FROM +
+                " WHERE fa.applicationId IN :applicationIds";
+        return entityManager.createQuery(jpql, Tuple.class)
+                .setParameter("applicationIds", applicationIds)
+                .getResultList();
+    }
+
+    /** Every application of the businesses owned by userId */
+    public List<Integer> findApplicationIdsByOwner(Long userId) {
+        return entityManager.createQuery(
+                        "SELECT fa.applicationId FROM FacilityApplication fa WHERE fa.business.user.userId = :userId",
+                        Integer.class)
+                .setParameter("userId", userId)
+                .getResultList();
+    }
+
+    // ==================== SNAPSHOT LOAD ====================
+
+    /**
+     * Application rows for ReportSnapshot — every application when applicationIds is null.
+     * Event facility and business are read as foreign-key paths (no join to the soft-deleted
+     * EVENT / FACILITY rows), the snapshot resolves them against its own dimension tables.
+     * Aliases: applicationId, eventFacilityId, businessId, applicationStatus, ownerCategory,
+     *          applicationCreatedAt, paymentStatus, paymentAmount, paymentCreatedAt
+     *
+     * Read through a cursor like the exports — consume and close inside the caller's transaction.
+     */
+    public Stream<Tuple> streamSnapshotRows(Collection<Integer> applicationIds, int fetchSize) {
+        String jpql = "SELECT fa.applicationId AS applicationId, " +
+                "fa.eventFacility.eventFacilityId AS eventFacilityId, b.businessId AS businessId, " +
+                "fa.applicationStatus AS applicationStatus, u.userCategory AS ownerCategory, " +
+                "fa.applicationCreatedAt AS applicationCreatedAt, p.paymentStatus AS paymentStatus, " +
+                "p.paymentAmount AS paymentAmount, p.paymentCreatedAt AS paymentCreatedAt" +
+                " FROM FacilityApplication fa" +
+                " JOIN fa.business b" +
+                " JOIN b.user u" +
+                " LEFT JOIN Payment p ON p.application = fa" +
+                (applicationIds != null ? " WHERE fa.applicationId IN :applicationIds" : "");
+
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql, Tuple.class);
+        if (applicationIds != null) {
+            query.setParameter("applicationIds", applicationIds);
+        }
+        return forExport(query, fetchSize).getResultStream();
+    }
+
+    /** Live events. Aliases: eventId, eventName, eventVenue, eventStatus, eventStartDate, eventEndDate */
+    public List<Tuple> findSnapshotEvents() {
+        return entityManager.createQuery("SELECT e.eventId AS eventId, e.eventName AS eventName, " +
+                "e.eventVenue AS eventVenue, e.eventStatus AS eventStatus, " +
+                "e.eventStartDate AS eventStartDate, e.eventEndDate AS eventEndDate" +
+                " FROM Event e ORDER BY e.eventId", Tuple.class).getResultList();
+    }
+
+    /** Live facilities. Aliases: facilityId, facilityName, facilityType, facilitySize */
+    public List<Tuple> findSnapshotFacilities() {
+        return entityManager.createQuery("SELECT f.facilityId AS facilityId, f.facilityName AS facilityName, " +
+                "f.facilityType AS facilityType, f.facilitySize AS facilitySize" +
+                " FROM Facility f ORDER BY f.facilityId", Tuple.class).getResultList();
+    }
+
+    /**
+     * All event facilities, including those of soft-deleted events / facilities (foreign keys only).
+     * Aliases: eventFacilityId, eventId, facilityId, slotsOffered, slotsRemaining
+     */
+    public List<Tuple> findSnapshotEventFacilities() {
+        return entityManager.createQuery("SELECT ef.eventFacilityId AS eventFacilityId, " +
+                "ef.event.eventId AS eventId, ef.facility.facilityId AS facilityId, " +
+                "COALESCE(ef.originalQuantityTotal, ef.quantityFacilityAvailable, 0) AS slotsOffered, " +
+                "COALESCE(ef.quantityFacilityAvailable, 0) AS slotsRemaining" +
+                " FROM EventFacility ef", Tuple.class).getResultList();
+    }
+
+    /** Aliases: businessId, businessName, ownerId, ownerName, ownerCategory */
+    public List<Tuple> findSnapshotBusinesses() {
+        return entityManager.createQuery("SELECT b.businessId AS businessId, b.businessName AS businessName, " +
+                "u.userId AS ownerId, u.userName AS ownerName, u.userCategory AS ownerCategory" +
+                " FROM Business b JOIN b.user u", Tuple.class).getResultList();
+    }
+
+    // ==================== EXPORT CURSOR ====================
+
+    /**
+     * Configures a row query for streaming export: read-only (no snapshots kept) and a JDBC
+     * fetch size so the driver hands rows over in small batches instead of buffering the whole
+     * result. With MySQL Connector/J, Integer.MIN_VALUE switches to row-by-row streaming.
+     *
+     * getResultStream() holds the connection open — consume and close the stream
+     * inside the caller's (read-only) transaction.
+     */
+    private static TypedQuery<Tuple> forExport(TypedQuery<Tuple> query, int fetchSize) {
+        query.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+        query.setHint(HibernateHints.HINT_READ_ONLY, true);
+        return query;
+    }
+
+    // ==================== KEYSET PAGING ====================
+
+    private static String sortColumn(Map<String, String> columns, Keyset keyset) {
+        String column = columns.get(keyset.sort());
+        if (column == null) {
+            throw new IllegalArgumentException("Unsupported sort: " + keyset.sort());
+        }
+        return column;
+    }
+
+    private static <T> TypedQuery<T> limit(TypedQuery<T> query, Keyset keyset) {
+        return keyset != null ? query.setMaxResults(keyset.limit()) : query;
+    }
+
+    // ==================== FILTER → WHERE CLAUSE ====================
+
+    /** Reports 1 + 3: event, facility, owner category, application status, application date, payment status */
+    private Where applicationWhere(ReportFilterRequest filter) {
+        Where where = new Where();
+        if (filter.getEventId() != null) {
+            where.and("e.eventId = :eventId", "eventId", filter.getEventId());
+        }
+        if (filter.getFacilityId() != null) {
+            where.and("f.facilityId = :facilityId", "facilityId", filter.getFacilityId());
+        }
+        where.andEnum("u.userCategory = :ownerCategory", "ownerCategory",
+                User.UserCategory.class, filter.getOwnerCategory());
+        where.andEnum("fa.applicationStatus = :applicationStatus", "applicationStatus",
+                FacilityApplication.ApplicationStatus.class, filter.getApplicationStatus());
+        where.andEnum("p.paymentStatus = :paymentStatus", "paymentStatus",
+                Payment.PaymentStatus.class, filter.getPaymentStatus());
+        where.andDateRange("fa.applicationCreatedAt", filter.getStartDate(), filter.getEndDate());
+        return where;
+    }
+
+    /** Report 2: APPROVED applications with a payment; event, owner category, payment status, payment date */
+    private Where paymentWhere(ReportFilterRequest filter) {
+        Where where = new Where();
+        where.and("fa.applicationStatus = 'APPROVED'");
+        if (filter.getEventId() != null) {
+            where.and("e.eventId = :eventId", "eventId", filter.getEventId());
+        }
+        where.andEnum("u.userCategory = :ownerCategory", "ownerCategory",
+                User.UserCategory.class, filter.getOwnerCategory());
+        where.andEnum("p.paymentStatus = :paymentStatus", "paymentStatus",
+                Payment.PaymentStatus.class, filter.getPaymentStatus());
+        where.andDateRange("p.paymentCreatedAt", filter.getStartDate(), filter.getEndDate());
+        return where;
+    }
+
+    /** Report 4: event status (case-insensitive) + event start date */
+    private Where eventWhere(ReportFilterRequest filter) {
+        Where where = new Where();
+        if (hasText(filter.getEventStatus())) {
+            where.and("LOWER(e.eventStatus) = :eventStatus", "eventStatus", filter.getEventStatus().toLowerCase());
+        }
+        where.andEventDateRange(filter.getStartDate(), filter.getEndDate());
+        return where;
+    }
+
+    /** Report 5: facility type (case-insensitive), event, event start date */
+    private Where eventFacilityWhere(ReportFilterRequest filter) {
+        Where where = new Where();
+        if (hasText(filter.getFacilityType())) {
+            where.and("LOWER(f.facilityType) = :facilityType", "facilityType", filter.getFacilityType().toLowerCase());
+        }
+        if (filter.getEventId() != null) {
+            where.and("e.eventId = :eventId", "eventId", filter.getEventId());
+        }
+        where.andEventDateRange(filter.getStartDate(), filter.getEndDate());
+        return where;
+    }
+
+    /** Application rollup: event, facility, owner category, application day */
+    private Where applicationRollupWhere(ReportFilterRequest filter) {
+        Where where = new Where();
+        if (filter.getEventId() != null) {
+            where.and("r.eventId = :eventId", "eventId", filter.getEventId());
+        }
+        if (filter.getFacilityId() != null) {
+            where.and("r.facilityId = :facilityId", "facilityId", filter.getFacilityId());
+        }
+        where.andEnum("r.ownerCategory = :ownerCategory", "ownerCategory",
+                User.UserCategory.class, filter.getOwnerCategory());
+        where.andBucketRange(filter.getStartDate(), filter.getEndDate());
+        return where;
+    }
+
+    /** Payment rollup: event, owner category, payment day */
+    private Where paymentRollupWhere(ReportFilterRequest filter) {
+        Where where = new Where();
+        if (filter.getEventId() != null) {
+            where.and("r.eventId = :eventId", "eventId", filter.getEventId());
+        }
+        where.andEnum("r.ownerCategory = :ownerCategory", "ownerCategory",
+                User.UserCategory.class, filter.getOwnerCategory());
+        where.andBucketRange(filter.getStartDate(), filter.getEndDate());
+        return where;
+    }
+
+    /**
+     * Accumulates AND-ed JPQL predicates and their bind parameters.
+     * Blank filter values add nothing; an unknown enum value adds a predicate that matches no rows
+     * (same result the old in-memory equalsIgnoreCase filter gave).
+     */
+    private static final class Where {
+        private final List<String> clauses = new ArrayList<>();
+        private final Map<String, Object> params = new LinkedHashMap<>();
+
+        void and(String clause) {
+            clauses.add(clause);
+        }
+
+        void and(String clause, String param, Object value) {
+            clauses.add(clause);
+            params.put(param, value);
+        }
+
+        <E extends Enum<E>> void andEnum(String clause, String param, Class<E> type, String value) {
+            if (!hasText(value)) return;
+            try {
+                and(clause, param, Enum.valueOf(type, value.trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                and("1 = 0");
+            }
+        }
+
+        /** Inclusive LocalDate range over a LocalDateTime column — half-open so the column index stays usable */
+        void andDateRange(String column, LocalDate start, LocalDate end) {
+            if (start != null) {
+                and(column + " >= :rangeStart", "rangeStart", start.atStartOfDay());
+            }
+            if (end != null) {
+                and(column + " < :rangeEnd", "rangeEnd", end.plusDays(1).atStartOfDay());
+            }
+        }
+
+        void andEventDateRange(LocalDate start, LocalDate end) {
+            if (start != null) {
+                and("e.eventStartDate >= :eventStart", "eventStart", start);
+            }
+            if (end != null) {
+                and("e.eventStartDate <= :eventEnd", "eventEnd", end);
+            }
+        }
+
+        /** Inclusive LocalDate range over a rollup's bucket_date */
+        void andBucketRange(LocalDate start, LocalDate end) {
+            if (start != null) {
+                and("r.bucketDate >= :bucketStart", "bucketStart", start);
+            }
+            if (end != null) {
+                and("r.bucketDate <= :bucketEnd", "bucketEnd", end);
+            }
+        }
+
+        /**
+         * Keyset predicate: rows strictly after (afterValue, afterId) in the keyset's direction.
+         * NULL never compares, so the NULL block (first ascending, last descending) is spelled out.
+         */
+        void andAfter(String column, String idColumn, Keyset keyset) {
+            if (keyset.afterId() == null) return;
+            String op = keyset.descending() ? " < " : " > ";
+            String sameValueLaterId;
+            if (keyset.afterValue() == null) {
+                sameValueLaterId = "(" + column + " IS NULL AND " + idColumn + op + ":afterId)";
+                and(keyset.descending()
+                        ? sameValueLaterId
+                        : "(" + sameValueLaterId + " OR " + column + " IS NOT NULL)");
+            } else {
+                sameValueLaterId = "(" + column + " = :afterValue AND " + idColumn + op + ":afterId)";
+                and("(" + column + op + ":afterValue OR " + sameValueLaterId
+                        + (keyset.descending() ? " OR " + column + " IS NULL)" : ")"));
+                params.put("afterValue", keyset.afterValue());
+            }
+            params.put("afterId", keyset.afterId().intValue());
+        }
+
+        String sql() {
+            return clauses.isEmpty() ? "" : " WHERE " + String.join(" AND ", clauses);
+        }
+
+        <T> TypedQuery<T> bind(TypedQuery<T> query) {
+            params.forEach(query::setParameter);
+            return query;
+        }
+    }
+
+    // ==================== MAPPING HELPERS ====================
+
+    private FacilityRentalRow toFacilityRentalRow(Tuple t) {
+        Payment.PaymentStatus paymentStatus = t.get("paymentStatus", Payment.PaymentStatus.class);
+
+        FacilityRentalRow row = new FacilityRentalRow();
+        row.setApplicationId(t.get("applicationId", Integer.class));
+        row.setEventName(t.get("eventName", String.class));
+        row.setEventVenue(t.get("eventVenue", String.class));
+        row.setEventStatus(t.get("eventStatus", String.class));
+        row.setFacilityName(t.get("facilityName", String.class));
+        row.setFacilityType(t.get("facilityType", String.class));
+        row.setBusinessId(t.get("businessId", Long.class));
+        row.setBusinessName(t.get("businessName", String.class));
+        row.setOwnerId(t.get("ownerId", Long.class));
+        row.setOwnerName(t.get("ownerName", String.class));
+        row.setOwnerCategory(t.get("ownerCategory", User.UserCategory.class).name());
+        row.setApplicationStatus(t.get("applicationStatus", FacilityApplication.ApplicationStatus.class).name());
+        row.setApplicationCreatedAt(t.get("applicationCreatedAt", LocalDateTime.class));
+        if (paymentStatus != null) {
+            row.setPaymentStatus(paymentStatus.name());
+            row.setPaymentAmount(t.get("paymentAmount", BigDecimal.class));
+        }
+        return row;
+    }
+
+    private RevenueRow toRevenueRow(Tuple t) {
+        return new RevenueRow(
+                t.get("applicationId", Integer.class),
+                t.get("eventName", String.class),
+                t.get("businessName", String.class),
+                t.get("ownerName", String.class),
+                t.get("ownerCategory", User.UserCategory.class).name(),
+                t.get("amountBilled", BigDecimal.class),
+                t.get("paymentStatus", Payment.PaymentStatus.class).name(),
+                t.get("paymentCreatedAt", LocalDateTime.class));
+    }
+
+    private BusinessActivityRow toBusinessActivityRow(Tuple t) {
+        return new BusinessActivityRow(
+                t.get("businessId", Long.class),
+                t.get("businessName", String.class),
+                t.get("ownerName", String.class),
+                t.get("ownerCategory", User.UserCategory.class).name(),
+                toInt(t.get("total")),
+                toInt(t.get("approved")),
+                toInt(t.get("rejected")),
+                toInt(t.get("cancelled")),
+                toInt(t.get("paidCount")),
+                0, 0, 0,
+                toMoney(t.get("paidAmount")));
+    }
+
+    /** Slots taken so far = original total − current remaining (never negative) */
+    private int slotsFilled(Tuple t) {
+        return Math.max(0, toInt(t.get("slotsOffered")) - toInt(t.get("slotsRemaining")));
+    }
+
+    /** SUM/COUNT come back as Long (or null on an empty group) depending on the dialect */
+    public static int toInt(Object value) {
+        return value == null ? 0 : ((Number) value).intValue();
+    }
+
+    public static BigDecimal toMoney(Object value) {
+        if (value == null) return BigDecimal.ZERO;
+        if (value instanceof BigDecimal bd) return bd;
+        return new BigDecimal(value.toString());
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -1,5 +1,6 @@
 package com.mpp.rental.repository;
 
+import com.mpp.rental.model.Notification;
 import com.mpp.rental.model.User;
 import com.mpp.rental.model.User.UserStatus;
 import com.mpp.rental.model.User.UserCategory;
@@ -121,4 +122,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     @Query("SELECT u.userId FROM User u WHERE u.userCategory = 'NON_STUDENT' AND u.userStatus = 'ACTIVE'")
     List<Long> findNonStudentUserIds();
+
+    /**
+     * Current members of a broadcast audience
+     */
+    default List<Long> findAudienceUserIds(Notification.Audience audience) {
+        return switch (audience) {
+            case BUSINESS_OWNERS -> findBusinessOwnerUserIds();
+            case STUDENT -> findStudentUserIds();
+            case NON_STUDENT -> findNonStudentUserIds();
+        };
+    }
 }
\ No newline at end of file
@@ -223,13 +223,12 @@ public class FacilityApplicationService {
 
         List<FacilityApplication> applications = applicationRepository.findAllByUserId(user.getUserId());
 
+        // One batched payment lookup instead of one query per application
+        PaymentsByApplication paymentMap = paymentRepository.findMapByApplicationIds(
+                applications.stream().map(FacilityApplication::getApplicationId).collect(Collectors.toList()));
+
         return applications.stream()
-                .map(app -> {
-                    Payment payment = paymentRepository
-                            .findByApplication_ApplicationId(app.getApplicationId())
-                            .orElse(null);
-                    return mapToApplicationResponse(app, payment);
-                })
+                .map(app -> mapToApplicationResponse(app, paymentMap.get(app.getApplicationId())))
                 .collect(Collectors.toList());
     }
 
@@ -1,6 +1,5 @@
 package com.mpp.rental.service;
 
-import com.google.firebase.messaging.*;
 import com.mpp.rental.model.FcmToken;
 import com.mpp.rental.model.User;
 import com.mpp.rental.repository.FcmTokenRepository;
@@ -15,13 +14,13 @@ import java.util.List;
 
 /**
  * FcmService — Phase 2: sends browser push notifications via Firebase Cloud Messaging.
- * Called by NotificationService when target user is NOT online (no active SSE connection).
+ * Used by NotificationDispatcher for recipients with no live SSE connection (offline, not reconnecting).
  *
  * Flow:
  * 1. User logs in → frontend requests browser notification permission
  * 2. Firebase gives browser a unique FCM token
  * 3. Frontend calls POST /api/notifications/fcm-token to save it here
- * 4. When user is offline, NotificationService calls FcmService.sendPush()
+ * 4. NotificationDispatcher pushes through PushGateway (FirebasePushGateway — batched sends)
  * 5. Firebase pushes browser notification to user's device
  * 6. User clicks notification → browser opens, navigates to correct page
  * 7. On logout → frontend calls DELETE /api/notifications/fcm-token
@@ -33,13 +32,19 @@ public class FcmService {
 
     private final FcmTokenRepository fcmTokenRepository;
     private final UserRepository userRepository;
+    private final PushGateway pushGateway;
+    private final PushTopicService pushTopicService;
+    private final PushRetryService pushRetryService;
 
     // ==================== TOKEN MANAGEMENT ====================
 
     /**
      * Save or update FCM token for the currently logged-in user.
      * Called when frontend registers a browser token after permission is granted.
-     * If token already exists, just reactivate it.
+     * If token already exists, reactivate it and hand it to this user — a browser shared by
+     * several accounts pushes for whoever registered it last.
+     * Either way the token is subscribed to the user's audience topics (see PushTopicService),
+     * and a token taken over from another user leaves that user's topics.
      */
     @Transactional
     public void saveToken(String fcmToken, String deviceInfo) {
@@ -50,10 +55,14 @@ public class FcmService {
         // Check if token already exists — update it instead of creating duplicate
         fcmTokenRepository.findByFcmToken(fcmToken).ifPresentOrElse(
                 existing -> {
+                    User previousOwner = existing.getUser();
+                    existing.setUser(user);
                     existing.setIsActive(true);
                     existing.setDeviceInfo(deviceInfo);
                     fcmTokenRepository.save(existing);
-                    log.info("FCM token reactivated for userId={}", user.getUserId());
+                    pushTopicService.transferAfterCommit(fcmToken, previousOwner, user);
+                    log.info("FCM token reactivated for userId={} (previously userId={})",
+                            user.getUserId(), previousOwner.getUserId());
                 },
                 () -> {
                     FcmToken token = new FcmToken();
@@ -62,6 +71,7 @@ public class FcmService {
                     token.setDeviceInfo(deviceInfo);
                     token.setIsActive(true);
                     fcmTokenRepository.save(token);
+                    pushTopicService.subscribeAfterCommit(fcmToken, user);
                     log.info("FCM token saved for userId={}", user.getUserId());
                 }
         );
@@ -88,71 +98,18 @@ public class FcmService {
 
     /**
      * Send FCM push notification to a single user (all their active devices).
-     * Called by NotificationService when user is offline (no SSE connection).
      */
     public void sendPush(Long userId, String title, String body, String referenceType, Long referenceId) {
-        List<FcmToken> tokens = fcmTokenRepository.findByUser_UserIdAndIsActiveTrue(userId);
-
-        if (tokens.isEmpty()) {
-            log.debug("No active FCM tokens for userId={}, skipping push", userId);
-            return;
-        }
-
-        for (FcmToken tokenRecord : tokens) {
-            try {
-                Message message = Message.builder()
-                        .setToken(tokenRecord.getFcmToken())
-                        .setNotification(Notification.builder()
-                                .setTitle(title)
-                                .setBody(body)
-                                .build())
-                        // Pass extra data so frontend knows where to navigate on click
-                        .putData("referenceType", referenceType != null ? referenceType : "")
-                        .putData("referenceId", referenceId != null ? referenceId.toString() : "")
-                        .putData("userId", userId.toString())
-                        // Web push config — shows notification even when tab is closed
-                        .setWebpushConfig(WebpushConfig.builder()
-                                .setNotification(WebpushNotification.builder()
-                                        .setTitle(title)
-                                        .setBody(body)
-                                        .setIcon("/favicon.ico")
-                                        .setBadge("/favicon.ico")
-                                        .build())
-                                .setFcmOptions(WebpushFcmOptions.builder()
-                                        .setLink("/notifications")
-                                        .build())
-                                .build())
-                        .build();
-
-                String response = FirebaseMessaging.getInstance().send(message);
-                log.info("FCM push sent to userId={}, messageId={}", userId, response);
-
-            } catch (FirebaseMessagingException e) {
-                log.warn("FCM push failed for userId={}, token={}: {}",
-                        userId, tokenRecord.getFcmToken().substring(0, 20) + "...", e.getMessage());
-
-                // If token is invalid/expired, deactivate it
-                if (e.getMessagingErrorCode() == MessagingErrorCode.UNREGISTERED
-                        || e.getMessagingErrorCode() == MessagingErrorCode.INVALID_ARGUMENT) {
-                    tokenRecord.setIsActive(false);
-                    fcmTokenRepository.save(tokenRecord);
-                    log.info("Deactivated invalid FCM token for userId={}", userId);
-                }
-            }
-        }
+        sendPushToMany(List.of(userId), title, body, referenceType, referenceId);
     }
 
     /**
-     * Send FCM push to multiple users at once (e.g. all MPP users).
+     * Send FCM push to multiple users at once (e.g. all MPP users) — batched, see FirebasePushGateway.
+     * Devices that failed for a transient reason are retried later by PushRetryService.
      */
     public void sendPushToMany(List<Long> userIds, String title, String body,
                                String referenceType, Long referenceId) {
-        for (Long userId : userIds) {
-            try {
-                sendPush(userId, title, body, referenceType, referenceId);
-            } catch (Exception e) {
-                log.warn("Failed to send FCM to userId={}: {}", userId, e.getMessage());
-            }
-        }
+        PushGateway.PushMessage message = new PushGateway.PushMessage(title, body, referenceType, referenceId);
+        pushRetryService.enqueue(pushGateway.send(userIds, message).retryable(), message);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,196 @@
+package com.mpp.rental.service;
+
+import com.google.firebase.messaging.*;
+import com.mpp.rental.repository.FcmTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * FirebasePushGateway - PushGateway backed by Firebase Cloud Messaging.
+ *
+ * One send loads the active tokens of all recipients in one query per USER_CHUNK_SIZE users,
+ * sends one message per token through sendEach in batches of MAX_BATCH_SIZE (the FCM limit), and
+ * deactivates every token FCM reported as UNREGISTERED / INVALID_ARGUMENT in one UPDATE.
+ * Topic sends are a single message; topic (un)subscriptions go out TOPIC_CHUNK_SIZE tokens per call.
+ * Targets that failed with UNAVAILABLE / INTERNAL / QUOTA_EXCEEDED or a network error are
+ * returned as retryable.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.push.gateway", havingValue = "firebase", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class FirebasePushGateway implements PushGateway {
+
+    /** Messages per sendEach call — FCM rejects larger batches */
+    static final int MAX_BATCH_SIZE = 500;
+
+    /** Tokens per subscribeToTopic / unsubscribeFromTopic call — the FCM limit */
+    private static final int TOPIC_CHUNK_SIZE = 1000;
+
+    /** Recipients per token query — keeps the IN list well under driver / server limits */
+    private static final int USER_CHUNK_SIZE = 1000;
+
+    private final FcmTokenRepository fcmTokenRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Override
+    public PushResult send(Collection<Long> userIds, PushMessage message) {
+        List<Long> ids = userIds.stream().distinct().toList();
+        List<Target> targets = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += USER_CHUNK_SIZE) {
+            fcmTokenRepository.findPushTargets(ids.subList(from, Math.min(from + USER_CHUNK_SIZE, ids.size())))
+                    .forEach(t -> targets.add(Target.device(t.getUserId(), t.getFcmToken())));
+        }
+        if (targets.isEmpty()) {
+            log.debug("No active FCM tokens for {} users, skipping push", ids.size());
+            return PushResult.NONE;
+        }
+        return sendToTargets(targets, message);
+    }
+
+    @Override
+    public PushResult sendToTopic(String topic, PushMessage message) {
+        return sendToTargets(List.of(Target.topic(topic)), message);
+    }
+
+    @Override
+    public PushResult sendToTargets(List<Target> targets, PushMessage message) {
+        int sent = 0;
+        int failed = 0;
+        List<String> invalidTokens = new ArrayList<>();
+        List<Target> retryable = new ArrayList<>();
+
+        for (Target topic : targets.stream().filter(t -> t.topic() != null).toList()) {
+            try {
+                String response = FirebaseMessaging.getInstance().send(baseMessage(message).setTopic(topic.topic()).build());
+                sent++;
+                log.info("FCM push sent to topic {}, messageId={}", topic.topic(), response);
+            } catch (FirebaseMessagingException e) {
+                failed++;
+                if (isTransient(e)) {
+                    retryable.add(topic);
+                }
+                log.warn("FCM push to topic {} failed: {}", topic.topic(), e.getMessage());
+            }
+        }
+
+        List<Target> devices = targets.stream().filter(t -> t.fcmToken() != null).toList();
+        for (int from = 0; from < devices.size(); from += MAX_BATCH_SIZE) {
+            List<Target> batch = devices.subList(from, Math.min(from + MAX_BATCH_SIZE, devices.size()));
+            try {
+                List<SendResponse> responses = FirebaseMessaging.getInstance()
+                        .sendEach(batch.stream().map(t -> baseMessage(message)
+                                .setToken(t.fcmToken())
+                                .putData("userId", t.userId().toString())
+                                .build()).toList())
+                        .getResponses();
+                for (int i = 0; i < responses.size(); i++) {
+                    SendResponse response = responses.get(i);
+                    if (response.isSuccessful()) {
+                        sent++;
+                        continue;
+                    }
+                    failed++;
+                    FirebaseMessagingException e = response.getException();
+                    if (e != null && (e.getMessagingErrorCode() == MessagingErrorCode.UNREGISTERED
+                            || e.getMessagingErrorCode() == MessagingErrorCode.INVALID_ARGUMENT)) {
+                        invalidTokens.add(batch.get(i).fcmToken());
+                    } else if (e == null || isTransient(e)) {
+                        retryable.add(batch.get(i));
+                    }
+                }
+            } catch (FirebaseMessagingException e) {
+                failed += batch.size();
+                if (isTransient(e)) {
+                    retryable.addAll(batch);
+                }
+                log.warn("FCM batch of {} failed: {}", batch.size(), e.getMessage());
+            }
+        }
+
+        // If tokens are invalid/expired, deactivate them
+        int deactivated = 0;
+        if (!invalidTokens.isEmpty()) {
+            deactivated = new TransactionTemplate(transactionManager)
+                    .execute(status -> fcmTokenRepository.deactivateTokens(invalidTokens));
+            log.info("Deactivated {} invalid FCM tokens", deactivated);
+        }
+        if (!devices.isEmpty()) {
+            log.info("FCM push sent to {} devices ({} failed, {} to retry)", sent, failed, retryable.size());
+        }
+        return new PushResult(sent, failed, deactivated, retryable);
+    }
+
+    /**
+     * FCM outage, throttling or a network error (no error code) — worth retrying later
+     */
+    private static boolean isTransient(FirebaseMessagingException e) {
+        MessagingErrorCode code = e.getMessagingErrorCode();
+        return code == null
+                || code == MessagingErrorCode.UNAVAILABLE
+                || code == MessagingErrorCode.INTERNAL
+                || code == MessagingErrorCode.QUOTA_EXCEEDED;
+    }
+
+    @Override
+    public void subscribe(Collection<String> tokens, String topic) {
+        manageTopic(tokens, topic, true);
+    }
+
+    @Override
+    public void unsubscribe(Collection<String> tokens, String topic) {
+        manageTopic(tokens, topic, false);
+    }
+
+    private void manageTopic(Collection<String> tokens, String topic, boolean subscribe) {
+        List<String> all = List.copyOf(tokens);
+        int failures = 0;
+        for (int from = 0; from < all.size(); from += TOPIC_CHUNK_SIZE) {
+            List<String> chunk = all.subList(from, Math.min(from + TOPIC_CHUNK_SIZE, all.size()));
+            try {
+                TopicManagementResponse response = subscribe
+                        ? FirebaseMessaging.getInstance().subscribeToTopic(chunk, topic)
+                        : FirebaseMessaging.getInstance().unsubscribeFromTopic(chunk, topic);
+                failures += response.getFailureCount();
+            } catch (FirebaseMessagingException e) {
+                failures += chunk.size();
+                log.warn("FCM topic {} {} failed for {} tokens: {}",
+                        topic, subscribe ? "subscribe" : "unsubscribe", chunk.size(), e.getMessage());
+            }
+        }
+        log.info("FCM topic {}: {} {} tokens ({} failed)",
+                topic, subscribe ? "subscribed" : "unsubscribed", all.size(), failures);
+    }
+
+    /** Message without a target — callers add setToken (+ userId) or setTopic */
+    private static Message.Builder baseMessage(PushMessage message) {
+        return Message.builder()
+                .setNotification(Notification.builder()
+                        .setTitle(message.title())
+                        .setBody(message.body())
+                        .build())
+                // Pass extra data so frontend knows where to navigate on click
+                .putData("referenceType", message.referenceType() != null ? message.referenceType() : "")
+                .putData("referenceId", message.referenceId() != null ? message.referenceId().toString() : "")
+                // Web push config — shows notification even when tab is closed
+                .setWebpushConfig(WebpushConfig.builder()
+                        .setNotification(WebpushNotification.builder()
+                                .setTitle(message.title())
+                                .setBody(message.body())
+                                .setIcon("/favicon.ico")
+                                .setBadge("/favicon.ico")
+                                .build())
+                        .setFcmOptions(WebpushFcmOptions.builder()
+                                .setLink("/notifications")
+                                .build())
+                        .build());
+    }
+}
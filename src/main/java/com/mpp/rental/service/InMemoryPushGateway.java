@@ -0,0 +1,107 @@
+package com.mpp.rental.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * InMemoryPushGateway - fake PushGateway for offline fan-out benchmarks (notification.push.gateway=in-memory).
+ *
+ * Every recipient is treated as having notification.push.in-memory.devices-per-user devices; the
+ * devices are "sent" in batches of FirebasePushGateway.MAX_BATCH_SIZE, each batch waiting
+ * notification.push.in-memory.batch-latency-ms to stand in for the FCM round trip. Nothing leaves
+ * the process and no tokens are read; the counters show what a real gateway would have sent.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.push.gateway", havingValue = "in-memory")
+@Slf4j
+public class InMemoryPushGateway implements PushGateway {
+
+    private final int devicesPerUser;
+    private final long batchLatencyNanos;
+
+    private final AtomicLong sends = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong devices = new AtomicLong();
+
+    public InMemoryPushGateway(
+            @Value("${notification.push.in-memory.devices-per-user:1}") int devicesPerUser,
+            @Value("${notification.push.in-memory.batch-latency-ms:0}") long batchLatencyMs) {
+        this.devicesPerUser = devicesPerUser;
+        this.batchLatencyNanos = TimeUnit.MILLISECONDS.toNanos(batchLatencyMs);
+        log.warn("In-memory push gateway active — no FCM pushes will be delivered");
+    }
+
+    @Override
+    public PushResult send(Collection<Long> userIds, PushMessage message) {
+        int targets = (int) userIds.stream().distinct().count() * devicesPerUser;
+        if (targets == 0) {
+            return PushResult.NONE;
+        }
+        int batchCount = (targets + FirebasePushGateway.MAX_BATCH_SIZE - 1) / FirebasePushGateway.MAX_BATCH_SIZE;
+        if (batchLatencyNanos > 0) {
+            LockSupport.parkNanos(batchCount * batchLatencyNanos);
+        }
+        sends.incrementAndGet();
+        batches.addAndGet(batchCount);
+        devices.addAndGet(targets);
+        return new PushResult(targets, 0, 0, List.of());
+    }
+
+    @Override
+    public PushResult sendToTopic(String topic, PushMessage message) {
+        if (batchLatencyNanos > 0) {
+            LockSupport.parkNanos(batchLatencyNanos);
+        }
+        sends.incrementAndGet();
+        batches.incrementAndGet();
+        return new PushResult(1, 0, 0, List.of());
+    }
+
+    @Override
+    public PushResult sendToTargets(List<Target> targets, PushMessage message) {
+        if (targets.isEmpty()) {
+            return PushResult.NONE;
+        }
+        int batchCount = (targets.size() + FirebasePushGateway.MAX_BATCH_SIZE - 1) / FirebasePushGateway.MAX_BATCH_SIZE;
+        if (batchLatencyNanos > 0) {
+            LockSupport.parkNanos(batchCount * batchLatencyNanos);
+        }
+        sends.incrementAndGet();
+        batches.addAndGet(batchCount);
+        devices.addAndGet(targets.stream().filter(t -> t.fcmToken() != null).count());
+        return new PushResult(targets.size(), 0, 0, List.of());
+    }
+
+    @Override
+    public void subscribe(Collection<String> tokens, String topic) {
+        // no devices to subscribe
+    }
+
+    @Override
+    public void unsubscribe(Collection<String> tokens, String topic) {
+        // no devices to unsubscribe
+    }
+
+    /** send() / sendToTopic() / sendToTargets() calls so far */
+    public long getSends() {
+        return sends.get();
+    }
+
+    /** sendEach batches (and topic sends) a real gateway would have made */
+    public long getBatches() {
+        return batches.get();
+    }
+
+    /** Devices "pushed" to by send() — topic sends reach an unknown number */
+    public long getDevices() {
+        return devices.get();
+    }
+}
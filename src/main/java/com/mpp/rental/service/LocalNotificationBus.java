@@ -0,0 +1,23 @@
+package com.mpp.rental.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * LocalNotificationBus - the single-node NotificationBus (notification.bus=local, default):
+ * every connection is on this node, so there is nobody to forward to and nothing ever arrives.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.bus", havingValue = "local", matchIfMissing = true)
+public class LocalNotificationBus implements NotificationBus {
+
+    @Override
+    public void publish(Message message) {
+    }
+
+    @Override
+    public void subscribe(Consumer<Message> listener) {
+    }
+}
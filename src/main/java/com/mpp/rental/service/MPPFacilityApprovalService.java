@@ -95,6 +95,10 @@ public class MPPFacilityApprovalService {
 
         List<FacilityApplication> apps = applicationRepository.findAllByEventIdWithDetails(eventId);
 
+        // One batched payment lookup instead of one query per application
+        PaymentsByApplication paymentMap = paymentRepository.findMapByApplicationIds(
+                apps.stream().map(FacilityApplication::getApplicationId).collect(Collectors.toList()));
+
         return apps.stream()
                 .filter(app -> {
                     if (statusFilter != null && !statusFilter.equals("all")) {
@@ -117,10 +121,7 @@ public class MPPFacilityApprovalService {
                     }
                     return b.getApplicationCreatedAt().compareTo(a.getApplicationCreatedAt());
                 })
-                .map(app -> {
-                    Optional<Payment> payment = paymentRepository.findByApplication_ApplicationId(app.getApplicationId());
-                    return mapToMPPResponse(app, payment.orElse(null));
-                })
+                .map(app -> mapToMPPResponse(app, paymentMap.get(app.getApplicationId())))
                 .collect(Collectors.toList());
     }
 
@@ -0,0 +1,49 @@
+package com.mpp.rental.service;
+
+import com.mpp.rental.model.Notification;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * NotificationBus - carries SSE events between backend nodes.
+ *
+ * SSE connections live on the node the browser happens to be connected to. SseEmitterService
+ * serves its own connections directly and publishes every event here; each other node receives
+ * it and queues it on its own connections of those users.
+ *
+ * Selected with notification.bus:
+ * - local  (default) — LocalNotificationBus, single node: nothing to forward
+ * - outbox           — OutboxNotificationBus, events go through the notification_outbox table,
+ *                      polled by every node; needs nothing but the shared database
+ */
+public interface NotificationBus {
+
+    /**
+     * One SSE event for a set of users. data null = no event to show, only tells other nodes
+     * that the users' state changed (see NotificationUnreadCounter).
+     *
+     * audience set = an audience broadcast: userIds are the audience's members on the
+     * publishing node, and a bus may carry just the audience and hand its listeners the members
+     * it resolves on the receiving node.
+     */
+    record Message(String event, List<Long> userIds, String data, Notification.Audience audience) {
+        public Message {
+            userIds = List.copyOf(userIds);
+        }
+
+        public Message(String event, List<Long> userIds, String data) {
+            this(event, userIds, data, null);
+        }
+    }
+
+    /**
+     * Hands the message to the other nodes; this node's connections are not served by the bus
+     */
+    void publish(Message message);
+
+    /**
+     * Registers a listener for messages published by other nodes
+     */
+    void subscribe(Consumer<Message> listener);
+}
@@ -0,0 +1,263 @@
+package com.mpp.rental.service;
+
+import com.mpp.rental.dto.NotificationDTO;
+import com.mpp.rental.model.Notification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NotificationDispatcher - delivers saved notifications (SSE + FCM) off the request thread.
+ *
+ * NotificationService persists a notification inside its transaction and hands a Delivery to
+ * dispatchAfterCommit; the delivery is queued only once that transaction commits (nothing is
+ * pushed for a rolled-back notification) and runs on a fixed pool of
+ * notification.delivery.workers threads, so neither the transaction nor the caller waits on
+ * Firebase. At most notification.delivery.queue-capacity deliveries wait; beyond that
+ * notification.delivery.overflow-policy applies:
+ * - DROP        — the push is skipped and counted (the notification is still in every feed)
+ * - CALLER_RUNS — the committing thread delivers it itself, slowing producers down
+ *
+ * Each recipient gets the cheapest channel that reaches them: SSE when a connection took the
+ * event, otherwise FCM. A user who is reconnecting (see UserPresenceService) is not pushed right
+ * away: the push is re-checked when their grace window ends and sent only if they have not
+ * connected again since the event was sent (a reconnect replays it). Audience
+ * broadcasts with a topic go to FCM as one topic send instead. With several nodes, a user
+ * connected to another node (as UserPresenceService last heard over the NotificationBus) gets
+ * the SSE event from that node and no push. A connection that closes there while the event is
+ * still on the bus is left to that node's replay buffer — the reconnect or the feed shows it.
+ *
+ * Other push-side work (FCM topic subscriptions) runs on the same pool through runAfterCommit.
+ *
+ * Metrics: notification.delivery.queue.depth / .active (gauges), .submitted / .dropped /
+ * .failed / .push-skipped / .push-deferred (counters; failed counts devices / recipients whose
+ * push failed, push-skipped the recipients served by SSE alone on any node, push-deferred the recipients
+ * whose push waited for the end of a reconnect window). Transient FCM failures go to PushRetryService.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationDispatcher {
+
+    public enum OverflowPolicy { DROP, CALLER_RUNS }
+
+    /**
+     * One notification to deliver to a list of users. payload is built for this delivery only
+     * and never modified after it is handed over; push = false skips FCM (SSE only).
+     * audience is set for audience broadcasts (recipientIds are its members) and goes to the
+     * other nodes instead of the member list. topic (see PushTopicService) replaces the
+     * per-user FCM sends with one topic send; null = per-user.
+     */
+    public record Delivery(NotificationDTO payload, List<Long> recipientIds, Notification.Audience audience,
+                           boolean push, String topic) {
+        public Delivery {
+            recipientIds = List.copyOf(recipientIds);
+        }
+    }
+
+    private final SseEmitterService sseEmitterService;
+    private final UserPresenceService presenceService;
+    private final PushGateway pushGateway;
+    private final PushRetryService pushRetryService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${notification.delivery.workers:4}")
+    private int workers;
+
+    @Value("${notification.delivery.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${notification.delivery.overflow-policy:DROP}")
+    private OverflowPolicy overflowPolicy;
+
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService deferred;   // only waits, the pushes run on executor
+    private Counter submitted;
+    private Counter dropped;
+    private Counter failed;
+    private Counter pushSkipped;
+    private Counter pushDeferred;
+
+    @PostConstruct
+    void start() {
+        RejectedExecutionHandler overflow = overflowPolicy == OverflowPolicy.CALLER_RUNS
+                ? new ThreadPoolExecutor.CallerRunsPolicy()
+                : (task, pool) -> {
+                    dropped.increment();
+                    log.warn("Notification delivery queue full ({} waiting) — push dropped", pool.getQueue().size());
+                };
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("notification-delivery-"),
+                overflow);
+        deferred = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("notification-deferred-"));
+
+        submitted = meterRegistry.counter("notification.delivery.submitted");
+        dropped = meterRegistry.counter("notification.delivery.dropped");
+        failed = meterRegistry.counter("notification.delivery.failed");
+        pushSkipped = meterRegistry.counter("notification.delivery.push-skipped");
+        pushDeferred = meterRegistry.counter("notification.delivery.push-deferred");
+        Gauge.builder("notification.delivery.queue.depth", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("notification.delivery.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        int waiting = deferred.shutdownNow().size();
+        if (waiting > 0) {
+            log.warn("{} deferred pushes dropped on shutdown", waiting);
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Notification delivery pool did not drain — {} deliveries dropped",
+                    executor.shutdownNow().size());
+        }
+    }
+
+    // ==================== DISPATCH ====================
+
+    /**
+     * Queues the delivery once the current transaction commits (immediately without one)
+     */
+    public void dispatchAfterCommit(Delivery delivery) {
+        if (delivery.recipientIds().isEmpty()) {
+            return;
+        }
+        runAfterCommit(() -> deliver(delivery));
+    }
+
+    /**
+     * Queues a task on the delivery pool once the current transaction commits (immediately without one)
+     */
+    public void runAfterCommit(Runnable task) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(task);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(task);
+            }
+        });
+    }
+
+    private void submit(Runnable task) {
+        submitted.increment();
+        executor.execute(task);
+    }
+
+    // ==================== DELIVER (worker thread) ====================
+
+    private void deliver(Delivery delivery) {
+        NotificationDTO dto = delivery.payload();
+        PushGateway.PushMessage message = new PushGateway.PushMessage(
+                dto.getTitle(), dto.getMessage(), dto.getReferenceType(), dto.getReferenceId());
+        if (delivery.topic() != null) {
+            broadcast(delivery, message);
+            return;
+        }
+
+        // SSE first (instant in-app update if a tab is open) — FCM only for users it did not reach
+        long sentAt = System.currentTimeMillis();
+        Set<Long> reached = sseEmitterService.sendToUsers(delivery.recipientIds(), dto, delivery.audience());
+        if (!delivery.push()) {
+            return;
+        }
+        List<Long> pushRecipients = new ArrayList<>();
+        List<Long> reconnecting = new ArrayList<>();
+        long deferMs = 0;
+        int servedBySse = 0;
+        for (Long userId : delivery.recipientIds()) {
+            if (reached.contains(userId) || presenceService.isConnectedElsewhere(userId)) {
+                servedBySse++;
+                continue;
+            }
+            long graceMs = presenceService.graceRemainingMs(userId);
+            if (graceMs > 0) {
+                reconnecting.add(userId);
+                deferMs = Math.max(deferMs, graceMs);
+            } else {
+                pushRecipients.add(userId);
+            }
+        }
+        pushSkipped.increment(servedBySse);
+        push(pushRecipients, message);
+
+        if (!reconnecting.isEmpty()) {
+            pushDeferred.increment(reconnecting.size());
+            deferred.schedule(() -> submit(() -> pushIfNotReconnected(reconnecting, sentAt, message)),
+                    deferMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * End of the reconnect window: push the users who did not come back — a connection opened
+     * after the send (on any node) got the event through Last-Event-ID replay or the bus
+     */
+    private void pushIfNotReconnected(List<Long> userIds, long sentAt, PushGateway.PushMessage message) {
+        List<Long> pushRecipients = userIds.stream()
+                .filter(userId -> !presenceService.connectedSince(userId, sentAt)
+                        && !presenceService.isConnectedElsewhere(userId))
+                .toList();
+        pushSkipped.increment(userIds.size() - pushRecipients.size());
+        push(pushRecipients, message);
+    }
+
+    /**
+     * FCM (OS popup — works even when tab is closed), all recipients in one batched send
+     */
+    private void push(List<Long> pushRecipients, PushGateway.PushMessage message) {
+        if (pushRecipients.isEmpty()) {
+            return;
+        }
+        try {
+            PushGateway.PushResult result = pushGateway.send(pushRecipients, message);
+            failed.increment(result.failed());
+            pushRetryService.enqueue(result.retryable(), message);
+        } catch (Exception e) {
+            failed.increment(pushRecipients.size());
+            log.warn("FCM push failed for {} recipients: {}", pushRecipients.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Audience broadcast: SSE to every open tab, then one FCM topic send. Topic sends cannot
+     * leave out online users — their tabs get it in the Firebase foreground handler (no OS popup).
+     */
+    private void broadcast(Delivery delivery, PushGateway.PushMessage message) {
+        sseEmitterService.sendToUsers(delivery.recipientIds(), delivery.payload(), delivery.audience());
+        if (!delivery.push()) {
+            return;
+        }
+        try {
+            PushGateway.PushResult result = pushGateway.sendToTopic(delivery.topic(), message);
+            failed.increment(result.failed());
+            pushRetryService.enqueue(result.retryable(), message);
+        } catch (Exception e) {
+            failed.increment();
+            log.warn("FCM push to topic {} failed: {}", delivery.topic(), e.getMessage());
+        }
+    }
+}
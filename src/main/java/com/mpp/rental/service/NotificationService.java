@@ -2,35 +2,49 @@ package com.mpp.rental.service;
 
 import com.mpp.rental.dto.AnnouncementRequestDTO;
 import com.mpp.rental.dto.NotificationDTO;
+import com.mpp.rental.dto.NotificationPageResponse;
+import com.mpp.rental.exception.BadRequestException;
 import com.mpp.rental.model.*;
 import com.mpp.rental.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationService {
 
+    /** Feed page size when none is given, and the largest one allowed */
+    public static final int DEFAULT_FEED_PAGE_SIZE = 20;
+    public static final int MAX_FEED_PAGE_SIZE = 100;
+
+    /** Recipients per INSERT ... SELECT — keeps the IN list well under driver / server limits */
+    private static final int FAN_OUT_CHUNK_SIZE = 1000;
+
     private final NotificationRepository notificationRepository;
     private final NotificationReadRepository notificationReadRepository;
+    private final NotificationWatermarkRepository notificationWatermarkRepository;
+    private final NotificationInactivePeriodRepository notificationInactivePeriodRepository;
+    private final NotificationAudiencePeriodRepository notificationAudiencePeriodRepository;
     private final UserRepository userRepository;
-    private final SseEmitterService sseEmitterService;
-    private final FcmService fcmService; // Phase 2
+    private final NotificationUnreadCounter unreadCounter;
+    private final NotificationDispatcher dispatcher; // SSE + FCM (Phase 2), after commit
+    private final PushTopicService pushTopicService;
 
     // ==================== CORE SEND METHOD ====================
 
     /**
      * Main method called by all other services to send a notification.
-     * Phase 1: saves to DB + pushes via SSE
-     * Phase 2: also pushes via FCM if user is offline (inject FcmService here)
+     * Saves to DB; the SSE + FCM pushes are queued on NotificationDispatcher after commit
      */
     @Transactional
     public void sendNotification(
@@ -51,34 +65,50 @@ public class NotificationService {
         Notification saved = notificationRepository.save(notification);
 
         // Step 2: Create NotificationRead records for each recipient (all unread)
-        List<User> recipients = userRepository.findAllById(recipientUserIds);
-        for (User recipient : recipients) {
-            NotificationRead readRecord = new NotificationRead();
-            readRecord.setNotification(saved);
-            readRecord.setUser(recipient);
-            readRecord.setReadAt(null); // unread
-            notificationReadRepository.save(readRecord);
-        }
+        createUnreadRecords(saved, recipientUserIds);
+        unreadCounter.incrementAfterCommit(recipientUserIds.stream().distinct().toList());
 
-        // Step 3: Push to each recipient
-        NotificationDTO dto = mapToDTO(saved, false);
-        for (Long userId : recipientUserIds) {
-            // Always try SSE (instant in-app update if tab is open)
-            sseEmitterService.sendToUser(userId, dto);
-
-            // Always try FCM (OS popup — works even when tab is closed)
-            // When tab IS open: Firebase foreground handler receives it (no OS popup shown)
-            // When tab is NOT open: Service worker shows OS popup
-            try {
-                fcmService.sendPush(userId, title, message, referenceType, referenceId);
-            } catch (Exception e) {
-                log.warn("FCM push failed for userId={}: {}", userId, e.getMessage());
-            }
-        }
+        // Step 3: Push to each recipient (after commit, off this thread)
+        pushToRecipients(saved, recipientUserIds);
 
         log.info("Notification [{}] sent to {} recipients", type, recipientUserIds.size());
     }
 
+    /**
+     * Broadcast to every business owner in the audience. Stored as one notification row with
+     * its audience — no notification_read rows; each recipient's read state comes from their
+     * NotificationWatermark. Returns the saved notification, not yet pushed.
+     */
+    private Notification saveBroadcast(
+            Notification.NotificationType type,
+            String title,
+            String message,
+            Long referenceId,
+            String referenceType,
+            Notification.Audience audience,
+            User createdBy) {
+
+        Notification notification = new Notification();
+        notification.setType(type);
+        notification.setTitle(title);
+        notification.setMessage(message);
+        notification.setReferenceId(referenceId);
+        notification.setReferenceType(referenceType);
+        notification.setAudience(audience);
+        notification.setCreatedBy(createdBy);
+        return notificationRepository.save(notification);
+    }
+
+    /**
+     * SSE + FCM push of a saved notification to each recipient, once the transaction commits.
+     * Broadcasts (audience set) go to FCM as one topic send when topics are enabled.
+     */
+    private void pushToRecipients(Notification saved, List<Long> recipientUserIds) {
+        String topic = saved.getAudience() != null ? pushTopicService.topicFor(saved.getAudience()) : null;
+        dispatcher.dispatchAfterCommit(
+                new NotificationDispatcher.Delivery(mapToDTO(saved, false), recipientUserIds, saved.getAudience(), true, topic));
+    }
+
     // ==================== CONVENIENCE METHODS (called by other services) ====================
 
     /**
@@ -216,20 +246,25 @@ public class NotificationService {
     }
 
     /**
-     * Notify all Business Owners when a new event is created
+     * Notify all Business Owners when a new event is created (broadcast — see saveBroadcast)
      */
     @Transactional
     public void notifyEventCreated(Long eventId, String eventName) {
         List<Long> boUserIds = userRepository.findBusinessOwnerUserIds();
         if (boUserIds.isEmpty()) return;
-        sendNotification(
+        Notification saved = saveBroadcast(
                 Notification.NotificationType.EVENT_CREATED,
                 "New Event Available",
                 "A new event \"" + eventName + "\" is now open for applications.",
                 eventId,
                 "EVENT",
-                boUserIds
+                Notification.Audience.BUSINESS_OWNERS,
+                null
         );
+        pushToRecipients(saved, boUserIds);
+        unreadCounter.incrementAfterCommit(boUserIds);
+
+        log.info("Notification [{}] broadcast to {} recipients", saved.getType(), boUserIds.size());
     }
 
     /**
@@ -243,37 +278,41 @@ public class NotificationService {
 
         // Determine recipients based on target audience
         List<Long> recipientIds;
+        Notification.Audience target;
         String audience = request.getTargetAudience() == null ? "ALL" : request.getTargetAudience().toUpperCase();
         switch (audience) {
-            case "STUDENT" -> recipientIds = userRepository.findStudentUserIds();
-            case "NON_STUDENT" -> recipientIds = userRepository.findNonStudentUserIds();
-            default -> recipientIds = userRepository.findBusinessOwnerUserIds();
+            case "STUDENT" -> {
+                target = Notification.Audience.STUDENT;
+                recipientIds = userRepository.findStudentUserIds();
+            }
+            case "NON_STUDENT" -> {
+                target = Notification.Audience.NON_STUDENT;
+                recipientIds = userRepository.findNonStudentUserIds();
+            }
+            default -> {
+                target = Notification.Audience.BUSINESS_OWNERS;
+                recipientIds = userRepository.findBusinessOwnerUserIds();
+            }
         }
 
-        // Save notification
-        Notification notification = new Notification();
-        notification.setType(Notification.NotificationType.ANNOUNCEMENT);
-        notification.setTitle(request.getTitle());
-        notification.setMessage(request.getMessage());
-        notification.setReferenceId(request.getReferenceId());
-        notification.setReferenceType("ANNOUNCEMENT");
-        notification.setCreatedBy(mpp);
-        Notification saved = notificationRepository.save(notification);
-
-        // Create read records for each recipient
-        List<User> recipients = userRepository.findAllById(recipientIds);
-        for (User recipient : recipients) {
-            NotificationRead readRecord = new NotificationRead();
-            readRecord.setNotification(saved);
-            readRecord.setUser(recipient);
-            notificationReadRepository.save(readRecord);
-        }
+        // Save notification once for the whole audience (no per-recipient rows)
+        Notification saved = saveBroadcast(
+                Notification.NotificationType.ANNOUNCEMENT,
+                request.getTitle(),
+                request.getMessage(),
+                request.getReferenceId(),
+                "ANNOUNCEMENT",
+                target,
+                mpp
+        );
 
-        // Push via SSE to online users
+        // Push via SSE to online users (after commit) — plus one FCM topic send when topics are
+        // enabled; without topics announcements stay in-app only
         NotificationDTO dto = mapToDTO(saved, false);
-        for (Long userId : recipientIds) {
-            sseEmitterService.sendToUser(userId, dto);
-        }
+        String topic = pushTopicService.topicFor(target);
+        dispatcher.dispatchAfterCommit(
+                new NotificationDispatcher.Delivery(dto, recipientIds, target, topic != null, topic));
+        unreadCounter.incrementAfterCommit(recipientIds);
 
         log.info("Announcement created and sent to {} recipients (audience={})",
                 recipientIds.size(), audience);
@@ -287,66 +326,279 @@ public class NotificationService {
      */
     @Transactional(readOnly = true)
     public List<NotificationDTO> getMyNotifications() {
-        Long userId = getCurrentUserId();
-        List<Notification> notifications = notificationRepository.findAllByUserId(userId);
-
-        return notifications.stream()
-                .map(n -> {
-                    boolean isRead = n.getReadRecords().stream()
-                            .anyMatch(nr -> nr.getUser().getUserId().equals(userId) && nr.isRead());
-                    return mapToDTO(n, isRead);
-                })
-                .collect(Collectors.toList());
+        User user = getCurrentUser();
+        BroadcastScope scope = scopeOf(user);
+        NotificationWatermark watermark = watermarkOf(user.getUserId());
+        return notificationRepository.findFeed(
+                user.getUserId(),
+                scope.audiences(),
+                watermark.getReadUpTo(),
+                watermark.getClearedUpTo(),
+                scope.since());
     }
 
     /**
-     * Get unread notification count for badge
+     * One page of the current user's feed, newest first: notifications older than before
+     * (null = first page). A single projection query — the read flag comes from the user's
+     * own notification_read row or watermark, no other recipient's records are touched.
      */
     @Transactional(readOnly = true)
+    public NotificationPageResponse getMyNotificationPage(Long before, Integer size) {
+        int pageSize = size != null ? size : DEFAULT_FEED_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_FEED_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_FEED_PAGE_SIZE);
+        }
+
+        User user = getCurrentUser();
+        BroadcastScope scope = scopeOf(user);
+        NotificationWatermark watermark = watermarkOf(user.getUserId());
+        // One row more than the page tells whether an older page exists
+        List<NotificationDTO> rows = notificationRepository.findFeedPage(
+                user.getUserId(),
+                scope.audiences(),
+                watermark.getReadUpTo(),
+                watermark.getClearedUpTo(),
+                scope.since(),
+                before != null ? before : Long.MAX_VALUE,
+                PageRequest.ofSize(pageSize + 1));
+
+        if (rows.size() <= pageSize) {
+            return new NotificationPageResponse(rows, null);
+        }
+        List<NotificationDTO> page = rows.subList(0, pageSize);
+        return new NotificationPageResponse(new ArrayList<>(page), page.get(pageSize - 1).getNotificationId());
+    }
+
+    /**
+     * Get unread notification count for badge — targeted rows + broadcasts above the watermark.
+     * Served from NotificationUnreadCounter; the database is only counted on a miss, in the
+     * counter's own transaction (not one opened here, whose snapshot would predate the miss).
+     */
     public long getUnreadCount() {
-        Long userId = getCurrentUserId();
-        return notificationRepository.countUnreadByUserId(userId);
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        Long userId = userRepository.findUserIdByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return unreadCounter.get(userId, () -> countUnread(userRepository.getReferenceById(userId)));
+    }
+
+    private long countUnread(User user) {
+        long unread = notificationRepository.countUnreadByUserId(user.getUserId());
+
+        BroadcastScope scope = scopeOf(user);
+        if (!scope.audiences().isEmpty()) {
+            NotificationWatermark watermark = watermarkOf(user.getUserId());
+            unread += notificationRepository.countUnreadBroadcasts(
+                    user.getUserId(),
+                    scope.audiences(),
+                    Math.max(watermark.getReadUpTo(), watermark.getClearedUpTo()),
+                    scope.since());
+        }
+        return unread;
     }
 
     /**
-     * Mark all notifications as read for the current user (when panel opens)
+     * Mark the current user's notifications as read (when panel opens), up to upTo — the newest
+     * notification id the client has shown (feed or SSE), capped at the newest one stored.
+     * Anything newer, e.g. a broadcast that arrived while the panel was opening, stays unread.
+     * Broadcasts: the read watermark moves to upTo, and individual read records it now covers
+     * are dropped.
      */
     @Transactional
-    public void markAllAsRead() {
+    public void markAllAsRead(long upTo) {
         Long userId = getCurrentUserId();
-        notificationReadRepository.markAllAsRead(userId, LocalDateTime.now());
-        log.info("All notifications marked as read for userId={}", userId);
+        long latestId = notificationRepository.findLatestNotificationId();
+        long readUpTo = Math.min(upTo, latestId);
+        notificationReadRepository.markAllAsRead(userId, readUpTo, LocalDateTime.now());
+
+        NotificationWatermark watermark = watermarkOf(userId);
+        if (readUpTo > watermark.getReadUpTo()) {
+            watermark.setReadUpTo(readUpTo);
+            notificationWatermarkRepository.save(watermark);
+            notificationReadRepository.deleteBroadcastReadsUpTo(userId, readUpTo);
+        }
+        unreadCountCoveredUpTo(userId, readUpTo, latestId);
+        log.info("Notifications up to {} marked as read for userId={}", readUpTo, userId);
     }
 
     /**
-     * Mark a single notification as read (when user clicks it)
+     * Mark a single notification as read (when user clicks it).
+     * A broadcast above the user's watermark gets an individual read record.
      */
     @Transactional
     public void markAsRead(Long notificationId) {
-        Long userId = getCurrentUserId();
-        notificationReadRepository
-                .findByNotification_NotificationIdAndUser_UserId(notificationId, userId)
-                .ifPresent(nr -> {
-                    if (!nr.isRead()) {
-                        nr.setReadAt(LocalDateTime.now());
-                        notificationReadRepository.save(nr);
-                    }
+        User user = getCurrentUser();
+        Optional<NotificationRead> existing = notificationReadRepository
+                .findByNotification_NotificationIdAndUser_UserId(notificationId, user.getUserId());
+        if (existing.isPresent()) {
+            NotificationRead nr = existing.get();
+            if (!nr.isRead()) {
+                nr.setReadAt(LocalDateTime.now());
+                notificationReadRepository.save(nr);
+                unreadCounter.decrementAfterCommit(user.getUserId());
+            }
+            return;
+        }
+
+        BroadcastScope scope = scopeOf(user);
+        NotificationWatermark watermark = watermarkOf(user.getUserId());
+        notificationRepository.findById(notificationId)
+                .filter(n -> n.getAudience() != null && scope.audiences().contains(n.getAudience()))
+                .filter(n -> scope.since() != null
+                        ? !n.getCreatedAt().isBefore(scope.since())
+                        : notificationAudiencePeriodRepository.isMemberAt(user.getUserId(), n.getAudience(), n.getCreatedAt()))
+                .filter(n -> !notificationInactivePeriodRepository.isInactiveAt(user.getUserId(), n.getCreatedAt()))
+                .filter(n -> n.getNotificationId() > Math.max(watermark.getReadUpTo(), watermark.getClearedUpTo()))
+                .ifPresent(n -> {
+                    NotificationRead readRecord = new NotificationRead();
+                    readRecord.setNotification(n);
+                    readRecord.setUser(user);
+                    readRecord.setReadAt(LocalDateTime.now());
+                    notificationReadRepository.save(readRecord);
+                    unreadCounter.decrementAfterCommit(user.getUserId());
                 });
     }
 
     /**
-     * Permanently delete all notification_read records for the current user.
+     * Permanently delete the current user's notification_read records up to upTo — the newest
+     * notification id the client has shown, capped at the newest one stored.
      * The notification row itself stays (other users may still have read records).
+     * Broadcasts up to upTo are hidden through the clear watermark.
      */
     @Transactional
-    public void clearAllForCurrentUser() {
+    public void clearAllForCurrentUser(long upTo) {
         Long userId = getCurrentUserId();
-        notificationReadRepository.deleteAllByUserId(userId);
-        log.info("All notifications cleared for userId={}", userId);
+        long latestId = notificationRepository.findLatestNotificationId();
+        long clearUpTo = Math.min(upTo, latestId);
+        notificationReadRepository.deleteAllByUserIdUpTo(userId, clearUpTo);
+
+        NotificationWatermark watermark = watermarkOf(userId);
+        if (clearUpTo > watermark.getClearedUpTo()) {
+            watermark.setClearedUpTo(clearUpTo);
+            notificationWatermarkRepository.save(watermark);
+        }
+        unreadCountCoveredUpTo(userId, clearUpTo, latestId);
+        log.info("Notifications up to {} cleared for userId={}", clearUpTo, userId);
+    }
+
+    // ==================== USER STATUS ====================
+
+    /**
+     * The user's status changed (called by UserService) — leaving ACTIVE opens an inactive
+     * period, returning closes it. Broadcasts sent in between stay out of the user's feed, as
+     * announcements only ever went to active users. The cached unread count is read again.
+     */
+    @Transactional
+    public void userStatusChanged(Long userId, User.UserStatus before, User.UserStatus after) {
+        boolean wasActive = before == User.UserStatus.ACTIVE;
+        boolean isActive = after == User.UserStatus.ACTIVE;
+        if (wasActive == isActive) {
+            return;
+        }
+        if (wasActive) {
+            notificationInactivePeriodRepository.save(
+                    new NotificationInactivePeriod(null, userId, LocalDateTime.now(), null));
+        } else {
+            notificationInactivePeriodRepository.findFirstByUserIdAndInactiveUntilIsNull(userId)
+                    .ifPresent(period -> period.setInactiveUntil(LocalDateTime.now()));
+        }
+        unreadCounter.forgetAfterCommit(userId);
+        log.info("Broadcasts for userId={} {} (status {} -> {})",
+                userId, isActive ? "resumed" : "paused", before, after);
+    }
+
+    /**
+     * The user's category changed (called by UserService) — their audience periods follow it.
+     * On the first change the audiences they had since registering are recorded first, so
+     * broadcasts they already received stay in their feed; audiences left are closed, new ones
+     * opened from now. The cached unread count is read again.
+     */
+    @Transactional
+    public void userCategoryChanged(Long userId, LocalDateTime registeredAt,
+                                    User.UserCategory before, User.UserCategory after) {
+        List<Notification.Audience> audiencesAfter = Notification.Audience.of(after);
+        if (Notification.Audience.of(before).equals(audiencesAfter)) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationAudiencePeriod> open = new ArrayList<>(
+                notificationAudiencePeriodRepository.findByUserIdAndMemberUntilIsNull(userId));
+        if (open.isEmpty() && notificationAudiencePeriodRepository.findAudiencesByUserId(userId).isEmpty()) {
+            Notification.Audience.of(before).forEach(a -> open.add(notificationAudiencePeriodRepository.save(
+                    new NotificationAudiencePeriod(null, userId, a, registeredAt, null))));
+        }
+        open.stream()
+                .filter(period -> !audiencesAfter.contains(period.getAudience()))
+                .forEach(period -> period.setMemberUntil(now));
+        audiencesAfter.stream()
+                .filter(a -> open.stream().noneMatch(period -> period.getAudience() == a))
+                .forEach(a -> notificationAudiencePeriodRepository.save(
+                        new NotificationAudiencePeriod(null, userId, a, now, null)));
+        unreadCounter.forgetAfterCommit(userId);
+        log.info("Broadcast audiences of userId={} now {} (category {} -> {})",
+                userId, audiencesAfter, before, after);
     }
 
     // ==================== HELPERS ====================
 
+    /**
+     * One unread NotificationRead per recipient, set-based: a statement per
+     * FAN_OUT_CHUNK_SIZE recipients instead of a SELECT + INSERT per recipient.
+     */
+    private void createUnreadRecords(Notification notification, List<Long> recipientUserIds) {
+        List<Long> userIds = recipientUserIds.stream().distinct().toList();
+        int created = 0;
+        for (int from = 0; from < userIds.size(); from += FAN_OUT_CHUNK_SIZE) {
+            List<Long> chunk = userIds.subList(from, Math.min(userIds.size(), from + FAN_OUT_CHUNK_SIZE));
+            created += notificationReadRepository.insertUnread(notification.getNotificationId(), chunk);
+        }
+        log.debug("Notification {}: {} read records created", notification.getNotificationId(), created);
+    }
+
+    private User getCurrentUser() {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        return userRepository.findByUserEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    /** Broadcast read state of a user — all zero until they first mark read / clear */
+    private NotificationWatermark watermarkOf(Long userId) {
+        return notificationWatermarkRepository.findById(userId)
+                .orElseGet(() -> new NotificationWatermark(userId, 0, 0));
+    }
+
+    /**
+     * Audiences whose broadcasts a user's feed draws from. Same rule as the FCM topics — none
+     * unless the user is active. A user whose category never changed gets their current
+     * audiences since registering; otherwise every audience they were in, each limited to its
+     * NotificationAudiencePeriods (since = null).
+     */
+    private BroadcastScope scopeOf(User user) {
+        List<Notification.Audience> current = PushTopicService.audiencesOf(user);
+        if (current.isEmpty()) {
+            return new BroadcastScope(current, user.getUserRegisteredAt());
+        }
+        List<Notification.Audience> recorded =
+                notificationAudiencePeriodRepository.findAudiencesByUserId(user.getUserId());
+        return recorded.isEmpty()
+                ? new BroadcastScope(current, user.getUserRegisteredAt())
+                : new BroadcastScope(recorded, null);
+    }
+
+    private record BroadcastScope(List<Notification.Audience> audiences, LocalDateTime since) {
+    }
+
+    /**
+     * After mark-all-read / clear-all up to upTo: nothing is left unread when that covered the
+     * newest notification, otherwise the newer ones are counted again
+     */
+    private void unreadCountCoveredUpTo(Long userId, long upTo, long latestId) {
+        if (upTo >= latestId) {
+            unreadCounter.resetAfterCommit(userId);
+        } else {
+            unreadCounter.forgetAfterCommit(userId);
+        }
+    }
+
     private Long getCurrentUserId() {
         String email = SecurityContextHolder.getContext().getAuthentication().getName();
         return userRepository.findByUserEmail(email)
@@ -0,0 +1,215 @@
+package com.mpp.rental.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * NotificationUnreadCounter - per-user unread badge counts kept in memory.
+ *
+ * A user's count is read from the database once (first getUnreadCount after startup) and
+ * from then on adjusted by NotificationService: +1 per new notification, -1 per notification
+ * read, 0 on mark-all-read / clear-all. Adjustments are applied after the transaction commits
+ * and the new count is pushed to the user's open tabs as an SSE "unread-count" event.
+ * Users whose count was never read are not tracked — nothing to adjust, nothing to push.
+ *
+ * Seeding: the count is marked as being read first, then read in a transaction of its own, so
+ * every write that commits before that read started is in it. A write registers its users as
+ * in flight before it commits and adjusts them after; a count that was adjusted, or still has
+ * a write in flight, when the read finishes is not stored (the read may or may not include the
+ * write) and the next request reads it again. Counts expire notification.unread.ttl-ms after
+ * they were read, so drift that gets past this (e.g. a write outside a transaction, a message
+ * from another node racing the read) heals on the next read.
+ *
+ * Several nodes: each node keeps its own counts. A notification published by another node
+ * (NotificationBus) counts +1 here like a local one; a read / mark-all-read / clear-all is
+ * published as an "unread-count" message with the new count (null when that node does not
+ * track the user) and replaces — or drops — this node's count.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationUnreadCounter {
+
+    private final SseEmitterService sseEmitterService;
+    private final NotificationBus notificationBus;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${notification.unread.ttl-ms:600000}")
+    private long ttlMs;
+
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    /** userId → transactions that will adjust the user's count once they complete */
+    private final Map<Long, Integer> inFlight = new ConcurrentHashMap<>();
+
+    private TransactionTemplate seedTx;
+
+    /**
+     * count and seededAtMillis are only meaningful once seeded; changes counts adjustments
+     * seen while seeding
+     */
+    private record Counter(long count, boolean seeded, long changes, long seededAtMillis) {
+        static final Counter SEEDING = new Counter(0, false, 0, 0);
+
+        Counter adjusted(long newCount) {
+            return new Counter(newCount, true, 0, seededAtMillis);
+        }
+
+        Counter changed() {
+            return new Counter(0, false, changes + 1, 0);
+        }
+
+        boolean expired(long now, long ttlMs) {
+            return seeded && now - seededAtMillis >= ttlMs;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        seedTx = new TransactionTemplate(transactionManager);
+        seedTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        seedTx.setReadOnly(true);
+        notificationBus.subscribe(this::onBusMessage);
+    }
+
+    // ==================== READ ====================
+
+    /**
+     * The user's unread count, from memory or — on a miss or an expired count — from loader
+     * (a database count), which runs in a new read-only transaction
+     */
+    public long get(Long userId, LongSupplier loader) {
+        long now = System.currentTimeMillis();
+        Counter current = counters.compute(userId, (k, c) ->
+                c == null || c.expired(now, ttlMs) ? Counter.SEEDING : c);
+        if (current.seeded()) {
+            return current.count();
+        }
+
+        // SEEDING is in place before the read's snapshot starts
+        long changesBefore = current.changes();
+        long fromDb = seedTx.execute(status -> loader.getAsLong());
+        counters.computeIfPresent(userId, (k, c) ->
+                c.seeded() ? c
+                        : c.changes() == changesBefore && !inFlight.containsKey(userId)
+                        ? new Counter(fromDb, true, 0, System.currentTimeMillis())
+                        : null);     // changed meanwhile — drop, next request reads again
+        return fromDb;
+    }
+
+    /**
+     * Forget expired counts — users who stopped asking are no longer tracked
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void expire() {
+        long now = System.currentTimeMillis();
+        counters.values().removeIf(c -> c.expired(now, ttlMs));
+    }
+
+    // ==================== ADJUST (after commit) ====================
+
+    public void incrementAfterCommit(Collection<Long> userIds) {
+        afterCommit(List.copyOf(userIds), userId -> adjust(userId, count -> count + 1));
+    }
+
+    public void decrementAfterCommit(Long userId) {
+        afterCommit(List.of(userId), id -> publish(id, adjust(id, count -> Math.max(0, count - 1))));
+    }
+
+    public void resetAfterCommit(Long userId) {
+        afterCommit(List.of(userId), id -> publish(id, adjust(id, count -> 0)));
+    }
+
+    /**
+     * The count changed by more than one notification (e.g. the user's broadcasts were paused
+     * or resumed) — dropped here and on the other nodes, the next request reads it again
+     */
+    public void forgetAfterCommit(Long userId) {
+        afterCommit(List.of(userId), id -> {
+            replace(id, null);
+            publish(id, null);
+        });
+    }
+
+    private Counter adjust(Long userId, LongUnaryOperator change) {
+        Counter updated = counters.computeIfPresent(userId, (k, c) -> c.seeded()
+                ? c.adjusted(change.applyAsLong(c.count()))
+                : c.changed());
+        if (updated != null && updated.seeded()) {
+            sseEmitterService.sendUnreadCount(userId, updated.count());
+        }
+        return updated;
+    }
+
+    // ==================== OTHER NODES ====================
+
+    private void publish(Long userId, Counter updated) {
+        String count = updated != null && updated.seeded() ? String.valueOf(updated.count()) : null;
+        notificationBus.publish(new NotificationBus.Message(SseEmitterService.UNREAD_COUNT_EVENT, List.of(userId), count));
+    }
+
+    private void onBusMessage(NotificationBus.Message message) {
+        switch (message.event()) {
+            case SseEmitterService.NOTIFICATION_EVENT ->
+                    message.userIds().stream().distinct().forEach(userId -> adjust(userId, count -> count + 1));
+            case SseEmitterService.UNREAD_COUNT_EVENT ->
+                    message.userIds().forEach(userId -> replace(userId, message.data()));
+            default -> { }
+        }
+    }
+
+    /**
+     * Takes over another node's count (the SSE event itself is forwarded by SseEmitterService);
+     * without one, forgets the count so the next request reads it again
+     */
+    private void replace(Long userId, String count) {
+        counters.computeIfPresent(userId, (k, c) -> !c.seeded() ? c.changed()
+                : count != null ? c.adjusted(Long.parseLong(count))
+                : null);
+    }
+
+    // ==================== IN-FLIGHT WRITES ====================
+
+    /**
+     * Marks the users in flight now (before the commit) and runs action per user once the
+     * transaction has committed; they stay in flight until the adjustment is done
+     */
+    private void afterCommit(List<Long> userIds, Consumer<Long> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            userIds.forEach(action);
+            return;
+        }
+        userIds.forEach(userId -> inFlight.merge(userId, 1, Integer::sum));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                for (Long userId : userIds) {
+                    try {
+                        if (status == STATUS_COMMITTED) {
+                            action.accept(userId);
+                        }
+                    } finally {
+                        inFlight.computeIfPresent(userId, (k, n) -> n > 1 ? n - 1 : null);
+                    }
+                }
+            }
+        });
+    }
+}
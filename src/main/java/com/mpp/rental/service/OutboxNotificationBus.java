@@ -0,0 +1,232 @@
+package com.mpp.rental.service;
+
+import com.mpp.rental.model.NotificationOutbox;
+import com.mpp.rental.repository.NotificationOutboxRepository;
+import com.mpp.rental.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * OutboxNotificationBus - NotificationBus over the shared database (notification.bus=outbox).
+ *
+ * publish inserts a notification_outbox row in its own short transaction. Every node polls the
+ * table every notification.bus.outbox.poll-ms on its own thread and hands the other nodes' new
+ * rows to its listeners, which serve only this node's connections. Nothing but the database
+ * the nodes already share is needed.
+ *
+ * Identity ids are allocated at insert but become visible at commit, so a row can show up after
+ * a higher id. The poll therefore re-reads the last notification.bus.outbox.gap-wait-ms worth of
+ * ids (ids only, delivered rows are remembered) and moves its cursor past a row only once it
+ * has been seen that long; a publish that commits later than that is lost for SSE — the
+ * notification is still in the user's feed. A node starts at the newest row (no history) and
+ * rows older than notification.bus.outbox.retention-ms are purged.
+ *
+ * Audience broadcasts are stored as their audience, not as the recipient list: each receiving
+ * node reads the audience's current members when it delivers the row. Event data longer than
+ * notification.bus.outbox.max-data-length is not published (counted as publish-failed).
+ *
+ * Metrics: notification.bus.published / .publish-failed / .received (counters),
+ * notification.bus.delivery.latency (timer, publish on one node → delivery on this one; node
+ * clocks are assumed in sync), notification.bus.lag (gauge, ms this node is behind the newest
+ * row it has fetched — 0 when it is caught up).
+ */
+@Component
+@ConditionalOnProperty(name = "notification.bus", havingValue = "outbox")
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxNotificationBus implements NotificationBus {
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final UserRepository userRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${notification.bus.node-id:}")
+    private String nodeId;
+
+    @Value("${notification.bus.outbox.poll-ms:200}")
+    private long pollMs;
+
+    @Value("${notification.bus.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${notification.bus.outbox.gap-wait-ms:2000}")
+    private long gapWaitMs;
+
+    @Value("${notification.bus.outbox.retention-ms:600000}")
+    private long retentionMs;
+
+    @Value("${notification.bus.outbox.max-data-length:16384}")
+    private int maxDataLength;
+
+    private final List<Consumer<Message>> listeners = new CopyOnWriteArrayList<>();
+
+    // Poll thread only: every row up to cursor is delivered or given up; seen holds the
+    // delivered rows above it (outboxId → System.currentTimeMillis() when first seen)
+    private long cursor;
+    private final Map<Long, Long> seen = new HashMap<>();
+
+    private ScheduledExecutorService poller;
+    private TransactionTemplate publishTx;
+    private final AtomicLong lagMs = new AtomicLong();
+    private Counter published;
+    private Counter publishFailed;
+    private Counter received;
+    private Timer deliveryLatency;
+
+    @PostConstruct
+    void start() {
+        if (nodeId.isBlank()) {
+            nodeId = UUID.randomUUID().toString();
+        }
+        publishTx = new TransactionTemplate(transactionManager);
+        publishTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        published = meterRegistry.counter("notification.bus.published");
+        publishFailed = meterRegistry.counter("notification.bus.publish-failed");
+        received = meterRegistry.counter("notification.bus.received");
+        deliveryLatency = meterRegistry.timer("notification.bus.delivery.latency");
+        Gauge.builder("notification.bus.lag", lagMs, AtomicLong::get)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+
+        cursor = outboxRepository.findMaxId();
+        poller = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("notification-bus-"));
+        poller.scheduleWithFixedDelay(this::pollSafely, pollMs, pollMs, TimeUnit.MILLISECONDS);
+        log.info("Notification outbox bus started: node {}, from outbox id {}", nodeId, cursor);
+    }
+
+    @PreDestroy
+    void stop() {
+        poller.shutdownNow();
+    }
+
+    // ==================== PUBLISH ====================
+
+    @Override
+    public void publish(Message message) {
+        if (message.userIds().isEmpty()) {
+            return;
+        }
+        if (message.data() != null && message.data().length() > maxDataLength) {
+            publishFailed.increment();
+            log.warn("Notification bus publish of {} skipped: {} chars of data, limit {}",
+                    message.event(), message.data().length(), maxDataLength);
+            return;
+        }
+        NotificationOutbox row = new NotificationOutbox();
+        row.setNodeId(nodeId);
+        row.setEvent(message.event());
+        if (message.audience() != null) {
+            row.setAudience(message.audience());
+        } else {
+            row.setUserIds(message.userIds().stream().map(String::valueOf).collect(Collectors.joining(",")));
+        }
+        row.setData(message.data());
+        row.setPublishedAt(System.currentTimeMillis());
+        try {
+            // Own transaction — publish is called after commit, on the committing thread too
+            publishTx.executeWithoutResult(status -> outboxRepository.save(row));
+            published.increment();
+        } catch (Exception e) {
+            publishFailed.increment();
+            log.warn("Notification bus publish of {} for {} users failed: {}",
+                    message.event(), message.userIds().size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<Message> listener) {
+        listeners.add(listener);
+    }
+
+    // ==================== POLL (bus thread) ====================
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (Exception e) {
+            log.warn("Notification outbox poll failed: {}", e.getMessage());
+        }
+    }
+
+    void poll() {
+        long now = System.currentTimeMillis();
+        int limit = batchSize + seen.size();
+        List<Long> ids = outboxRepository.findIdsAfter(cursor, nodeId, PageRequest.ofSize(limit));
+        List<Long> fresh = ids.stream().filter(id -> !seen.containsKey(id)).toList();
+
+        NotificationOutbox last = null;
+        if (!fresh.isEmpty()) {
+            for (NotificationOutbox row : outboxRepository.findByOutboxIdInOrderByOutboxId(fresh)) {
+                seen.put(row.getOutboxId(), now);
+                deliver(row);
+                last = row;
+            }
+        }
+        lagMs.set(ids.size() == limit && last != null ? Math.max(0, now - last.getPublishedAt()) : 0);
+
+        // A row seen gapWaitMs ago can no longer have an uncommitted row before it
+        long settled = now - gapWaitMs;
+        seen.entrySet().stream()
+                .filter(e -> e.getValue() <= settled)
+                .mapToLong(Map.Entry::getKey)
+                .max()
+                .ifPresent(id -> {
+                    cursor = Math.max(cursor, id);
+                    seen.keySet().removeIf(seenId -> seenId <= cursor);
+                });
+    }
+
+    private void deliver(NotificationOutbox row) {
+        List<Long> userIds = row.getAudience() != null
+                ? userRepository.findAudienceUserIds(row.getAudience())
+                : Arrays.stream(row.getUserIds().split(",")).map(Long::valueOf).toList();
+        Message message = new Message(row.getEvent(), userIds, row.getData(), row.getAudience());
+        for (Consumer<Message> listener : listeners) {
+            try {
+                listener.accept(message);
+            } catch (Exception e) {
+                log.warn("Notification bus listener failed on outbox row {}: {}", row.getOutboxId(), e.getMessage());
+            }
+        }
+        received.increment();
+        deliveryLatency.record(Math.max(0, System.currentTimeMillis() - row.getPublishedAt()), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Purge rows every node has long since polled
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void purge() {
+        int purged = new TransactionTemplate(transactionManager).execute(status ->
+                outboxRepository.deletePublishedBefore(System.currentTimeMillis() - retentionMs));
+        if (purged > 0) {
+            log.debug("Purged {} notification outbox rows", purged);
+        }
+    }
+}
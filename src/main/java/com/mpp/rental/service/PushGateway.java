@@ -0,0 +1,60 @@
+package com.mpp.rental.service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * PushGateway - sends a browser/device push (FCM, Phase 2) to every active device of a set of users.
+ *
+ * Selected with notification.push.gateway:
+ * - firebase  (default) — FirebasePushGateway, real FCM delivery
+ * - in-memory           — InMemoryPushGateway, counts pushes without any network or database;
+ *                         for load-testing notification fan-out offline
+ *
+ * Sends that failed for a transient reason (FCM unavailable, quota, network) come back in
+ * PushResult.retryable; callers hand them to PushRetryService.
+ */
+public interface PushGateway {
+
+    /**
+     * What the OS popup shows, plus where a click navigates to
+     */
+    record PushMessage(String title, String body, String referenceType, Long referenceId) {}
+
+    /**
+     * One push destination — a user's device (userId + fcmToken) or a topic
+     */
+    record Target(Long userId, String fcmToken, String topic) {
+        public static Target device(Long userId, String fcmToken) {
+            return new Target(userId, fcmToken, null);
+        }
+
+        public static Target topic(String topic) {
+            return new Target(null, null, topic);
+        }
+    }
+
+    /**
+     * Outcome of one send: devices reached, devices that failed, tokens deactivated as invalid,
+     * and the failed targets worth another attempt
+     */
+    record PushResult(int sent, int failed, int deactivated, List<Target> retryable) {
+        public static final PushResult NONE = new PushResult(0, 0, 0, List.of());
+    }
+
+    PushResult send(Collection<Long> userIds, PushMessage message);
+
+    /**
+     * One send to every device subscribed to the topic; sent / failed count that one message
+     */
+    PushResult sendToTopic(String topic, PushMessage message);
+
+    /**
+     * Sends to the given devices and topics — used to retry earlier failures
+     */
+    PushResult sendToTargets(List<Target> targets, PushMessage message);
+
+    void subscribe(Collection<String> tokens, String topic);
+
+    void unsubscribe(Collection<String> tokens, String topic);
+}
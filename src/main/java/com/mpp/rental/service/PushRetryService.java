@@ -0,0 +1,195 @@
+package com.mpp.rental.service;
+
+import com.mpp.rental.model.PushRetry;
+import com.mpp.rental.repository.PushRetryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * PushRetryService - persistent retry queue for pushes that failed for a transient reason.
+ *
+ * Callers hand over PushResult.retryable; each target becomes a push_retry row. Every
+ * notification.push.retry.poll-ms a worker claims up to notification.push.retry.batch-size due
+ * rows and resends them grouped by message — one gateway call (a few sendEach batches) per
+ * message, however many devices failed. Targets that fail again are rescheduled with
+ * exponential backoff and jitter (base-delay-ms doubling per attempt, capped at max-delay-ms);
+ * after max-attempts failed attempts a row turns DEAD and is purged after dead-retention-days.
+ *
+ * Claiming locks the rows with SKIP LOCKED and pushes their nextAttemptAt out by CLAIM_LEASE
+ * before the send, so several nodes never send the same row and a node dying mid-send only
+ * delays it.
+ *
+ * Metrics: notification.push.retry.enqueued / .succeeded / .dead (counters).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PushRetryService {
+
+    /** A claimed row is not due again for this long — the send must finish within it */
+    private static final Duration CLAIM_LEASE = Duration.ofMinutes(5);
+
+    private final PushRetryRepository pushRetryRepository;
+    private final PushGateway pushGateway;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${notification.push.retry.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${notification.push.retry.base-delay-ms:30000}")
+    private long baseDelayMs;
+
+    @Value("${notification.push.retry.max-delay-ms:3600000}")
+    private long maxDelayMs;
+
+    @Value("${notification.push.retry.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${notification.push.retry.dead-retention-days:7}")
+    private long deadRetentionDays;
+
+    private Counter enqueued;
+    private Counter succeeded;
+    private Counter dead;
+
+    @PostConstruct
+    void registerMetrics() {
+        enqueued = meterRegistry.counter("notification.push.retry.enqueued");
+        succeeded = meterRegistry.counter("notification.push.retry.succeeded");
+        dead = meterRegistry.counter("notification.push.retry.dead");
+    }
+
+    // ==================== ENQUEUE ====================
+
+    /**
+     * Stores failed targets of a first send for retry
+     */
+    public void enqueue(List<PushGateway.Target> targets, PushGateway.PushMessage message) {
+        if (targets.isEmpty()) {
+            return;
+        }
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plus(backoff(1));
+        List<PushRetry> rows = targets.stream().map(t -> {
+            PushRetry row = new PushRetry();
+            row.setUserId(t.userId());
+            row.setFcmToken(t.fcmToken());
+            row.setTopic(t.topic());
+            row.setTitle(message.title());
+            row.setBody(message.body());
+            row.setReferenceType(message.referenceType());
+            row.setReferenceId(message.referenceId());
+            row.setAttempts(1);
+            row.setNextAttemptAt(nextAttemptAt);
+            return row;
+        }).toList();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> pushRetryRepository.saveAll(rows));
+        enqueued.increment(rows.size());
+        log.info("{} failed pushes queued for retry at {}", rows.size(), nextAttemptAt);
+    }
+
+    // ==================== RETRY WORKER ====================
+
+    @Scheduled(fixedDelayString = "${notification.push.retry.poll-ms:5000}",
+               initialDelayString = "${notification.push.retry.poll-ms:5000}")
+    public void retryDue() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        LocalDateTime now = LocalDateTime.now();
+
+        // 1. Claim due rows
+        List<PushRetry> claimed = tx.execute(status -> {
+            List<PushRetry> due = pushRetryRepository.findDueForUpdate(now, PageRequest.ofSize(batchSize));
+            due.forEach(r -> r.setNextAttemptAt(now.plus(CLAIM_LEASE)));
+            return due;
+        });
+        if (claimed == null || claimed.isEmpty()) {
+            return;
+        }
+
+        // 2. Resend, one gateway call per message
+        List<PushRetry> done = new ArrayList<>();
+        List<PushRetry> again = new ArrayList<>();
+        Map<PushGateway.PushMessage, List<PushRetry>> byMessage = claimed.stream()
+                .collect(Collectors.groupingBy(PushRetryService::messageOf, LinkedHashMap::new, Collectors.toList()));
+        byMessage.forEach((message, rows) -> {
+            List<PushGateway.Target> targets = rows.stream().map(PushRetryService::targetOf).distinct().toList();
+            Set<PushGateway.Target> failedAgain;
+            try {
+                failedAgain = new HashSet<>(pushGateway.sendToTargets(targets, message).retryable());
+            } catch (Exception e) {
+                log.warn("Push retry of {} targets failed: {}", targets.size(), e.getMessage());
+                failedAgain = new HashSet<>(targets);
+            }
+            for (PushRetry row : rows) {
+                (failedAgain.contains(targetOf(row)) ? again : done).add(row);
+            }
+        });
+
+        // 3. Drop the sent (or permanently failed) rows, reschedule or dead-letter the rest
+        int[] deadCount = {0};
+        tx.executeWithoutResult(status -> {
+            pushRetryRepository.deleteAllByIdInBatch(done.stream().map(PushRetry::getRetryId).toList());
+            LocalDateTime after = LocalDateTime.now();
+            for (PushRetry row : again) {
+                row.setAttempts(row.getAttempts() + 1);
+                if (row.getAttempts() >= maxAttempts) {
+                    row.setStatus(PushRetry.Status.DEAD);
+                    deadCount[0]++;
+                } else {
+                    row.setNextAttemptAt(after.plus(backoff(row.getAttempts())));
+                }
+            }
+            pushRetryRepository.saveAll(again);
+        });
+        succeeded.increment(done.size());
+        dead.increment(deadCount[0]);
+        log.info("Push retry: {} resent, {} rescheduled, {} dead", done.size(), again.size() - deadCount[0], deadCount[0]);
+    }
+
+    /**
+     * Purge dead letters past the retention window
+     */
+    @Scheduled(cron = "0 15 4 * * *")
+    public void purgeDeadLetters() {
+        int purged = new TransactionTemplate(transactionManager).execute(status ->
+                pushRetryRepository.deleteDeadBefore(LocalDateTime.now().minusDays(deadRetentionDays)));
+        if (purged > 0) {
+            log.info("Purged {} dead push retries", purged);
+        }
+    }
+
+    // ==================== HELPERS ====================
+
+    /**
+     * Delay before the next attempt after the given number of failed attempts:
+     * base × 2^(attempts-1), capped, then jittered to between half and all of it
+     */
+    Duration backoff(int attempts) {
+        long delay = Math.min(maxDelayMs, baseDelayMs << Math.min(attempts - 1, 30));
+        long jittered = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        return Duration.ofMillis(jittered);
+    }
+
+    private static PushGateway.PushMessage messageOf(PushRetry row) {
+        return new PushGateway.PushMessage(row.getTitle(), row.getBody(), row.getReferenceType(), row.getReferenceId());
+    }
+
+    private static PushGateway.Target targetOf(PushRetry row) {
+        return new PushGateway.Target(row.getUserId(), row.getFcmToken(), row.getTopic());
+    }
+}
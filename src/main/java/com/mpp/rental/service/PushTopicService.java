@@ -0,0 +1,136 @@
+package com.mpp.rental.service;
+
+import com.mpp.rental.model.FcmToken;
+import com.mpp.rental.model.Notification;
+import com.mpp.rental.model.User;
+import com.mpp.rental.repository.FcmTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * PushTopicService - keeps FCM devices subscribed to their audience topics, so an audience
+ * broadcast (new event, announcement) is one topic send instead of a push per device.
+ *
+ * An active business owner's devices are in ALL_BO plus STUDENT or NON_STUDENT (see
+ * Notification.Audience); MPP staff, pending and blocked users are in none. Subscriptions follow:
+ * - token saved / reactivated (FcmService.saveToken); a browser token re-registered by another
+ *   user leaves the previous owner's topics the new owner is not in
+ * - category or status changed (UserService)
+ * - application start — every active device is re-subscribed (idempotent on the FCM side),
+ *   which also covers tokens saved before topics existed
+ *
+ * FCM calls run after commit on NotificationDispatcher's pool. notification.push.topics.enabled=false
+ * turns all of this off and broadcasts go back to per-user sends.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PushTopicService {
+
+    private final FcmTokenRepository fcmTokenRepository;
+    private final PushGateway pushGateway;
+    private final NotificationDispatcher dispatcher;
+
+    @Value("${notification.push.topics.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Topic for an audience broadcast, or null when topics are disabled (send per user)
+     */
+    public String topicFor(Notification.Audience audience) {
+        return enabled ? audience.getTopic() : null;
+    }
+
+    /**
+     * Audiences whose topics the user's devices belong in — none unless the user is active
+     */
+    public static List<Notification.Audience> audiencesOf(User user) {
+        return user.getUserStatus() == User.UserStatus.ACTIVE
+                ? Notification.Audience.of(user.getUserCategory())
+                : List.of();
+    }
+
+    // ==================== SUBSCRIPTION CHANGES ====================
+
+    /**
+     * A token was saved or reactivated for the user
+     */
+    public void subscribeAfterCommit(String fcmToken, User user) {
+        List<Notification.Audience> audiences = audiencesOf(user);
+        if (!enabled || audiences.isEmpty()) {
+            return;
+        }
+        dispatcher.runAfterCommit(() ->
+                audiences.forEach(a -> pushGateway.subscribe(List.of(fcmToken), a.getTopic())));
+    }
+
+    /**
+     * An existing token was registered by newOwner (a shared browser, or the same user again) —
+     * drop it from the previous owner's topics newOwner is not in and subscribe it to newOwner's
+     */
+    public void transferAfterCommit(String fcmToken, User previousOwner, User newOwner) {
+        List<Notification.Audience> after = audiencesOf(newOwner);
+        List<Notification.Audience> stale = audiencesOf(previousOwner).stream()
+                .filter(a -> !after.contains(a))
+                .toList();
+        if (!enabled || (after.isEmpty() && stale.isEmpty())) {
+            return;
+        }
+        dispatcher.runAfterCommit(() -> {
+            stale.forEach(a -> pushGateway.unsubscribe(List.of(fcmToken), a.getTopic()));
+            after.forEach(a -> pushGateway.subscribe(List.of(fcmToken), a.getTopic()));
+        });
+        if (!stale.isEmpty()) {
+            log.info("FCM token moved from userId={} to userId={}, leaving {}",
+                    previousOwner.getUserId(), newOwner.getUserId(), stale);
+        }
+    }
+
+    /**
+     * The user's category or status changed — move their active devices from the old topics to the new
+     */
+    public void moveAfterCommit(Long userId, List<Notification.Audience> before, List<Notification.Audience> after) {
+        if (!enabled || before.equals(after)) {
+            return;
+        }
+        List<String> tokens = fcmTokenRepository.findByUser_UserIdAndIsActiveTrue(userId).stream()
+                .map(FcmToken::getFcmToken)
+                .toList();
+        if (tokens.isEmpty()) {
+            return;
+        }
+        dispatcher.runAfterCommit(() -> {
+            before.stream().filter(a -> !after.contains(a))
+                    .forEach(a -> pushGateway.unsubscribe(tokens, a.getTopic()));
+            after.stream().filter(a -> !before.contains(a))
+                    .forEach(a -> pushGateway.subscribe(tokens, a.getTopic()));
+        });
+        log.info("FCM topics of userId={} moving from {} to {}", userId, before, after);
+    }
+
+    /**
+     * Re-subscribes every active business-owner device to its topics
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resubscribeAll() {
+        if (!enabled) {
+            return;
+        }
+        Map<User.UserCategory, List<String>> tokensByCategory = fcmTokenRepository.findTopicMembers().stream()
+                .collect(Collectors.groupingBy(FcmTokenRepository.TopicMember::getUserCategory,
+                        Collectors.mapping(FcmTokenRepository.TopicMember::getFcmToken, Collectors.toList())));
+        if (tokensByCategory.isEmpty()) {
+            return;
+        }
+        dispatcher.runAfterCommit(() -> tokensByCategory.forEach((category, tokens) ->
+                Notification.Audience.of(category).forEach(a -> pushGateway.subscribe(tokens, a.getTopic()))));
+    }
+}
@@ -0,0 +1,44 @@
+package com.mpp.rental.service;
+
+import com.mpp.rental.model.Event;
+import com.mpp.rental.model.Facility;
+import com.mpp.rental.model.FacilityApplication;
+import com.mpp.rental.model.Payment;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener on the entities the MPP reports read (FacilityApplication, Payment,
+ * Event, EventFacility, Facility) — any write invalidates ReportResultCache once its
+ * transaction commits.
+ *
+ * ReportTrendCache is only cleared for event / facility writes — application and payment
+ * writes evict just the trend periods of their days, through ReportRollupService.
+ * ReportFilterOptionsCache (filter dropdowns) only for event / facility writes.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReportCacheListener {
+
+    // Resolved lazily — Hibernate instantiates listeners while the EntityManagerFactory is still being built
+    private final ObjectProvider<ReportResultCache> reportResultCache;
+    private final ObjectProvider<ReportTrendCache>  reportTrendCache;
+    private final ObjectProvider<ReportFilterOptionsCache> reportFilterOptionsCache;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(Object entity) {
+        reportResultCache.getObject().invalidateAfterCommit();
+        if (!(entity instanceof FacilityApplication) && !(entity instanceof Payment)) {
+            reportTrendCache.getObject().invalidateAfterCommit();
+        }
+        if (entity instanceof Event || entity instanceof Facility) {
+            reportFilterOptionsCache.getObject().invalidateAfterCommit();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.mpp.rental.service;
+
+import com.mpp.rental.dto.*;
+import com.mpp.rental.repository.ReportQueryRepository;
+import com.mpp.rental.util.CsvWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * ReportExportService - CSV downloads of the five MPP reports.
+ *
+ * Row-level reports (1, 2) and the per-business report (3) are read through a JDBC cursor and
+ * written to the response as they arrive, so heap use stays flat however many rows a
+ * whole-year export has. Reports 4 and 5 have one row per event / facility template and
+ * reuse the list queries.
+ *
+ * Each export method is its own read-only transaction; it runs on the MVC async thread
+ * that drives the StreamingResponseBody, not on the request thread. Background jobs pass a
+ * Progress: the streamed reports then count their rows first (one COUNT query) and report
+ * rows written every FLUSH_EVERY_ROWS rows.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReportExportService {
+
+    /** Push bytes to the client every N rows so the download starts immediately */
+    private static final int FLUSH_EVERY_ROWS = 500;
+
+    /**
+     * Rows written so far out of expected (-1 while unknown)
+     */
+    @FunctionalInterface
+    public interface Progress {
+        Progress NONE = (written, expected) -> { };
+
+        void rows(long written, long expected);
+    }
+
+    private final ReportQueryRepository reportQueryRepository;
+    private final ReportRollupService   reportRollupService;
+
+    /** JDBC fetch size for export cursors — Integer.MIN_VALUE = MySQL row-by-row streaming */
+    @Value("${report.export.fetch-size:" + Integer.MIN_VALUE + "}")
+    private int fetchSize;
+
+    // ==================== REPORT 1: FACILITY RENTAL ====================
+
+    @Transactional(readOnly = true)
+    public void exportFacilityRental(ReportFilterRequest filter, OutputStream out) throws IOException {
+        exportFacilityRental(filter, out, Progress.NONE);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportFacilityRental(ReportFilterRequest filter, OutputStream out, Progress progress) throws IOException {
+        CsvWriter csv = start(out, "Application ID", "Event", "Venue", "Event Status", "Facility", "Facility Type",
+                "Business ID", "Business", "Owner ID", "Owner", "Owner Category",
+                "Application Status", "Applied At", "Payment Status", "Payment Amount");
+
+        long expected = progress == Progress.NONE ? -1 : reportQueryRepository.countFacilityRentalRows(filter);
+        progress.rows(0, expected);
+        try (Stream<FacilityRentalRow> rows = reportQueryRepository.streamFacilityRentalRows(filter, fetchSize)) {
+            int count = 0;
+            for (Iterator<FacilityRentalRow> it = rows.iterator(); it.hasNext(); ) {
+                FacilityRentalRow r = it.next();
+                csv.row(r.getApplicationId(), r.getEventName(), r.getEventVenue(), r.getEventStatus(),
+                        r.getFacilityName(), r.getFacilityType(), r.getBusinessId(), r.getBusinessName(),
+                        r.getOwnerId(), r.getOwnerName(), r.getOwnerCategory(),
+                        r.getApplicationStatus(), r.getApplicationCreatedAt(),
+                        r.getPaymentStatus(), r.getPaymentAmount());
+                flushPeriodically(csv, ++count, expected, progress);
+            }
+            csv.flush();
+            progress.rows(count, expected);
+            log.info("Exported facility rental report: {} rows", count);
+        }
+    }
+
+    // ==================== REPORT 2: REVENUE & PAYMENT ====================
+
+    @Transactional(readOnly = true)
+    public void exportRevenue(ReportFilterRequest filter, OutputStream out) throws IOException {
+        exportRevenue(filter, out, Progress.NONE);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportRevenue(ReportFilterRequest filter, OutputStream out, Progress progress) throws IOException {
+        CsvWriter csv = start(out, "Application ID", "Event", "Business", "Owner", "Owner Category",
+                "Amount Billed", "Payment Status", "Payment Created At");
+
+        long expected = progress == Progress.NONE ? -1 : reportQueryRepository.countRevenueRows(filter);
+        progress.rows(0, expected);
+        try (Stream<RevenueRow> rows = reportQueryRepository.streamRevenueRows(filter, fetchSize)) {
+            int count = 0;
+            for (Iterator<RevenueRow> it = rows.iterator(); it.hasNext(); ) {
+                RevenueRow r = it.next();
+                csv.row(r.getApplicationId(), r.getEventName(), r.getBusinessName(), r.getOwnerName(),
+                        r.getOwnerCategory(), r.getAmountBilled(), r.getPaymentStatus(), r.getPaymentCreatedAt());
+                flushPeriodically(csv, ++count, expected, progress);
+            }
+            csv.flush();
+            progress.rows(count, expected);
+            log.info("Exported revenue report: {} rows", count);
+        }
+    }
+
+    // ==================== REPORT 3: BUSINESS OWNER ACTIVITY ====================
+
+    @Transactional(readOnly = true)
+    public void exportBusinessActivity(ReportFilterRequest filter, OutputStream out) throws IOException {
+        exportBusinessActivity(filter, out, Progress.NONE);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportBusinessActivity(ReportFilterRequest filter, OutputStream out, Progress progress) throws IOException {
+        CsvWriter csv = start(out, "Business ID", "Business", "Owner", "Owner Category",
+                "Applied", "Approved", "Rejected", "Cancelled", "Paid",
+                "Approval Rate %", "Cancellation Rate %", "Payment Rate %", "Revenue Paid");
+
+        long expected = progress == Progress.NONE ? -1 : reportQueryRepository.countBusinesses(filter);
+        progress.rows(0, expected);
+        try (Stream<BusinessActivityRow> rows = reportQueryRepository.streamBusinessActivityRows(filter, fetchSize)) {
+            int count = 0;
+            for (Iterator<BusinessActivityRow> it = rows.iterator(); it.hasNext(); ) {
+                BusinessActivityRow r = it.next();
+                ReportService.applyRates(r);
+                csv.row(r.getBusinessId(), r.getBusinessName(), r.getOwnerName(), r.getOwnerCategory(),
+                        r.getTotalApplied(), r.getTotalApproved(), r.getTotalRejected(), r.getTotalCancelled(),
+                        r.getTotalPaid(), r.getApprovalRate(), r.getCancellationRate(), r.getPaymentRate(),
+                        r.getTotalRevenuePaid());
+                flushPeriodically(csv, ++count, expected, progress);
+            }
+            csv.flush();
+            progress.rows(count, expected);
+            log.info("Exported business activity report: {} rows", count);
+        }
+    }
+
+    // ==================== REPORT 4: EVENT PERFORMANCE ====================
+
+    @Transactional(readOnly = true)
+    public void exportEventPerformance(ReportFilterRequest filter, OutputStream out) throws IOException {
+        exportEventPerformance(filter, out, Progress.NONE);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportEventPerformance(ReportFilterRequest filter, OutputStream out, Progress progress) throws IOException {
+        CsvWriter csv = start(out, "Event ID", "Event", "Venue", "Status", "Start Date", "End Date",
+                "Facilities Offered", "Slots Available", "Slots Filled", "Fill Rate %",
+                "Applications", "Approved", "Rejected", "Revenue");
+
+        List<EventPerformanceRow> rows = reportQueryRepository.findEventPerformanceRows(filter, reportRollupService.isReady());
+        progress.rows(0, rows.size());
+        for (EventPerformanceRow r : rows) {
+            ReportService.applyFillRate(r);
+            csv.row(r.getEventId(), r.getEventName(), r.getEventVenue(), r.getEventStatus(),
+                    r.getEventStartDate(), r.getEventEndDate(), r.getTotalFacilitiesOffered(),
+                    r.getTotalSlotsAvailable(), r.getTotalSlotsFilled(), r.getFillRate(),
+                    r.getTotalApplications(), r.getTotalApproved(), r.getTotalRejected(), r.getTotalRevenue());
+        }
+        csv.flush();
+        progress.rows(rows.size(), rows.size());
+        log.info("Exported event performance report: {} rows", rows.size());
+    }
+
+    // ==================== REPORT 5: FACILITY UTILISATION ====================
+
+    @Transactional(readOnly = true)
+    public void exportFacilityUtilisation(ReportFilterRequest filter, OutputStream out) throws IOException {
+        exportFacilityUtilisation(filter, out, Progress.NONE);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportFacilityUtilisation(ReportFilterRequest filter, OutputStream out, Progress progress) throws IOException {
+        CsvWriter csv = start(out, "Facility ID", "Facility", "Type", "Size", "Times Offered",
+                "Slots Offered", "Slots Filled", "Fill Rate %", "Applications", "Approved", "Revenue");
+
+        List<FacilityUtilisationRow> rows = reportQueryRepository.findFacilityUtilisationRows(filter, reportRollupService.isReady());
+        progress.rows(0, rows.size());
+        rows.forEach(ReportService::applyFillRate);
+        rows.sort(Comparator.comparingInt(FacilityUtilisationRow::getTotalApplications).reversed());
+        for (FacilityUtilisationRow r : rows) {
+            csv.row(r.getFacilityId(), r.getFacilityName(), r.getFacilityType(), r.getFacilitySize(),
+                    r.getTimesOffered(), r.getTotalSlotsOffered(), r.getTotalSlotsFilled(), r.getFillRate(),
+                    r.getTotalApplications(), r.getTotalApproved(), r.getTotalRevenueGenerated());
+        }
+        csv.flush();
+        progress.rows(rows.size(), rows.size());
+        log.info("Exported facility utilisation report: {} rows", rows.size());
+    }
+
+    // ==================== HELPERS ====================
+
+    /** Header goes out before the query runs, so the client sees the download start right away */
+    private CsvWriter start(OutputStream out, String... headers) throws IOException {
+        CsvWriter csv = new CsvWriter(out).bom();
+        csv.row((Object[]) headers);
+        csv.flush();
+        return csv;
+    }
+
+    private void flushPeriodically(CsvWriter csv, int count, long expected, Progress progress) throws IOException {
+        if (count % FLUSH_EVERY_ROWS == 0) {
+            csv.flush();
+            progress.rows(count, expected);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.mpp.rental.service;
+
+import com.mpp.rental.dto.EventResponse;
+import com.mpp.rental.dto.FacilityResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * ReportFilterOptionsCache - the event / facility lists behind the report filter dropdowns.
+ *
+ * They only change when an event or facility is written (created, edited, cancelled, status
+ * updated by EventService's scheduler), so ReportCacheListener clears them after such a
+ * transaction commits — application and payment traffic leaves them alone.
+ *
+ * Cached lists are shared between callers and must not be modified.
+ */
+@Component
+@Slf4j
+public class ReportFilterOptionsCache {
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Cached<EventResponse> events;
+    private volatile Cached<FacilityResponse> facilities;
+
+    private record Cached<T>(List<T> options, long generation) {
+    }
+
+    // ==================== LOOKUP ====================
+
+    public List<EventResponse> events(Supplier<List<EventResponse>> loader) {
+        Cached<EventResponse> cached = events;
+        long current = generation.get();
+        if (cached != null && cached.generation() == current) {
+            return cached.options();
+        }
+        List<EventResponse> options = List.copyOf(loader.get());
+        events = new Cached<>(options, current);
+        return options;
+    }
+
+    public List<FacilityResponse> facilities(Supplier<List<FacilityResponse>> loader) {
+        Cached<FacilityResponse> cached = facilities;
+        long current = generation.get();
+        if (cached != null && cached.generation() == current) {
+            return cached.options();
+        }
+        List<FacilityResponse> options = List.copyOf(loader.get());
+        facilities = new Cached<>(options, current);
+        return options;
+    }
+
+    // ==================== INVALIDATION ====================
+
+    /**
+     * Clears both lists once the current transaction commits (immediately when there is none).
+     * A list loaded under an older generation is never served again, even if its load
+     * finished after the write.
+     */
+    public void invalidateAfterCommit() {
+        TransactionHooks.afterCommitOnce(this, this::invalidateAll);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        events = null;
+        facilities = null;
+        log.debug("Report filter options invalidated");
+    }
+}
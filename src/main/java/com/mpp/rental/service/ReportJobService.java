@@ -0,0 +1,473 @@
+package com.mpp.rental.service;
+
+import com.mpp.rental.dto.ReportFilterRequest;
+import com.mpp.rental.dto.ReportJobRequest;
+import com.mpp.rental.dto.ReportJobResponse;
+import com.mpp.rental.exception.BadRequestException;
+import com.mpp.rental.exception.ResourceNotFoundException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * ReportJobService - runs reports in the background so a large date range never holds a
+ * Tomcat thread (or the browser) for the whole computation.
+ *
+ * A job is submitted with the same report name and filters as the synchronous endpoints and
+ * runs on a fixed pool of report.jobs.workers threads; at most report.jobs.queue-capacity jobs
+ * wait behind them, anything beyond that is rejected. Since every running job holds at most one
+ * database connection, the pool size is also the most connections reports can take from the
+ * transactional endpoints.
+ *
+ * A user has at most report.jobs.max-per-user unfinished jobs; the slot is taken atomically on
+ * submit and given back by the one transition that finishes the job. Status changes go through
+ * Job.start / Job.finish (synchronized), so a cancel can never be overwritten by the worker.
+ *
+ * Progress: 5 once running; CSV jobs then count the report's rows (10) and move from 10 to 95
+ * as rows are written; 100 when completed. A JSON report is a single computation (often a cache
+ * or snapshot hit) and goes from 5 straight to 100.
+ *
+ * JSON results are kept in memory, CSV results are written to a temp file through
+ * ReportExportService. Jobs and their files are dropped report.jobs.ttl-minutes after they finish,
+ * and beyond report.jobs.max-retained finished jobs the oldest are dropped straight away.
+ * Jobs live in memory only — they do not survive a restart.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReportJobService {
+
+    public static final List<String> REPORTS = List.of(
+            "facility-rental", "revenue", "business-activity", "event-performance", "facility-utilisation");
+
+    public enum JobStatus {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED;
+
+        boolean isFinished() {
+            return this == COMPLETED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private static final int PROGRESS_STARTED = 5;
+    private static final int PROGRESS_COUNTED = 10;
+    private static final int PROGRESS_WRITTEN = 95;
+
+    private final ReportService       reportService;
+    private final ReportExportService reportExportService;
+
+    @Value("${report.jobs.workers:2}")
+    private int workers;
+
+    @Value("${report.jobs.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${report.jobs.max-per-user:3}")
+    private int maxPerUser;
+
+    @Value("${report.jobs.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    @Value("${report.jobs.max-retained:50}")
+    private int maxRetained;
+
+    private ThreadPoolExecutor executor;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    /** owner → unfinished jobs; entries exist only while non-zero */
+    private final Map<String, Integer> activeByOwner = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void start() {
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("report-job-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+        jobs.values().forEach(Job::deleteFile);
+    }
+
+    // ==================== SUBMIT ====================
+
+    /**
+     * Queues a report job for the given user.
+     * Throws RejectedExecutionException when the pool's queue is full.
+     */
+    public ReportJobResponse submit(String owner, ReportJobRequest request) {
+        String report = request.getReport().trim().toLowerCase();
+        if (!REPORTS.contains(report)) {
+            throw new BadRequestException("Unknown report: " + request.getReport());
+        }
+        boolean csv = "csv".equalsIgnoreCase(request.getFormat());
+        ReportFilterRequest filter = request.getFilter() != null ? request.getFilter() : new ReportFilterRequest();
+
+        // Check and take the slot in one step — concurrent submits cannot both pass the check
+        activeByOwner.compute(owner, (k, active) -> {
+            int running = active == null ? 0 : active;
+            if (running >= maxPerUser) {
+                throw new BadRequestException("You already have " + running + " report jobs running — wait for one to finish");
+            }
+            return running + 1;
+        });
+
+        Job job = new Job(UUID.randomUUID().toString(), owner, report, csv, filter);
+        jobs.put(job.id, job);
+        try {
+            job.future = executor.submit(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            releaseSlot(owner);
+            throw e;
+        }
+        log.info("Report job {} queued: {} ({}) for {}", job.id, report, csv ? "csv" : "json", owner);
+        return job.toResponse();
+    }
+
+    // ==================== QUERY ====================
+
+    public ReportJobResponse getJob(String owner, String jobId) {
+        return find(owner, jobId).toResponse();
+    }
+
+    public List<ReportJobResponse> getJobs(String owner) {
+        return jobs.values().stream()
+                .filter(j -> j.owner.equals(owner))
+                .sorted(Comparator.comparing((Job j) -> j.createdAt).reversed())
+                .map(Job::toResponse)
+                .toList();
+    }
+
+    /**
+     * The in-memory result of a completed JSON job
+     */
+    public Object getJsonResult(String owner, String jobId) {
+        Job job = completed(owner, jobId);
+        if (job.csv) throw new BadRequestException("Report job " + jobId + " produced a CSV file");
+        return job.result;
+    }
+
+    /**
+     * The file of a completed CSV job
+     */
+    public Path getCsvResult(String owner, String jobId) {
+        Job job = completed(owner, jobId);
+        if (!job.csv) throw new BadRequestException("Report job " + jobId + " produced a JSON result");
+        return job.file;
+    }
+
+    /**
+     * Cancels a queued or running job, or discards a finished one together with its result.
+     */
+    public void cancel(String owner, String jobId) {
+        Job job = find(owner, jobId);
+        if (!finish(job, JobStatus.CANCELLED, null)) {
+            jobs.remove(jobId);  // already finished
+            job.deleteFile();
+            return;
+        }
+        Future<?> future = job.future;
+        if (future != null) {
+            future.cancel(true);
+        }
+        job.deleteFile();
+        publish(job);
+        log.info("Report job {} cancelled", jobId);
+    }
+
+    // ==================== PROGRESS EVENTS ====================
+
+    /**
+     * SSE stream of one job: a "progress" event on every stage change and a final "completed",
+     * "failed" or "cancelled" event, after which the stream is closed. A job that has already
+     * finished gets its final event straight away.
+     */
+    public SseEmitter subscribe(String owner, String jobId) {
+        Job job = find(owner, jobId);
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(30));
+        job.emitters.add(emitter);
+        emitter.onCompletion(() -> job.emitters.remove(emitter));
+        emitter.onTimeout(() -> job.emitters.remove(emitter));
+        emitter.onError(e -> job.emitters.remove(emitter));
+
+        // Read the state after registering, so a job finishing in between is not missed
+        JobStatus status = job.status;
+        send(emitter, job, eventName(status), job.toResponse());
+        if (status.isFinished()) {
+            job.emitters.remove(emitter);
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    private void publish(Job job) {
+        ReportJobResponse snapshot = job.toResponse();
+        String name = eventName(job.status);
+        for (SseEmitter emitter : job.emitters) {
+            send(emitter, job, name, snapshot);
+            if (job.status.isFinished()) {
+                job.emitters.remove(emitter);
+                emitter.complete();
+            }
+        }
+    }
+
+    private void send(SseEmitter emitter, Job job, String name, ReportJobResponse data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Report job {} listener gone: {}", job.id, e.getMessage());
+            job.emitters.remove(emitter);
+        }
+    }
+
+    private static String eventName(JobStatus status) {
+        return switch (status) {
+            case COMPLETED -> "completed";
+            case FAILED    -> "failed";
+            case CANCELLED -> "cancelled";
+            default        -> "progress";
+        };
+    }
+
+    // ==================== EXECUTION ====================
+
+    private void run(Job job) {
+        if (!job.start()) return;  // cancelled while queued
+        publish(job);
+
+        long start = System.currentTimeMillis();
+        try {
+            if (job.csv) {
+                job.file = Files.createTempFile("report-" + job.report + "-", ".csv");
+                try (OutputStream out = new CountingOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(job.file)), job)) {
+                    export(job.report, job.filter, out, (written, expected) -> progress(job, written, expected));
+                }
+            } else {
+                job.result = generate(job.report, job.filter);
+            }
+            if (!finish(job, JobStatus.COMPLETED, null)) {
+                job.deleteFile();  // cancelled mid-run
+                job.result = null;
+                return;
+            }
+            log.info("Report job {} completed in {} ms", job.id, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            job.deleteFile();
+            if (!finish(job, JobStatus.FAILED, e.getMessage())) return;
+            log.error("Report job {} failed: {}", job.id, e.getMessage(), e);
+        }
+        publish(job);
+    }
+
+    /**
+     * CSV rows written out of expected → 10..95, published in steps of 5
+     */
+    private void progress(Job job, long written, long expected) {
+        int percent = expected <= 0 ? PROGRESS_COUNTED
+                : (int) (PROGRESS_COUNTED + (PROGRESS_WRITTEN - PROGRESS_COUNTED) * Math.min(written, expected) / expected);
+        int previous = job.progress;
+        if (percent <= previous) return;
+        job.progress = percent;
+        if (percent / 5 > previous / 5) {
+            publish(job);
+        }
+    }
+
+    private Object generate(String report, ReportFilterRequest f) {
+        return switch (report) {
+            case "facility-rental" -> reportService.getFacilityRentalReport(f.getEventId(), f.getFacilityId(),
+                    f.getOwnerCategory(), f.getApplicationStatus(), f.getPaymentStatus(), f.getStartDate(), f.getEndDate());
+            case "revenue" -> reportService.getRevenueReport(f.getEventId(), f.getOwnerCategory(),
+                    f.getPaymentStatus(), f.getStartDate(), f.getEndDate());
+            case "business-activity" -> reportService.getBusinessActivityReport(f.getOwnerCategory(), f.getEventId(),
+                    f.getStartDate(), f.getEndDate());
+            case "event-performance" -> reportService.getEventPerformanceReport(f.getEventStatus(),
+                    f.getStartDate(), f.getEndDate());
+            case "facility-utilisation" -> reportService.getFacilityUtilisationReport(f.getFacilityType(), f.getEventId(),
+                    f.getStartDate(), f.getEndDate());
+            default -> throw new BadRequestException("Unknown report: " + report);
+        };
+    }
+
+    private void export(String report, ReportFilterRequest filter, OutputStream out,
+                        ReportExportService.Progress progress) throws IOException {
+        switch (report) {
+            case "facility-rental"      -> reportExportService.exportFacilityRental(filter, out, progress);
+            case "revenue"              -> reportExportService.exportRevenue(filter, out, progress);
+            case "business-activity"    -> reportExportService.exportBusinessActivity(filter, out, progress);
+            case "event-performance"    -> reportExportService.exportEventPerformance(filter, out, progress);
+            case "facility-utilisation" -> reportExportService.exportFacilityUtilisation(filter, out, progress);
+            default -> throw new BadRequestException("Unknown report: " + report);
+        }
+    }
+
+    // ==================== CLEANUP ====================
+
+    /**
+     * Every 5 minutes: drop jobs that finished more than report.jobs.ttl-minutes ago
+     */
+    @Scheduled(fixedDelay = 300_000)
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(ttlMinutes);
+        jobs.values().removeIf(job -> {
+            boolean expired = job.finishedAt != null && job.finishedAt.isBefore(cutoff);
+            if (expired) job.deleteFile();
+            return expired;
+        });
+    }
+
+    /**
+     * Beyond report.jobs.max-retained finished jobs, drop the oldest finished ones with their results
+     */
+    private void evictFinished() {
+        List<Job> finished = jobs.values().stream()
+                .filter(j -> j.status.isFinished())
+                .sorted(Comparator.comparing((Job j) -> j.finishedAt))
+                .toList();
+        for (int i = 0; i < finished.size() - maxRetained; i++) {
+            Job job = finished.get(i);
+            if (jobs.remove(job.id, job)) {
+                job.deleteFile();
+            }
+        }
+    }
+
+    // ==================== HELPERS ====================
+
+    /**
+     * The job's final transition — gives back its owner's slot; false if it had already finished
+     */
+    private boolean finish(Job job, JobStatus status, String error) {
+        if (!job.finish(status, error)) {
+            return false;
+        }
+        releaseSlot(job.owner);
+        evictFinished();
+        return true;
+    }
+
+    private void releaseSlot(String owner) {
+        activeByOwner.computeIfPresent(owner, (k, active) -> active > 1 ? active - 1 : null);
+    }
+
+    private Job find(String owner, String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null || !job.owner.equals(owner)) {
+            throw new ResourceNotFoundException("Report job not found: " + jobId);
+        }
+        return job;
+    }
+
+    private Job completed(String owner, String jobId) {
+        Job job = find(owner, jobId);
+        if (job.status != JobStatus.COMPLETED) {
+            throw new BadRequestException("Report job " + jobId + " is " + job.status);
+        }
+        return job;
+    }
+
+    private static final class Job {
+        private final String              id;
+        private final String              owner;
+        private final String              report;
+        private final boolean             csv;
+        private final ReportFilterRequest filter;
+        private final LocalDateTime       createdAt = LocalDateTime.now();
+        private final List<SseEmitter>    emitters = new CopyOnWriteArrayList<>();
+
+        private volatile JobStatus     status = JobStatus.QUEUED;
+        private volatile int           progress;
+        private volatile long          bytesWritten;
+        private volatile String        error;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile Object        result;
+        private volatile Path          file;
+        private volatile Future<?>     future;
+
+        private Job(String id, String owner, String report, boolean csv, ReportFilterRequest filter) {
+            this.id = id;
+            this.owner = owner;
+            this.report = report;
+            this.csv = csv;
+            this.filter = filter;
+        }
+
+        /** QUEUED → RUNNING; false if the job was cancelled first */
+        private synchronized boolean start() {
+            if (status != JobStatus.QUEUED) return false;
+            this.startedAt = LocalDateTime.now();
+            this.progress = PROGRESS_STARTED;
+            this.status = JobStatus.RUNNING;
+            return true;
+        }
+
+        /** Unfinished → status; false if the job had already finished */
+        private synchronized boolean finish(JobStatus status, String error) {
+            if (this.status.isFinished()) return false;
+            this.error = error;
+            this.progress = status == JobStatus.COMPLETED ? 100 : progress;
+            this.finishedAt = LocalDateTime.now();
+            this.status = status;
+            return true;
+        }
+
+        private void deleteFile() {
+            Path path = file;
+            if (path == null) return;
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("Could not delete report job file {}: {}", path, e.getMessage());
+            }
+        }
+
+        private ReportJobResponse toResponse() {
+            return new ReportJobResponse(id, report, csv ? "csv" : "json", status.name(), progress, bytesWritten,
+                    error, createdAt, startedAt, finishedAt,
+                    status == JobStatus.COMPLETED ? "/api/mpp/reports/jobs/" + id + "/result" : null);
+        }
+    }
+
+    /**
+     * Counts CSV bytes as the export writes them; stops the export once the job is cancelled
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private final Job job;
+
+        private CountingOutputStream(OutputStream out, Job job) {
+            super(out);
+            this.job = job;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (job.status == JobStatus.CANCELLED) throw new InterruptedIOException("Report job cancelled");
+            out.write(b, off, len);
+            job.bytesWritten += len;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+    }
+}
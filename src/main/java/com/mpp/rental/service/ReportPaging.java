@@ -0,0 +1,274 @@
+package com.mpp.rental.service;
+
+import com.mpp.rental.dto.ReportPageRequest;
+import com.mpp.rental.dto.ReportResponse;
+import com.mpp.rental.exception.BadRequestException;
+import com.mpp.rental.repository.ReportQueryRepository;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * ReportPaging - keyset paging of one report's row table.
+ *
+ * Each report declares the row fields it can be sorted by plus the row id used as tie-breaker.
+ * A page is "size rows after (sort value, id) of the last row of the previous page", so a page
+ * costs the same however deep it is, and rows inserted meanwhile never shift later pages.
+ * The cursor is that pair, base64url-encoded together with the sort it belongs to. Blank sort
+ * values (NULL) sort first ascending and last descending, both here and in SQL, and are encoded
+ * as such in the cursor rather than as text.
+ *
+ * Rows come either from SQL (keyset() → ReportQueryRepository) or from an already computed,
+ * full row list (slice()).
+ */
+public final class ReportPaging<R> {
+
+    public static final int DEFAULT_PAGE_SIZE = 25;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private record SortKey<R>(String name, Function<R, ?> value, Function<String, ?> parse) {
+    }
+
+    private final ToLongFunction<R> id;
+    private final Map<String, SortKey<R>> sortKeys = new LinkedHashMap<>();
+    private String defaultSort;
+    private boolean defaultDescending;
+
+    private ReportPaging(ToLongFunction<R> id) {
+        this.id = id;
+    }
+
+    /** Paging over rows identified (and tie-broken) by id */
+    public static <R> ReportPaging<R> byId(ToLongFunction<R> id) {
+        return new ReportPaging<>(id);
+    }
+
+    // ==================== SORT KEYS ====================
+
+    public ReportPaging<R> text(String name, Function<R, String> value) {
+        return sortKey(name, value, s -> s);
+    }
+
+    public ReportPaging<R> dateTime(String name, Function<R, LocalDateTime> value) {
+        return sortKey(name, value, LocalDateTime::parse);
+    }
+
+    public ReportPaging<R> date(String name, Function<R, LocalDate> value) {
+        return sortKey(name, value, LocalDate::parse);
+    }
+
+    public ReportPaging<R> number(String name, Function<R, Integer> value) {
+        return sortKey(name, value, Integer::valueOf);
+    }
+
+    public ReportPaging<R> money(String name, Function<R, BigDecimal> value) {
+        return sortKey(name, value, BigDecimal::new);
+    }
+
+    /** Order used when the request has no sort — normally the order of the unpaged report */
+    public ReportPaging<R> defaultSort(String name, boolean descending) {
+        this.defaultSort = name;
+        this.defaultDescending = descending;
+        return this;
+    }
+
+    private ReportPaging<R> sortKey(String name, Function<R, ?> value, Function<String, ?> parse) {
+        sortKeys.put(name, new SortKey<>(name, value, parse));
+        return this;
+    }
+
+    // ==================== REQUEST ====================
+
+    /**
+     * The requested page, or null when the request is unpaged.
+     * Throws BadRequestException for an unknown sort key, a malformed cursor, or a cursor from another sort.
+     */
+    public Page<R> page(ReportPageRequest request) {
+        if (request == null || !request.isPaged()) return null;
+
+        String sortName = defaultSort;
+        boolean descending = defaultDescending;
+        if (request.getSort() != null && !request.getSort().isBlank()) {
+            String[] parts = request.getSort().trim().split("\\s*,\\s*");
+            sortName = parts[0];
+            descending = parts.length > 1 && parts[1].equalsIgnoreCase("desc");
+            if (parts.length > 1 && !descending && !parts[1].equalsIgnoreCase("asc")) {
+                throw new BadRequestException("Sort direction must be asc or desc");
+            }
+        }
+        SortKey<R> key = sortKeys.get(sortName);
+        if (key == null) {
+            throw new BadRequestException("Cannot sort by " + sortName + " — use one of " + sortKeys.keySet());
+        }
+
+        int size = request.getSize() != null ? request.getSize() : DEFAULT_PAGE_SIZE;
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        Object afterValue = null;
+        Long afterId = null;
+        String cursor = request.getCursor();
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decode(cursor);
+            if (!parts[0].equals(sortToken(key.name(), descending))) {
+                throw new BadRequestException("Cursor belongs to a different sort — start again from the first page");
+            }
+            try {
+                afterId = Long.valueOf(parts[1]);
+                afterValue = parseValue(key, parts[2]);
+            } catch (RuntimeException e) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+        return new Page<>(this, key, descending, size, afterValue, afterId);
+    }
+
+    // ==================== PAGE ====================
+
+    public static final class Page<R> {
+        /** Blank sort values (e.g. an unpaid row's payment date) sort like SQL NULLs in ascending order */
+        @SuppressWarnings("rawtypes")
+        private static final Comparator<Comparable> NULLS_FIRST = Comparator.nullsFirst(Comparator.naturalOrder());
+
+        private final ReportPaging<R> paging;
+        private final SortKey<R> key;
+        private final boolean descending;
+        private final int size;
+        private final Object afterValue;
+        private final Long afterId;
+
+        private Page(ReportPaging<R> paging, SortKey<R> key, boolean descending, int size,
+                     Object afterValue, Long afterId) {
+            this.paging = paging;
+            this.key = key;
+            this.descending = descending;
+            this.size = size;
+            this.afterValue = afterValue;
+            this.afterId = afterId;
+        }
+
+        /** Only the first page carries the summary */
+        public boolean isFirst() {
+            return afterId == null;
+        }
+
+        /** The page as a SQL keyset — fetches one row more than the page to detect the last page */
+        public ReportQueryRepository.Keyset keyset() {
+            return new ReportQueryRepository.Keyset(key.name(), descending, afterValue, afterId, size + 1);
+        }
+
+        /**
+         * Page over rows fetched with keyset(): drops the look-ahead row and sets nextCursor.
+         */
+        public <S> ReportResponse<S, R> toResponse(S summary, List<R> fetched) {
+            if (fetched.size() <= size) {
+                return new ReportResponse<>(summary, fetched, null);
+            }
+            List<R> rows = new ArrayList<>(fetched.subList(0, size));
+            return new ReportResponse<>(summary, rows, cursorAfter(rows.get(size - 1)));
+        }
+
+        /**
+         * Page over a complete report (e.g. a cached one) — its summary on the first page only.
+         * The rows are sorted once per sort and kept with the report, so later pages only search.
+         */
+        public <S> ReportResponse<S, R> slice(ReportResponse<S, R> full) {
+            List<R> sorted = full.sortedRows(sortToken(key.name(), descending), () -> sort(full.getRows()));
+            return sliceSorted(isFirst() ? full.getSummary() : null, sorted);
+        }
+
+        /**
+         * Page over a complete row list; the list itself is left untouched.
+         */
+        public <S> ReportResponse<S, R> slice(S summary, List<R> allRows) {
+            return sliceSorted(summary, sort(allRows));
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private List<R> sort(List<R> allRows) {
+            Comparator<R> order = Comparator.comparing((R r) -> (Comparable) key.value().apply(r), NULLS_FIRST)
+                    .thenComparingLong(paging.id);
+            if (descending) order = order.reversed();
+
+            List<R> sorted = new ArrayList<>(allRows);
+            sorted.sort(order);
+            return sorted;
+        }
+
+        private <S> ReportResponse<S, R> sliceSorted(S summary, List<R> sorted) {
+            int from = afterId != null ? firstAfterCursor(sorted) : 0;
+            int to = Math.min(sorted.size(), from + size + 1);
+            return toResponse(summary, new ArrayList<>(sorted.subList(from, to)));
+        }
+
+        /** Binary search — rows after the cursor form a suffix of the sorted list */
+        private int firstAfterCursor(List<R> sorted) {
+            int low = 0;
+            int high = sorted.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (isAfterCursor(sorted.get(mid))) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private boolean isAfterCursor(R row) {
+            int cmp = NULLS_FIRST.compare((Comparable) key.value().apply(row), (Comparable) afterValue);
+            if (cmp == 0) cmp = Long.compare(paging.id.applyAsLong(row), afterId);
+            return descending ? cmp < 0 : cmp > 0;
+        }
+
+        private String cursorAfter(R row) {
+            return encode(sortToken(key.name(), descending) + "\n" + paging.id.applyAsLong(row) + "\n"
+                    + formatValue(key.value().apply(row)));
+        }
+    }
+
+    // ==================== CURSOR ENCODING ====================
+
+    private static String sortToken(String name, boolean descending) {
+        return name + "," + (descending ? "desc" : "asc");
+    }
+
+    /** Sort value in a cursor: NULL_VALUE for a blank value, else VALUE_PREFIX + its text */
+    private static final String NULL_VALUE = "-";
+    private static final String VALUE_PREFIX = "=";
+
+    private static String formatValue(Object value) {
+        if (value == null) return NULL_VALUE;
+        return VALUE_PREFIX + (value instanceof BigDecimal bd ? bd.toPlainString() : value.toString());
+    }
+
+    private static Object parseValue(SortKey<?> key, String text) {
+        if (text.equals(NULL_VALUE)) return null;
+        if (!text.startsWith(VALUE_PREFIX)) throw new IllegalArgumentException("Unknown cursor value");
+        return key.parse().apply(text.substring(VALUE_PREFIX.length()));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** [sort token, id, value] */
+    private static String[] decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\n", 3);
+            if (parts.length != 3) throw new IllegalArgumentException();
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.mpp.rental.service;
+
+import com.mpp.rental.dto.ReportFilterRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * ReportResultCache - finished report responses keyed by report type + normalized filters.
+ *
+ * - Bounded (report.cache.max-entries, oldest evicted first) and TTL-capped (report.cache.ttl-seconds).
+ * - Invalidated by a data version: ReportCacheListener bumps it after any transaction that wrote an
+ *   application, payment, event, event facility or facility commits. Entries computed under an
+ *   older version are treated as misses. Other display data (business / owner names) refreshes
+ *   within the TTL.
+ * - Single-flight: concurrent requests for the same key wait on one in-flight computation
+ *   instead of each querying the database.
+ *
+ * Cached responses are shared between callers and must not be modified after they are returned.
+ */
+@Component
+@Slf4j
+public class ReportResultCache {
+
+    @Value("${report.cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${report.cache.max-entries:200}")
+    private int maxEntries;
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong dataVersion = new AtomicLong();
+
+    private record Key(String report, ReportFilterRequest filter) {
+    }
+
+    private record Entry(CompletableFuture<Object> result, long version, long createdAtMillis) {
+        boolean isValid(long currentVersion, long now, long ttlMillis) {
+            return version == currentVersion && now - createdAtMillis < ttlMillis;
+        }
+    }
+
+    // ==================== LOOKUP ====================
+
+    /**
+     * Cached result for (report, filter), computing it with loader on a miss.
+     * The loader runs on the calling thread; concurrent callers with the same key wait for it.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String report, ReportFilterRequest filter, Supplier<T> loader) {
+        Key key = new Key(report, normalize(filter));
+        long version = dataVersion.get();
+        long now = System.currentTimeMillis();
+        long ttlMillis = ttlSeconds * 1000;
+
+        Entry cached = entries.get(key);
+        if (cached != null && cached.isValid(version, now, ttlMillis)) {
+            return (T) await(cached.result());
+        }
+
+        Entry mine = new Entry(new CompletableFuture<>(), version, now);
+        Entry winner = entries.compute(key, (k, current) ->
+                current != null && current.isValid(version, now, ttlMillis) ? current : mine);
+        if (winner != mine) {
+            return (T) await(winner.result());
+        }
+
+        try {
+            T value = loader.get();
+            mine.result().complete(value);
+            evictIfFull();
+            return value;
+        } catch (RuntimeException e) {
+            // Waiters see the same failure; the next request retries
+            mine.result().completeExceptionally(e);
+            entries.remove(key, mine);
+            throw e;
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private void evictIfFull() {
+        int overflow = entries.size() - maxEntries;
+        if (overflow <= 0) return;
+
+        entries.entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> e.getValue().createdAtMillis()))
+                .limit(overflow)
+                .forEach(e -> entries.remove(e.getKey(), e.getValue()));
+    }
+
+    // ==================== INVALIDATION ====================
+
+    /**
+     * Bumps the data version once the current transaction commits (immediately when there is none).
+     * Rollup buckets are refreshed asynchronously after that — ReportRollupService invalidates
+     * again once they are, so a summary read from the not-yet-refreshed rollups is not kept.
+     */
+    public void invalidateAfterCommit() {
+        TransactionHooks.afterCommitOnce(this, this::invalidateAll);
+    }
+
+    public void invalidateAll() {
+        long version = dataVersion.incrementAndGet();
+        entries.clear();
+        log.debug("Report cache invalidated (data version {})", version);
+    }
+
+    // ==================== KEY NORMALIZATION ====================
+
+    /**
+     * Copy of the filter in the form the queries compare against, so "approved", " APPROVED"
+     * and "" vs null map to the same key.
+     */
+    static ReportFilterRequest normalize(ReportFilterRequest filter) {
+        ReportFilterRequest key = new ReportFilterRequest();
+        key.setEventId(filter.getEventId());
+        key.setFacilityId(filter.getFacilityId());
+        key.setOwnerCategory(upper(filter.getOwnerCategory()));
+        key.setApplicationStatus(upper(filter.getApplicationStatus()));
+        key.setPaymentStatus(upper(filter.getPaymentStatus()));
+        key.setEventStatus(lower(filter.getEventStatus()));
+        key.setFacilityType(lower(filter.getFacilityType()));
+        key.setStartDate(filter.getStartDate());
+        key.setEndDate(filter.getEndDate());
+        return key;
+    }
+
+    private static String upper(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toUpperCase();
+    }
+
+    /** eventStatus / facilityType are compared as LOWER(column) = value, without trimming */
+    private static String lower(String value) {
+        return value == null || value.isBlank() ? null : value.toLowerCase();
+    }
+}
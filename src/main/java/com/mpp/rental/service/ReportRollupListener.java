@@ -0,0 +1,61 @@
+package com.mpp.rental.service;
+
+import com.mpp.rental.model.FacilityApplication;
+import com.mpp.rental.model.Payment;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PreRemove;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener on FacilityApplication and Payment — forwards every status change,
+ * insert and delete to ReportRollupService so the affected rollup buckets are refreshed.
+ *
+ * Covers every write path (submit, cancel, delete, approve, reject, revert, auto-reject,
+ * payment callback) without each service having to remember to call it.
+ * Bulk JPQL UPDATE/DELETE bypasses entity listeners — none exist for these two tables.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReportRollupListener {
+
+    // Resolved lazily — Hibernate instantiates listeners while the EntityManagerFactory is still being built
+    private final ObjectProvider<ReportRollupService> rollupService;
+
+    /**
+     * Runs during flush: only ids are read here (no lazy loading), buckets are resolved after commit.
+     */
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Object entity) {
+        if (entity instanceof FacilityApplication application) {
+            rollupService.getObject().applicationChanged(application.getApplicationId());
+        } else if (entity instanceof Payment payment) {
+            rollupService.getObject().applicationChanged(payment.getApplication().getApplicationId());
+        }
+    }
+
+    /**
+     * Runs at remove() time, before flush, so the associations can still be navigated.
+     */
+    @PreRemove
+    public void onRemoved(Object entity) {
+        ReportRollupService service = rollupService.getObject();
+        if (entity instanceof FacilityApplication application) {
+            service.applicationRemoved(
+                    application.getApplicationCreatedAt(),
+                    application.getEventFacility().getEvent().getEventId(),
+                    application.getEventFacility().getFacility().getFacilityId(),
+                    application.getBusiness().getUser().getUserCategory());
+        } else if (entity instanceof Payment payment) {
+            FacilityApplication application = payment.getApplication();
+            service.applicationChanged(application.getApplicationId());
+            service.paymentRemoved(
+                    payment.getPaymentCreatedAt(),
+                    application.getEventFacility().getEvent().getEventId(),
+                    application.getBusiness().getUser().getUserCategory());
+        }
+    }
+}
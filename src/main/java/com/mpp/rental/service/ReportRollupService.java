@@ -0,0 +1,385 @@
+package com.mpp.rental.service;
+
+import com.mpp.rental.model.ReportApplicationRollup;
+import com.mpp.rental.model.ReportPaymentRollup;
+import com.mpp.rental.model.User;
+import com.mpp.rental.repository.ReportApplicationRollupRepository;
+import com.mpp.rental.repository.ReportPaymentRollupRepository;
+import com.mpp.rental.repository.ReportQueryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.Tuple;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * ReportRollupService - keeps REPORT_APPLICATION_ROLLUP / REPORT_PAYMENT_ROLLUP in step with
+ * FACILITY_APPLICATION and PAYMENT.
+ *
+ * ReportRollupListener reports every application / payment insert, update and delete. The
+ * touched buckets are collected per transaction and, after commit, queued for the rollup
+ * writer — one thread that recomputes each bucket from the raw rows of that bucket only.
+ * Commits arriving while it works are merged into its next batch, so a burst of writes to the
+ * same bucket costs one recompute, and the committing request thread never waits for it.
+ * Recomputing (instead of applying +1/-1 deltas) keeps a bucket correct even if an earlier
+ * refresh was missed; the full rebuild on startup and every night — on the same thread —
+ * covers anything else (e.g. manual SQL edits).
+ *
+ * Until the first rebuild has finished, isReady() is false and ReportService reads raw rows.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReportRollupService {
+
+    private final ReportQueryRepository             reportQueryRepository;
+    private final ReportApplicationRollupRepository applicationRollupRepository;
+    private final ReportPaymentRollupRepository     paymentRollupRepository;
+    private final PlatformTransactionManager        transactionManager;
+    private final ReportResultCache                 reportResultCache;
+    private final ReportTrendCache                  reportTrendCache;
+    private final ReportSnapshotService             reportSnapshotService;
+
+    private volatile boolean ready;
+
+    /** Single writer: bucket refreshes and full rebuilds never run concurrently */
+    private ExecutorService writer;
+
+    /** Committed changes not picked up by the writer yet; both fields guarded by queued */
+    private final Changes queued = new Changes();
+    private boolean drainScheduled;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @PostConstruct
+    void start() {
+        writer = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("report-rollup-"));
+    }
+
+    @PreDestroy
+    void stop() {
+        writer.shutdownNow();
+    }
+
+    // ==================== FULL REBUILD ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuildAll();
+    }
+
+    /**
+     * Nightly safety net — 03:30 every day
+     */
+    @Scheduled(cron = "0 30 3 * * *")
+    public void rebuildNightly() {
+        rebuildAll();
+    }
+
+    /**
+     * Runs the rebuild on the rollup writer (after any refresh queued before it) and waits for it.
+     */
+    public void rebuildAll() {
+        try {
+            writer.submit(this::rebuild).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RejectedExecutionException e) {
+            log.error("Report rollup rebuild failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void rebuild() {
+        try {
+            long start = System.currentTimeMillis();
+            int[] counts = newTransaction().execute(status -> {
+                List<ReportApplicationRollup> applicationRows = reportQueryRepository.aggregateApplicationRollups(null);
+                List<ReportPaymentRollup> paymentRows = reportQueryRepository.aggregatePaymentRollups(null);
+
+                applicationRollupRepository.deleteAllInBatch();
+                paymentRollupRepository.deleteAllInBatch();
+                applicationRollupRepository.saveAll(applicationRows);
+                paymentRollupRepository.saveAll(paymentRows);
+                return new int[]{applicationRows.size(), paymentRows.size()};
+            });
+            ready = true;
+            // A rebuild may correct a drifted bucket — drop anything cached from it
+            reportResultCache.invalidateAll();
+            reportTrendCache.invalidateAll();
+            log.info("Report rollups rebuilt: {} application buckets, {} payment buckets in {} ms",
+                    counts[0], counts[1], System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Report rollup rebuild failed: {}", e.getMessage(), e);
+        }
+    }
+
+    // ==================== CHANGE TRACKING (called by ReportRollupListener) ====================
+
+    /**
+     * An application, or the payment of an application, was inserted or updated.
+     * Its buckets are looked up after commit, when the row is final.
+     */
+    public void applicationChanged(Integer applicationId) {
+        PendingRefresh pending = pendingRefresh();
+        if (pending != null && applicationId != null) {
+            pending.changes.applicationIds.add(applicationId);
+        }
+    }
+
+    /**
+     * A business owner's category changed (called by UserService) — every bucket of their
+     * applications moves from the old category to the new one. The report caches and the
+     * snapshot rows of those applications are invalidated with it.
+     */
+    public void ownerCategoryChanged(Long userId, User.UserCategory before, User.UserCategory after) {
+        if (before == after) {
+            return;
+        }
+        List<Integer> applicationIds = reportQueryRepository.findApplicationIdsByOwner(userId);
+        if (applicationIds.isEmpty()) {
+            return;
+        }
+        PendingRefresh pending = pendingRefresh();
+        if (pending != null) {
+            pending.changes.applicationIds.addAll(applicationIds);
+            applicationIds.forEach(id -> pending.changes.previousCategories.put(id, before));
+        }
+        applicationIds.forEach(reportSnapshotService::applicationChanged);
+        reportResultCache.invalidateAfterCommit();
+        log.info("Report buckets of userId={} ({} applications) moving from {} to {}",
+                userId, applicationIds.size(), before, after);
+    }
+
+    /**
+     * An application is being deleted — its bucket must be captured now, the row
+     * will be gone by the time the transaction commits.
+     */
+    public void applicationRemoved(LocalDateTime createdAt, Integer eventId, Integer facilityId,
+                                   User.UserCategory ownerCategory) {
+        PendingRefresh pending = pendingRefresh();
+        if (pending != null && createdAt != null) {
+            pending.changes.applicationBuckets.add(new ReportApplicationRollup.Bucket(
+                    createdAt.toLocalDate(), eventId, facilityId, ownerCategory));
+        }
+    }
+
+    /**
+     * A payment is being deleted — its own bucket is captured now; the application's
+     * bucket is refreshed through applicationChanged.
+     */
+    public void paymentRemoved(LocalDateTime createdAt, Integer eventId, User.UserCategory ownerCategory) {
+        PendingRefresh pending = pendingRefresh();
+        if (pending != null && createdAt != null) {
+            pending.changes.paymentBuckets.add(new ReportPaymentRollup.Bucket(createdAt.toLocalDate(), eventId, ownerCategory));
+        }
+    }
+
+    /**
+     * Per-transaction set of touched buckets, registered on first use.
+     * Returns null outside a Spring-managed transaction (the nightly rebuild catches those).
+     */
+    private PendingRefresh pendingRefresh() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            log.debug("Report rollup change outside a transaction — left for the next rebuild");
+            // The changed day is unknown here, so no cached trend period can be trusted
+            reportTrendCache.invalidateAll();
+            return null;
+        }
+        PendingRefresh pending = (PendingRefresh) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingRefresh();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    /** Touched applications and captured buckets — of one transaction, or merged for the writer */
+    static final class Changes {
+        final Set<Integer> applicationIds = new HashSet<>();
+        /** applicationId → owner category before a category change, see ownerCategoryChanged */
+        final Map<Integer, User.UserCategory> previousCategories = new HashMap<>();
+        final Set<ReportApplicationRollup.Bucket> applicationBuckets = new HashSet<>();
+        final Set<ReportPaymentRollup.Bucket> paymentBuckets = new HashSet<>();
+
+        void addAll(Changes other) {
+            applicationIds.addAll(other.applicationIds);
+            previousCategories.putAll(other.previousCategories);
+            applicationBuckets.addAll(other.applicationBuckets);
+            paymentBuckets.addAll(other.paymentBuckets);
+        }
+
+        boolean isEmpty() {
+            return applicationIds.isEmpty() && applicationBuckets.isEmpty() && paymentBuckets.isEmpty();
+        }
+
+        void clear() {
+            applicationIds.clear();
+            previousCategories.clear();
+            applicationBuckets.clear();
+            paymentBuckets.clear();
+        }
+    }
+
+    private final class PendingRefresh implements TransactionSynchronization {
+        private final Changes changes = new Changes();
+
+        @Override
+        public void afterCommit() {
+            enqueue(changes);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ReportRollupService.this);
+        }
+    }
+
+    // ==================== BUCKET REFRESH ====================
+
+    /**
+     * Hands committed changes to the writer. Only one drain is scheduled at a time; changes
+     * committed meanwhile are merged into what it picks up next.
+     */
+    private void enqueue(Changes changes) {
+        synchronized (queued) {
+            queued.addAll(changes);
+            if (drainScheduled) {
+                return;
+            }
+            drainScheduled = true;
+        }
+        try {
+            writer.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // Shutting down — the startup rebuild repairs the buckets
+            synchronized (queued) {
+                drainScheduled = false;
+            }
+            log.warn("Report rollup refresh dropped: {}", e.getMessage());
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Changes batch = new Changes();
+            synchronized (queued) {
+                if (queued.isEmpty()) {
+                    drainScheduled = false;
+                    return;
+                }
+                batch.addAll(queued);
+                queued.clear();
+            }
+            refresh(batch);
+        }
+    }
+
+    /**
+     * Recomputes the buckets of the given applications plus the explicitly captured buckets,
+     * in a transaction of its own — on the writer thread, so two refreshes never race on the
+     * same bucket row. Cached trend periods containing a recomputed day are evicted, and cached
+     * reports are dropped again: one may have read the rollups between the commit and now.
+     */
+    void refresh(Changes changes) {
+        Set<LocalDate> days = new HashSet<>();
+        try {
+            newTransaction().executeWithoutResult(status -> {
+                Set<ReportApplicationRollup.Bucket> appBuckets = new HashSet<>(changes.applicationBuckets);
+                Set<ReportPaymentRollup.Bucket> payBuckets = new HashSet<>(changes.paymentBuckets);
+
+                if (!changes.applicationIds.isEmpty()) {
+                    for (Tuple t : reportQueryRepository.findRollupBuckets(changes.applicationIds)) {
+                        Integer eventId = t.get("eventId", Integer.class);
+                        LocalDate day = t.get("applicationCreatedAt", LocalDateTime.class).toLocalDate();
+                        Integer facilityId = t.get("facilityId", Integer.class);
+                        LocalDateTime paymentCreatedAt = t.get("paymentCreatedAt", LocalDateTime.class);
+
+                        // The current category, plus the one it had before a category change
+                        Set<User.UserCategory> categories = EnumSet.of(t.get("ownerCategory", User.UserCategory.class));
+                        User.UserCategory previous = changes.previousCategories.get(t.get("applicationId", Integer.class));
+                        if (previous != null) {
+                            categories.add(previous);
+                        }
+                        for (User.UserCategory category : categories) {
+                            appBuckets.add(new ReportApplicationRollup.Bucket(day, eventId, facilityId, category));
+                            if (paymentCreatedAt != null) {
+                                payBuckets.add(new ReportPaymentRollup.Bucket(paymentCreatedAt.toLocalDate(), eventId, category));
+                            }
+                        }
+                    }
+                }
+
+                appBuckets.forEach(b -> days.add(b.day()));
+                payBuckets.forEach(b -> days.add(b.day()));
+                appBuckets.forEach(this::recompute);
+                payBuckets.forEach(this::recompute);
+                log.debug("Report rollups refreshed: {} application buckets, {} payment buckets",
+                        appBuckets.size(), payBuckets.size());
+            });
+            reportTrendCache.evictDays(days);
+            if (!days.isEmpty()) {
+                reportResultCache.invalidateAll();
+            }
+        } catch (Exception e) {
+            // Keep the writer going — the nightly rebuild repairs the bucket
+            log.error("Report rollup refresh failed: {}", e.getMessage(), e);
+            reportTrendCache.invalidateAll();
+        }
+    }
+
+    private void recompute(ReportApplicationRollup.Bucket bucket) {
+        Optional<ReportApplicationRollup> existing = applicationRollupRepository
+                .findByBucketDateAndEventIdAndFacilityIdAndOwnerCategory(
+                        bucket.day(), bucket.eventId(), bucket.facilityId(), bucket.ownerCategory());
+        List<ReportApplicationRollup> fresh = reportQueryRepository.aggregateApplicationRollups(bucket);
+
+        if (fresh.isEmpty()) {
+            existing.ifPresent(applicationRollupRepository::delete);
+            return;
+        }
+        ReportApplicationRollup row = fresh.get(0);
+        existing.ifPresent(e -> row.setRollupId(e.getRollupId()));
+        applicationRollupRepository.save(row);
+    }
+
+    private void recompute(ReportPaymentRollup.Bucket bucket) {
+        Optional<ReportPaymentRollup> existing = paymentRollupRepository
+                .findByBucketDateAndEventIdAndOwnerCategory(bucket.day(), bucket.eventId(), bucket.ownerCategory());
+        List<ReportPaymentRollup> fresh = reportQueryRepository.aggregatePaymentRollups(bucket);
+
+        if (fresh.isEmpty()) {
+            existing.ifPresent(paymentRollupRepository::delete);
+            return;
+        }
+        ReportPaymentRollup row = fresh.get(0);
+        existing.ifPresent(e -> row.setRollupId(e.getRollupId()));
+        paymentRollupRepository.save(row);
+    }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+}
@@ -3,34 +3,90 @@ package com.mpp.rental.service;
 import com.mpp.rental.dto.*;
 import com.mpp.rental.model.*;
 import com.mpp.rental.repository.*;
+import jakarta.persistence.Tuple;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import static com.mpp.rental.repository.ReportQueryRepository.toInt;
+import static com.mpp.rental.repository.ReportQueryRepository.toMoney;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ReportService {
 
-    private final FacilityApplicationRepository applicationRepository;
-    private final PaymentRepository             paymentRepository;
+    private final ReportQueryRepository         reportQueryRepository;
     private final EventRepository               eventRepository;
     private final FacilityRepository            facilityRepository;
-    private final EventFacilityRepository       eventFacilityRepository;
+    private final ReportRollupService           reportRollupService;
+    private final ReportResultCache             reportResultCache;
+    private final ReportSnapshotService         reportSnapshotService;
+    private final ReportFilterOptionsCache      reportFilterOptionsCache;
+    private final PlatformTransactionManager    transactionManager;
+
+    // ==================== PAGING: SORTABLE ROW FIELDS PER REPORT ====================
+
+    private static final ReportPaging<FacilityRentalRow> FACILITY_RENTAL_PAGING =
+            ReportPaging.<FacilityRentalRow>byId(FacilityRentalRow::getApplicationId)
+                    .dateTime("applicationCreatedAt", FacilityRentalRow::getApplicationCreatedAt)
+                    .text("businessName", FacilityRentalRow::getBusinessName)
+                    .text("eventName", FacilityRentalRow::getEventName)
+                    .defaultSort("applicationCreatedAt", true);
+
+    /** Paged revenue rows default to the latest payment first (unpaged: latest application first) */
+    private static final ReportPaging<RevenueRow> REVENUE_PAGING =
+            ReportPaging.<RevenueRow>byId(RevenueRow::getApplicationId)
+                    .dateTime("paymentCreatedAt", RevenueRow::getPaymentCreatedAt)
+                    .money("amountBilled", RevenueRow::getAmountBilled)
+                    .text("businessName", RevenueRow::getBusinessName)
+                    .text("eventName", RevenueRow::getEventName)
+                    .defaultSort("paymentCreatedAt", true);
+
+    private static final ReportPaging<BusinessActivityRow> BUSINESS_ACTIVITY_PAGING =
+            ReportPaging.<BusinessActivityRow>byId(BusinessActivityRow::getBusinessId)
+                    .number("totalApplied", BusinessActivityRow::getTotalApplied)
+                    .number("totalApproved", BusinessActivityRow::getTotalApproved)
+                    .number("approvalRate", BusinessActivityRow::getApprovalRate)
+                    .number("cancellationRate", BusinessActivityRow::getCancellationRate)
+                    .money("totalRevenuePaid", BusinessActivityRow::getTotalRevenuePaid)
+                    .text("businessName", BusinessActivityRow::getBusinessName)
+                    .defaultSort("totalApplied", true);
+
+    private static final ReportPaging<EventPerformanceRow> EVENT_PERFORMANCE_PAGING =
+            ReportPaging.<EventPerformanceRow>byId(EventPerformanceRow::getEventId)
+                    .date("eventStartDate", EventPerformanceRow::getEventStartDate)
+                    .text("eventName", EventPerformanceRow::getEventName)
+                    .number("totalApplications", EventPerformanceRow::getTotalApplications)
+                    .number("fillRate", EventPerformanceRow::getFillRate)
+                    .money("totalRevenue", EventPerformanceRow::getTotalRevenue)
+                    .defaultSort("eventStartDate", true);
+
+    private static final ReportPaging<FacilityUtilisationRow> FACILITY_UTILISATION_PAGING =
+            ReportPaging.<FacilityUtilisationRow>byId(FacilityUtilisationRow::getFacilityId)
+                    .number("totalApplications", FacilityUtilisationRow::getTotalApplications)
+                    .number("fillRate", FacilityUtilisationRow::getFillRate)
+                    .money("totalRevenueGenerated", FacilityUtilisationRow::getTotalRevenueGenerated)
+                    .text("facilityName", FacilityUtilisationRow::getFacilityName)
+                    .defaultSort("totalApplications", true);
 
     // ==================== SHARED: DROPDOWN DATA ====================
 
-    @Transactional(readOnly = true)
+    /**
+     * Events for the filter dropdown, by name — id / name / status columns only,
+     * cached until the next event write (see ReportFilterOptionsCache).
+     */
     public List<EventResponse> getEventsForFilter() {
-        return eventRepository.findAll().stream()
-                .sorted(Comparator.comparing(Event::getEventName))
+        return reportFilterOptionsCache.events(() -> readOnly(() -> eventRepository.findFilterOptions().stream()
                 .map(e -> {
                     EventResponse dto = new EventResponse();
                     dto.setEventId(e.getEventId());
@@ -38,13 +94,15 @@ public class ReportService {
                     dto.setEventStatus(e.getEventStatus());
                     return dto;
                 })
-                .collect(Collectors.toList());
+                .collect(Collectors.toList())));
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Facilities for the filter dropdown, by name — id / name / type columns only,
+     * cached until the next facility write.
+     */
     public List<FacilityResponse> getFacilitiesForFilter() {
-        return facilityRepository.findAll().stream()
-                .sorted(Comparator.comparing(Facility::getFacilityName))
+        return reportFilterOptionsCache.facilities(() -> readOnly(() -> facilityRepository.findFilterOptions().stream()
                 .map(f -> {
                     FacilityResponse dto = new FacilityResponse();
                     dto.setFacilityId(f.getFacilityId());
@@ -52,301 +110,185 @@ public class ReportService {
                     dto.setFacilityType(f.getFacilityType());
                     return dto;
                 })
-                .collect(Collectors.toList());
-    }
-
-    // ==================== SHARED: LOAD ALL APPS + PAYMENT MAP ====================
-
-    /**
-     * Load all applications eagerly, then build a payment map keyed by applicationId.
-     * All 3 transactional reports (1, 2, 3) start from this base.
-     */
-    private List<FacilityApplication> loadAllApps() {
-        return applicationRepository.findAllForReport();
-    }
-
-    private Map<Integer, Payment> buildPaymentMap(List<FacilityApplication> apps) {
-        Set<Integer> appIds = apps.stream()
-                .map(FacilityApplication::getApplicationId)
-                .collect(Collectors.toSet());
-        return paymentRepository.findAll().stream()
-                .filter(p -> appIds.contains(p.getApplication().getApplicationId()))
-                .collect(Collectors.toMap(
-                        p -> p.getApplication().getApplicationId(),
-                        p -> p,
-                        (a, b) -> a
-                ));
-    }
-
-    // ==================== SHARED: COMMON FILTERS ====================
-
-    private boolean matchEvent(FacilityApplication app, Integer eventId) {
-        return eventId == null || Objects.equals(app.getEventFacility().getEvent().getEventId(), eventId);
-    }
-
-    private boolean matchFacility(FacilityApplication app, Integer facilityId) {
-        return facilityId == null || Objects.equals(app.getEventFacility().getFacility().getFacilityId(), facilityId);
-    }
-
-    private boolean matchOwnerCategory(FacilityApplication app, String ownerCategory) {
-        return ownerCategory == null || ownerCategory.isBlank()
-                || app.getBusiness().getUser().getUserCategory().name().equalsIgnoreCase(ownerCategory);
-    }
-
-    private boolean matchApplicationStatus(FacilityApplication app, String status) {
-        return status == null || status.isBlank()
-                || app.getApplicationStatus().name().equalsIgnoreCase(status);
-    }
-
-    private boolean matchApplicationDateRange(FacilityApplication app, LocalDate start, LocalDate end) {
-        if (start == null && end == null) return true;
-        LocalDate d = app.getApplicationCreatedAt().toLocalDate();
-        if (start != null && d.isBefore(start)) return false;
-        if (end   != null && d.isAfter(end))    return false;
-        return true;
-    }
-
-    private boolean matchPaymentStatus(Payment payment, String paymentStatus) {
-        if (paymentStatus == null || paymentStatus.isBlank()) return true;
-        if (payment == null) return false;
-        return payment.getPaymentStatus().name().equalsIgnoreCase(paymentStatus);
-    }
-
-    private boolean matchPaymentDateRange(Payment payment, LocalDate start, LocalDate end) {
-        if (start == null && end == null) return true;
-        if (payment == null) return false;
-        LocalDate d = payment.getPaymentCreatedAt().toLocalDate();
-        if (start != null && d.isBefore(start)) return false;
-        if (end   != null && d.isAfter(end))    return false;
-        return true;
-    }
-
-    private boolean matchEventDateRange(Event event, LocalDate start, LocalDate end) {
-        if (start == null && end == null) return true;
-        LocalDate d = event.getEventStartDate();
-        if (start != null && d.isBefore(start)) return false;
-        if (end   != null && d.isAfter(end))    return false;
-        return true;
+                .collect(Collectors.toList())));
     }
 
     // ==================== REPORT 1: FACILITY RENTAL ====================
 
-    @Transactional(readOnly = true)
     public ReportResponse<FacilityRentalSummary, FacilityRentalRow> getFacilityRentalReport(
             Integer eventId, Integer facilityId, String ownerCategory,
             String applicationStatus, String paymentStatus,
             LocalDate startDate, LocalDate endDate) {
+        return getFacilityRentalReport(eventId, facilityId, ownerCategory, applicationStatus, paymentStatus,
+                startDate, endDate, null);
+    }
 
-        List<FacilityApplication> apps = loadAllApps();
-        Map<Integer, Payment> paymentMap = buildPaymentMap(apps);
-
-        // Apply all filters
-        List<FacilityApplication> filtered = apps.stream()
-                .filter(a -> matchEvent(a, eventId))
-                .filter(a -> matchFacility(a, facilityId))
-                .filter(a -> matchOwnerCategory(a, ownerCategory))
-                .filter(a -> matchApplicationStatus(a, applicationStatus))
-                .filter(a -> matchApplicationDateRange(a, startDate, endDate))
-                .collect(Collectors.toList());
-
-        // Payment status filter — applied after joining with payment
-        if (paymentStatus != null && !paymentStatus.isBlank()) {
-            filtered = filtered.stream()
-                    .filter(a -> matchPaymentStatus(paymentMap.get(a.getApplicationId()), paymentStatus))
-                    .collect(Collectors.toList());
+    /**
+     * Paged variant — rows are read one keyset page at a time; the summary comes with the first page.
+     */
+    public ReportResponse<FacilityRentalSummary, FacilityRentalRow> getFacilityRentalReport(
+            Integer eventId, Integer facilityId, String ownerCategory,
+            String applicationStatus, String paymentStatus,
+            LocalDate startDate, LocalDate endDate,
+            ReportPageRequest pageRequest) {
+
+        ReportFilterRequest filter = new ReportFilterRequest();
+        filter.setEventId(eventId);
+        filter.setFacilityId(facilityId);
+        filter.setOwnerCategory(ownerCategory);
+        filter.setApplicationStatus(applicationStatus);
+        filter.setPaymentStatus(paymentStatus);
+        filter.setStartDate(startDate);
+        filter.setEndDate(endDate);
+
+        ReportPaging.Page<FacilityRentalRow> page = FACILITY_RENTAL_PAGING.page(pageRequest);
+        if (page == null || reportSnapshotService.current() != null) {
+            // Unpaged, or every row is in memory anyway — page the (cached) full report
+            ReportResponse<FacilityRentalSummary, FacilityRentalRow> full =
+                    cached("facility-rental", filter, () -> buildFacilityRentalReport(filter));
+            return page == null ? full : page.slice(full);
         }
 
-        // Build rows
-        List<FacilityRentalRow> rows = filtered.stream()
-                .map(a -> {
-                    Payment p = paymentMap.get(a.getApplicationId());
-                    EventFacility ef = a.getEventFacility();
-                    Event event = ef.getEvent();
-                    Facility facility = ef.getFacility();
-                    Business business = a.getBusiness();
-                    User owner = business.getUser();
-
-                    FacilityRentalRow row = new FacilityRentalRow();
-                    row.setApplicationId(a.getApplicationId());
-                    row.setEventName(event.getEventName());
-                    row.setEventVenue(event.getEventVenue());
-                    row.setEventStatus(event.getEventStatus());
-                    row.setFacilityName(facility.getFacilityName());
-                    row.setFacilityType(facility.getFacilityType());
-                    row.setBusinessId(business.getBusinessId());
-                    row.setBusinessName(business.getBusinessName());
-                    row.setOwnerId(owner.getUserId());
-                    row.setOwnerName(owner.getUserName());
-                    row.setOwnerCategory(owner.getUserCategory().name());
-                    row.setApplicationStatus(a.getApplicationStatus().name());
-                    row.setApplicationCreatedAt(a.getApplicationCreatedAt());
-                    if (p != null) {
-                        row.setPaymentStatus(p.getPaymentStatus().name());
-                        row.setPaymentAmount(p.getPaymentAmount());
-                    }
-                    return row;
-                })
-                .collect(Collectors.toList());
+        FacilityRentalSummary summary = page.isFirst()
+                ? cached("facility-rental:summary", filter, () -> buildFacilityRentalSummary(filter))
+                : null;
+        return page.toResponse(summary, readOnly(() -> reportQueryRepository.findFacilityRentalRows(filter, page.keyset())));
+    }
 
-        // Build summary
-        Map<Integer, Payment> filteredPaymentMap = filtered.stream()
-                .filter(a -> paymentMap.containsKey(a.getApplicationId()))
-                .collect(Collectors.toMap(
-                        FacilityApplication::getApplicationId,
-                        a -> paymentMap.get(a.getApplicationId()),
-                        (x, y) -> x
-                ));
-
-        int total      = filtered.size();
-        int approved   = count(filtered, FacilityApplication.ApplicationStatus.APPROVED);
-        int rejected   = count(filtered, FacilityApplication.ApplicationStatus.REJECTED);
-        int pending    = count(filtered, FacilityApplication.ApplicationStatus.PENDING);
-        int cancelled  = count(filtered, FacilityApplication.ApplicationStatus.CANCELLED);
-        int businesses = (int) filtered.stream().map(a -> a.getBusiness().getBusinessId()).distinct().count();
-
-        List<Payment> payments = new ArrayList<>(filteredPaymentMap.values());
-        int paidCount = countPayments(payments, Payment.PaymentStatus.PAID);
-        BigDecimal revenue = sumPayments(payments, Payment.PaymentStatus.PAID);
-        BigDecimal unpaid  = sumPayments(payments, Payment.PaymentStatus.UNPAID);
-        int collectionRate = approved > 0 ? (paidCount * 100 / approved) : 0;
+    private ReportResponse<FacilityRentalSummary, FacilityRentalRow> buildFacilityRentalReport(ReportFilterRequest filter) {
+        ReportSnapshot snapshot = reportSnapshotService.current();
+        if (snapshot != null) {
+            return snapshot.facilityRental(filter);
+        }
 
-        FacilityRentalSummary summary = new FacilityRentalSummary(
-                total, approved, rejected, pending, cancelled,
-                businesses, paidCount, revenue, unpaid, collectionRate);
+        List<FacilityRentalRow> rows = reportQueryRepository.findFacilityRentalRows(filter);
+        return new ReportResponse<>(buildFacilityRentalSummary(filter), rows);
+    }
 
-        return new ReportResponse<>(summary, rows);
+    private FacilityRentalSummary buildFacilityRentalSummary(ReportFilterRequest filter) {
+        // Summary cards come from the rollup table unless a status filter needs the raw rows
+        boolean fromRollups = reportRollupService.isReady() && isBlank(filter.getApplicationStatus()) && isBlank(filter.getPaymentStatus());
+        Tuple totals = fromRollups
+                ? reportQueryRepository.summarizeFacilityRentalFromRollups(filter)
+                : reportQueryRepository.summarizeFacilityRental(filter);
+        int businesses = fromRollups
+                ? reportQueryRepository.countBusinesses(filter)
+                : toInt(totals.get("businesses"));
+
+        return facilityRentalSummary(
+                toInt(totals.get("total")),
+                toInt(totals.get("approved")),
+                toInt(totals.get("rejected")),
+                toInt(totals.get("pending")),
+                toInt(totals.get("cancelled")),
+                businesses,
+                toInt(totals.get("paidCount")),
+                toMoney(totals.get("paidAmount")),
+                toMoney(totals.get("unpaidAmount")));
     }
 
     // ==================== REPORT 2: REVENUE & PAYMENT ====================
 
-    @Transactional(readOnly = true)
     public ReportResponse<RevenueSummary, RevenueRow> getRevenueReport(
             Integer eventId, String ownerCategory, String paymentStatus,
             LocalDate startDate, LocalDate endDate) {
+        return getRevenueReport(eventId, ownerCategory, paymentStatus, startDate, endDate, null);
+    }
 
-        List<FacilityApplication> apps = loadAllApps();
-
-        // Start from APPROVED applications only (they're the ones that have payment records)
-        List<FacilityApplication> approved = apps.stream()
-                .filter(a -> a.getApplicationStatus() == FacilityApplication.ApplicationStatus.APPROVED)
-                .filter(a -> matchEvent(a, eventId))
-                .filter(a -> matchOwnerCategory(a, ownerCategory))
-                .collect(Collectors.toList());
-
-        Map<Integer, Payment> paymentMap = buildPaymentMap(approved);
-
-        // Filter by payment date range and payment status
-        List<Map.Entry<FacilityApplication, Payment>> pairs = approved.stream()
-                .filter(a -> paymentMap.containsKey(a.getApplicationId()))
-                .map(a -> Map.entry(a, paymentMap.get(a.getApplicationId())))
-                .filter(e -> matchPaymentDateRange(e.getValue(), startDate, endDate))
-                .filter(e -> matchPaymentStatus(e.getValue(), paymentStatus))
-                .collect(Collectors.toList());
+    /**
+     * Paged variant — see getFacilityRentalReport
+     */
+    public ReportResponse<RevenueSummary, RevenueRow> getRevenueReport(
+            Integer eventId, String ownerCategory, String paymentStatus,
+            LocalDate startDate, LocalDate endDate,
+            ReportPageRequest pageRequest) {
+
+        // Only APPROVED applications have payment records — the query layer enforces that
+        ReportFilterRequest filter = new ReportFilterRequest();
+        filter.setEventId(eventId);
+        filter.setOwnerCategory(ownerCategory);
+        filter.setPaymentStatus(paymentStatus);
+        filter.setStartDate(startDate);
+        filter.setEndDate(endDate);
+
+        ReportPaging.Page<RevenueRow> page = REVENUE_PAGING.page(pageRequest);
+        if (page == null || reportSnapshotService.current() != null) {
+            ReportResponse<RevenueSummary, RevenueRow> full = cached("revenue", filter, () -> buildRevenueReport(filter));
+            return page == null ? full : page.slice(full);
+        }
 
-        // Build rows
-        List<RevenueRow> rows = pairs.stream()
-                .map(e -> {
-                    FacilityApplication a = e.getKey();
-                    Payment p = e.getValue();
-                    RevenueRow row = new RevenueRow();
-                    row.setApplicationId(a.getApplicationId());
-                    row.setEventName(a.getEventFacility().getEvent().getEventName());
-                    row.setBusinessName(a.getBusiness().getBusinessName());
-                    row.setOwnerName(a.getBusiness().getUser().getUserName());
-                    row.setOwnerCategory(a.getBusiness().getUser().getUserCategory().name());
-                    row.setAmountBilled(p.getPaymentAmount());
-                    row.setPaymentStatus(p.getPaymentStatus().name());
-                    row.setPaymentCreatedAt(p.getPaymentCreatedAt());
-                    return row;
-                })
-                .collect(Collectors.toList());
+        RevenueSummary summary = page.isFirst()
+                ? cached("revenue:summary", filter, () -> buildRevenueSummary(filter))
+                : null;
+        return page.toResponse(summary, readOnly(() -> reportQueryRepository.findRevenueRows(filter, page.keyset())));
+    }
 
-        // Build summary from all payment records (before paymentStatus filter for full picture)
-        List<Payment> allPayments = pairs.stream().map(Map.Entry::getValue).collect(Collectors.toList());
-        BigDecimal billed      = allPayments.stream().map(Payment::getPaymentAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal collected   = sumPayments(allPayments, Payment.PaymentStatus.PAID);
-        BigDecimal outstanding = sumPayments(allPayments, Payment.PaymentStatus.UNPAID);
-        BigDecimal failed      = sumPayments(allPayments, Payment.PaymentStatus.FAILED);
+    private ReportResponse<RevenueSummary, RevenueRow> buildRevenueReport(ReportFilterRequest filter) {
+        ReportSnapshot snapshot = reportSnapshotService.current();
+        if (snapshot != null) {
+            return snapshot.revenue(filter);
+        }
 
-        int paidCount   = countPayments(allPayments, Payment.PaymentStatus.PAID);
-        int unpaidCount = countPayments(allPayments, Payment.PaymentStatus.UNPAID);
-        int failedCount = countPayments(allPayments, Payment.PaymentStatus.FAILED);
-        int total       = allPayments.size();
+        List<RevenueRow> rows = reportQueryRepository.findRevenueRows(filter);
+        return new ReportResponse<>(buildRevenueSummary(filter), rows);
+    }
 
-        int collectionRate = (paidCount + unpaidCount) > 0
-                ? (paidCount * 100 / (paidCount + unpaidCount)) : 0;
+    private RevenueSummary buildRevenueSummary(ReportFilterRequest filter) {
+        boolean fromRollups = reportRollupService.isReady() && isBlank(filter.getPaymentStatus());
+        Tuple totals = fromRollups
+                ? reportQueryRepository.summarizeRevenueFromRollups(filter)
+                : reportQueryRepository.summarizeRevenue(filter);
 
         // Avg payment per distinct business that paid
-        long paidBusinessCount = pairs.stream()
-                .filter(e -> e.getValue().getPaymentStatus() == Payment.PaymentStatus.PAID)
-                .map(e -> e.getKey().getBusiness().getBusinessId())
-                .distinct().count();
-        BigDecimal avg = paidBusinessCount > 0
-                ? collected.divide(BigDecimal.valueOf(paidBusinessCount), 2, RoundingMode.HALF_UP)
-                : BigDecimal.ZERO;
-
-        RevenueSummary summary = new RevenueSummary(
-                billed, collected, outstanding, failed,
-                collectionRate, avg, total, paidCount, unpaidCount, failedCount);
-
-        return new ReportResponse<>(summary, rows);
+        int paidBusinessCount = fromRollups
+                ? reportQueryRepository.countPaidBusinesses(filter)
+                : toInt(totals.get("paidBusinesses"));
+
+        return revenueSummary(
+                toInt(totals.get("total")),
+                toMoney(totals.get("billed")),
+                toMoney(totals.get("collected")),
+                toMoney(totals.get("outstanding")),
+                toMoney(totals.get("failed")),
+                toInt(totals.get("paidCount")),
+                toInt(totals.get("unpaidCount")),
+                toInt(totals.get("failedCount")),
+                paidBusinessCount);
     }
 
     // ==================== REPORT 3: BUSINESS OWNER ACTIVITY ====================
 
-    @Transactional(readOnly = true)
     public ReportResponse<BusinessActivitySummary, BusinessActivityRow> getBusinessActivityReport(
             String ownerCategory, Integer eventId, LocalDate startDate, LocalDate endDate) {
+        return getBusinessActivityReport(ownerCategory, eventId, startDate, endDate, null);
+    }
 
-        List<FacilityApplication> apps = loadAllApps();
-        Map<Integer, Payment> paymentMap = buildPaymentMap(apps);
-
-        // Apply filters
-        List<FacilityApplication> filtered = apps.stream()
-                .filter(a -> matchOwnerCategory(a, ownerCategory))
-                .filter(a -> matchEvent(a, eventId))
-                .filter(a -> matchApplicationDateRange(a, startDate, endDate))
-                .collect(Collectors.toList());
-
-        // Group by business
-        Map<Long, List<FacilityApplication>> byBusiness = filtered.stream()
-                .collect(Collectors.groupingBy(a -> a.getBusiness().getBusinessId()));
-
-        List<BusinessActivityRow> rows = byBusiness.entrySet().stream()
-                .map(entry -> {
-                    Long businessId = entry.getKey();
-                    List<FacilityApplication> bApps = entry.getValue();
-                    FacilityApplication sample = bApps.get(0);
-                    Business business = sample.getBusiness();
-                    User owner = business.getUser();
-
-                    int totalApplied   = bApps.size();
-                    int totalApproved  = count(bApps, FacilityApplication.ApplicationStatus.APPROVED);
-                    int totalRejected  = count(bApps, FacilityApplication.ApplicationStatus.REJECTED);
-                    int totalCancelled = count(bApps, FacilityApplication.ApplicationStatus.CANCELLED);
-
-                    // Get payments for this business's approved applications
-                    List<Payment> bPayments = bApps.stream()
-                            .filter(a -> paymentMap.containsKey(a.getApplicationId()))
-                            .map(a -> paymentMap.get(a.getApplicationId()))
-                            .collect(Collectors.toList());
-                    int totalPaid = countPayments(bPayments, Payment.PaymentStatus.PAID);
-                    BigDecimal revenuePaid = sumPayments(bPayments, Payment.PaymentStatus.PAID);
-
-                    int approvalRate     = totalApplied > 0 ? (totalApproved  * 100 / totalApplied)  : 0;
-                    int cancellationRate = totalApplied > 0 ? (totalCancelled * 100 / totalApplied)  : 0;
-                    int paymentRate      = totalApproved > 0 ? (totalPaid     * 100 / totalApproved) : 0;
-
-                    return new BusinessActivityRow(
-                            businessId,
-                            business.getBusinessName(),
-                            owner.getUserName(),
-                            owner.getUserCategory().name(),
-                            totalApplied, totalApproved, totalRejected, totalCancelled,
-                            totalPaid, approvalRate, cancellationRate, paymentRate, revenuePaid);
-                })
-                .sorted(Comparator.comparingInt(BusinessActivityRow::getTotalApplied).reversed())
-                .collect(Collectors.toList());
+    /**
+     * Paged variant — one row per group, so the full (cached) report is paged in memory
+     */
+    public ReportResponse<BusinessActivitySummary, BusinessActivityRow> getBusinessActivityReport(
+            String ownerCategory, Integer eventId, LocalDate startDate, LocalDate endDate,
+            ReportPageRequest pageRequest) {
+
+        ReportFilterRequest filter = new ReportFilterRequest();
+        filter.setOwnerCategory(ownerCategory);
+        filter.setEventId(eventId);
+        filter.setStartDate(startDate);
+        filter.setEndDate(endDate);
+
+        ReportPaging.Page<BusinessActivityRow> page = BUSINESS_ACTIVITY_PAGING.page(pageRequest);
+        ReportResponse<BusinessActivitySummary, BusinessActivityRow> full =
+                cached("business-activity", filter, () -> buildBusinessActivityReport(filter));
+        return page == null ? full : page.slice(full);
+    }
+
+    private ReportResponse<BusinessActivitySummary, BusinessActivityRow> buildBusinessActivityReport(ReportFilterRequest filter) {
+        // One row per business, already grouped and sorted by totalApplied DESC (SQL or snapshot)
+        ReportSnapshot snapshot = reportSnapshotService.current();
+        List<BusinessActivityRow> rows = snapshot != null
+                ? snapshot.businessActivityRows(filter)
+                : reportQueryRepository.findBusinessActivityRows(filter);
+        rows.forEach(ReportService::applyRates);
 
         // Build summary
         int totalBusinesses    = rows.size();
@@ -371,64 +313,36 @@ public class ReportService {
 
     // ==================== REPORT 4: EVENT PERFORMANCE ====================
 
-    @Transactional(readOnly = true)
     public ReportResponse<EventPerformanceSummary, EventPerformanceRow> getEventPerformanceReport(
             String eventStatus, LocalDate startDate, LocalDate endDate) {
+        return getEventPerformanceReport(eventStatus, startDate, endDate, null);
+    }
 
-        List<Event> events = eventRepository.findAll().stream()
-                .filter(e -> eventStatus == null || eventStatus.isBlank()
-                        || e.getEventStatus().equalsIgnoreCase(eventStatus))
-                .filter(e -> matchEventDateRange(e, startDate, endDate))
-                .collect(Collectors.toList());
-
-        // Load all event facilities (slots info) and all applications
-        List<EventFacility> allEFs = eventFacilityRepository.findAll();
-        List<FacilityApplication> allApps = loadAllApps();
-        Map<Integer, Payment> paymentMap = buildPaymentMap(allApps);
-
-        // Group by event
-        Map<Integer, List<EventFacility>> efsByEvent = allEFs.stream()
-                .collect(Collectors.groupingBy(ef -> ef.getEvent().getEventId()));
-        Map<Integer, List<FacilityApplication>> appsByEvent = allApps.stream()
-                .collect(Collectors.groupingBy(a -> a.getEventFacility().getEvent().getEventId()));
-
-        List<EventPerformanceRow> rows = events.stream()
-                .map(event -> {
-                    Integer eventId = event.getEventId();
-                    List<EventFacility> efs = efsByEvent.getOrDefault(eventId, Collections.emptyList());
-                    List<FacilityApplication> eApps = appsByEvent.getOrDefault(eventId, Collections.emptyList());
-
-                    int facilitiesOffered = efs.size();
-                    // originalQuantityTotal is set on @PrePersist — fall back to quantityFacilityAvailable if null
-                    int slotsAvailable = efs.stream()
-                            .mapToInt(ef -> ef.getOriginalQuantityTotal() != null
-                                    ? ef.getOriginalQuantityTotal()
-                                    : (ef.getQuantityFacilityAvailable() != null ? ef.getQuantityFacilityAvailable() : 0))
-                            .sum();
-                    int currentRemaining = efs.stream()
-                            .mapToInt(ef -> ef.getQuantityFacilityAvailable() != null ? ef.getQuantityFacilityAvailable() : 0)
-                            .sum();
-                    int slotsFilled = Math.max(0, slotsAvailable - currentRemaining);
-                    int fillRate    = slotsAvailable > 0 ? (slotsFilled * 100 / slotsAvailable) : 0;
-
-                    int totalApps     = eApps.size();
-                    int totalApproved = count(eApps, FacilityApplication.ApplicationStatus.APPROVED);
-                    int totalRejected = count(eApps, FacilityApplication.ApplicationStatus.REJECTED);
-
-                    List<Payment> ePayments = eApps.stream()
-                            .filter(a -> paymentMap.containsKey(a.getApplicationId()))
-                            .map(a -> paymentMap.get(a.getApplicationId()))
-                            .collect(Collectors.toList());
-                    BigDecimal revenue = sumPayments(ePayments, Payment.PaymentStatus.PAID);
-
-                    return new EventPerformanceRow(
-                            eventId, event.getEventName(), event.getEventVenue(), event.getEventStatus(),
-                            event.getEventStartDate(), event.getEventEndDate(),
-                            facilitiesOffered, slotsAvailable, slotsFilled, fillRate,
-                            totalApps, totalApproved, totalRejected, revenue);
-                })
-                .sorted(Comparator.comparing(EventPerformanceRow::getEventStartDate).reversed())
-                .collect(Collectors.toList());
+    /**
+     * Paged variant — one row per group, so the full (cached) report is paged in memory
+     */
+    public ReportResponse<EventPerformanceSummary, EventPerformanceRow> getEventPerformanceReport(
+            String eventStatus, LocalDate startDate, LocalDate endDate,
+            ReportPageRequest pageRequest) {
+
+        ReportFilterRequest filter = new ReportFilterRequest();
+        filter.setEventStatus(eventStatus);
+        filter.setStartDate(startDate);
+        filter.setEndDate(endDate);
+
+        ReportPaging.Page<EventPerformanceRow> page = EVENT_PERFORMANCE_PAGING.page(pageRequest);
+        ReportResponse<EventPerformanceSummary, EventPerformanceRow> full =
+                cached("event-performance", filter, () -> buildEventPerformanceReport(filter));
+        return page == null ? full : page.slice(full);
+    }
+
+    private ReportResponse<EventPerformanceSummary, EventPerformanceRow> buildEventPerformanceReport(ReportFilterRequest filter) {
+        // One row per event, latest event first; application totals come from the rollup table once built
+        ReportSnapshot snapshot = reportSnapshotService.current();
+        List<EventPerformanceRow> rows = snapshot != null
+                ? snapshot.eventPerformanceRows(filter)
+                : reportQueryRepository.findEventPerformanceRows(filter, reportRollupService.isReady());
+        rows.forEach(ReportService::applyFillRate);
 
         // Summary
         int totalEvents   = rows.size();
@@ -449,67 +363,38 @@ public class ReportService {
 
     // ==================== REPORT 5: FACILITY UTILISATION ====================
 
-    @Transactional(readOnly = true)
     public ReportResponse<FacilityUtilisationSummary, FacilityUtilisationRow> getFacilityUtilisationReport(
             String facilityType, Integer eventId, LocalDate startDate, LocalDate endDate) {
+        return getFacilityUtilisationReport(facilityType, eventId, startDate, endDate, null);
+    }
 
-        List<EventFacility> allEFs = eventFacilityRepository.findAll().stream()
-                .filter(ef -> facilityType == null || facilityType.isBlank()
-                        || ef.getFacility().getFacilityType().equalsIgnoreCase(facilityType))
-                .filter(ef -> eventId == null || Objects.equals(ef.getEvent().getEventId(), eventId))
-                .filter(ef -> matchEventDateRange(ef.getEvent(), startDate, endDate))
-                .collect(Collectors.toList());
-
-        List<FacilityApplication> allApps = loadAllApps();
-        Map<Integer, Payment> paymentMap = buildPaymentMap(allApps);
-
-        // Group by facility template (facilityId)
-        Map<Integer, List<EventFacility>> efsByFacility = allEFs.stream()
-                .collect(Collectors.groupingBy(ef -> ef.getFacility().getFacilityId()));
-
-        // Group applications by eventFacilityId for efficient lookup
-        Map<Integer, List<FacilityApplication>> appsByEF = allApps.stream()
-                .collect(Collectors.groupingBy(a -> a.getEventFacility().getEventFacilityId()));
-
-        List<FacilityUtilisationRow> rows = efsByFacility.entrySet().stream()
-                .map(entry -> {
-                    Integer facilityId2 = entry.getKey();
-                    List<EventFacility> fEFs = entry.getValue();
-                    Facility facility = fEFs.get(0).getFacility();
-
-                    int timesOffered    = fEFs.size();
-                    int slotsOffered    = fEFs.stream()
-                            .mapToInt(ef -> ef.getOriginalQuantityTotal() != null
-                                    ? ef.getOriginalQuantityTotal()
-                                    : (ef.getQuantityFacilityAvailable() != null ? ef.getQuantityFacilityAvailable() : 0))
-                            .sum();
-                    int currentRemaining = fEFs.stream()
-                            .mapToInt(ef -> ef.getQuantityFacilityAvailable() != null ? ef.getQuantityFacilityAvailable() : 0)
-                            .sum();
-                    int slotsFilled = Math.max(0, slotsOffered - currentRemaining);
-                    int fillRate    = slotsOffered > 0 ? (slotsFilled * 100 / slotsOffered) : 0;
-
-                    // Collect all applications for this facility across events
-                    List<FacilityApplication> fApps = fEFs.stream()
-                            .flatMap(ef -> appsByEF.getOrDefault(ef.getEventFacilityId(), Collections.emptyList()).stream())
-                            .collect(Collectors.toList());
-
-                    int totalApps     = fApps.size();
-                    int totalApproved = count(fApps, FacilityApplication.ApplicationStatus.APPROVED);
-
-                    List<Payment> fPayments = fApps.stream()
-                            .filter(a -> paymentMap.containsKey(a.getApplicationId()))
-                            .map(a -> paymentMap.get(a.getApplicationId()))
-                            .collect(Collectors.toList());
-                    BigDecimal revenue = sumPayments(fPayments, Payment.PaymentStatus.PAID);
-
-                    return new FacilityUtilisationRow(
-                            facilityId2, facility.getFacilityName(), facility.getFacilityType(),
-                            facility.getFacilitySize(), timesOffered, slotsOffered, slotsFilled,
-                            fillRate, totalApps, totalApproved, revenue);
-                })
-                .sorted(Comparator.comparingInt(FacilityUtilisationRow::getTotalApplications).reversed())
-                .collect(Collectors.toList());
+    /**
+     * Paged variant — one row per group, so the full (cached) report is paged in memory
+     */
+    public ReportResponse<FacilityUtilisationSummary, FacilityUtilisationRow> getFacilityUtilisationReport(
+            String facilityType, Integer eventId, LocalDate startDate, LocalDate endDate,
+            ReportPageRequest pageRequest) {
+
+        ReportFilterRequest filter = new ReportFilterRequest();
+        filter.setFacilityType(facilityType);
+        filter.setEventId(eventId);
+        filter.setStartDate(startDate);
+        filter.setEndDate(endDate);
+
+        ReportPaging.Page<FacilityUtilisationRow> page = FACILITY_UTILISATION_PAGING.page(pageRequest);
+        ReportResponse<FacilityUtilisationSummary, FacilityUtilisationRow> full =
+                cached("facility-utilisation", filter, () -> buildFacilityUtilisationReport(filter));
+        return page == null ? full : page.slice(full);
+    }
+
+    private ReportResponse<FacilityUtilisationSummary, FacilityUtilisationRow> buildFacilityUtilisationReport(ReportFilterRequest filter) {
+        // One row per facility template, grouped across its event assignments (application totals from rollups)
+        ReportSnapshot snapshot = reportSnapshotService.current();
+        List<FacilityUtilisationRow> rows = snapshot != null
+                ? snapshot.facilityUtilisationRows(filter)
+                : reportQueryRepository.findFacilityUtilisationRows(filter, reportRollupService.isReady());
+        rows.forEach(ReportService::applyFillRate);
+        rows.sort(Comparator.comparingInt(FacilityUtilisationRow::getTotalApplications).reversed());
 
         // Summary
         int totalFacilities = rows.size();
@@ -533,20 +418,66 @@ public class ReportService {
         return new ReportResponse<>(summary, rows);
     }
 
-    // ==================== PRIVATE HELPERS ====================
+    // ==================== RESULT CACHE ====================
+
+    /**
+     * Serves a report from ReportResultCache; on a miss, computes it once in a read-only
+     * transaction while concurrent identical requests wait. The cache lookup itself runs
+     * outside any transaction, so waiting requests don't hold a database connection.
+     */
+    private <T> T cached(String report, ReportFilterRequest filter, Supplier<T> compute) {
+        return reportResultCache.get(report, filter, () -> readOnly(compute));
+    }
+
+    private <T> T readOnly(Supplier<T> compute) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> compute.get());
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    // ==================== SUMMARY FIGURES (shared with ReportSnapshot) ====================
+
+    static FacilityRentalSummary facilityRentalSummary(int total, int approved, int rejected, int pending,
+                                                       int cancelled, int businesses, int paidCount,
+                                                       BigDecimal paidAmount, BigDecimal unpaidAmount) {
+        int collectionRate = approved > 0 ? (paidCount * 100 / approved) : 0;
+        return new FacilityRentalSummary(total, approved, rejected, pending, cancelled,
+                businesses, paidCount, paidAmount, unpaidAmount, collectionRate);
+    }
+
+    static RevenueSummary revenueSummary(int total, BigDecimal billed, BigDecimal collected,
+                                         BigDecimal outstanding, BigDecimal failed,
+                                         int paidCount, int unpaidCount, int failedCount, int paidBusinesses) {
+        int collectionRate = (paidCount + unpaidCount) > 0
+                ? (paidCount * 100 / (paidCount + unpaidCount)) : 0;
+        BigDecimal avg = paidBusinesses > 0
+                ? collected.divide(BigDecimal.valueOf(paidBusinesses), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+        return new RevenueSummary(billed, collected, outstanding, failed, collectionRate, avg,
+                total, paidCount, unpaidCount, failedCount);
+    }
+
+    // ==================== ROW-LEVEL DERIVED FIGURES (shared with ReportExportService) ====================
 
-    private int count(List<FacilityApplication> apps, FacilityApplication.ApplicationStatus status) {
-        return (int) apps.stream().filter(a -> a.getApplicationStatus() == status).count();
+    static void applyRates(BusinessActivityRow row) {
+        int totalApplied  = row.getTotalApplied();
+        int totalApproved = row.getTotalApproved();
+        row.setApprovalRate(totalApplied > 0 ? (totalApproved * 100 / totalApplied) : 0);
+        row.setCancellationRate(totalApplied > 0 ? (row.getTotalCancelled() * 100 / totalApplied) : 0);
+        row.setPaymentRate(totalApproved > 0 ? (row.getTotalPaid() * 100 / totalApproved) : 0);
     }
 
-    private int countPayments(List<Payment> payments, Payment.PaymentStatus status) {
-        return (int) payments.stream().filter(p -> p.getPaymentStatus() == status).count();
+    static void applyFillRate(EventPerformanceRow row) {
+        int slotsAvailable = row.getTotalSlotsAvailable();
+        row.setFillRate(slotsAvailable > 0 ? (row.getTotalSlotsFilled() * 100 / slotsAvailable) : 0);
     }
 
-    private BigDecimal sumPayments(List<Payment> payments, Payment.PaymentStatus status) {
-        return payments.stream()
-                .filter(p -> p.getPaymentStatus() == status)
-                .map(Payment::getPaymentAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    static void applyFillRate(FacilityUtilisationRow row) {
+        int slotsOffered = row.getTotalSlotsOffered();
+        row.setFillRate(slotsOffered > 0 ? (row.getTotalSlotsFilled() * 100 / slotsOffered) : 0);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,794 @@
+package com.mpp.rental.service;
+
+import com.mpp.rental.dto.*;
+import com.mpp.rental.model.FacilityApplication;
+import com.mpp.rental.model.Payment;
+import com.mpp.rental.model.User;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * ReportSnapshot - immutable, column-per-field copy of the report data, used by ReportService
+ * when report.snapshot.enabled is set (loaded and kept current by ReportSnapshotService).
+ *
+ * One slot per application across parallel primitive arrays: ids, application / payment status
+ * and owner category as enum ordinals in bytes, payment amounts as long cents, timestamps as
+ * epoch micros and dates as epoch days. Events, facilities, event facilities and businesses are
+ * small dimension tables referenced by dense index.
+ *
+ * Every report is a single pass over the columns with int / long accumulators, split into
+ * chunks that run in parallel once the snapshot holds PARALLEL_THRESHOLD rows. DTOs and
+ * BigDecimals are only created for what is returned.
+ *
+ * Applications of soft-deleted events or facilities are left out of every report, as on the
+ * rollup path of ReportQueryRepository.
+ */
+public final class ReportSnapshot {
+
+    private static final int PARALLEL_THRESHOLD = 50_000;
+    private static final int CHUNK_SIZE = 16 * 1024;
+
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+    private static final long MICROS_PER_DAY = 86_400L * MICROS_PER_SECOND;
+
+    /** No payment / unknown dimension / no date */
+    private static final byte NONE = -1;
+    private static final int MISSING = -1;
+    /** Filter value that no row holds (unknown enum name) */
+    private static final byte NO_MATCH = -2;
+    private static final int NO_DAY = Integer.MIN_VALUE;
+
+    private static final FacilityApplication.ApplicationStatus[] APPLICATION_STATUSES = FacilityApplication.ApplicationStatus.values();
+    private static final Payment.PaymentStatus[] PAYMENT_STATUSES = Payment.PaymentStatus.values();
+    private static final User.UserCategory[] USER_CATEGORIES = User.UserCategory.values();
+
+    private static final byte PENDING   = (byte) FacilityApplication.ApplicationStatus.PENDING.ordinal();
+    private static final byte APPROVED  = (byte) FacilityApplication.ApplicationStatus.APPROVED.ordinal();
+    private static final byte REJECTED  = (byte) FacilityApplication.ApplicationStatus.REJECTED.ordinal();
+    private static final byte CANCELLED = (byte) FacilityApplication.ApplicationStatus.CANCELLED.ordinal();
+    private static final byte PAID      = (byte) Payment.PaymentStatus.PAID.ordinal();
+    private static final byte UNPAID    = (byte) Payment.PaymentStatus.UNPAID.ordinal();
+    private static final byte FAILED    = (byte) Payment.PaymentStatus.FAILED.ordinal();
+
+    // ==================== LOAD RECORDS ====================
+
+    /** One application and its payment (payment fields null when it has none) */
+    public record Row(int applicationId, int eventFacilityId, long businessId,
+                      FacilityApplication.ApplicationStatus applicationStatus, User.UserCategory ownerCategory,
+                      LocalDateTime applicationCreatedAt, Payment.PaymentStatus paymentStatus,
+                      BigDecimal paymentAmount, LocalDateTime paymentCreatedAt) {
+    }
+
+    public record EventDim(int eventId, String eventName, String eventVenue, String eventStatus,
+                           LocalDate eventStartDate, LocalDate eventEndDate) {
+    }
+
+    public record FacilityDim(int facilityId, String facilityName, String facilityType, String facilitySize) {
+    }
+
+    /** slotsOffered / slotsRemaining already COALESCEd as in ReportQueryRepository */
+    public record EventFacilityDim(int eventFacilityId, int eventId, int facilityId,
+                                   int slotsOffered, int slotsRemaining) {
+    }
+
+    public record BusinessDim(long businessId, String businessName, long ownerId, String ownerName,
+                              User.UserCategory ownerCategory) {
+    }
+
+    // ==================== DIMENSIONS ====================
+
+    /**
+     * Live (non-deleted) events and facilities, all event facilities and all businesses,
+     * each addressed by its position in the list it was built from.
+     */
+    public static final class Dimensions {
+        private final EventDim[] events;
+        private final FacilityDim[] facilities;
+        private final BusinessDim[] businesses;
+        private final Map<Integer, Integer> eventIndex = new HashMap<>();
+        private final Map<Integer, Integer> facilityIndex = new HashMap<>();
+        private final Map<Integer, Integer> eventFacilityIndex = new HashMap<>();
+        private final Map<Long, Integer> businessIndex = new HashMap<>();
+
+        private final int[] eventStartDay;
+        private final String[] eventStatusLower;
+        private final String[] facilityTypeLower;
+
+        /** Per event facility: event / facility index (MISSING when soft-deleted) and slots */
+        private final int[] efEvent;
+        private final int[] efFacility;
+        private final int[] efSlotsOffered;
+        private final int[] efSlotsRemaining;
+
+        public Dimensions(List<EventDim> events, List<FacilityDim> facilities,
+                          List<EventFacilityDim> eventFacilities, List<BusinessDim> businesses) {
+            this.events = events.toArray(EventDim[]::new);
+            this.facilities = facilities.toArray(FacilityDim[]::new);
+            this.businesses = businesses.toArray(BusinessDim[]::new);
+
+            eventStartDay = new int[this.events.length];
+            eventStatusLower = new String[this.events.length];
+            for (int i = 0; i < this.events.length; i++) {
+                EventDim e = this.events[i];
+                eventIndex.put(e.eventId(), i);
+                eventStartDay[i] = epochDay(e.eventStartDate());
+                eventStatusLower[i] = e.eventStatus() == null ? null : e.eventStatus().toLowerCase();
+            }
+
+            facilityTypeLower = new String[this.facilities.length];
+            for (int i = 0; i < this.facilities.length; i++) {
+                FacilityDim f = this.facilities[i];
+                facilityIndex.put(f.facilityId(), i);
+                facilityTypeLower[i] = f.facilityType() == null ? null : f.facilityType().toLowerCase();
+            }
+
+            int efCount = eventFacilities.size();
+            efEvent = new int[efCount];
+            efFacility = new int[efCount];
+            efSlotsOffered = new int[efCount];
+            efSlotsRemaining = new int[efCount];
+            for (int i = 0; i < efCount; i++) {
+                EventFacilityDim ef = eventFacilities.get(i);
+                eventFacilityIndex.put(ef.eventFacilityId(), i);
+                efEvent[i] = eventIndex.getOrDefault(ef.eventId(), MISSING);
+                efFacility[i] = facilityIndex.getOrDefault(ef.facilityId(), MISSING);
+                efSlotsOffered[i] = ef.slotsOffered();
+                efSlotsRemaining[i] = ef.slotsRemaining();
+            }
+
+            for (int i = 0; i < this.businesses.length; i++) {
+                businessIndex.put(this.businesses[i].businessId(), i);
+            }
+        }
+
+        boolean hasBusiness(long businessId) {
+            return businessIndex.containsKey(businessId);
+        }
+    }
+
+    // ==================== COLUMNS ====================
+
+    private final Dimensions dims;
+    private final int size;
+
+    /** Sorted by applicationCreatedAt DESC, applicationId DESC — the row order of reports 1 and 2 */
+    private final int[] applicationId;
+    private final int[] eventFacilityId;
+    private final long[] businessId;
+    private final byte[] applicationStatus;
+    private final byte[] ownerCategory;
+    private final byte[] paymentStatus;
+    private final long[] paymentCents;
+    private final long[] appliedAtMicros;
+    private final int[] appliedDay;
+    private final long[] paidAtMicros;
+    private final int[] paymentDay;
+
+    /** Dense dimension indices resolved from the ids above (MISSING = soft-deleted / unknown) */
+    private final int[] event;
+    private final int[] facility;
+    private final int[] business;
+
+    private ReportSnapshot(Dimensions dims, int size) {
+        this.dims = dims;
+        this.size = size;
+        applicationId = new int[size];
+        eventFacilityId = new int[size];
+        businessId = new long[size];
+        applicationStatus = new byte[size];
+        ownerCategory = new byte[size];
+        paymentStatus = new byte[size];
+        paymentCents = new long[size];
+        appliedAtMicros = new long[size];
+        appliedDay = new int[size];
+        paidAtMicros = new long[size];
+        paymentDay = new int[size];
+        event = new int[size];
+        facility = new int[size];
+        business = new int[size];
+    }
+
+    public static ReportSnapshot build(Dimensions dims, List<Row> rows) {
+        List<Row> sorted = sorted(rows);
+        ReportSnapshot snapshot = new ReportSnapshot(dims, sorted.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            snapshot.set(i, sorted.get(i));
+        }
+        return snapshot;
+    }
+
+    /**
+     * New snapshot with every application in changedIds replaced by its reloaded row
+     * (absent from reloaded = deleted). Unchanged rows are copied column by column in their
+     * existing order and merged with the reloaded ones, so no re-sort of the whole set is needed.
+     * newDims replaces the dimension tables when not null.
+     */
+    public ReportSnapshot withChanges(Collection<Integer> changedIds, List<Row> reloaded, Dimensions newDims) {
+        int[] removed = changedIds.stream().mapToInt(Integer::intValue).sorted().toArray();
+        List<Row> added = sorted(reloaded);
+
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (Arrays.binarySearch(removed, applicationId[i]) < 0) kept++;
+        }
+
+        ReportSnapshot next = new ReportSnapshot(newDims != null ? newDims : dims, kept + added.size());
+        int i = 0, a = 0, j = 0;
+        while (true) {
+            while (i < size && Arrays.binarySearch(removed, applicationId[i]) >= 0) i++;
+            boolean hasOld = i < size;
+            boolean hasNew = a < added.size();
+            if (!hasOld && !hasNew) break;
+
+            if (hasNew && (!hasOld || sortsBefore(added.get(a), i))) {
+                next.set(j++, added.get(a++));
+            } else {
+                next.copy(j++, this, i++);
+            }
+        }
+        if (newDims != null) {
+            next.resolveAll();
+        }
+        return next;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    boolean hasBusiness(long id) {
+        return dims.hasBusiness(id);
+    }
+
+    // ==================== REPORT 1: FACILITY RENTAL ====================
+
+    public ReportResponse<FacilityRentalSummary, FacilityRentalRow> facilityRental(ReportFilterRequest filter) {
+        Criteria c = new Criteria(filter);
+        Tally t = merge(scan(Tally::new, (acc, i) -> {
+            if (!matchesApplication(c, i)) return;
+            acc.add(i);
+            acc.countApplication(applicationStatus[i]);
+            acc.countPayment(paymentStatus[i], paymentCents[i]);
+            acc.businesses.set(business[i]);
+        }));
+
+        List<FacilityRentalRow> rows = new ArrayList<>(t.matched.size);
+        for (int k = 0; k < t.matched.size; k++) {
+            rows.add(facilityRentalRow(t.matched.values[k]));
+        }
+
+        FacilityRentalSummary summary = ReportService.facilityRentalSummary(
+                t.matched.size, t.approved, t.rejected, t.pending, t.cancelled,
+                t.businesses.cardinality(), t.paidCount, money(t.paidCents), money(t.unpaidCents));
+        return new ReportResponse<>(summary, rows);
+    }
+
+    private FacilityRentalRow facilityRentalRow(int i) {
+        EventDim e = dims.events[event[i]];
+        FacilityDim f = dims.facilities[facility[i]];
+        BusinessDim b = dims.businesses[business[i]];
+
+        FacilityRentalRow row = new FacilityRentalRow();
+        row.setApplicationId(applicationId[i]);
+        row.setEventName(e.eventName());
+        row.setEventVenue(e.eventVenue());
+        row.setEventStatus(e.eventStatus());
+        row.setFacilityName(f.facilityName());
+        row.setFacilityType(f.facilityType());
+        row.setBusinessId(businessId[i]);
+        row.setBusinessName(b.businessName());
+        row.setOwnerId(b.ownerId());
+        row.setOwnerName(b.ownerName());
+        row.setOwnerCategory(USER_CATEGORIES[ownerCategory[i]].name());
+        row.setApplicationStatus(APPLICATION_STATUSES[applicationStatus[i]].name());
+        row.setApplicationCreatedAt(dateTime(appliedAtMicros[i]));
+        if (paymentStatus[i] != NONE) {
+            row.setPaymentStatus(PAYMENT_STATUSES[paymentStatus[i]].name());
+            row.setPaymentAmount(money(paymentCents[i]));
+        }
+        return row;
+    }
+
+    // ==================== REPORT 2: REVENUE & PAYMENT ====================
+
+    public ReportResponse<RevenueSummary, RevenueRow> revenue(ReportFilterRequest filter) {
+        Criteria c = new Criteria(filter);
+        Tally t = merge(scan(Tally::new, (acc, i) -> {
+            if (!matchesPayment(c, i)) return;
+            acc.add(i);
+            acc.countPayment(paymentStatus[i], paymentCents[i]);
+            if (paymentStatus[i] == PAID) acc.businesses.set(business[i]);
+        }));
+
+        List<RevenueRow> rows = new ArrayList<>(t.matched.size);
+        for (int k = 0; k < t.matched.size; k++) {
+            int i = t.matched.values[k];
+            BusinessDim b = dims.businesses[business[i]];
+            rows.add(new RevenueRow(
+                    applicationId[i],
+                    dims.events[event[i]].eventName(),
+                    b.businessName(),
+                    b.ownerName(),
+                    USER_CATEGORIES[ownerCategory[i]].name(),
+                    money(paymentCents[i]),
+                    PAYMENT_STATUSES[paymentStatus[i]].name(),
+                    dateTime(paidAtMicros[i])));
+        }
+
+        RevenueSummary summary = ReportService.revenueSummary(
+                t.matched.size, money(t.paidCents + t.unpaidCents + t.failedCents),
+                money(t.paidCents), money(t.unpaidCents), money(t.failedCents),
+                t.paidCount, t.unpaidCount, t.failedCount, t.businesses.cardinality());
+        return new ReportResponse<>(summary, rows);
+    }
+
+    // ==================== REPORT 3: BUSINESS OWNER ACTIVITY ====================
+
+    /** One row per business, most applications first; rates left at 0 as from the repository */
+    public List<BusinessActivityRow> businessActivityRows(ReportFilterRequest filter) {
+        Criteria c = new Criteria(filter);
+        int groups = dims.businesses.length;
+        GroupTally t = merge(scan(() -> new GroupTally(groups), (acc, i) -> {
+            if (matchesApplication(c, i)) acc.count(business[i], i);
+        }));
+
+        List<BusinessActivityRow> rows = new ArrayList<>();
+        for (int g = 0; g < groups; g++) {
+            if (t.total[g] == 0) continue;
+            BusinessDim b = dims.businesses[g];
+            rows.add(new BusinessActivityRow(
+                    b.businessId(), b.businessName(), b.ownerName(), b.ownerCategory().name(),
+                    t.total[g], t.approved[g], t.rejected[g], t.cancelled[g], t.paid[g],
+                    0, 0, 0,
+                    money(t.paidCents[g])));
+        }
+        rows.sort(Comparator.comparingInt(BusinessActivityRow::getTotalApplied).reversed()
+                .thenComparing(BusinessActivityRow::getBusinessId));
+        return rows;
+    }
+
+    // ==================== REPORT 4: EVENT PERFORMANCE ====================
+
+    /** One row per event matching eventStatus + start date range, latest event first; fillRate left at 0 */
+    public List<EventPerformanceRow> eventPerformanceRows(ReportFilterRequest filter) {
+        Criteria c = new Criteria(filter);
+        int groups = dims.events.length;
+        boolean[] selected = new boolean[groups];
+        for (int e = 0; e < groups; e++) {
+            selected[e] = c.matchesEventStatus(e) && c.inRange(dims.eventStartDay[e]);
+        }
+
+        // Every event facility of the event counts, whatever the state of its facility
+        int[] facilities = new int[groups];
+        int[] slotsOffered = new int[groups];
+        int[] slotsRemaining = new int[groups];
+        for (int ef = 0; ef < dims.efEvent.length; ef++) {
+            int e = dims.efEvent[ef];
+            if (e == MISSING || !selected[e]) continue;
+            facilities[e]++;
+            slotsOffered[e] += dims.efSlotsOffered[ef];
+            slotsRemaining[e] += dims.efSlotsRemaining[ef];
+        }
+
+        GroupTally t = merge(scan(() -> new GroupTally(groups), (acc, i) -> {
+            if (event[i] != MISSING && facility[i] != MISSING && selected[event[i]]) acc.count(event[i], i);
+        }));
+
+        List<EventPerformanceRow> rows = new ArrayList<>();
+        for (int e = 0; e < groups; e++) {
+            if (!selected[e]) continue;
+            EventDim dim = dims.events[e];
+            EventPerformanceRow row = new EventPerformanceRow();
+            row.setEventId(dim.eventId());
+            row.setEventName(dim.eventName());
+            row.setEventVenue(dim.eventVenue());
+            row.setEventStatus(dim.eventStatus());
+            row.setEventStartDate(dim.eventStartDate());
+            row.setEventEndDate(dim.eventEndDate());
+            row.setTotalFacilitiesOffered(facilities[e]);
+            row.setTotalSlotsAvailable(slotsOffered[e]);
+            row.setTotalSlotsFilled(Math.max(0, slotsOffered[e] - slotsRemaining[e]));
+            row.setTotalApplications(t.total[e]);
+            row.setTotalApproved(t.approved[e]);
+            row.setTotalRejected(t.rejected[e]);
+            row.setTotalRevenue(money(t.paidCents[e]));
+            rows.add(row);
+        }
+        rows.sort(Comparator.comparing(EventPerformanceRow::getEventStartDate,
+                Comparator.nullsLast(Comparator.reverseOrder())));
+        return rows;
+    }
+
+    // ==================== REPORT 5: FACILITY UTILISATION ====================
+
+    /** One row per facility across its matching event assignments; fillRate left at 0, unsorted */
+    public List<FacilityUtilisationRow> facilityUtilisationRows(ReportFilterRequest filter) {
+        Criteria c = new Criteria(filter);
+        boolean[] eventSelected = new boolean[dims.events.length];
+        for (int e = 0; e < eventSelected.length; e++) {
+            eventSelected[e] = (c.event == Criteria.ANY || c.event == e) && c.inRange(dims.eventStartDay[e]);
+        }
+        int groups = dims.facilities.length;
+        boolean[] selected = new boolean[groups];
+        for (int f = 0; f < groups; f++) {
+            selected[f] = c.matchesFacilityType(f);
+        }
+
+        int[] timesOffered = new int[groups];
+        int[] slotsOffered = new int[groups];
+        int[] slotsRemaining = new int[groups];
+        for (int ef = 0; ef < dims.efEvent.length; ef++) {
+            int e = dims.efEvent[ef];
+            int f = dims.efFacility[ef];
+            if (e == MISSING || f == MISSING || !eventSelected[e] || !selected[f]) continue;
+            timesOffered[f]++;
+            slotsOffered[f] += dims.efSlotsOffered[ef];
+            slotsRemaining[f] += dims.efSlotsRemaining[ef];
+        }
+
+        GroupTally t = merge(scan(() -> new GroupTally(groups), (acc, i) -> {
+            int e = event[i];
+            int f = facility[i];
+            if (e != MISSING && f != MISSING && eventSelected[e] && selected[f]) acc.count(f, i);
+        }));
+
+        List<FacilityUtilisationRow> rows = new ArrayList<>();
+        for (int f = 0; f < groups; f++) {
+            if (timesOffered[f] == 0) continue;
+            FacilityDim dim = dims.facilities[f];
+            FacilityUtilisationRow row = new FacilityUtilisationRow();
+            row.setFacilityId(dim.facilityId());
+            row.setFacilityName(dim.facilityName());
+            row.setFacilityType(dim.facilityType());
+            row.setFacilitySize(dim.facilitySize());
+            row.setTimesOffered(timesOffered[f]);
+            row.setTotalSlotsOffered(slotsOffered[f]);
+            row.setTotalSlotsFilled(Math.max(0, slotsOffered[f] - slotsRemaining[f]));
+            row.setTotalApplications(t.total[f]);
+            row.setTotalApproved(t.approved[f]);
+            row.setTotalRevenueGenerated(money(t.paidCents[f]));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    // ==================== ROW PREDICATES ====================
+
+    /** Reports 1 + 3 — same conditions as ReportQueryRepository.applicationWhere */
+    private boolean matchesApplication(Criteria c, int i) {
+        int e = event[i];
+        int f = facility[i];
+        return e != MISSING && f != MISSING
+                && (c.event == Criteria.ANY || e == c.event)
+                && (c.facility == Criteria.ANY || f == c.facility)
+                && (c.ownerCategory == NONE || ownerCategory[i] == c.ownerCategory)
+                && (c.applicationStatus == NONE || applicationStatus[i] == c.applicationStatus)
+                && (c.paymentStatus == NONE || paymentStatus[i] == c.paymentStatus)
+                && c.inRange(appliedDay[i]);
+    }
+
+    /** Report 2 — same conditions as ReportQueryRepository.paymentWhere */
+    private boolean matchesPayment(Criteria c, int i) {
+        int e = event[i];
+        return e != MISSING
+                && applicationStatus[i] == APPROVED
+                && paymentStatus[i] != NONE
+                && (c.event == Criteria.ANY || e == c.event)
+                && (c.ownerCategory == NONE || ownerCategory[i] == c.ownerCategory)
+                && (c.paymentStatus == NONE || paymentStatus[i] == c.paymentStatus)
+                && c.inRange(paymentDay[i]);
+    }
+
+    /**
+     * A ReportFilterRequest resolved against this snapshot: ids → dense indices, enum names →
+     * ordinals, dates → epoch days. An unknown id (MISSING) or enum value (NO_MATCH) equals no
+     * row's value, like the "1 = 0" predicate on the SQL side.
+     */
+    private final class Criteria {
+        static final int ANY = -2;
+
+        final int event;
+        final int facility;
+        final byte ownerCategory;
+        final byte applicationStatus;
+        final byte paymentStatus;
+        final String eventStatus;
+        final String facilityType;
+        final boolean dated;
+        final int fromDay;
+        final int toDay;
+
+        Criteria(ReportFilterRequest filter) {
+            event = index(dims.eventIndex, filter.getEventId());
+            facility = index(dims.facilityIndex, filter.getFacilityId());
+            ownerCategory = ordinal(User.UserCategory.class, filter.getOwnerCategory());
+            applicationStatus = ordinal(FacilityApplication.ApplicationStatus.class, filter.getApplicationStatus());
+            paymentStatus = ordinal(Payment.PaymentStatus.class, filter.getPaymentStatus());
+            eventStatus = hasText(filter.getEventStatus()) ? filter.getEventStatus().toLowerCase() : null;
+            facilityType = hasText(filter.getFacilityType()) ? filter.getFacilityType().toLowerCase() : null;
+            dated = filter.getStartDate() != null || filter.getEndDate() != null;
+            fromDay = filter.getStartDate() != null ? (int) filter.getStartDate().toEpochDay() : Integer.MIN_VALUE;
+            toDay = filter.getEndDate() != null ? (int) filter.getEndDate().toEpochDay() : Integer.MAX_VALUE;
+        }
+
+        private int index(Map<Integer, Integer> index, Integer id) {
+            if (id == null) return ANY;
+            return index.getOrDefault(id, MISSING);
+        }
+
+        private <E extends Enum<E>> byte ordinal(Class<E> type, String value) {
+            if (!hasText(value)) return NONE;
+            try {
+                return (byte) Enum.valueOf(type, value.trim().toUpperCase()).ordinal();
+            } catch (IllegalArgumentException e) {
+                return NO_MATCH;
+            }
+        }
+
+        boolean inRange(int day) {
+            return !dated || (day != NO_DAY && day >= fromDay && day <= toDay);
+        }
+
+        boolean matchesEventStatus(int e) {
+            return eventStatus == null || eventStatus.equals(dims.eventStatusLower[e]);
+        }
+
+        boolean matchesFacilityType(int f) {
+            return facilityType == null || facilityType.equals(dims.facilityTypeLower[f]);
+        }
+    }
+
+    // ==================== SCAN + ACCUMULATORS ====================
+
+    @FunctionalInterface
+    private interface RowVisitor<A> {
+        void visit(A accumulator, int row);
+    }
+
+    /**
+     * Runs visitor over every row, one accumulator per CHUNK_SIZE rows. Chunks run in parallel
+     * above PARALLEL_THRESHOLD; the accumulators come back in row order either way.
+     */
+    private <A> List<A> scan(Supplier<A> accumulator, RowVisitor<A> visitor) {
+        int rows = size;
+        int chunks = Math.max(1, (rows + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        IntStream range = IntStream.range(0, chunks);
+        if (rows >= PARALLEL_THRESHOLD) {
+            range = range.parallel();
+        }
+        return range.mapToObj(chunk -> {
+            A acc = accumulator.get();
+            int end = Math.min(rows, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                visitor.visit(acc, i);
+            }
+            return acc;
+        }).toList();
+    }
+
+    private static <A extends Mergeable<A>> A merge(List<A> chunks) {
+        A first = chunks.get(0);
+        for (int k = 1; k < chunks.size(); k++) {
+            first.merge(chunks.get(k));
+        }
+        return first;
+    }
+
+    private interface Mergeable<A> {
+        void merge(A other);
+    }
+
+    /** Matching rows plus status / payment totals — reports 1 and 2 */
+    private static final class Tally implements Mergeable<Tally> {
+        final IntBuffer matched = new IntBuffer();
+        final BitSet businesses = new BitSet();
+        int approved, rejected, pending, cancelled;
+        int paidCount, unpaidCount, failedCount;
+        long paidCents, unpaidCents, failedCents;
+
+        void add(int row) {
+            matched.add(row);
+        }
+
+        void countApplication(byte status) {
+            if (status == APPROVED) approved++;
+            else if (status == REJECTED) rejected++;
+            else if (status == PENDING) pending++;
+            else if (status == CANCELLED) cancelled++;
+        }
+
+        void countPayment(byte status, long cents) {
+            if (status == PAID) {
+                paidCount++;
+                paidCents += cents;
+            } else if (status == UNPAID) {
+                unpaidCount++;
+                unpaidCents += cents;
+            } else if (status == FAILED) {
+                failedCount++;
+                failedCents += cents;
+            }
+        }
+
+        @Override
+        public void merge(Tally o) {
+            matched.addAll(o.matched);
+            businesses.or(o.businesses);
+            approved += o.approved;
+            rejected += o.rejected;
+            pending += o.pending;
+            cancelled += o.cancelled;
+            paidCount += o.paidCount;
+            unpaidCount += o.unpaidCount;
+            failedCount += o.failedCount;
+            paidCents += o.paidCents;
+            unpaidCents += o.unpaidCents;
+            failedCents += o.failedCents;
+        }
+    }
+
+    /** Per-group application counts and paid revenue — reports 3, 4 and 5 */
+    private final class GroupTally implements Mergeable<GroupTally> {
+        final int[] total, approved, rejected, cancelled, paid;
+        final long[] paidCents;
+
+        GroupTally(int groups) {
+            total = new int[groups];
+            approved = new int[groups];
+            rejected = new int[groups];
+            cancelled = new int[groups];
+            paid = new int[groups];
+            paidCents = new long[groups];
+        }
+
+        void count(int group, int row) {
+            if (group == MISSING) return;
+            total[group]++;
+            byte status = applicationStatus[row];
+            if (status == APPROVED) approved[group]++;
+            else if (status == REJECTED) rejected[group]++;
+            else if (status == CANCELLED) cancelled[group]++;
+            if (paymentStatus[row] == PAID) {
+                paid[group]++;
+                paidCents[group] += paymentCents[row];
+            }
+        }
+
+        @Override
+        public void merge(GroupTally o) {
+            for (int g = 0; g < total.length; g++) {
+                total[g] += o.total[g];
+                approved[g] += o.approved[g];
+                rejected[g] += o.rejected[g];
+                cancelled[g] += o.cancelled[g];
+                paid[g] += o.paid[g];
+                paidCents[g] += o.paidCents[g];
+            }
+        }
+    }
+
+    private static final class IntBuffer {
+        int[] values = new int[64];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        void addAll(IntBuffer other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+    }
+
+    // ==================== COLUMN WRITES ====================
+
+    private void set(int i, Row row) {
+        applicationId[i] = row.applicationId();
+        eventFacilityId[i] = row.eventFacilityId();
+        businessId[i] = row.businessId();
+        applicationStatus[i] = (byte) row.applicationStatus().ordinal();
+        ownerCategory[i] = (byte) row.ownerCategory().ordinal();
+        appliedAtMicros[i] = micros(row.applicationCreatedAt());
+        appliedDay[i] = epochDay(row.applicationCreatedAt());
+
+        boolean hasPayment = row.paymentStatus() != null;
+        paymentStatus[i] = hasPayment ? (byte) row.paymentStatus().ordinal() : NONE;
+        paymentCents[i] = hasPayment ? cents(row.paymentAmount()) : 0;
+        paidAtMicros[i] = hasPayment ? micros(row.paymentCreatedAt()) : Long.MIN_VALUE;
+        paymentDay[i] = hasPayment ? epochDay(row.paymentCreatedAt()) : NO_DAY;
+
+        resolve(i);
+    }
+
+    private void copy(int i, ReportSnapshot from, int j) {
+        applicationId[i] = from.applicationId[j];
+        eventFacilityId[i] = from.eventFacilityId[j];
+        businessId[i] = from.businessId[j];
+        applicationStatus[i] = from.applicationStatus[j];
+        ownerCategory[i] = from.ownerCategory[j];
+        appliedAtMicros[i] = from.appliedAtMicros[j];
+        appliedDay[i] = from.appliedDay[j];
+        paymentStatus[i] = from.paymentStatus[j];
+        paymentCents[i] = from.paymentCents[j];
+        paidAtMicros[i] = from.paidAtMicros[j];
+        paymentDay[i] = from.paymentDay[j];
+        event[i] = from.event[j];
+        facility[i] = from.facility[j];
+        business[i] = from.business[j];
+    }
+
+    private void resolveAll() {
+        for (int i = 0; i < size; i++) {
+            resolve(i);
+        }
+    }
+
+    private void resolve(int i) {
+        Integer ef = dims.eventFacilityIndex.get(eventFacilityId[i]);
+        event[i] = ef != null ? dims.efEvent[ef] : MISSING;
+        facility[i] = ef != null ? dims.efFacility[ef] : MISSING;
+        // An unknown business would have no name to show — treat the row like a deleted event's
+        Integer b = dims.businessIndex.get(businessId[i]);
+        business[i] = b != null ? b : MISSING;
+        if (b == null) event[i] = MISSING;
+    }
+
+    /** Whether a reloaded row goes before existing row i in applicationCreatedAt DESC, applicationId DESC order */
+    private boolean sortsBefore(Row row, int i) {
+        long at = micros(row.applicationCreatedAt());
+        return at != appliedAtMicros[i] ? at > appliedAtMicros[i] : row.applicationId() > applicationId[i];
+    }
+
+    private static List<Row> sorted(List<Row> rows) {
+        List<Row> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparingLong((Row r) -> micros(r.applicationCreatedAt()))
+                .thenComparingInt(Row::applicationId)
+                .reversed());
+        return sorted;
+    }
+
+    // ==================== CONVERSIONS ====================
+
+    private static long micros(LocalDateTime at) {
+        if (at == null) return Long.MIN_VALUE;
+        return at.toEpochSecond(ZoneOffset.UTC) * MICROS_PER_SECOND + at.getNano() / 1_000;
+    }
+
+    private static LocalDateTime dateTime(long micros) {
+        if (micros == Long.MIN_VALUE) return null;
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, MICROS_PER_SECOND),
+                (int) Math.floorMod(micros, MICROS_PER_SECOND) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static int epochDay(LocalDateTime at) {
+        return at == null ? NO_DAY : (int) Math.floorDiv(micros(at), MICROS_PER_DAY);
+    }
+
+    private static int epochDay(LocalDate date) {
+        return date == null ? NO_DAY : (int) date.toEpochDay();
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal money(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -0,0 +1,39 @@
+package com.mpp.rental.service;
+
+import com.mpp.rental.model.FacilityApplication;
+import com.mpp.rental.model.Payment;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener on the entities ReportSnapshot is built from — applications and payments
+ * queue their application id, events / event facilities / facilities flag the dimension tables.
+ * Does nothing while report.snapshot.enabled is off.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReportSnapshotListener {
+
+    // Resolved lazily — Hibernate instantiates listeners while the EntityManagerFactory is still being built
+    private final ObjectProvider<ReportSnapshotService> snapshotService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(Object entity) {
+        ReportSnapshotService service = snapshotService.getObject();
+        if (!service.isEnabled()) return;
+
+        if (entity instanceof FacilityApplication application) {
+            service.applicationChanged(application.getApplicationId());
+        } else if (entity instanceof Payment payment) {
+            service.applicationChanged(payment.getApplication().getApplicationId());
+        } else {
+            service.dimensionsChanged();
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.mpp.rental.service;
+
+import com.mpp.rental.model.FacilityApplication;
+import com.mpp.rental.model.Payment;
+import com.mpp.rental.model.User;
+import com.mpp.rental.repository.ReportQueryRepository;
+import jakarta.persistence.Tuple;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * ReportSnapshotService - owns the in-memory ReportSnapshot (off unless report.snapshot.enabled=true).
+ *
+ * The snapshot is loaded in full on startup and every report.snapshot.reload-interval-ms.
+ * In between, ReportSnapshotListener reports which applications were written and whether any
+ * event, event facility or facility changed; once the transaction commits those are queued,
+ * and the next report read reloads just the queued applications (plus the small dimension
+ * tables when needed) and merges them into a new snapshot. Readers always see a complete,
+ * immutable snapshot — a refresh swaps the reference.
+ *
+ * Business / owner name edits are not tracked and show up with the periodic reload.
+ * current() returns null while the snapshot is disabled, not loaded yet or failed to refresh;
+ * ReportService then reads from the database as usual.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReportSnapshotService {
+
+    /** Applications reloaded per IN (...) query */
+    private static final int RELOAD_BATCH_SIZE = 1000;
+
+    private final ReportQueryRepository      reportQueryRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${report.snapshot.enabled:false}")
+    private boolean enabled;
+
+    /** Same cursor setting as the CSV exports */
+    @Value("${report.export.fetch-size:" + Integer.MIN_VALUE + "}")
+    private int fetchSize;
+
+    private volatile ReportSnapshot snapshot;
+
+    private final Set<Integer> changedApplications = ConcurrentHashMap.newKeySet();
+    private volatile boolean dimensionsChanged;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // ==================== READ ====================
+
+    /**
+     * The snapshot with every committed change applied, or null when reports should use SQL.
+     */
+    public ReportSnapshot current() {
+        if (!enabled || snapshot == null) return null;
+        if (changedApplications.isEmpty() && !dimensionsChanged) return snapshot;
+        return applyChanges();
+    }
+
+    // ==================== FULL LOAD ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${report.snapshot.reload-interval-ms:900000}",
+               initialDelayString = "${report.snapshot.reload-interval-ms:900000}")
+    public void reloadPeriodically() {
+        reload();
+    }
+
+    public synchronized void reload() {
+        if (!enabled) return;
+        try {
+            long start = System.currentTimeMillis();
+            // Changes committed from here on may or may not be in the load — re-applying them is harmless
+            changedApplications.clear();
+            dimensionsChanged = false;
+
+            ReportSnapshot loaded = readOnly().execute(status ->
+                    ReportSnapshot.build(loadDimensions(), loadRows(null)));
+            snapshot = loaded;
+            log.info("Report snapshot loaded: {} applications in {} ms",
+                    loaded.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            dimensionsChanged = true;
+            log.error("Report snapshot load failed: {}", e.getMessage(), e);
+        }
+    }
+
+    // ==================== INCREMENTAL REFRESH ====================
+
+    private synchronized ReportSnapshot applyChanges() {
+        ReportSnapshot current = snapshot;
+        if (changedApplications.isEmpty() && !dimensionsChanged) {
+            return current;  // applied by another reader while this one waited
+        }
+
+        Set<Integer> ids = new HashSet<>(changedApplications);
+        changedApplications.removeAll(ids);
+        boolean dimensions = dimensionsChanged;
+        dimensionsChanged = false;
+
+        try {
+            long start = System.currentTimeMillis();
+            ReportSnapshot next = readOnly().execute(status -> {
+                List<ReportSnapshot.Row> rows = new ArrayList<>();
+                List<Integer> pending = new ArrayList<>(ids);
+                for (int from = 0; from < pending.size(); from += RELOAD_BATCH_SIZE) {
+                    rows.addAll(loadRows(pending.subList(from, Math.min(pending.size(), from + RELOAD_BATCH_SIZE))));
+                }
+                // A new business has no dimension row yet
+                boolean reloadDimensions = dimensions || rows.stream().anyMatch(r -> !current.hasBusiness(r.businessId()));
+                return current.withChanges(ids, rows, reloadDimensions ? loadDimensions() : null);
+            });
+            snapshot = next;
+            log.debug("Report snapshot refreshed: {} applications{} in {} ms",
+                    ids.size(), dimensions ? " + dimensions" : "", System.currentTimeMillis() - start);
+            return next;
+        } catch (Exception e) {
+            changedApplications.addAll(ids);
+            if (dimensions) dimensionsChanged = true;
+            log.error("Report snapshot refresh failed, reading from the database: {}", e.getMessage(), e);
+            return null;
+        }
+    }
+
+    // ==================== CHANGE TRACKING (called by ReportSnapshotListener) ====================
+
+    public void applicationChanged(Integer applicationId) {
+        if (applicationId == null) return;
+        PendingChanges pending = pendingChanges();
+        if (pending != null) {
+            pending.applicationIds.add(applicationId);
+        } else {
+            changedApplications.add(applicationId);
+        }
+    }
+
+    public void dimensionsChanged() {
+        PendingChanges pending = pendingChanges();
+        if (pending != null) {
+            pending.dimensions = true;
+        } else {
+            dimensionsChanged = true;
+        }
+    }
+
+    /**
+     * Per-transaction change set, registered on first use; null outside a Spring-managed
+     * transaction (the change is then queued straight away).
+     */
+    private PendingChanges pendingChanges() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return null;
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    private final class PendingChanges implements TransactionSynchronization {
+        private final Set<Integer> applicationIds = new HashSet<>();
+        private boolean dimensions;
+
+        /** Before ReportResultCache's invalidation (LOWEST_PRECEDENCE), so no report is cached from the old rows */
+        @Override
+        public int getOrder() {
+            return 0;
+        }
+
+        @Override
+        public void afterCommit() {
+            changedApplications.addAll(applicationIds);
+            if (dimensions) dimensionsChanged = true;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ReportSnapshotService.this);
+        }
+    }
+
+    // ==================== LOADING ====================
+
+    private List<ReportSnapshot.Row> loadRows(Collection<Integer> applicationIds) {
+        try (Stream<Tuple> tuples = reportQueryRepository.streamSnapshotRows(applicationIds, fetchSize)) {
+            return tuples.map(t -> new ReportSnapshot.Row(
+                            t.get("applicationId", Integer.class),
+                            t.get("eventFacilityId", Integer.class),
+                            t.get("businessId", Long.class),
+                            t.get("applicationStatus", FacilityApplication.ApplicationStatus.class),
+                            t.get("ownerCategory", User.UserCategory.class),
+                            t.get("applicationCreatedAt", LocalDateTime.class),
+                            t.get("paymentStatus", Payment.PaymentStatus.class),
+                            t.get("paymentAmount", BigDecimal.class),
+                            t.get("paymentCreatedAt", LocalDateTime.class)))
+                    .toList();
+        }
+    }
+
+    private ReportSnapshot.Dimensions loadDimensions() {
+        List<ReportSnapshot.EventDim> events = reportQueryRepository.findSnapshotEvents().stream()
+                .map(t -> new ReportSnapshot.EventDim(
+                        t.get("eventId", Integer.class),
+                        t.get("eventName", String.class),
+                        t.get("eventVenue", String.class),
+                        t.get("eventStatus", String.class),
+                        t.get("eventStartDate", LocalDate.class),
+                        t.get("eventEndDate", LocalDate.class)))
+                .toList();
+        List<ReportSnapshot.FacilityDim> facilities = reportQueryRepository.findSnapshotFacilities().stream()
+                .map(t -> new ReportSnapshot.FacilityDim(
+                        t.get("facilityId", Integer.class),
+                        t.get("facilityName", String.class),
+                        t.get("facilityType", String.class),
+                        t.get("facilitySize", String.class)))
+                .toList();
+        List<ReportSnapshot.EventFacilityDim> eventFacilities = reportQueryRepository.findSnapshotEventFacilities().stream()
+                .map(t -> new ReportSnapshot.EventFacilityDim(
+                        t.get("eventFacilityId", Integer.class),
+                        t.get("eventId", Integer.class),
+                        t.get("facilityId", Integer.class),
+                        ReportQueryRepository.toInt(t.get("slotsOffered")),
+                        ReportQueryRepository.toInt(t.get("slotsRemaining"))))
+                .toList();
+        List<ReportSnapshot.BusinessDim> businesses = reportQueryRepository.findSnapshotBusinesses().stream()
+                .map(t -> new ReportSnapshot.BusinessDim(
+                        t.get("businessId", Long.class),
+                        t.get("businessName", String.class),
+                        t.get("ownerId", Long.class),
+                        t.get("ownerName", String.class),
+                        t.get("ownerCategory", User.UserCategory.class)))
+                .toList();
+        return new ReportSnapshot.Dimensions(events, facilities, eventFacilities, businesses);
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+}
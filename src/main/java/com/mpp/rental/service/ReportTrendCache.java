@@ -0,0 +1,99 @@
+package com.mpp.rental.service;
+
+import com.mpp.rental.dto.ReportFilterRequest;
+import com.mpp.rental.dto.RevenueTrendPoint;
+import com.mpp.rental.dto.TrendGranularity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ReportTrendCache - finished trend points of closed periods, keyed by filters + period.
+ *
+ * Unlike ReportResultCache this is not cleared on every write: a new application or payment
+ * only lands in today's period, which is never cached. Writes that change an older day
+ * (e.g. a payment marked PAID) are reported by ReportRollupService, which evicts just the
+ * periods containing the days it recomputed. Event / facility writes and rollup rebuilds
+ * clear everything.
+ *
+ * Each eviction bumps a generation; a point computed before an eviction is not stored, so a
+ * request racing with a write can never cache the pre-write figures.
+ */
+@Component
+@Slf4j
+public class ReportTrendCache {
+
+    @Value("${report.trend-cache.max-entries:5000}")
+    private int maxEntries;
+
+    private final Map<Key, RevenueTrendPoint> points = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    /** filter without its date range — the period bounds (already clipped to it) take its place */
+    private record Key(ReportFilterRequest filter, TrendGranularity granularity, LocalDate from, LocalDate to) {
+        Key {
+            filter = ReportResultCache.normalize(filter);
+            filter.setStartDate(null);
+            filter.setEndDate(null);
+        }
+
+        boolean covers(LocalDate day) {
+            return !day.isBefore(from) && !day.isAfter(to);
+        }
+    }
+
+    // ==================== LOOKUP ====================
+
+    /** Read before computing points, pass to put() afterwards */
+    public long generation() {
+        return generation.get();
+    }
+
+    public RevenueTrendPoint get(ReportFilterRequest filter, TrendGranularity granularity, LocalDate from, LocalDate to) {
+        return points.get(new Key(filter, granularity, from, to));
+    }
+
+    /**
+     * Stores a point computed under computedAt (see generation()) — dropped if anything was
+     * evicted since. Cached points are shared between callers and must not be modified.
+     */
+    public void put(long computedAt, ReportFilterRequest filter, TrendGranularity granularity,
+                    LocalDate from, LocalDate to, RevenueTrendPoint point) {
+        if (generation.get() != computedAt) return;
+        if (points.size() >= maxEntries) {
+            points.clear();
+        }
+        Key key = new Key(filter, granularity, from, to);
+        points.put(key, point);
+        // An eviction between the check above and the put must still win
+        if (generation.get() != computedAt) {
+            points.remove(key, point);
+        }
+    }
+
+    // ==================== INVALIDATION ====================
+
+    /** Drops every period that contains one of the given days */
+    public void evictDays(Collection<LocalDate> days) {
+        if (days.isEmpty()) return;
+        generation.incrementAndGet();
+        points.keySet().removeIf(key -> days.stream().anyMatch(key::covers));
+    }
+
+    /** invalidateAll once the current transaction commits (immediately when there is none) */
+    public void invalidateAfterCommit() {
+        TransactionHooks.afterCommitOnce(this, this::invalidateAll);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        points.clear();
+        log.debug("Report trend cache invalidated");
+    }
+}
@@ -0,0 +1,150 @@
+package com.mpp.rental.service;
+
+import com.mpp.rental.dto.ReportFilterRequest;
+import com.mpp.rental.dto.RevenueTrendPoint;
+import com.mpp.rental.dto.TrendGranularity;
+import com.mpp.rental.exception.BadRequestException;
+import com.mpp.rental.repository.ReportQueryRepository;
+import jakarta.persistence.Tuple;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+import static com.mpp.rental.repository.ReportQueryRepository.toInt;
+import static com.mpp.rental.repository.ReportQueryRepository.toMoney;
+
+/**
+ * ReportTrendService - revenue / application series per day, week or month for the report charts.
+ *
+ * The database returns one aggregate row per day (from the rollup tables once they are ready);
+ * days are folded into weeks / months here, so the cost follows the number of days in the
+ * range, never the number of applications or payments.
+ *
+ * Closed periods (ending before today) are kept in ReportTrendCache — a request only queries
+ * the span of periods it does not have yet, which for a dashboard is normally just the current one.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReportTrendService {
+
+    /** Longest series one request may ask for (a year and a day of daily points) */
+    public static final int MAX_POINTS = 366;
+
+    private final ReportQueryRepository      reportQueryRepository;
+    private final ReportRollupService        reportRollupService;
+    private final ReportTrendCache           reportTrendCache;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Trend points from startDate to endDate (both inclusive, default: the last 30 days / 12 weeks /
+     * 12 months up to today), oldest first, one point per period including empty ones.
+     */
+    public List<RevenueTrendPoint> getRevenueTrend(String granularity, Integer eventId, String ownerCategory,
+                                                   LocalDate startDate, LocalDate endDate) {
+        TrendGranularity unit = parseGranularity(granularity);
+        LocalDate today = LocalDate.now();
+        LocalDate end = endDate != null ? endDate : today;
+        LocalDate start = startDate != null ? startDate : unit.defaultStart(end);
+        if (start.isAfter(end)) {
+            throw new BadRequestException("startDate must not be after endDate");
+        }
+
+        ReportFilterRequest filter = new ReportFilterRequest();
+        filter.setEventId(eventId);
+        filter.setOwnerCategory(ownerCategory);
+
+        // Periods clipped to [start, end]; cached ones are filled in right away
+        List<RevenueTrendPoint> series = new ArrayList<>();
+        List<RevenueTrendPoint> missing = new ArrayList<>();
+        for (LocalDate period = unit.periodStart(start); !period.isAfter(end); period = unit.periodEnd(period).plusDays(1)) {
+            if (series.size() == MAX_POINTS) {
+                throw new BadRequestException("Trend is limited to " + MAX_POINTS + " points — use a wider granularity or a shorter range");
+            }
+            LocalDate from = period.isBefore(start) ? start : period;
+            LocalDate to = unit.periodEnd(period).isAfter(end) ? end : unit.periodEnd(period);
+
+            RevenueTrendPoint cached = to.isBefore(today) ? reportTrendCache.get(filter, unit, from, to) : null;
+            if (cached != null) {
+                series.add(cached);
+            } else {
+                RevenueTrendPoint point = emptyPoint(from, to);
+                series.add(point);
+                missing.add(point);
+            }
+        }
+        if (missing.isEmpty()) {
+            return series;
+        }
+
+        long generation = reportTrendCache.generation();
+        fill(filter, unit, missing);
+        for (RevenueTrendPoint point : missing) {
+            if (point.getPeriodEnd().isBefore(today)) {
+                reportTrendCache.put(generation, filter, unit, point.getPeriodStart(), point.getPeriodEnd(), point);
+            }
+        }
+        return series;
+    }
+
+    /**
+     * Adds the daily totals of the span covering all points to the point of their period —
+     * points are in ascending order and do not overlap.
+     */
+    private void fill(ReportFilterRequest filter, TrendGranularity unit, List<RevenueTrendPoint> points) {
+        ReportFilterRequest span = new ReportFilterRequest();
+        span.setEventId(filter.getEventId());
+        span.setOwnerCategory(filter.getOwnerCategory());
+        span.setStartDate(points.get(0).getPeriodStart());
+        span.setEndDate(points.get(points.size() - 1).getPeriodEnd());
+
+        boolean fromRollups = reportRollupService.isReady();
+        DailyTotals totals = readOnly().execute(status -> new DailyTotals(
+                reportQueryRepository.findDailyPaymentTotals(span, fromRollups),
+                reportQueryRepository.findDailyApplicationTotals(span, fromRollups)));
+
+        Map<LocalDate, RevenueTrendPoint> byPeriod = new HashMap<>();
+        points.forEach(p -> byPeriod.put(unit.periodStart(p.getPeriodStart()), p));
+
+        for (Tuple t : totals.payments()) {
+            RevenueTrendPoint point = byPeriod.get(unit.periodStart(t.get("bucketDate", LocalDate.class)));
+            if (point == null) continue;    // a day of a cached period in the middle of the span
+            point.setPaymentRecords(point.getPaymentRecords() + toInt(t.get("payments")));
+            point.setBilled(point.getBilled().add(toMoney(t.get("billed"))));
+            point.setCollected(point.getCollected().add(toMoney(t.get("collected"))));
+            point.setOutstanding(point.getOutstanding().add(toMoney(t.get("outstanding"))));
+        }
+        for (Tuple t : totals.applications()) {
+            RevenueTrendPoint point = byPeriod.get(unit.periodStart(t.get("bucketDate", LocalDate.class)));
+            if (point == null) continue;
+            point.setApplications(point.getApplications() + toInt(t.get("total")));
+            point.setApprovedApplications(point.getApprovedApplications() + toInt(t.get("approved")));
+        }
+    }
+
+    private record DailyTotals(List<Tuple> payments, List<Tuple> applications) {
+    }
+
+    private static RevenueTrendPoint emptyPoint(LocalDate from, LocalDate to) {
+        return new RevenueTrendPoint(from, to, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, 0, 0, 0);
+    }
+
+    private static TrendGranularity parseGranularity(String value) {
+        if (value == null || value.isBlank()) return TrendGranularity.DAILY;
+        try {
+            return TrendGranularity.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("granularity must be daily, weekly or monthly");
+        }
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly;
+    }
+}
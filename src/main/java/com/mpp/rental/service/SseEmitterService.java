@@ -1,141 +1,599 @@
 package com.mpp.rental.service;
 
 import com.mpp.rental.dto.NotificationDTO;
+import com.mpp.rental.model.Notification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.IOException;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * SseEmitterService - the notification SSE streams (GET /api/notifications/stream), per user.
+ *
+ * Callers never write to a connection themselves: every event goes into the connection's
+ * bounded outbound queue (notification.sse.queue-capacity) and a writer drains it — one virtual
+ * thread per draining connection, or a pool of notification.sse.writer-threads platform threads
+ * when virtual threads are off / unavailable. A slow or half-dead client therefore only delays
+ * its own events, never a business transaction, the delivery pool or the heartbeat scheduler.
+ *
+ * Every event is encoded once into an SseFrame (the complete UTF-8 wire frame): a broadcast to
+ * thousands of users builds one frame and per recipient only appends it to the replay buffer
+ * and offers it to the connection queues; writers send the shared bytes as they are.
+ *
+ * Slow consumers: a heartbeat is not queued behind pending events (they keep the stream alive
+ * anyway) and is the first thing dropped when the queue is full; a queue full of real events
+ * closes the connection — EventSource reconnects and the tab reloads its feed.
+ *
+ * Heartbeats: connections are spread over a timing wheel of heartbeat-interval-ms /
+ * heartbeat-tick-ms slots (by connection number), and each tick visits one slot — every
+ * connection is pinged once per interval at its own offset instead of all at once. A connection
+ * that had something written in the last half interval is skipped, so a stream never sits idle
+ * longer than 1.5 intervals.
+ *
+ * Resume: notification and unread-count events carry an id ("<node epoch>-<sequence>") and are
+ * kept in a per-user ring buffer of notification.sse.replay-buffer-size events while the user is
+ * connected or reconnecting (see UserPresenceService). A reconnect with Last-Event-ID gets just
+ * the events after that id; when they are no longer all in the buffer (or the id is from another
+ * node / before a restart) it gets a "resync" event instead and reloads its feed.
+ *
+ * Several nodes: a user's connections may be on any node. Notifications are queued on this
+ * node's connections and published once on the NotificationBus; every other node queues them on
+ * its own connections (onBusMessage). Unread counts are published by NotificationUnreadCounter.
+ *
+ * Metrics: sse.outbound.queue.depth (gauge, all connections), sse.send.latency (timer, one
+ * write), sse.outbound.heartbeats-dropped / sse.outbound.overflow-closed /
+ * sse.heartbeat.skipped (counters).
+ */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class SseEmitterService {
 
-    private final Map<Long, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    public static final String NOTIFICATION_EVENT = "notification";
+    public static final String UNREAD_COUNT_EVENT = "unread-count";
+
+    private final UserPresenceService presenceService;
+    private final NotificationBus notificationBus;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${notification.sse.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${notification.sse.virtual-threads:true}")
+    private boolean virtualThreads;
+
+    @Value("${notification.sse.writer-threads:8}")
+    private int writerThreads;
+
+    @Value("${notification.sse.replay-buffer-size:50}")
+    private int replayBufferSize;
+
+    @Value("${notification.sse.heartbeat-interval-ms:25000}")
+    private long heartbeatIntervalMs;
+
+    @Value("${notification.sse.heartbeat-tick-ms:1000}")
+    private long heartbeatTickMs;
+
+    private final Map<Long, List<Connection>> emitters = new ConcurrentHashMap<>();
+
+    /** Replayable events per user — registering a connection and recording an event both lock the buffer */
+    private final Map<Long, ReplayBuffer> replay = new ConcurrentHashMap<>();
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong eventSequence = new AtomicLong();
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
-    public SseEmitter createEmitter(Long userId) {
+    // Fixed events, encoded once for all connections
+    private static final Outbound CONNECTED = new Outbound(0, SseFrame.of(null, "connected", "SSE connection established"), false);
+    private static final Outbound RESYNC = new Outbound(0, SseFrame.of(null, "resync", "reload"), false);
+    private static final Outbound HEARTBEAT = new Outbound(0, SseFrame.of(null, "heartbeat", "ping"), true);
+
+    private Executor writer;
+    private ExecutorService writerPool; // platform fallback only, shut down on close
+    private final AtomicLong queued = new AtomicLong();
+    private Timer sendLatency;
+    private Counter heartbeatsDropped;
+    private Counter overflowClosed;
+    private Counter heartbeatsSkipped;
+
+    /** Heartbeat timing wheel: slot → connections pinged when the tick reaches it */
+    private List<Set<Connection>> heartbeatWheel;
+    private final AtomicLong connectionCount = new AtomicLong();
+    private long tickCount;
+
+    @PostConstruct
+    void start() {
+        writer = virtualThreads ? virtualThreadWriter() : null;
+        if (writer == null) {
+            writerPool = Executors.newFixedThreadPool(writerThreads, new CustomizableThreadFactory("sse-writer-"));
+            writer = writerPool;
+        }
+        sendLatency = meterRegistry.timer("sse.send.latency");
+        heartbeatsDropped = meterRegistry.counter("sse.outbound.heartbeats-dropped");
+        overflowClosed = meterRegistry.counter("sse.outbound.overflow-closed");
+        heartbeatsSkipped = meterRegistry.counter("sse.heartbeat.skipped");
+
+        int slots = (int) Math.max(1, heartbeatIntervalMs / heartbeatTickMs);
+        heartbeatWheel = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            heartbeatWheel.add(ConcurrentHashMap.newKeySet());
+        }
+        Gauge.builder("sse.outbound.queue.depth", queued, AtomicLong::get).register(meterRegistry);
+        notificationBus.subscribe(this::onBusMessage);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (writerPool != null) {
+            writerPool.shutdownNow();
+        }
+    }
+
+    private static Executor virtualThreadWriter() {
+        try {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("sse-writer-");
+            executor.setVirtualThreads(true);
+            return executor;
+        } catch (UnsupportedOperationException e) {
+            log.warn("Virtual threads unavailable on this JVM — SSE writers use a platform thread pool");
+            return null;
+        }
+    }
+
+    // ==================== CONNECTIONS ====================
+
+    /**
+     * Opens a stream for the user; lastEventId (null for a fresh connect) replays what was missed
+     */
+    public SseEmitter createEmitter(Long userId, String lastEventId) {
         // Close ALL existing connections for this user first.
         // Prevents duplicate notifications when EventSource reconnects
         // and the old emitter is still registered alongside the new one.
-        List<SseEmitter> existing = emitters.remove(userId);
+        List<Connection> existing = emitters.remove(userId);
         if (existing != null) {
-            for (SseEmitter old : existing) {
-                try { old.complete(); } catch (Exception ignored) {}
-            }
+            existing.forEach(Connection::close);
             log.info("Closed {} stale SSE connection(s) for userId={}", existing.size(), userId);
         }
 
         // Long timeout — 30 minutes. Frontend EventSource will reconnect if it expires.
         SseEmitter emitter = new SseEmitter(1_800_000L);
+        Connection connection = new Connection(userId, emitter,
+                (int) (connectionCount.getAndIncrement() % heartbeatWheel.size()));
+        heartbeatWheel.get(connection.slot).add(connection);
 
-        emitters.computeIfAbsent(userId, k -> new CopyOnWriteArrayList<>()).add(emitter);
-        log.info("SSE emitter created for userId={}, total connections={}", userId,
-                emitters.get(userId).size());
+        emitter.onCompletion(() -> removeEmitter(userId, connection));
+        emitter.onTimeout(() -> removeEmitter(userId, connection));
+        emitter.onError(e -> removeEmitter(userId, connection));
 
-        emitter.onCompletion(() -> removeEmitter(userId, emitter));
-        emitter.onTimeout(() -> removeEmitter(userId, emitter));
-        emitter.onError(e -> removeEmitter(userId, emitter));
+        while (true) {
+            ReplayBuffer buffer = replay.computeIfAbsent(userId, k -> new ReplayBuffer());
+            synchronized (buffer) {
+                if (replay.get(userId) != buffer) {
+                    continue; // purged meanwhile
+                }
+                emitters.compute(userId, (k, userEmitters) -> {
+                    List<Connection> list = userEmitters != null ? userEmitters : new CopyOnWriteArrayList<>();
+                    list.add(connection);
+                    return list;
+                });
 
-        // Send heartbeat immediately to confirm connection
-        try {
-            emitter.send(SseEmitter.event().name("connected").data("SSE connection established"));
-        } catch (IOException e) {
-            log.warn("Failed to send initial heartbeat to userId={}", userId);
-            removeEmitter(userId, emitter);
+                // Send heartbeat immediately to confirm connection, then whatever was missed
+                connection.offer(CONNECTED);
+                if (lastEventId != null) {
+                    resume(connection, buffer, lastEventId);
+                }
+                break;
+            }
         }
+        presenceService.connected(userId);
+        log.info("SSE emitter created for userId={}, total connections={}", userId,
+                emitters.getOrDefault(userId, List.of()).size());
 
         return emitter;
     }
 
-    public void sendToUser(Long userId, NotificationDTO notification) {
-        List<SseEmitter> userEmitters = emitters.get(userId);
-        if (userEmitters == null || userEmitters.isEmpty()) {
-            log.debug("No SSE connections for userId={}", userId);
+    private void resume(Connection connection, ReplayBuffer buffer, String lastEventId) {
+        List<Outbound> missed = buffer.after(lastEventId);
+        if (missed == null || missed.size() >= queueCapacity) {
+            connection.offer(RESYNC);
+            log.debug("SSE resume from {} not possible for userId={}, resync", lastEventId, connection.userId);
             return;
         }
+        missed.forEach(connection::offer);
+        log.debug("SSE resume for userId={}: {} events replayed", connection.userId, missed.size());
+    }
 
-        String payload = toJson(notification);
-        List<SseEmitter> deadEmitters = new CopyOnWriteArrayList<>();
+    // ==================== SEND (queued, never blocks the caller) ====================
 
-        for (SseEmitter emitter : userEmitters) {
-            try {
-                emitter.send(SseEmitter.event().name("notification").data(payload));
-                log.debug("SSE notification sent to userId={}", userId);
-            } catch (IOException e) {
-                log.warn("Dead SSE emitter for userId={}, removing", userId);
-                deadEmitters.add(emitter);
+    /**
+     * Queues the notification on every open connection of the recipients and publishes it to the
+     * other nodes. Returns the recipients reached on this node (a connection took the event).
+     */
+    public Set<Long> sendToUsers(Collection<Long> userIds, NotificationDTO notification) {
+        return sendToUsers(userIds, notification, null);
+    }
+
+    /**
+     * sendToUsers for an audience broadcast (audience set): userIds are its members, and the
+     * other nodes are sent the audience rather than the member list
+     */
+    public Set<Long> sendToUsers(Collection<Long> userIds, NotificationDTO notification, Notification.Audience audience) {
+        String data = toJson(notification);
+        Outbound event = replayable(NOTIFICATION_EVENT, data);
+        Set<Long> reached = new HashSet<>();
+        for (Long userId : userIds) {
+            if (send(userId, event)) {
+                reached.add(userId);
             }
         }
+        notificationBus.publish(new NotificationBus.Message(NOTIFICATION_EVENT, List.copyOf(userIds), data, audience));
+        return reached;
+    }
+
+    /**
+     * Pushes the user's new unread badge count as an "unread-count" event (data: the number)
+     * to this node's connections
+     */
+    public void sendUnreadCount(Long userId, long count) {
+        if (replay.containsKey(userId)) {
+            send(userId, replayable(UNREAD_COUNT_EVENT, String.valueOf(count)));
+        }
+    }
+
+    /**
+     * A notification / unread-count event published by another node — queued on this node's
+     * connections of its users (presence messages are UserPresenceService's)
+     */
+    private void onBusMessage(NotificationBus.Message message) {
+        boolean sseEvent = NOTIFICATION_EVENT.equals(message.event()) || UNREAD_COUNT_EVENT.equals(message.event());
+        if (!sseEvent || message.data() == null) {
+            return;
+        }
+        Outbound event = replayable(message.event(), message.data());
+        for (Long userId : message.userIds()) {
+            send(userId, event);
+        }
+    }
 
-        userEmitters.removeAll(deadEmitters);
+    /**
+     * Encodes a replayable event once — the same instance is recorded and queued for every recipient
+     */
+    private Outbound replayable(String name, String data) {
+        long sequence = eventSequence.incrementAndGet();
+        return new Outbound(sequence, SseFrame.of(epoch + "-" + sequence, name, data), false);
+    }
+
+    /**
+     * Records a replayable event for the user and queues it on their open connections
+     */
+    private boolean send(Long userId, Outbound event) {
+        while (true) {
+            ReplayBuffer buffer = replay.get(userId);
+            if (buffer == null) {
+                return false;
+            }
+            synchronized (buffer) {
+                if (replay.get(userId) != buffer) {
+                    continue; // purged / replaced meanwhile
+                }
+                buffer.append(event);
+                boolean delivered = false;
+                for (Connection connection : emitters.getOrDefault(userId, List.of())) {
+                    delivered |= connection.offer(event);
+                }
+                return delivered;
+            }
+        }
     }
 
     public boolean isUserOnline(Long userId) {
-        List<SseEmitter> userEmitters = emitters.get(userId);
+        List<Connection> userEmitters = emitters.get(userId);
         return userEmitters != null && !userEmitters.isEmpty();
     }
 
     /**
-     * Heartbeat every 25 seconds — keeps the connection alive through
-     * proxies and load balancers that close idle connections.
-     * Also flushes dead emitters proactively.
+     * Heartbeat tick — pings the connections of the next wheel slot, keeping each connection
+     * alive through proxies and load balancers that close idle connections (every
+     * heartbeat-interval-ms, 25 s by default). Dead connections are dropped by their writer when
+     * the ping fails.
      */
-    @Scheduled(fixedDelay = 25000)
+    @Scheduled(fixedRateString = "${notification.sse.heartbeat-tick-ms:1000}")
     public void sendHeartbeat() {
-        emitters.forEach((userId, userEmitters) -> {
-            List<SseEmitter> deadEmitters = new CopyOnWriteArrayList<>();
-            for (SseEmitter emitter : userEmitters) {
-                try {
-                    emitter.send(SseEmitter.event().name("heartbeat").data("ping"));
-                } catch (IOException e) {
-                    deadEmitters.add(emitter);
+        Set<Connection> slot = heartbeatWheel.get((int) (tickCount++ % heartbeatWheel.size()));
+        long recent = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(heartbeatIntervalMs / 2);
+        for (Connection connection : slot) {
+            if (connection.lastWriteNanos - recent > 0) {
+                heartbeatsSkipped.increment();
+                continue;
+            }
+            connection.offer(HEARTBEAT);
+        }
+    }
+
+    /**
+     * Drops the replay buffers of users who are neither connected nor reconnecting
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void purgeReplayBuffers() {
+        replay.forEach((userId, buffer) -> {
+            synchronized (buffer) {
+                if (!isUserOnline(userId) && !presenceService.isReconnecting(userId)) {
+                    replay.remove(userId, buffer);
                 }
             }
-            if (!deadEmitters.isEmpty()) {
-                userEmitters.removeAll(deadEmitters);
-                log.debug("Removed {} dead emitter(s) for userId={} during heartbeat", deadEmitters.size(), userId);
+        });
+    }
+
+    /**
+     * Drops one connection; when it was the user's last one the user goes offline (see UserPresenceService)
+     */
+    private void removeEmitter(Long userId, Connection connection) {
+        heartbeatWheel.get(connection.slot).remove(connection);
+        boolean[] lastClosed = {false};
+        emitters.computeIfPresent(userId, (k, userEmitters) -> {
+            if (!userEmitters.remove(connection) || !userEmitters.isEmpty()) {
+                return userEmitters;
             }
+            lastClosed[0] = true;
+            return null;
         });
+        if (lastClosed[0]) {
+            presenceService.disconnected(userId);
+            log.info("All SSE connections closed for userId={}", userId);
+        }
+    }
+
+    // ==================== CONNECTION ====================
+
+    /** One queued SSE event; sequence is 0 for events that are not replayed (connected, heartbeat, resync) */
+    private record Outbound(long sequence, SseFrame frame, boolean heartbeat) {}
+
+    /**
+     * The user's last replayBufferSize replayable events, oldest first. Guarded by its own monitor.
+     */
+    private final class ReplayBuffer {
+
+        private final ArrayDeque<Outbound> events = new ArrayDeque<>();
+
+        /**
+         * Low-water mark: every event of this user after it is in the buffer. Starts at the
+         * node sequence when the buffer is created (events before were not recorded — e.g. the
+         * user was offline and the previous buffer purged) and rises to each evicted event.
+         */
+        private long floor = eventSequence.get();
+
+        void append(Outbound event) {
+            if (events.size() >= replayBufferSize) {
+                floor = Math.max(floor, events.pollFirst().sequence());
+            }
+            events.addLast(event);
+        }
+
+        /**
+         * Events after lastEventId, or null when that id is unknown here or older than the
+         * low-water mark (events after it may be missing)
+         */
+        List<Outbound> after(String lastEventId) {
+            int dash = lastEventId.lastIndexOf('-');
+            if (dash < 0 || !lastEventId.substring(0, dash).equals(epoch)) {
+                return null;
+            }
+            long last;
+            try {
+                last = Long.parseLong(lastEventId.substring(dash + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (last < floor) {
+                return null;
+            }
+            List<Outbound> missed = new ArrayList<>();
+            for (Outbound event : events) {
+                if (event.sequence() > last) {
+                    missed.add(event);
+                }
+            }
+            return missed;
+        }
     }
 
-    private void removeEmitter(Long userId, SseEmitter emitter) {
-        List<SseEmitter> userEmitters = emitters.get(userId);
-        if (userEmitters != null) {
-            userEmitters.remove(emitter);
-            if (userEmitters.isEmpty()) {
-                emitters.remove(userId);
-                log.info("All SSE connections closed for userId={}", userId);
+    /**
+     * One SSE stream with its outbound queue. At most one writer drains it at a time; the
+     * writer is scheduled when the first event arrives in an empty queue.
+     */
+    private final class Connection {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final int slot;
+        private final ArrayDeque<Outbound> queue = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+
+        /** System.nanoTime() of the last successful write (any event) */
+        private volatile long lastWriteNanos;
+
+        Connection(Long userId, SseEmitter emitter, int slot) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.slot = slot;
+            this.lastWriteNanos = System.nanoTime();
+        }
+
+        /**
+         * Queues an event; false when the connection is closed (or got closed by this overflow)
+         */
+        boolean offer(Outbound event) {
+            boolean overflow = false;
+            synchronized (this) {
+                if (closed) {
+                    return false;
+                }
+                if (event.heartbeat() && !queue.isEmpty()) {
+                    heartbeatsDropped.increment();
+                    return true; // pending events keep the stream alive
+                }
+                if (queue.size() < queueCapacity || dropQueuedHeartbeat()) {
+                    queue.addLast(event);
+                    queued.incrementAndGet();
+                    if (draining) {
+                        return true;
+                    }
+                    draining = true;
+                } else {
+                    markClosed();
+                    overflow = true;
+                }
+            }
+            if (overflow) {
+                overflowClosed.increment();
+                log.warn("SSE queue full for userId={} ({} events) — closing slow connection", userId, queueCapacity);
+                release();
+                return false;
+            }
+            writer.execute(this::drain);
+            return true;
+        }
+
+        private boolean dropQueuedHeartbeat() {
+            for (Iterator<Outbound> it = queue.iterator(); it.hasNext(); ) {
+                if (it.next().heartbeat()) {
+                    it.remove();
+                    queued.decrementAndGet();
+                    heartbeatsDropped.increment();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Writer: sends queued events until the queue is empty, the connection closes or a write fails
+         */
+        private void drain() {
+            while (true) {
+                Outbound next;
+                synchronized (this) {
+                    next = closed ? null : queue.pollFirst();
+                    if (next == null) {
+                        draining = false;
+                        return;
+                    }
+                    queued.decrementAndGet();
+                }
+                long start = System.nanoTime();
+                try {
+                    emitter.send(next.frame().parts());
+                    lastWriteNanos = System.nanoTime();
+                    log.debug("SSE {} sent to userId={}", next.frame().event(), userId);
+                } catch (Exception e) {
+                    log.warn("Dead SSE emitter for userId={}, removing", userId);
+                    synchronized (this) {
+                        markClosed();
+                        draining = false;
+                    }
+                    removeEmitter(userId, this);
+                    return;
+                } finally {
+                    sendLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+
+        void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                markClosed();
             }
+            release();
+        }
+
+        private void markClosed() {
+            closed = true;
+            queued.addAndGet(-queue.size());
+            queue.clear();
+        }
+
+        /**
+         * Unregisters the closed connection and completes the emitter on the writer — complete()
+         * waits for a write in progress, which must not block the thread closing it
+         */
+        private void release() {
+            removeEmitter(userId, this);
+            writer.execute(() -> {
+                try { emitter.complete(); } catch (Exception ignored) {}
+            });
         }
     }
 
-    private String toJson(NotificationDTO n) {
-        return "{" +
-                "\"notificationId\":" + n.getNotificationId() + "," +
-                "\"type\":\"" + escapeJson(n.getType()) + "\"," +
-                "\"title\":\"" + escapeJson(n.getTitle()) + "\"," +
-                "\"message\":\"" + escapeJson(n.getMessage()) + "\"," +
-                "\"referenceId\":" + (n.getReferenceId() != null ? n.getReferenceId() : "null") + "," +
-                "\"referenceType\":" + (n.getReferenceType() != null ? "\"" + escapeJson(n.getReferenceType()) + "\"" : "null") + "," +
-                "\"read\":" + n.isRead() + "," +
-                "\"createdAt\":\"" + (n.getCreatedAt() != null ? n.getCreatedAt().format(FORMATTER) : "") + "\"" +
-                "}";
+    // ==================== JSON ====================
+
+    /**
+     * The "notification" event's data, built in one pass
+     */
+    public static String toJson(NotificationDTO n) {
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"notificationId\":").append(n.getNotificationId());
+        json.append(",\"type\":\"");
+        appendEscaped(json, n.getType());
+        json.append("\",\"title\":\"");
+        appendEscaped(json, n.getTitle());
+        json.append("\",\"message\":\"");
+        appendEscaped(json, n.getMessage());
+        json.append("\",\"referenceId\":").append(n.getReferenceId());
+        json.append(",\"referenceType\":");
+        if (n.getReferenceType() != null) {
+            json.append('"');
+            appendEscaped(json, n.getReferenceType());
+            json.append('"');
+        } else {
+            json.append("null");
+        }
+        json.append(",\"read\":").append(n.isRead());
+        json.append(",\"createdAt\":\"");
+        if (n.getCreatedAt() != null) {
+            FORMATTER.formatTo(n.getCreatedAt(), json);
+        }
+        return json.append("\"}").toString();
     }
 
-    private String escapeJson(String value) {
-        if (value == null) return "";
-        return value
-                .replace("\\", "\\\\")
-                .replace("\"", "\\\"")
-                .replace("\n", "\\n")
-                .replace("\r", "\\r")
-                .replace("\t", "\\t");
+    /**
+     * Appends the value as JSON string content (null as empty)
+     */
+    private static void appendEscaped(StringBuilder json, String value) {
+        if (value == null) return;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> json.append("\\\\");
+                case '"' -> json.append("\\\"");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,61 @@
+package com.mpp.rental.service;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * SseFrame - one server-sent event encoded once as its complete UTF-8 wire frame
+ * ("id:…\nevent:…\ndata:…\n\n").
+ *
+ * Frames are immutable, so a broadcast builds one and queues the same instance on every
+ * recipient's connections; writing it hands the byte[] straight to the response
+ * (ByteArrayHttpMessageConverter) — no per-connection event building or charset encoding.
+ */
+public final class SseFrame {
+
+    private final String event;
+    private final byte[] bytes;
+    private final Set<ResponseBodyEmitter.DataWithMediaType> parts;
+
+    private SseFrame(String event, byte[] bytes) {
+        this.event = event;
+        this.bytes = bytes;
+        this.parts = Set.of(new ResponseBodyEmitter.DataWithMediaType(bytes, MediaType.TEXT_EVENT_STREAM));
+    }
+
+    /**
+     * Encodes an event; id null = no id line (the event does not move the client's Last-Event-ID)
+     */
+    public static SseFrame of(String id, String event, String data) {
+        StringBuilder frame = new StringBuilder(data.length() + 64);
+        if (id != null) {
+            frame.append("id:").append(id).append('\n');
+        }
+        frame.append("event:").append(event).append('\n');
+        int start = 0;
+        for (int end = data.indexOf('\n'); end >= 0; end = data.indexOf('\n', start)) {
+            frame.append("data:").append(data, start, end).append('\n');
+            start = end + 1;
+        }
+        frame.append("data:").append(data, start, data.length()).append("\n\n");
+        return new SseFrame(event, frame.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String event() {
+        return event;
+    }
+
+    public int size() {
+        return bytes.length;
+    }
+
+    /**
+     * The frame as ResponseBodyEmitter.send(Set) takes it — the same set for every write
+     */
+    Set<ResponseBodyEmitter.DataWithMediaType> parts() {
+        return parts;
+    }
+}
@@ -0,0 +1,40 @@
+package com.mpp.rental.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * TransactionHooks - after-commit work shared by the report caches.
+ */
+final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    /**
+     * Runs action once the current transaction commits (immediately when there is none).
+     * Repeated calls with the same key inside one transaction register it only once; key is
+     * bound as a transaction resource until the transaction completes.
+     */
+    static void afterCommitOnce(Object key, Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(key)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(key, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(key);
+            }
+        });
+    }
+}
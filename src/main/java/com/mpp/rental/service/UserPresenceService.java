@@ -0,0 +1,201 @@
+package com.mpp.rental.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * UserPresenceService - remembers when each user's SSE connections last opened and closed.
+ *
+ * SseEmitterService reports connects and disconnects. A user whose last connection closed less
+ * than notification.presence.reconnect-grace-ms ago counts as reconnecting: EventSource reopens
+ * the stream by itself (emitter timeout, proxy idle close, page navigation), so
+ * NotificationDispatcher holds the FCM popup back until the grace window is over and sends it
+ * only if the user has not connected again since — a reconnected tab gets the notification
+ * through Last-Event-ID replay (or a resync / fresh feed load).
+ *
+ * Several nodes: connects and disconnects are published on the NotificationBus as "presence"
+ * messages ("<node> connected|disconnected|alive"), so every node knows which users have a
+ * connection on another node — those get the notification over the bus and need no FCM push.
+ * Each node re-announces its connected users every notification.presence.refresh-ms; another
+ * node's entry not refreshed for three periods (node stopped or crashed) no longer counts.
+ * A remote connect / disconnect counts for connectedSince / the grace window like a local one.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserPresenceService {
+
+    public static final String PRESENCE_EVENT = "presence";
+
+    private static final String CONNECTED = "connected";
+    private static final String DISCONNECTED = "disconnected";
+    private static final String ALIVE = "alive";
+
+    private final NotificationBus notificationBus;
+
+    @Value("${notification.presence.reconnect-grace-ms:15000}")
+    private long reconnectGraceMs;
+
+    @Value("${notification.presence.refresh-ms:30000}")
+    private long refreshMs;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /** userId → System.currentTimeMillis() of the last disconnect; removed on connect */
+    private final Map<Long, Long> disconnectedAt = new ConcurrentHashMap<>();
+
+    /** userId → System.currentTimeMillis() of the last connect */
+    private final Map<Long, Long> connectedAt = new ConcurrentHashMap<>();
+
+    /** Users with a connection on this node */
+    private final Set<Long> local = ConcurrentHashMap.newKeySet();
+
+    /** userId → other node → System.currentTimeMillis() that node last reported the user connected */
+    private final Map<Long, Map<String, Long>> remote = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void start() {
+        notificationBus.subscribe(this::onBusMessage);
+    }
+
+    @PreDestroy
+    void stop() {
+        publish(DISCONNECTED, List.copyOf(local));
+    }
+
+    public void connected(Long userId) {
+        local.add(userId);
+        connectedAt.put(userId, System.currentTimeMillis());
+        disconnectedAt.remove(userId);
+        publish(CONNECTED, List.of(userId));
+    }
+
+    public void disconnected(Long userId) {
+        local.remove(userId);
+        disconnectedAt.put(userId, System.currentTimeMillis());
+        publish(DISCONNECTED, List.of(userId));
+    }
+
+    /**
+     * True while the user's last connection closed within the reconnect grace window
+     */
+    public boolean isReconnecting(Long userId) {
+        return graceRemainingMs(userId) > 0;
+    }
+
+    /**
+     * Milliseconds left of the user's reconnect grace window; 0 when not reconnecting
+     */
+    public long graceRemainingMs(Long userId) {
+        Long since = disconnectedAt.get(userId);
+        return since == null ? 0 : Math.max(0, reconnectGraceMs - (System.currentTimeMillis() - since));
+    }
+
+    /**
+     * True if the user opened a connection at or after sinceMillis (answers for one grace window)
+     */
+    public boolean connectedSince(Long userId, long sinceMillis) {
+        Long at = connectedAt.get(userId);
+        return at != null && at >= sinceMillis;
+    }
+
+    /**
+     * True if another node reported a connection of the user recently enough to still count
+     */
+    public boolean isConnectedElsewhere(Long userId) {
+        Map<String, Long> nodes = remote.get(userId);
+        if (nodes == null) {
+            return false;
+        }
+        long fresh = System.currentTimeMillis() - 3 * refreshMs;
+        return nodes.values().stream().anyMatch(at -> at >= fresh);
+    }
+
+    /**
+     * Forget disconnects older than the grace window, connects older than two
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void purgeExpired() {
+        long cutoff = System.currentTimeMillis() - reconnectGraceMs;
+        disconnectedAt.values().removeIf(since -> since < cutoff);
+        connectedAt.values().removeIf(at -> at < cutoff - reconnectGraceMs);
+    }
+
+    // ==================== OTHER NODES ====================
+
+    /**
+     * Re-announces this node's connected users and forgets other nodes' stale entries
+     */
+    @Scheduled(fixedDelayString = "${notification.presence.refresh-ms:30000}")
+    public void refresh() {
+        if (!local.isEmpty()) {
+            publish(ALIVE, List.copyOf(local));
+        }
+        long stale = System.currentTimeMillis() - 3 * refreshMs;
+        for (Long userId : remote.keySet()) {
+            remote.computeIfPresent(userId, (k, nodes) -> {
+                nodes.values().removeIf(at -> at < stale);
+                return nodes.isEmpty() ? null : nodes;
+            });
+        }
+    }
+
+    private void publish(String state, List<Long> userIds) {
+        if (!userIds.isEmpty()) {
+            notificationBus.publish(new NotificationBus.Message(PRESENCE_EVENT, userIds, nodeId + " " + state));
+        }
+    }
+
+    private void onBusMessage(NotificationBus.Message message) {
+        if (!PRESENCE_EVENT.equals(message.event()) || message.data() == null) {
+            return;
+        }
+        int space = message.data().indexOf(' ');
+        if (space < 0) {
+            return;
+        }
+        String node = message.data().substring(0, space);
+        if (node.equals(nodeId)) {
+            return;
+        }
+        String state = message.data().substring(space + 1);
+        long now = System.currentTimeMillis();
+        for (Long userId : message.userIds()) {
+            switch (state) {
+                case CONNECTED -> {
+                    reported(userId, node, now);
+                    connectedAt.put(userId, now);
+                    disconnectedAt.remove(userId);
+                }
+                case ALIVE -> reported(userId, node, now);
+                case DISCONNECTED -> {
+                    remote.computeIfPresent(userId, (k, nodes) -> {
+                        nodes.remove(node);
+                        return nodes.isEmpty() ? null : nodes;
+                    });
+                    disconnectedAt.put(userId, now);
+                }
+                default -> log.debug("Unknown presence state {} from node {}", state, node);
+            }
+        }
+    }
+
+    private void reported(Long userId, String node, long now) {
+        remote.compute(userId, (k, nodes) -> {
+            Map<String, Long> updated = nodes != null ? nodes : new ConcurrentHashMap<>();
+            updated.put(node, now);
+            return updated;
+        });
+    }
+}
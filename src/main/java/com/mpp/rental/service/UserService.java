@@ -6,6 +6,7 @@ import com.mpp.rental.exception.BadRequestException;
 import com.mpp.rental.exception.ResourceNotFoundException;
 import com.mpp.rental.model.BankAccount;
 import com.mpp.rental.model.Business;
+import com.mpp.rental.model.Notification;
 import com.mpp.rental.model.User;
 import com.mpp.rental.model.User.UserStatus;
 import com.mpp.rental.model.User.UserCategory;
@@ -40,6 +41,9 @@ public class UserService {
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
     private final CustomUserDetailsService userDetailsService;
+    private final PushTopicService pushTopicService;
+    private final ReportRollupService reportRollupService;
+    private final NotificationService notificationService;
 
     // ==================== EXISTING METHODS ====================
 
@@ -333,6 +337,9 @@ public class UserService {
             throw new BadRequestException("Email already registered");
         }
 
+        List<Notification.Audience> audiencesBefore = PushTopicService.audiencesOf(user);
+        UserCategory categoryBefore = user.getUserCategory();
+
         // Update user fields
         user.setUserName(request.getUserName());
         user.setUserEmail(request.getUserEmail());
@@ -368,6 +375,10 @@ public class UserService {
 
         // Save and return
         User updatedUser = userRepository.save(user);
+        pushTopicService.moveAfterCommit(userId, audiencesBefore, PushTopicService.audiencesOf(updatedUser));
+        reportRollupService.ownerCategoryChanged(userId, categoryBefore, updatedUser.getUserCategory());
+        notificationService.userCategoryChanged(
+                userId, updatedUser.getUserRegisteredAt(), categoryBefore, updatedUser.getUserCategory());
 
         // TODO: Send notification to user about profile update
 
@@ -383,6 +394,9 @@ public class UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
 
+        List<Notification.Audience> audiencesBefore = PushTopicService.audiencesOf(user);
+        UserStatus statusBefore = user.getUserStatus();
+
         // Toggle status
         if (user.getUserStatus() == UserStatus.ACTIVE) {
             user.setUserStatus(UserStatus.BLOCKED);
@@ -391,6 +405,8 @@ public class UserService {
         }
 
         User updatedUser = userRepository.save(user);
+        pushTopicService.moveAfterCommit(userId, audiencesBefore, PushTopicService.audiencesOf(updatedUser));
+        notificationService.userStatusChanged(userId, statusBefore, updatedUser.getUserStatus());
 
         // TODO: Send notification to user about status change
 
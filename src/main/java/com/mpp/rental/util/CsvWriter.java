@@ -0,0 +1,65 @@
+package com.mpp.rental.util;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal RFC 4180 CSV writer for report exports.
+ *
+ * Writes straight to the response stream — nothing is held beyond the current row
+ * and the writer's buffer. Text cells that start with = + - @ are prefixed with '
+ * so spreadsheet apps don't evaluate user-entered names as formulas.
+ */
+public class CsvWriter implements Flushable {
+
+    private static final char UTF8_BOM = '\uFEFF';
+
+    private final Writer writer;
+
+    public CsvWriter(OutputStream out) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+    }
+
+    /** BOM so Excel opens the file as UTF-8 (business names can contain non-ASCII text) */
+    public CsvWriter bom() throws IOException {
+        writer.write(UTF8_BOM);
+        return this;
+    }
+
+    public void row(Object... cells) throws IOException {
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) writer.write(',');
+            writeCell(cells[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private void writeCell(Object value) throws IOException {
+        if (value == null) return;
+        if (value instanceof Number || value instanceof Boolean) {
+            writer.write(value.toString());
+            return;
+        }
+
+        String text = value.toString();
+        if (!text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+
+        boolean quote = text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(text);
+            return;
+        }
+
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -1,23 +1,37 @@
 package com.mpp.rental.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 /**
  * JwtUtil - Utility class for JWT token operations
  * Handles token generation, validation, and extraction of claims
  * Updated for JJWT 0.12.x API
+ *
+ * The signing key and parser are built once. verify() keeps the claims of tokens it has
+ * verified in a bounded cache (jwt.cache.max-entries, 0 = off) keyed by the token's SHA-256
+ * digest, until the token expires — repeated requests of one session skip parsing and the
+ * signature check. Tokens are stateless (no revocation), so a cached entry is exactly as valid
+ * as the token itself.
  */
 @Component
 public class JwtUtil {
@@ -34,6 +48,49 @@ public class JwtUtil {
     @Value("${jwt.expiration.remember:604800000}")
     private long jwtExpirationRememberMe;
 
+    // Verified tokens kept at most (expired entries are dropped first when full)
+    @Value("${jwt.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    private SecretKey signInKey;
+    private JwtParser parser;
+
+    /** SHA-256 of the token → its verified claims */
+    private final Map<ByteBuffer, Verified> verified = new ConcurrentHashMap<>();
+
+    private record Verified(Claims claims, long expiresAtMillis) {
+    }
+
+    @PostConstruct
+    void init() {
+        signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+        parser = Jwts.parser().verifyWith(signInKey).build();
+    }
+
+    /**
+     * Claims of a validly signed, unexpired token — parsed once, then served from the cache
+     * until the token expires. Throws JwtException (ExpiredJwtException, SignatureException, ...)
+     * for an invalid token.
+     */
+    public Claims verify(String token) {
+        if (cacheMaxEntries <= 0) {
+            return extractAllClaims(token);
+        }
+        ByteBuffer key = digest(token);
+        long now = System.currentTimeMillis();
+        Verified cached = verified.get(key);
+        if (cached != null && now < cached.expiresAtMillis()) {
+            return cached.claims();
+        }
+
+        Claims claims = extractAllClaims(token);  // throws for an expired token
+        if (claims.getExpiration() != null) {
+            verified.put(key, new Verified(claims, claims.getExpiration().getTime()));
+            evictIfFull(now);
+        }
+        return claims;
+    }
+
     /**
      * Extract username (email) from JWT token
      */
@@ -61,21 +118,11 @@ public class JwtUtil {
      * UPDATED: Using parser() instead of parserBuilder() for JJWT 0.12.x
      */
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parser()
-                .verifyWith(getSignInKey())  // Changed from setSigningKey
-                .build()
+        return parser
                 .parseSignedClaims(token)     // Changed from parseClaimsJws
                 .getPayload();                // Changed from getBody
     }
 
-    /**
-     * Check if token is expired
-     */
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
     /**
      * Generate JWT token for user
      * @param userDetails User details
@@ -114,8 +161,15 @@ public class JwtUtil {
      * Validate JWT token
      */
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(verify(token), userDetails);
+    }
+
+    /**
+     * Validate claims from verify() against the user they name
+     */
+    public boolean validateToken(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername())
+                && claims.getExpiration().after(new Date());
     }
 
     /**
@@ -123,7 +177,32 @@ public class JwtUtil {
      * UPDATED: Returns SecretKey instead of Key
      */
     private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signInKey;
+    }
+
+    // ==================== VERIFIED-TOKEN CACHE ====================
+
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Over the limit: drop expired entries, then arbitrary ones down to 90% — a dropped
+     * session just verifies its token once more
+     */
+    private void evictIfFull(long now) {
+        if (verified.size() <= cacheMaxEntries) return;
+
+        verified.values().removeIf(v -> v.expiresAtMillis() <= now);
+        Iterator<ByteBuffer> it = verified.keySet().iterator();
+        while (verified.size() > cacheMaxEntries * 9 / 10 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
     }
 }
\ No newline at end of file
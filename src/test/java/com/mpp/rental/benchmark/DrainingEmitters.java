@@ -0,0 +1,67 @@
+package com.mpp.rental.benchmark;
+
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Attaches SseEmitters to an in-memory response, the way the MVC return value handler does for
+ * a real request: every send goes through the emitter's write lock to the handler, which
+ * encodes the parts to bytes as the message converters would (String → UTF-8, byte[] as is)
+ * and counts them. Nothing is kept, so the "socket" never backs up.
+ *
+ * ResponseBodyEmitter.initialize and its Handler are package-private — reached reflectively.
+ */
+final class DrainingEmitters {
+
+    private static final Class<?> HANDLER;
+    private static final Method INITIALIZE;
+
+    static {
+        try {
+            HANDLER = Class.forName(ResponseBodyEmitter.class.getName() + "$Handler");
+            INITIALIZE = ResponseBodyEmitter.class.getDeclaredMethod("initialize", HANDLER);
+            INITIALIZE.setAccessible(true);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /** Bytes "written" by every attached emitter */
+    static final LongAdder BYTES = new LongAdder();
+
+    private DrainingEmitters() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E extends ResponseBodyEmitter> E attach(E emitter) {
+        Object handler = Proxy.newProxyInstance(HANDLER.getClassLoader(), new Class<?>[]{HANDLER},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("send")) {
+                        if (args.length == 2) {
+                            write(args[0]);
+                        } else {
+                            for (ResponseBodyEmitter.DataWithMediaType part : (Set<ResponseBodyEmitter.DataWithMediaType>) args[0]) {
+                                write(part.getData());
+                            }
+                        }
+                    }
+                    return null;
+                });
+        try {
+            INITIALIZE.invoke(emitter, handler);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        return emitter;
+    }
+
+    private static void write(Object data) {
+        BYTES.add(data instanceof byte[] bytes ? bytes.length
+                : data.toString().getBytes(StandardCharsets.UTF_8).length);
+    }
+}
@@ -0,0 +1,93 @@
+package com.mpp.rental.benchmark;
+
+import com.mpp.rental.config.JwtAuthenticationFilter;
+import com.mpp.rental.service.CustomUserDetailsService;
+import com.mpp.rental.util.JwtUtil;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One authenticated API request through JwtAuthenticationFilter, with the same session token
+ * every time.
+ *
+ * cacheEntries = 0 parses and HMAC-verifies the token on every request (once — it used to be
+ * three times); the default size serves it from JwtUtil's verified-token cache after the first
+ * request. The user lookup is an in-memory stub, so only the token handling is measured.
+ *
+ * Run: mvn test-compile, then
+ *   java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *        com.mpp.rental.benchmark.JwtFilterBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    @Param({"0", "10000"})
+    private int cacheEntries;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private final FilterChain chain = (req, res) -> { };
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "SECRET_KEY", "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationRememberMe", 604_800_000L);
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaxEntries", cacheEntries);
+        ReflectionTestUtils.invokeMethod(jwtUtil, "init");
+
+        UserDetails user = new User("owner@example.com", "x", List.of(new SimpleGrantedAuthority("ROLE_STUDENT")));
+        CustomUserDetailsService users = new CustomUserDetailsService(null) {
+            @Override
+            public UserDetails loadUserByUsername(String email) {
+                return user;
+            }
+        };
+        filter = new JwtAuthenticationFilter(jwtUtil, users);
+
+        request = new MockHttpServletRequest("GET", "/api/notifications");
+        request.addHeader("Authorization", "Bearer " + jwtUtil.generateToken(user, false));
+        try {
+            if (filterChain() == null) {
+                throw new IllegalStateException("Token was not accepted");
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public Object filterChain() throws Exception {
+        // OncePerRequestFilter marks the request as filtered — a fresh attribute set per call
+        request.clearAttributes();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,444 @@
+package com.mpp.rental.benchmark;
+
+import com.mpp.rental.dto.*;
+import com.mpp.rental.model.*;
+import com.mpp.rental.service.ReportSnapshot;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * ReportSnapshot vs the stream-over-entities evaluation ReportService used before the reports
+ * moved to SQL, on the same synthetic data set held in memory (no database involved).
+ *
+ * The stream side is the old code of all five reports: filter chains over FacilityApplication
+ * graphs, per-call groupings by event / event facility, a Map of payments and BigDecimal sums.
+ * The entity load and payment map are built once in setUp, so only the evaluation is timed.
+ * The snapshot side is what ReportService runs with report.snapshot.enabled=true; for reports
+ * 3–5 that is the row list (ReportService derives the summary the same way on either path).
+ *
+ * Run: mvn test-compile, then
+ *   java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *        com.mpp.rental.benchmark.ReportSnapshotBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportSnapshotBenchmark {
+
+    @Param({"20000", "200000"})
+    private int applications;
+
+    private static final int EVENTS = 40;
+    private static final int FACILITIES = 25;
+    private static final int BUSINESSES = 2_000;
+
+    private List<Event> events;
+    private List<EventFacility> eventFacilities;
+    private List<FacilityApplication> apps;
+    private Map<Integer, Payment> paymentMap;
+    private ReportSnapshot snapshot;
+
+    /** Whole-year view of one owner category — the common dashboard slice */
+    private ReportFilterRequest filter;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        LocalDate firstDay = LocalDate.of(2025, 1, 1);
+
+        events = new ArrayList<>();
+        for (int i = 1; i <= EVENTS; i++) {
+            Event e = new Event();
+            e.setEventId(i);
+            e.setEventName("Event " + i);
+            e.setEventVenue("Hall " + (i % 4));
+            e.setEventStatus(i % 3 == 0 ? "completed" : "upcoming");
+            e.setEventStartDate(firstDay.plusDays(i * 9L));
+            e.setEventEndDate(firstDay.plusDays(i * 9L + 2));
+            events.add(e);
+        }
+        List<Facility> facilities = new ArrayList<>();
+        for (int i = 1; i <= FACILITIES; i++) {
+            Facility f = new Facility();
+            f.setFacilityId(i);
+            f.setFacilityName("Facility " + i);
+            f.setFacilityType(i % 2 == 0 ? "Booth" : "Tent");
+            f.setFacilitySize("3x3");
+            facilities.add(f);
+        }
+        eventFacilities = new ArrayList<>();
+        for (Event e : events) {
+            for (Facility f : facilities) {
+                EventFacility ef = new EventFacility();
+                ef.setEventFacilityId(eventFacilities.size() + 1);
+                ef.setEvent(e);
+                ef.setFacility(f);
+                ef.setOriginalQuantityTotal(20);
+                ef.setQuantityFacilityAvailable(random.nextInt(21));
+                eventFacilities.add(ef);
+            }
+        }
+        List<Business> businesses = new ArrayList<>();
+        for (int i = 1; i <= BUSINESSES; i++) {
+            User owner = new User();
+            owner.setUserId((long) i);
+            owner.setUserName("Owner " + i);
+            owner.setUserCategory(i % 3 == 0 ? User.UserCategory.NON_STUDENT : User.UserCategory.STUDENT);
+            businesses.add(Business.builder().businessId((long) i).user(owner).businessName("Business " + i).build());
+        }
+
+        FacilityApplication.ApplicationStatus[] statuses = FacilityApplication.ApplicationStatus.values();
+        Payment.PaymentStatus[] paymentStatuses = Payment.PaymentStatus.values();
+        apps = new ArrayList<>(applications);
+        paymentMap = new HashMap<>();
+        List<ReportSnapshot.Row> rows = new ArrayList<>(applications);
+        for (int i = 1; i <= applications; i++) {
+            FacilityApplication a = new FacilityApplication();
+            a.setApplicationId(i);
+            a.setBusiness(businesses.get(random.nextInt(BUSINESSES)));
+            a.setEventFacility(eventFacilities.get(random.nextInt(eventFacilities.size())));
+            a.setApplicationStatus(statuses[random.nextInt(statuses.length)]);
+            a.setApplicationCreatedAt(firstDay.atStartOfDay().plusMinutes(random.nextInt(365 * 24 * 60)));
+            apps.add(a);
+
+            Payment p = null;
+            if (a.getApplicationStatus() == FacilityApplication.ApplicationStatus.APPROVED) {
+                p = new Payment();
+                p.setApplication(a);
+                p.setPaymentAmount(BigDecimal.valueOf(1000 + random.nextInt(9000), 2));
+                p.setPaymentStatus(paymentStatuses[random.nextInt(paymentStatuses.length)]);
+                p.setPaymentCreatedAt(a.getApplicationCreatedAt().plusDays(1));
+                paymentMap.put(i, p);
+            }
+            rows.add(new ReportSnapshot.Row(i, a.getEventFacility().getEventFacilityId(),
+                    a.getBusiness().getBusinessId(), a.getApplicationStatus(),
+                    a.getBusiness().getUser().getUserCategory(), a.getApplicationCreatedAt(),
+                    p != null ? p.getPaymentStatus() : null,
+                    p != null ? p.getPaymentAmount() : null,
+                    p != null ? p.getPaymentCreatedAt() : null));
+        }
+
+        snapshot = ReportSnapshot.build(new ReportSnapshot.Dimensions(
+                events.stream().map(e -> new ReportSnapshot.EventDim(e.getEventId(), e.getEventName(),
+                        e.getEventVenue(), e.getEventStatus(), e.getEventStartDate(), e.getEventEndDate())).toList(),
+                facilities.stream().map(f -> new ReportSnapshot.FacilityDim(f.getFacilityId(), f.getFacilityName(),
+                        f.getFacilityType(), f.getFacilitySize())).toList(),
+                eventFacilities.stream().map(ef -> new ReportSnapshot.EventFacilityDim(ef.getEventFacilityId(),
+                        ef.getEvent().getEventId(), ef.getFacility().getFacilityId(),
+                        ef.getOriginalQuantityTotal(), ef.getQuantityFacilityAvailable())).toList(),
+                businesses.stream().map(b -> new ReportSnapshot.BusinessDim(b.getBusinessId(), b.getBusinessName(),
+                        b.getUser().getUserId(), b.getUser().getUserName(), b.getUser().getUserCategory())).toList()),
+                rows);
+
+        filter = new ReportFilterRequest();
+        filter.setOwnerCategory("STUDENT");
+        filter.setStartDate(firstDay);
+        filter.setEndDate(firstDay.plusYears(1).minusDays(1));
+    }
+
+    // ==================== REPORT 1: FACILITY RENTAL ====================
+
+    @Benchmark
+    public Object facilityRentalStreams() {
+        String ownerCategory = filter.getOwnerCategory();
+        LocalDate start = filter.getStartDate();
+        LocalDate end = filter.getEndDate();
+
+        List<FacilityApplication> filtered = apps.stream()
+                .filter(a -> a.getBusiness().getUser().getUserCategory().name().equalsIgnoreCase(ownerCategory))
+                .filter(a -> {
+                    LocalDate d = a.getApplicationCreatedAt().toLocalDate();
+                    return !d.isBefore(start) && !d.isAfter(end);
+                })
+                .sorted(Comparator.comparing(FacilityApplication::getApplicationCreatedAt).reversed())
+                .collect(Collectors.toList());
+
+        List<FacilityRentalRow> rows = filtered.stream()
+                .map(a -> {
+                    Payment p = paymentMap.get(a.getApplicationId());
+                    EventFacility ef = a.getEventFacility();
+                    Business business = a.getBusiness();
+                    User owner = business.getUser();
+                    FacilityRentalRow row = new FacilityRentalRow();
+                    row.setApplicationId(a.getApplicationId());
+                    row.setEventName(ef.getEvent().getEventName());
+                    row.setEventVenue(ef.getEvent().getEventVenue());
+                    row.setEventStatus(ef.getEvent().getEventStatus());
+                    row.setFacilityName(ef.getFacility().getFacilityName());
+                    row.setFacilityType(ef.getFacility().getFacilityType());
+                    row.setBusinessId(business.getBusinessId());
+                    row.setBusinessName(business.getBusinessName());
+                    row.setOwnerId(owner.getUserId());
+                    row.setOwnerName(owner.getUserName());
+                    row.setOwnerCategory(owner.getUserCategory().name());
+                    row.setApplicationStatus(a.getApplicationStatus().name());
+                    row.setApplicationCreatedAt(a.getApplicationCreatedAt());
+                    if (p != null) {
+                        row.setPaymentStatus(p.getPaymentStatus().name());
+                        row.setPaymentAmount(p.getPaymentAmount());
+                    }
+                    return row;
+                })
+                .collect(Collectors.toList());
+
+        List<Payment> payments = filtered.stream()
+                .map(a -> paymentMap.get(a.getApplicationId()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        int approved = count(filtered, FacilityApplication.ApplicationStatus.APPROVED);
+        int paidCount = (int) payments.stream().filter(p -> p.getPaymentStatus() == Payment.PaymentStatus.PAID).count();
+
+        FacilityRentalSummary summary = new FacilityRentalSummary(
+                filtered.size(), approved,
+                count(filtered, FacilityApplication.ApplicationStatus.REJECTED),
+                count(filtered, FacilityApplication.ApplicationStatus.PENDING),
+                count(filtered, FacilityApplication.ApplicationStatus.CANCELLED),
+                (int) filtered.stream().map(a -> a.getBusiness().getBusinessId()).distinct().count(),
+                paidCount,
+                sum(payments, Payment.PaymentStatus.PAID),
+                sum(payments, Payment.PaymentStatus.UNPAID),
+                approved > 0 ? paidCount * 100 / approved : 0);
+        return new ReportResponse<>(summary, rows);
+    }
+
+    @Benchmark
+    public Object facilityRentalSnapshot() {
+        return snapshot.facilityRental(filter);
+    }
+
+    // ==================== REPORT 2: REVENUE & PAYMENT ====================
+
+    @Benchmark
+    public Object revenueStreams() {
+        String ownerCategory = filter.getOwnerCategory();
+        LocalDate start = filter.getStartDate();
+        LocalDate end = filter.getEndDate();
+
+        List<Map.Entry<FacilityApplication, Payment>> pairs = apps.stream()
+                .filter(a -> a.getApplicationStatus() == FacilityApplication.ApplicationStatus.APPROVED)
+                .filter(a -> a.getBusiness().getUser().getUserCategory().name().equalsIgnoreCase(ownerCategory))
+                .filter(a -> paymentMap.containsKey(a.getApplicationId()))
+                .map(a -> Map.entry(a, paymentMap.get(a.getApplicationId())))
+                .filter(e -> {
+                    LocalDate d = e.getValue().getPaymentCreatedAt().toLocalDate();
+                    return !d.isBefore(start) && !d.isAfter(end);
+                })
+                .collect(Collectors.toList());
+
+        List<RevenueRow> rows = pairs.stream()
+                .map(e -> {
+                    FacilityApplication a = e.getKey();
+                    Payment p = e.getValue();
+                    RevenueRow row = new RevenueRow();
+                    row.setApplicationId(a.getApplicationId());
+                    row.setEventName(a.getEventFacility().getEvent().getEventName());
+                    row.setBusinessName(a.getBusiness().getBusinessName());
+                    row.setOwnerName(a.getBusiness().getUser().getUserName());
+                    row.setOwnerCategory(a.getBusiness().getUser().getUserCategory().name());
+                    row.setAmountBilled(p.getPaymentAmount());
+                    row.setPaymentStatus(p.getPaymentStatus().name());
+                    row.setPaymentCreatedAt(p.getPaymentCreatedAt());
+                    return row;
+                })
+                .collect(Collectors.toList());
+
+        List<Payment> payments = pairs.stream().map(Map.Entry::getValue).collect(Collectors.toList());
+        BigDecimal collected = sum(payments, Payment.PaymentStatus.PAID);
+        int paidCount = countPayments(payments, Payment.PaymentStatus.PAID);
+        int unpaidCount = countPayments(payments, Payment.PaymentStatus.UNPAID);
+        long paidBusinesses = pairs.stream()
+                .filter(e -> e.getValue().getPaymentStatus() == Payment.PaymentStatus.PAID)
+                .map(e -> e.getKey().getBusiness().getBusinessId())
+                .distinct().count();
+
+        RevenueSummary summary = new RevenueSummary(
+                payments.stream().map(Payment::getPaymentAmount).reduce(BigDecimal.ZERO, BigDecimal::add),
+                collected,
+                sum(payments, Payment.PaymentStatus.UNPAID),
+                sum(payments, Payment.PaymentStatus.FAILED),
+                paidCount + unpaidCount > 0 ? paidCount * 100 / (paidCount + unpaidCount) : 0,
+                paidBusinesses > 0 ? collected.divide(BigDecimal.valueOf(paidBusinesses), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO,
+                payments.size(), paidCount, unpaidCount,
+                countPayments(payments, Payment.PaymentStatus.FAILED));
+        return new ReportResponse<>(summary, rows);
+    }
+
+    @Benchmark
+    public Object revenueSnapshot() {
+        return snapshot.revenue(filter);
+    }
+
+    // ==================== REPORT 3: BUSINESS OWNER ACTIVITY ====================
+
+    @Benchmark
+    public Object businessActivityStreams() {
+        String ownerCategory = filter.getOwnerCategory();
+        LocalDate start = filter.getStartDate();
+        LocalDate end = filter.getEndDate();
+
+        Map<Long, List<FacilityApplication>> byBusiness = apps.stream()
+                .filter(a -> a.getBusiness().getUser().getUserCategory().name().equalsIgnoreCase(ownerCategory))
+                .filter(a -> {
+                    LocalDate d = a.getApplicationCreatedAt().toLocalDate();
+                    return !d.isBefore(start) && !d.isAfter(end);
+                })
+                .collect(Collectors.groupingBy(a -> a.getBusiness().getBusinessId()));
+
+        return byBusiness.entrySet().stream()
+                .map(entry -> {
+                    List<FacilityApplication> bApps = entry.getValue();
+                    Business business = bApps.get(0).getBusiness();
+                    List<Payment> bPayments = bApps.stream()
+                            .map(a -> paymentMap.get(a.getApplicationId()))
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toList());
+                    return new BusinessActivityRow(
+                            entry.getKey(), business.getBusinessName(),
+                            business.getUser().getUserName(), business.getUser().getUserCategory().name(),
+                            bApps.size(),
+                            count(bApps, FacilityApplication.ApplicationStatus.APPROVED),
+                            count(bApps, FacilityApplication.ApplicationStatus.REJECTED),
+                            count(bApps, FacilityApplication.ApplicationStatus.CANCELLED),
+                            (int) bPayments.stream().filter(p -> p.getPaymentStatus() == Payment.PaymentStatus.PAID).count(),
+                            0, 0, 0,
+                            sum(bPayments, Payment.PaymentStatus.PAID));
+                })
+                .sorted(Comparator.comparingInt(BusinessActivityRow::getTotalApplied).reversed())
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Object businessActivitySnapshot() {
+        return snapshot.businessActivityRows(filter);
+    }
+
+    // ==================== REPORT 4: EVENT PERFORMANCE ====================
+
+    @Benchmark
+    public Object eventPerformanceStreams() {
+        LocalDate start = filter.getStartDate();
+        LocalDate end = filter.getEndDate();
+
+        Map<Integer, List<EventFacility>> efsByEvent = eventFacilities.stream()
+                .collect(Collectors.groupingBy(ef -> ef.getEvent().getEventId()));
+        Map<Integer, List<FacilityApplication>> appsByEvent = apps.stream()
+                .collect(Collectors.groupingBy(a -> a.getEventFacility().getEvent().getEventId()));
+
+        return events.stream()
+                .filter(e -> !e.getEventStartDate().isBefore(start) && !e.getEventStartDate().isAfter(end))
+                .map(event -> {
+                    List<EventFacility> efs = efsByEvent.getOrDefault(event.getEventId(), Collections.emptyList());
+                    List<FacilityApplication> eApps = appsByEvent.getOrDefault(event.getEventId(), Collections.emptyList());
+
+                    int slotsAvailable = efs.stream().mapToInt(EventFacility::getOriginalQuantityTotal).sum();
+                    int remaining = efs.stream().mapToInt(EventFacility::getQuantityFacilityAvailable).sum();
+                    int slotsFilled = Math.max(0, slotsAvailable - remaining);
+                    List<Payment> ePayments = eApps.stream()
+                            .map(a -> paymentMap.get(a.getApplicationId()))
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toList());
+
+                    return new EventPerformanceRow(
+                            event.getEventId(), event.getEventName(), event.getEventVenue(), event.getEventStatus(),
+                            event.getEventStartDate(), event.getEventEndDate(),
+                            efs.size(), slotsAvailable, slotsFilled,
+                            slotsAvailable > 0 ? slotsFilled * 100 / slotsAvailable : 0,
+                            eApps.size(),
+                            count(eApps, FacilityApplication.ApplicationStatus.APPROVED),
+                            count(eApps, FacilityApplication.ApplicationStatus.REJECTED),
+                            sum(ePayments, Payment.PaymentStatus.PAID));
+                })
+                .sorted(Comparator.comparing(EventPerformanceRow::getEventStartDate).reversed())
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Object eventPerformanceSnapshot() {
+        return snapshot.eventPerformanceRows(filter);
+    }
+
+    // ==================== REPORT 5: FACILITY UTILISATION ====================
+
+    @Benchmark
+    public Object facilityUtilisationStreams() {
+        LocalDate start = filter.getStartDate();
+        LocalDate end = filter.getEndDate();
+
+        Map<Integer, List<EventFacility>> efsByFacility = eventFacilities.stream()
+                .filter(ef -> {
+                    LocalDate d = ef.getEvent().getEventStartDate();
+                    return !d.isBefore(start) && !d.isAfter(end);
+                })
+                .collect(Collectors.groupingBy(ef -> ef.getFacility().getFacilityId()));
+        Map<Integer, List<FacilityApplication>> appsByEF = apps.stream()
+                .collect(Collectors.groupingBy(a -> a.getEventFacility().getEventFacilityId()));
+
+        return efsByFacility.entrySet().stream()
+                .map(entry -> {
+                    List<EventFacility> fEFs = entry.getValue();
+                    Facility facility = fEFs.get(0).getFacility();
+
+                    int slotsOffered = fEFs.stream().mapToInt(EventFacility::getOriginalQuantityTotal).sum();
+                    int remaining = fEFs.stream().mapToInt(EventFacility::getQuantityFacilityAvailable).sum();
+                    int slotsFilled = Math.max(0, slotsOffered - remaining);
+                    List<FacilityApplication> fApps = fEFs.stream()
+                            .flatMap(ef -> appsByEF.getOrDefault(ef.getEventFacilityId(), Collections.emptyList()).stream())
+                            .collect(Collectors.toList());
+                    List<Payment> fPayments = fApps.stream()
+                            .map(a -> paymentMap.get(a.getApplicationId()))
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toList());
+
+                    return new FacilityUtilisationRow(
+                            entry.getKey(), facility.getFacilityName(), facility.getFacilityType(),
+                            facility.getFacilitySize(), fEFs.size(), slotsOffered, slotsFilled,
+                            slotsOffered > 0 ? slotsFilled * 100 / slotsOffered : 0,
+                            fApps.size(),
+                            count(fApps, FacilityApplication.ApplicationStatus.APPROVED),
+                            sum(fPayments, Payment.PaymentStatus.PAID));
+                })
+                .sorted(Comparator.comparingInt(FacilityUtilisationRow::getTotalApplications).reversed())
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Object facilityUtilisationSnapshot() {
+        return snapshot.facilityUtilisationRows(filter);
+    }
+
+    // ==================== HELPERS ====================
+
+    private static int count(List<FacilityApplication> apps, FacilityApplication.ApplicationStatus status) {
+        return (int) apps.stream().filter(a -> a.getApplicationStatus() == status).count();
+    }
+
+    private static int countPayments(List<Payment> payments, Payment.PaymentStatus status) {
+        return (int) payments.stream().filter(p -> p.getPaymentStatus() == status).count();
+    }
+
+    private static BigDecimal sum(List<Payment> payments, Payment.PaymentStatus status) {
+        return payments.stream()
+                .filter(p -> p.getPaymentStatus() == status)
+                .map(Payment::getPaymentAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ReportSnapshotBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
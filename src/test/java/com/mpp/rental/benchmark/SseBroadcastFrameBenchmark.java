@@ -0,0 +1,109 @@
+package com.mpp.rental.benchmark;
+
+import com.mpp.rental.dto.NotificationDTO;
+import com.mpp.rental.service.SseEmitterService;
+import com.mpp.rental.service.SseFrame;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding cost of one notification broadcast to N recipients, as SSE bytes ready to write.
+ *
+ * perRecipientStrings is the old path: for every recipient the JSON is built with the
+ * String.replace escaping, an SseEmitter event is built around it (with the recipient's event
+ * id) and each part is encoded to UTF-8, as StringHttpMessageConverter does on every write.
+ * sharedFrame is SseEmitterService's path: the JSON and one SseFrame are built once and every
+ * recipient gets the same instance. The queue offer itself is the same on both sides and left
+ * out; the Blackhole stands in for it.
+ *
+ * Run: mvn test-compile, then
+ *   java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *        com.mpp.rental.benchmark.SseBroadcastFrameBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SseBroadcastFrameBenchmark {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    @Param({"1000", "10000"})
+    private int recipients;
+
+    private NotificationDTO notification;
+    private long sequence;
+
+    @Setup
+    public void setUp() {
+        notification = new NotificationDTO();
+        notification.setNotificationId(123456L);
+        notification.setType("ANNOUNCEMENT");
+        notification.setTitle("Bazaar Ramadan 2026 — applications open");
+        notification.setMessage("Applications for the \"Bazaar Ramadan\" event are now open.\nApply before 15 Feb.");
+        notification.setReferenceId(42L);
+        notification.setReferenceType("EVENT");
+        notification.setCreatedAt(LocalDateTime.of(2026, 2, 1, 9, 30));
+    }
+
+    @Benchmark
+    public void perRecipientStrings(Blackhole bh) throws Exception {
+        for (int i = 0; i < recipients; i++) {
+            String json = legacyJson(notification);
+            for (ResponseBodyEmitter.DataWithMediaType part : SseEmitter.event()
+                    .id("node-" + (++sequence)).name("notification").data(json).build()) {
+                bh.consume(part.getData().toString().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Benchmark
+    public void sharedFrame(Blackhole bh) {
+        SseFrame frame = SseFrame.of("node-" + (++sequence), "notification", SseEmitterService.toJson(notification));
+        for (int i = 0; i < recipients; i++) {
+            bh.consume(frame);
+        }
+    }
+
+    /** SseEmitterService.toJson before it was rewritten as a single pass */
+    private static String legacyJson(NotificationDTO n) {
+        return "{" +
+                "\"notificationId\":" + n.getNotificationId() + "," +
+                "\"type\":\"" + legacyEscape(n.getType()) + "\"," +
+                "\"title\":\"" + legacyEscape(n.getTitle()) + "\"," +
+                "\"message\":\"" + legacyEscape(n.getMessage()) + "\"," +
+                "\"referenceId\":" + (n.getReferenceId() != null ? n.getReferenceId() : "null") + "," +
+                "\"referenceType\":" + (n.getReferenceType() != null ? "\"" + legacyEscape(n.getReferenceType()) + "\"" : "null") + "," +
+                "\"read\":" + n.isRead() + "," +
+                "\"createdAt\":\"" + (n.getCreatedAt() != null ? n.getCreatedAt().format(FORMATTER) : "") + "\"" +
+                "}";
+    }
+
+    private static String legacyEscape(String value) {
+        if (value == null) return "";
+        return value
+                .replace("\\", "\\\\")
+                .replace("\"", "\\\"")
+                .replace("\n", "\\n")
+                .replace("\r", "\\r")
+                .replace("\t", "\\t");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SseBroadcastFrameBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,155 @@
+package com.mpp.rental.benchmark;
+
+import com.mpp.rental.service.LocalNotificationBus;
+import com.mpp.rental.service.SseEmitterService;
+import com.mpp.rental.service.UserPresenceService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heartbeat cost on the scheduler thread with N SSE connections whose emitters are attached to
+ * draining in-memory responses (DrainingEmitters) — every heartbeat is really written.
+ *
+ * serialSendSweep reproduces the original sweep: every 25 s the scheduler thread walked all
+ * emitters and called emitter.send(event "heartbeat", data "ping") on each, building and
+ * encoding the event per connection. That whole burst ran on the shared scheduler thread.
+ *
+ * wheelTick is what the scheduler runs now every heartbeat-tick-ms: the next of 25 wheel slots
+ * (N / 25 connections) is offered the prebuilt heartbeat frame and the writes are handed to the
+ * service's writer pool, which drains them meanwhile. wheelTickWritten runs the writers inline,
+ * so the score also includes writing every frame of the slot — the total CPU of one tick.
+ *
+ * Every connection is due on every visit (the skip window is set to zero after start), so no
+ * heartbeat is skipped because of a recent write.
+ *
+ * Run: mvn test-compile, then
+ *   java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *        com.mpp.rental.benchmark.SseHeartbeatBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SseHeartbeatBenchmark {
+
+    /** Slots in the wheel — same ratio as the defaults (25 s interval, 1 s tick) */
+    private static final int SLOTS = 25;
+
+    @State(Scope.Benchmark)
+    public static class SerialSweep {
+
+        @Param({"1000", "10000", "50000"})
+        int connections;
+
+        /** userId → emitters, as SseEmitterService held them before the outbound queues */
+        final Map<Long, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+        @Setup
+        public void setUp() {
+            for (long userId = 1; userId <= connections; userId++) {
+                List<SseEmitter> userEmitters = new CopyOnWriteArrayList<>();
+                userEmitters.add(DrainingEmitters.attach(new SseEmitter(1_800_000L)));
+                emitters.put(userId, userEmitters);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Wheel {
+
+        @Param({"1000", "10000", "50000"})
+        int connections;
+
+        SseEmitterService sse;
+
+        @Setup
+        public void setUp() {
+            sse = wheel(connections, null);
+        }
+
+        @TearDown
+        public void tearDown() {
+            ReflectionTestUtils.invokeMethod(sse, "stop");
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class InlineWheel {
+
+        @Param({"1000", "10000", "50000"})
+        int connections;
+
+        SseEmitterService sse;
+
+        @Setup
+        public void setUp() {
+            sse = wheel(connections, Runnable::run);
+        }
+
+        @TearDown
+        public void tearDown() {
+            ReflectionTestUtils.invokeMethod(sse, "stop");
+        }
+    }
+
+    /** writer null = the service's own pool (4 platform threads) */
+    private static SseEmitterService wheel(int connections, Executor writer) {
+        SseEmitterService sse = new SseEmitterService(new UserPresenceService(new LocalNotificationBus()), new LocalNotificationBus(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(sse, "queueCapacity", 64);
+        ReflectionTestUtils.setField(sse, "virtualThreads", false);
+        ReflectionTestUtils.setField(sse, "writerThreads", 4);
+        ReflectionTestUtils.setField(sse, "replayBufferSize", 50);
+        ReflectionTestUtils.setField(sse, "heartbeatIntervalMs", SLOTS * 1_000L);
+        ReflectionTestUtils.setField(sse, "heartbeatTickMs", 1_000L);
+        ReflectionTestUtils.invokeMethod(sse, "start");
+        ReflectionTestUtils.setField(sse, "heartbeatIntervalMs", 0L); // no skip window
+        if (writer != null) {
+            ReflectionTestUtils.setField(sse, "writer", writer);
+        }
+        for (long userId = 1; userId <= connections; userId++) {
+            DrainingEmitters.attach(sse.createEmitter(userId, null));
+        }
+        return sse;
+    }
+
+    @Benchmark
+    public void serialSendSweep(SerialSweep state) {
+        state.emitters.values().forEach(userEmitters -> userEmitters.forEach(emitter -> {
+            try {
+                emitter.send(SseEmitter.event().name("heartbeat").data("ping"));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+    }
+
+    @Benchmark
+    public void wheelTick(Wheel state) {
+        state.sse.sendHeartbeat();
+    }
+
+    @Benchmark
+    public void wheelTickWritten(InlineWheel state) {
+        state.sse.sendHeartbeat();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SseHeartbeatBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
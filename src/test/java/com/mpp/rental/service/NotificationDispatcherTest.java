@@ -0,0 +1,142 @@
+package com.mpp.rental.service;
+
+import com.mpp.rental.dto.NotificationDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * FCM fallback for users inside their reconnect window: the push waits for the window to end
+ * and is sent only if the user did not connect again — on this node or another one.
+ */
+class NotificationDispatcherTest {
+
+    private static final long GRACE_MS = 300;
+    private static final long USER = 7L;
+
+    private final List<Long> pushed = new CopyOnWriteArrayList<>();
+    private UserPresenceService presence;
+    private SseEmitterService sse;
+    private NotificationDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        presence = new UserPresenceService(new LocalNotificationBus());
+        ReflectionTestUtils.setField(presence, "reconnectGraceMs", GRACE_MS);
+        ReflectionTestUtils.setField(presence, "refreshMs", 30_000L);
+        sse = new SseEmitterService(presence, new LocalNotificationBus(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(sse, "queueCapacity", 64);
+        ReflectionTestUtils.setField(sse, "virtualThreads", false);
+        ReflectionTestUtils.setField(sse, "writerThreads", 1);
+        ReflectionTestUtils.setField(sse, "replayBufferSize", 10);
+        ReflectionTestUtils.setField(sse, "heartbeatIntervalMs", 25_000L);
+        ReflectionTestUtils.setField(sse, "heartbeatTickMs", 1_000L);
+        ReflectionTestUtils.invokeMethod(sse, "start");
+
+        PushGateway gateway = new RecordingGateway();
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        dispatcher = new NotificationDispatcher(sse, presence, gateway,
+                new PushRetryService(null, gateway, null, meters), meters);
+        ReflectionTestUtils.setField(dispatcher, "workers", 1);
+        ReflectionTestUtils.setField(dispatcher, "queueCapacity", 100);
+        ReflectionTestUtils.setField(dispatcher, "overflowPolicy", NotificationDispatcher.OverflowPolicy.DROP);
+        ReflectionTestUtils.invokeMethod(dispatcher, "start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(dispatcher, "stop");
+        ReflectionTestUtils.invokeMethod(sse, "stop");
+    }
+
+    @Test
+    void offlineUserIsPushedRightAway() throws Exception {
+        dispatch();
+        Thread.sleep(100);
+
+        assertThat(pushed).containsExactly(USER);
+    }
+
+    @Test
+    void userWhoClosedTheLastTabIsPushedWhenTheWindowEnds() throws Exception {
+        presence.disconnected(USER);
+        dispatch();
+        Thread.sleep(100);
+        assertThat(pushed).isEmpty();
+
+        Thread.sleep(GRACE_MS + 200);
+
+        assertThat(pushed).containsExactly(USER);
+    }
+
+    @Test
+    void userWhoReconnectedWithinTheWindowIsNotPushed() throws Exception {
+        presence.disconnected(USER);
+        dispatch();
+        Thread.sleep(100);
+        presence.connected(USER); // the reconnect replays the event
+        presence.disconnected(USER);
+
+        Thread.sleep(GRACE_MS + 200);
+
+        assertThat(pushed).isEmpty();
+    }
+
+    @Test
+    void userConnectedToAnotherNodeIsNotPushed() throws Exception {
+        ReflectionTestUtils.invokeMethod(presence, "onBusMessage", new NotificationBus.Message(
+                UserPresenceService.PRESENCE_EVENT, List.of(USER), "node-b connected"));
+        dispatch();
+        Thread.sleep(100);
+        assertThat(pushed).isEmpty();
+
+        ReflectionTestUtils.invokeMethod(presence, "onBusMessage", new NotificationBus.Message(
+                UserPresenceService.PRESENCE_EVENT, List.of(USER), "node-b disconnected"));
+        dispatch();
+        Thread.sleep(GRACE_MS + 200);
+
+        assertThat(pushed).containsExactly(USER);
+    }
+
+    private void dispatch() {
+        NotificationDTO dto = new NotificationDTO();
+        dto.setNotificationId(1L);
+        dto.setTitle("t");
+        dto.setMessage("m");
+        dispatcher.dispatchAfterCommit(new NotificationDispatcher.Delivery(dto, List.of(USER), null, true, null));
+    }
+
+    private class RecordingGateway implements PushGateway {
+        @Override
+        public PushResult send(Collection<Long> userIds, PushMessage message) {
+            pushed.addAll(userIds);
+            return PushResult.NONE;
+        }
+
+        @Override
+        public PushResult sendToTopic(String topic, PushMessage message) {
+            return PushResult.NONE;
+        }
+
+        @Override
+        public PushResult sendToTargets(List<Target> targets, PushMessage message) {
+            return PushResult.NONE;
+        }
+
+        @Override
+        public void subscribe(Collection<String> tokens, String topic) {
+        }
+
+        @Override
+        public void unsubscribe(Collection<String> tokens, String topic) {
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.mpp.rental.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Seeding vs. after-commit adjustments: the interleavings in which a write commits around the
+ * seeding read. The "database" is one committed unread count; a transaction sees it as of the
+ * moment it started (REPEATABLE READ), and joining an open transaction reuses its snapshot.
+ */
+class NotificationUnreadCounterTest {
+
+    private static final long USER = 7L;
+
+    private final AtomicLong committed = new AtomicLong();
+    private final SnapshotTransactionManager transactionManager = new SnapshotTransactionManager();
+    private NotificationUnreadCounter counter;
+
+    /** Snapshot per transaction, per thread; a joined transaction shares the outer snapshot */
+    class SnapshotTransactionManager implements PlatformTransactionManager {
+        final ThreadLocal<Deque<Long>> snapshots = ThreadLocal.withInitial(ArrayDeque::new);
+        final List<Integer> propagations = new ArrayList<>();
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            Deque<Long> open = snapshots.get();
+            synchronized (propagations) {
+                propagations.add(definition.getPropagationBehavior());
+            }
+            boolean join = definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRED
+                    && !open.isEmpty();
+            open.push(join ? open.peek() : committed.get());
+            return new SimpleTransactionStatus(!join);
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            snapshots.get().pop();
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            snapshots.get().pop();
+        }
+
+        long read() {
+            Deque<Long> open = snapshots.get();
+            return open.isEmpty() ? committed.get() : open.peek();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        SseEmitterService sse = new SseEmitterService(new UserPresenceService(new LocalNotificationBus()), new LocalNotificationBus(), new SimpleMeterRegistry());
+        counter = new NotificationUnreadCounter(sse, new LocalNotificationBus(), transactionManager);
+        ReflectionTestUtils.setField(counter, "ttlMs", 600_000L);
+        ReflectionTestUtils.invokeMethod(counter, "start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void writeCommittedBeforeSeedButAdjustedAfterIsNotCountedTwice() {
+        // the write has committed (the seed sees it) but its after-commit adjustment has not run yet
+        List<TransactionSynchronization> pending = beginWrite();
+        committed.incrementAndGet();
+
+        assertThat(get()).isEqualTo(1);
+        completeWrite(pending, TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(get()).isEqualTo(1);
+    }
+
+    @Test
+    void writeCommittedWhileCallerHoldsAnOlderSnapshotIsNotMissed() {
+        // the caller's own transaction (e.g. the user lookup) started before the write committed
+        TransactionStatus callerTx = transactionManager.getTransaction(TransactionDefinition.withDefaults());
+        write(); // nothing tracked yet — the adjustment is a no-op
+
+        assertThat(get()).isEqualTo(1);
+        transactionManager.commit(callerTx);
+
+        assertThat(get()).isEqualTo(1);
+        assertThat(transactionManager.propagations).contains(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Test
+    void writeCommittedAfterSeedSnapshotIsAppliedOnTheNextRead() {
+        // the write commits and adjusts after the seed's snapshot, before the seed is stored
+        AtomicBoolean once = new AtomicBoolean();
+        long seeded = counter.get(USER, () -> {
+            long snapshot = transactionManager.read();
+            if (once.compareAndSet(false, true)) {
+                write();
+            }
+            return snapshot;
+        });
+
+        assertThat(seeded).isZero();
+        assertThat(get()).isEqualTo(1);
+        write();
+        assertThat(get()).isEqualTo(2);
+    }
+
+    @Test
+    void rolledBackWriteIsNotCountedAndDoesNotBlockSeeding() {
+        assertThat(get()).isZero();
+        completeWrite(beginWrite(), TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(get()).isZero();
+        write();
+        assertThat(get()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredCountIsReadAgain() {
+        assertThat(get()).isZero();
+        committed.incrementAndGet(); // e.g. a message from another node lost while seeding
+        assertThat(get()).isZero();
+
+        ReflectionTestUtils.setField(counter, "ttlMs", 0L);
+
+        assertThat(get()).isEqualTo(1);
+    }
+
+    @Test
+    void forgottenCountIsReadAgainAfterCommit() {
+        assertThat(get()).isZero();
+        committed.addAndGet(3); // e.g. broadcasts of the user's audience resumed
+
+        TransactionSynchronizationManager.initSynchronization();
+        counter.forgetAfterCommit(USER);
+        List<TransactionSynchronization> pending = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        assertThat(get()).isZero();
+
+        completeWrite(pending, TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(get()).isEqualTo(3);
+    }
+
+    @Test
+    void concurrentWritesAndReadsSettleOnTheCommittedCount() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(6);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < 4; w++) {
+                writers.add(pool.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        write();
+                    }
+                }));
+            }
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 2; r++) {
+                readers.add(pool.submit(() -> {
+                    while (writing.get()) {
+                        get();
+                        if (Math.random() < 0.05) {
+                            counter.expire();
+                            ReflectionTestUtils.invokeMethod(counter, "replace", USER, (String) null);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(committed.get()).isEqualTo(2000);
+        assertThat(get()).isEqualTo(2000);
+    }
+
+    // ==================== HELPERS ====================
+
+    private long get() {
+        return counter.get(USER, transactionManager::read);
+    }
+
+    /** A whole notification write on this thread: register, commit, adjust */
+    private void write() {
+        List<TransactionSynchronization> pending = beginWrite();
+        committed.incrementAndGet();
+        completeWrite(pending, TransactionSynchronization.STATUS_COMMITTED);
+    }
+
+    private List<TransactionSynchronization> beginWrite() {
+        TransactionSynchronizationManager.initSynchronization();
+        counter.incrementAfterCommit(List.of(USER));
+        List<TransactionSynchronization> pending = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        return pending;
+    }
+
+    private static void completeWrite(List<TransactionSynchronization> pending, int status) {
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            TransactionSynchronizationUtils.invokeAfterCommit(pending);
+        }
+        TransactionSynchronizationUtils.invokeAfterCompletion(pending, status);
+    }
+}
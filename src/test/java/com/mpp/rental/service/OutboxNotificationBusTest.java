@@ -0,0 +1,182 @@
+package com.mpp.rental.service;
+
+import com.mpp.rental.model.Notification;
+import com.mpp.rental.model.NotificationOutbox;
+import com.mpp.rental.repository.NotificationOutboxRepository;
+import com.mpp.rental.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Outbox ids are allocated at insert but visible at commit: the poll must pick up a row that
+ * commits after a higher id within gap-wait-ms, deliver every row once, and move on after that.
+ * The table is an in-memory map of committed rows; poll() is driven by the test.
+ */
+class OutboxNotificationBusTest {
+
+    private static final String OTHER_NODE = "other";
+    private static final long GAP_WAIT_MS = 200;
+
+    /** Committed (visible) rows by id */
+    private final NavigableMap<Long, NotificationOutbox> committed = new ConcurrentSkipListMap<>();
+    private final List<String> delivered = new CopyOnWriteArrayList<>();
+    private final List<NotificationBus.Message> messages = new CopyOnWriteArrayList<>();
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private NotificationOutboxRepository repository;
+    private OutboxNotificationBus bus;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        commit(1); // history before this node started — never delivered
+
+        repository = mock(NotificationOutboxRepository.class);
+        when(repository.findMaxId()).thenAnswer(invocation -> committed.isEmpty() ? 0L : committed.lastKey());
+        when(repository.findIdsAfter(anyLong(), anyString(), any(Pageable.class))).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            String nodeId = invocation.getArgument(1);
+            Pageable page = invocation.getArgument(2);
+            return committed.tailMap(after, false).values().stream()
+                    .filter(row -> !row.getNodeId().equals(nodeId))
+                    .map(NotificationOutbox::getOutboxId)
+                    .limit(page.getPageSize())
+                    .toList();
+        });
+        when(repository.findByOutboxIdInOrderByOutboxId(anyCollection())).thenAnswer(invocation ->
+                ((Collection<Long>) invocation.getArgument(0)).stream().sorted().map(committed::get).toList());
+
+        bus = new OutboxNotificationBus(repository, userRepository, mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(bus, "nodeId", "self");
+        ReflectionTestUtils.setField(bus, "pollMs", 3_600_000L); // polled by the test only
+        ReflectionTestUtils.setField(bus, "batchSize", 500);
+        ReflectionTestUtils.setField(bus, "gapWaitMs", GAP_WAIT_MS);
+        ReflectionTestUtils.setField(bus, "retentionMs", 600_000L);
+        ReflectionTestUtils.setField(bus, "maxDataLength", 100);
+        ReflectionTestUtils.invokeMethod(bus, "start");
+        bus.subscribe(message -> delivered.add(message.event()));
+        bus.subscribe(messages::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(bus, "stop");
+    }
+
+    @Test
+    void rowCommittedAfterAHigherIdWithinGapWaitIsDelivered() throws Exception {
+        commit(3);
+        bus.poll();
+        commit(2); // allocated before 3, committed after it was polled
+        Thread.sleep(GAP_WAIT_MS / 2);
+        bus.poll();
+
+        assertThat(delivered).containsExactly("e3", "e2");
+    }
+
+    @Test
+    void reReadRowsAreDeliveredOnce() throws Exception {
+        commit(2);
+        commit(3);
+        for (int i = 0; i < 3; i++) {
+            bus.poll();
+        }
+        Thread.sleep(GAP_WAIT_MS + 50);
+        bus.poll();
+        commit(4);
+        bus.poll();
+
+        assertThat(delivered).containsExactly("e2", "e3", "e4");
+    }
+
+    @Test
+    void rowCommittedLaterThanGapWaitIsGivenUp() throws Exception {
+        commit(3);
+        bus.poll();
+        Thread.sleep(GAP_WAIT_MS + 50);
+        bus.poll(); // 3 settled — the cursor moves past 2
+
+        commit(2);
+        bus.poll();
+
+        assertThat(delivered).containsExactly("e3");
+        assertThat(ReflectionTestUtils.getField(bus, "cursor")).isEqualTo(3L);
+    }
+
+    @Test
+    void reReadRowsDoNotCrowdNewOnesOutOfTheBatch() {
+        ReflectionTestUtils.setField(bus, "batchSize", 2);
+        commit(2);
+        commit(3);
+        bus.poll();
+        commit(4);
+        commit(5);
+        bus.poll(); // 2 and 3 are still within gap-wait and re-read first
+
+        assertThat(delivered).containsExactly("e2", "e3", "e4", "e5");
+    }
+
+    @Test
+    void audienceBroadcastIsStoredAsItsAudienceAndResolvedByTheReceiver() {
+        List<NotificationOutbox> saved = new CopyOnWriteArrayList<>();
+        when(repository.save(any(NotificationOutbox.class))).thenAnswer(invocation -> {
+            saved.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        bus.publish(new NotificationBus.Message("notification", List.of(1L, 2L, 3L), "{}", Notification.Audience.STUDENT));
+
+        NotificationOutbox row = saved.get(0);
+        assertThat(row.getUserIds()).isNull();
+        assertThat(row.getAudience()).isEqualTo(Notification.Audience.STUDENT);
+
+        // another node's row — its members as this node's database sees them now
+        row.setOutboxId(2L);
+        row.setNodeId(OTHER_NODE);
+        committed.put(2L, row);
+        when(userRepository.findAudienceUserIds(Notification.Audience.STUDENT)).thenReturn(List.of(3L, 4L));
+        bus.poll();
+
+        assertThat(messages).hasSize(1);
+        assertThat(messages.get(0).userIds()).containsExactly(3L, 4L);
+        assertThat(messages.get(0).audience()).isEqualTo(Notification.Audience.STUDENT);
+    }
+
+    @Test
+    void dataOverTheLimitIsNotPublished() {
+        bus.publish(new NotificationBus.Message("notification", List.of(1L), "x".repeat(101)));
+        bus.publish(new NotificationBus.Message("notification", List.of(1L), "x".repeat(100)));
+
+        verify(repository, times(1)).save(any(NotificationOutbox.class));
+    }
+
+    // ==================== HELPERS ====================
+
+    private void commit(long id) {
+        committed.put(id, row(id));
+    }
+
+    private static NotificationOutbox row(long id) {
+        NotificationOutbox row = new NotificationOutbox();
+        row.setOutboxId(id);
+        row.setNodeId(OTHER_NODE);
+        row.setEvent("e" + id);
+        row.setUserIds("7");
+        row.setData("{}");
+        row.setPublishedAt(System.currentTimeMillis());
+        return row;
+    }
+}
@@ -0,0 +1,143 @@
+package com.mpp.rental.service;
+
+import com.mpp.rental.dto.ReportJobRequest;
+import com.mpp.rental.dto.ReportJobResponse;
+import com.mpp.rental.dto.ReportResponse;
+import com.mpp.rental.exception.BadRequestException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Job lifecycle under concurrency: per-user slots, cancel racing the worker, retained results.
+ * The revenue report is stubbed to block until the test releases it.
+ */
+class ReportJobServiceTest {
+
+    private static final String OWNER = "mpp@example.com";
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ReportJobService service;
+
+    @BeforeEach
+    void setUp() {
+        ReportService reports = mock(ReportService.class);
+        when(reports.getRevenueReport(any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return new ReportResponse<>(null, List.of());
+        });
+        service = new ReportJobService(reports, mock(ReportExportService.class));
+        ReflectionTestUtils.setField(service, "workers", 4);
+        ReflectionTestUtils.setField(service, "queueCapacity", 100);
+        ReflectionTestUtils.setField(service, "maxPerUser", 3);
+        ReflectionTestUtils.setField(service, "ttlMinutes", 60L);
+        ReflectionTestUtils.setField(service, "maxRetained", 2);
+        ReflectionTestUtils.invokeMethod(service, "start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        ReflectionTestUtils.invokeMethod(service, "stop");
+    }
+
+    @Test
+    void concurrentSubmitsTakeAtMostMaxPerUserSlots() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        CyclicBarrier barrier = new CyclicBarrier(16);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            results.add(callers.submit(() -> {
+                barrier.await();
+                try {
+                    service.submit(OWNER, revenue());
+                    return true;
+                } catch (BadRequestException e) {
+                    return false;
+                }
+            }));
+        }
+        int accepted = 0;
+        for (Future<Boolean> result : results) {
+            accepted += result.get(10, TimeUnit.SECONDS) ? 1 : 0;
+        }
+        callers.shutdown();
+
+        assertThat(accepted).isEqualTo(3);
+    }
+
+    @Test
+    void finishedJobGivesItsSlotBack() throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(service.submit(OWNER, revenue()).getJobId());
+        }
+        service.cancel(OWNER, ids.get(0));
+
+        assertThat(service.submit(OWNER, revenue()).getStatus()).isEqualTo("QUEUED");
+    }
+
+    @Test
+    void cancelWhileRunningStaysCancelled() throws Exception {
+        String id = service.submit(OWNER, revenue()).getJobId();
+        awaitStatus(id, "RUNNING");
+
+        service.cancel(OWNER, id);
+        release.countDown();
+        Thread.sleep(200);
+
+        ReportJobResponse job = service.getJob(OWNER, id);
+        assertThat(job.getStatus()).isEqualTo("CANCELLED");
+        assertThat(job.getResultUrl()).isNull();
+    }
+
+    @Test
+    void runningJobReportsProgressAndCompletesAt100() throws Exception {
+        String id = service.submit(OWNER, revenue()).getJobId();
+        awaitStatus(id, "RUNNING");
+        assertThat(service.getJob(OWNER, id).getProgress()).isEqualTo(5);
+
+        release.countDown();
+        awaitStatus(id, "COMPLETED");
+
+        assertThat(service.getJob(OWNER, id).getProgress()).isEqualTo(100);
+    }
+
+    @Test
+    void onlyMaxRetainedFinishedJobsAreKept() throws Exception {
+        release.countDown();
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            String id = service.submit(OWNER, revenue()).getJobId();
+            awaitStatus(id, "COMPLETED");
+            ids.add(id);
+        }
+
+        assertThat(service.getJobs(OWNER)).extracting(ReportJobResponse::getJobId)
+                .containsExactlyInAnyOrder(ids.get(2), ids.get(3));
+    }
+
+    private static ReportJobRequest revenue() {
+        ReportJobRequest request = new ReportJobRequest();
+        request.setReport("revenue");
+        request.setFormat("json");
+        return request;
+    }
+
+    private void awaitStatus(String id, String status) throws InterruptedException {
+        for (int i = 0; i < 200 && !service.getJob(OWNER, id).getStatus().equals(status); i++) {
+            Thread.sleep(10);
+        }
+        assertThat(service.getJob(OWNER, id).getStatus()).isEqualTo(status);
+    }
+}
@@ -0,0 +1,78 @@
+package com.mpp.rental.service;
+
+import com.mpp.rental.dto.ReportPageRequest;
+import com.mpp.rental.dto.ReportResponse;
+import com.mpp.rental.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Paging a complete row list: blank sort values, cursors through them, and one sort per report.
+ */
+class ReportPagingTest {
+
+    record Row(long id, String name, BigDecimal amount) {
+    }
+
+    private static final ReportPaging<Row> PAGING = ReportPaging.<Row>byId(Row::id)
+            .text("name", Row::name)
+            .money("amount", Row::amount)
+            .defaultSort("name", false);
+
+    private final ReportResponse<String, Row> full = new ReportResponse<>("summary", List.of(
+            new Row(1, "b", new BigDecimal("5.00")),
+            new Row(2, null, null),
+            new Row(3, "a", new BigDecimal("1.50")),
+            new Row(4, "null", null),
+            new Row(5, null, new BigDecimal("5.00")),
+            new Row(6, "a", null)));
+
+    @Test
+    void blankValuesSortFirstAscendingAndPageThrough() {
+        assertThat(ids("name,asc", 1)).containsExactly(2L, 5L, 3L, 6L, 1L, 4L);
+        assertThat(ids("name,asc", 4)).containsExactly(2L, 5L, 3L, 6L, 1L, 4L);
+    }
+
+    @Test
+    void blankValuesSortLastDescendingAndPageThrough() {
+        assertThat(ids("name,desc", 1)).containsExactly(4L, 1L, 6L, 3L, 5L, 2L);
+        assertThat(ids("amount,desc", 2)).containsExactly(5L, 1L, 3L, 6L, 4L, 2L);
+    }
+
+    @Test
+    void rowsAreSortedOncePerReportAndSort() {
+        ReportResponse<String, Row> first = PAGING.page(new ReportPageRequest(2, "name,desc", null)).slice(full);
+        PAGING.page(new ReportPageRequest(2, "name,desc", first.getNextCursor())).slice(full);
+
+        List<Row> sorted = full.sortedRows("name,desc", () -> {
+            throw new AssertionError("sorted again");
+        });
+        assertThat(sorted).extracting(Row::id).containsExactly(4L, 1L, 6L, 3L, 5L, 2L);
+        assertThat(first.getSummary()).isEqualTo("summary");
+    }
+
+    @Test
+    void cursorFromAnotherSortIsRejected() {
+        String cursor = PAGING.page(new ReportPageRequest(1, "name,asc", null)).slice(full).getNextCursor();
+
+        assertThatThrownBy(() -> PAGING.page(new ReportPageRequest(1, "amount,asc", cursor)))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private List<Long> ids(String sort, int size) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            ReportResponse<String, Row> page = PAGING.page(new ReportPageRequest(size, sort, cursor)).slice(full);
+            page.getRows().forEach(row -> ids.add(row.id()));
+            cursor = page.getNextCursor();
+        } while (cursor != null && ids.size() <= full.getRows().size());
+        return ids;
+    }
+}
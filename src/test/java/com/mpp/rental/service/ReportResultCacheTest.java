@@ -0,0 +1,182 @@
+package com.mpp.rental.service;
+
+import com.mpp.rental.dto.ReportFilterRequest;
+import com.mpp.rental.model.Event;
+import com.mpp.rental.model.FacilityApplication;
+import com.mpp.rental.model.Payment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Write-driven invalidation: a report write reaches the cache through ReportCacheListener and
+ * takes effect when (and only if) its transaction commits.
+ */
+class ReportResultCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final ReportTrendCache trendCache = mock(ReportTrendCache.class);
+    private ReportResultCache cache;
+    private ReportCacheListener listener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        cache = new ReportResultCache();
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(cache, "maxEntries", 200);
+
+        ObjectProvider<ReportResultCache> caches = mock(ObjectProvider.class);
+        ObjectProvider<ReportTrendCache> trends = mock(ObjectProvider.class);
+        ObjectProvider<ReportFilterOptionsCache> options = mock(ObjectProvider.class);
+        when(caches.getObject()).thenReturn(cache);
+        when(trends.getObject()).thenReturn(trendCache);
+        when(options.getObject()).thenReturn(mock(ReportFilterOptionsCache.class));
+        listener = new ReportCacheListener(caches, trends, options);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void committedWriteInvalidatesOnCommitNotBefore() {
+        assertThat(get()).isEqualTo(1);
+
+        List<TransactionSynchronization> pending = write(new FacilityApplication(), new Payment());
+        assertThat(get()).isEqualTo(1); // still uncommitted — other readers keep the cached result
+
+        complete(pending, TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(get()).isEqualTo(2);
+        assertThat(get()).isEqualTo(2);
+    }
+
+    @Test
+    void rolledBackWriteKeepsTheCachedResult() {
+        assertThat(get()).isEqualTo(1);
+
+        complete(write(new FacilityApplication()), TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(get()).isEqualTo(1);
+    }
+
+    @Test
+    void severalWritesInOneTransactionRegisterOneInvalidation() {
+        List<TransactionSynchronization> pending = write(new FacilityApplication(), new Payment(), new Payment());
+
+        assertThat(pending).hasSize(1);
+    }
+
+    @Test
+    void applicationWritesLeaveTrendPeriodsToTheRollupsButEventWritesClearThem() {
+        complete(write(new FacilityApplication(), new Payment()), TransactionSynchronization.STATUS_COMMITTED);
+        verify(trendCache, never()).invalidateAfterCommit();
+
+        complete(write(new Event()), TransactionSynchronization.STATUS_COMMITTED);
+        verify(trendCache).invalidateAfterCommit();
+    }
+
+    @Test
+    void resultComputedAcrossAnInvalidationIsNotKept() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> slow = pool.submit(() -> cache.get("revenue", filter(), () -> {
+                loading.countDown();
+                await(release);
+                return loads.incrementAndGet();
+            }));
+            loading.await(5, TimeUnit.SECONDS);
+            listener.onWrite(new Payment()); // no transaction — invalidates right away
+            release.countDown();
+
+            assertThat(slow.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+            assertThat(get()).isEqualTo(2);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> cache.get("revenue", filter(), () -> {
+                    await(release);
+                    return loads.incrementAndGet();
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<Integer> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+            }
+            assertThat(loads.get()).isEqualTo(1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // ==================== HELPERS ====================
+
+    private int get() {
+        return cache.get("revenue", filter(), loads::incrementAndGet);
+    }
+
+    private static ReportFilterRequest filter() {
+        ReportFilterRequest filter = new ReportFilterRequest();
+        filter.setPaymentStatus("paid");
+        return filter;
+    }
+
+    /** Entity writes inside a transaction — returns its synchronizations, not yet completed */
+    private List<TransactionSynchronization> write(Object... entities) {
+        TransactionSynchronizationManager.initSynchronization();
+        for (Object entity : entities) {
+            listener.onWrite(entity);
+        }
+        List<TransactionSynchronization> pending = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        return pending;
+    }
+
+    private static void complete(List<TransactionSynchronization> pending, int status) {
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            TransactionSynchronizationUtils.invokeAfterCommit(pending);
+        }
+        TransactionSynchronizationUtils.invokeAfterCompletion(pending, status);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.mpp.rental.service;
+
+import com.mpp.rental.dto.NotificationDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Last-Event-ID resume: which reconnects get a replay and which get "resync".
+ * Streams are opened through MockMvc and written synchronously, so the response body is the wire output.
+ */
+class SseEmitterServiceTest {
+
+    private static final long USER = 7L;
+    private static final Pattern ID = Pattern.compile("id:(\\S+)");
+
+    private UserPresenceService presence;
+    private SseEmitterService sse;
+    private MockMvc mvc;
+
+    @RestController
+    class StreamController {
+        @GetMapping("/stream")
+        SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+            return sse.createEmitter(USER, lastEventId);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        presence = new UserPresenceService(new LocalNotificationBus());
+        ReflectionTestUtils.setField(presence, "reconnectGraceMs", 0L); // offline as soon as the stream closes
+        sse = new SseEmitterService(presence, new LocalNotificationBus(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(sse, "queueCapacity", 64);
+        ReflectionTestUtils.setField(sse, "virtualThreads", false);
+        ReflectionTestUtils.setField(sse, "writerThreads", 1);
+        ReflectionTestUtils.setField(sse, "replayBufferSize", 3);
+        ReflectionTestUtils.setField(sse, "heartbeatIntervalMs", 25_000L);
+        ReflectionTestUtils.setField(sse, "heartbeatTickMs", 1_000L);
+        ReflectionTestUtils.invokeMethod(sse, "start");
+        ReflectionTestUtils.setField(sse, "writer", (Executor) Runnable::run);
+        mvc = MockMvcBuilders.standaloneSetup(new StreamController()).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(sse, "stop");
+    }
+
+    @Test
+    void reconnectReplaysOnlyMissedEvents() throws Exception {
+        MvcResult first = open(null);
+        notify(1L);
+        String lastSeen = lastId(first);
+        notify(2L);
+        notify(3L);
+
+        String resumed = body(open(lastSeen));
+
+        assertThat(resumed).doesNotContain("\"notificationId\":1,").contains("\"notificationId\":2,", "\"notificationId\":3,")
+                .doesNotContain("event:resync");
+    }
+
+    @Test
+    void reconnectAfterEvictionResyncs() throws Exception {
+        MvcResult first = open(null);
+        notify(1L);
+        String lastSeen = lastId(first);
+        for (long id = 2; id <= 5; id++) {
+            notify(id); // buffer holds 3 — event 2 is evicted
+        }
+
+        assertThat(body(open(lastSeen))).contains("event:resync").doesNotContain("\"notificationId\":");
+    }
+
+    @Test
+    void gapsFromOtherUsersDoNotResync() throws Exception {
+        MvcResult first = open(null);
+        notify(1L);
+        String lastSeen = lastId(first);
+        for (int i = 0; i < 10; i++) {
+            sse.sendToUsers(List.of(99L), notification(100L + i)); // node-wide sequence moves on
+        }
+        notify(2L);
+
+        assertThat(body(open(lastSeen))).contains("\"notificationId\":2,").doesNotContain("event:resync");
+    }
+
+    @Test
+    void reconnectAfterPurgeResyncs() throws Exception {
+        MvcResult first = open(null);
+        notify(1L);
+        String lastSeen = lastId(first);
+
+        Object connection = connectionOf(USER);
+        if (connection != null) {
+            ReflectionTestUtils.invokeMethod(sse, "removeEmitter", USER, connection); // the stream closed
+        }
+        assertThat(sse.isUserOnline(USER)).isFalse();
+        sse.purgeReplayBuffers();
+        notify(2L); // nobody to record it for
+
+        assertThat(body(open(lastSeen))).contains("event:resync").doesNotContain("\"notificationId\":2,");
+    }
+
+    @Test
+    void idFromAnotherNodeResyncs() throws Exception {
+        open(null);
+        notify(1L);
+
+        assertThat(body(open("otherepoch-1"))).contains("event:resync");
+    }
+
+    // ==================== HELPERS ====================
+
+    private MvcResult open(String lastEventId) throws Exception {
+        return lastEventId == null
+                ? mvc.perform(get("/stream")).andReturn()
+                : mvc.perform(get("/stream").header("Last-Event-ID", lastEventId)).andReturn();
+    }
+
+    private void notify(long notificationId) {
+        sse.sendToUsers(List.of(USER), notification(notificationId));
+    }
+
+    private static NotificationDTO notification(long notificationId) {
+        NotificationDTO dto = new NotificationDTO();
+        dto.setNotificationId(notificationId);
+        dto.setType("ANNOUNCEMENT");
+        dto.setTitle("t");
+        dto.setMessage("m");
+        return dto;
+    }
+
+    private static String body(MvcResult result) throws Exception {
+        return result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private static String lastId(MvcResult result) throws Exception {
+        Matcher m = ID.matcher(body(result));
+        String id = null;
+        while (m.find()) {
+            id = m.group(1);
+        }
+        return id;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object connectionOf(Long userId) {
+        List<?> connections = ((Map<Long, List<?>>) ReflectionTestUtils.getField(sse, "emitters")).get(userId);
+        return connections == null ? null : connections.get(0);
+    }
+}